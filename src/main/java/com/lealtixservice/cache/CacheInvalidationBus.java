@@ -0,0 +1,22 @@
+package com.lealtixservice.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Propaga invalidaciones de caches en memoria entre nodos.
+ * Implementaciones: local (un solo nodo, no propaga) y jdbc (tabla cache_invalidation con polling).
+ * Se elige con cache.invalidation.bus.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Avisa a los demás nodos que la llave cambió. Si hay una transacción activa se publica
+     * después del commit. La invalidación local es responsabilidad de quien publica.
+     */
+    void publish(String cacheName, String key);
+
+    /**
+     * Registra el handler que invalida la llave en este nodo cuando otro nodo publica.
+     */
+    void subscribe(String cacheName, Consumer<String> handler);
+}
@@ -0,0 +1,24 @@
+package com.lealtixservice.cache;
+
+import com.lealtixservice.entity.Coupon;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalida el cache de validación cuando un cupón cambia vía JPA (cancel(), markAsExpired(), etc.).
+ * Los UPDATE nativos (redención, barrido de expiración) invalidan explícitamente desde el servicio.
+ */
+@Component
+@RequiredArgsConstructor
+public class CouponCacheEvictionListener {
+
+    private final CouponValidationCache couponValidationCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onCouponChanged(Coupon coupon) {
+        couponValidationCache.evict(coupon.getQrToken());
+    }
+}
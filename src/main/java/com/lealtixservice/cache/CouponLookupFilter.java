@@ -0,0 +1,306 @@
+package com.lealtixservice.cache;
+
+import com.lealtixservice.dto.CouponLookupFilterStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtros de Bloom sobre coupon.code y coupon.qr_token para rechazar códigos inexistentes sin ir a la BD.
+ *
+ * - Se construyen al arrancar leyendo la tabla en streaming; mientras no están listos todo pasa a la BD.
+ * - Los cupones nuevos se agregan al persistir y otra vez después del commit, de modo que una
+ *   reconstrucción concurrente no los pierde (un falso negativo rechazaría un cupón válido).
+ * - Cada nodo tiene su propio filtro: el nodo que crea cupones publica el rango de ids en el bus de
+ *   invalidación y los demás leen esos cupones por PK y los agregan. El cliente recibe el cupón por
+ *   email después del commit, así que el retraso del polling del bus no llega a verse en caja.
+ * - Los cupones eliminados solo salen del filtro al reconstruir (falso positivo, nunca falso negativo).
+ */
+@Slf4j
+@Component
+public class CouponLookupFilter {
+
+    static final String CACHE_NAME = "coupon-lookup-filter";
+
+    private static final String STREAM_SQL = "SELECT code, qr_token FROM coupon";
+    private static final String RANGE_SQL = "SELECT code, qr_token FROM coupon WHERE id BETWEEN ? AND ?";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CacheInvalidationBus invalidationBus;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final long minCapacity;
+
+    private volatile Filters active;
+    private volatile Filters pending;
+
+    // Clave del rango de ids creados en la transacción actual (publishCreated(long))
+    private final Object createdRangeKey = new Object();
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public CouponLookupFilter(DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              CacheInvalidationBus invalidationBus,
+                              @Value("${coupon.lookup-filter.enabled:true}") boolean enabled,
+                              @Value("${coupon.lookup-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                              @Value("${coupon.lookup-filter.min-capacity:100000}") long minCapacity,
+                              @Value("${coupon.lookup-filter.fetch-size:5000}") int fetchSize) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.invalidationBus = invalidationBus;
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.minCapacity = minCapacity;
+        invalidationBus.subscribe(CACHE_NAME, this::addCreatedRange);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reconstruye ambos filtros desde la tabla coupon y los reemplaza de forma atómica.
+     * Capacidad: el doble de los cupones actuales (mínimo coupon.lookup-filter.min-capacity).
+     */
+    public synchronized CouponLookupFilterStats rebuild() {
+        if (!enabled) {
+            return stats();
+        }
+        long start = System.currentTimeMillis();
+        Long count = streamingJdbcTemplate.queryForObject("SELECT COUNT(*) FROM coupon", Long.class);
+        Filters next = new Filters(Math.max(minCapacity, (count != null ? count : 0L) * 2), falsePositiveRate);
+        // Desde aquí los cupones nuevos también se agregan al filtro en construcción
+        pending = next;
+        try {
+            // PostgreSQL solo respeta el fetch size dentro de una transacción
+            readOnlyTransaction.executeWithoutResult(status ->
+                    streamingJdbcTemplate.query(STREAM_SQL, rs -> {
+                        next.add(rs.getString(1), rs.getString(2));
+                    }));
+            next.builtAt = LocalDateTime.now();
+            next.buildMillis = System.currentTimeMillis() - start;
+            active = next;
+            rejected.reset();
+            falsePositives.reset();
+            log.info("Filtros de cupones reconstruidos: {} cupones, {} KB, {} ms",
+                    next.codes.getInsertions(), next.memoryBytes() / 1024, next.buildMillis);
+        } catch (RuntimeException e) {
+            log.error("Error reconstruyendo filtros de cupones: {}", e.getMessage(), e);
+        } finally {
+            pending = null;
+        }
+        return stats();
+    }
+
+    /**
+     * Agrega un cupón recién creado. Se repite después del commit por si una reconstrucción
+     * empezó a leer la tabla antes de que el cupón fuera visible.
+     */
+    public void add(String code, String qrToken) {
+        if (!enabled) {
+            return;
+        }
+        addNow(code, qrToken);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(code, qrToken);
+                }
+            });
+        }
+    }
+
+    /**
+     * Avisa a los demás nodos que se crearon los cupones con id entre fromId y toId (después del commit).
+     * Los ids de un lote vienen de bloques de la secuencia: el rango puede incluir cupones ajenos, que
+     * solo se vuelven a agregar.
+     */
+    public void publishCreated(long fromId, long toId) {
+        if (enabled) {
+            invalidationBus.publish(CACHE_NAME, fromId + "-" + toId);
+        }
+    }
+
+    /**
+     * Avisa a los demás nodos que se creó el cupón couponId. Dentro de una transacción los ids se acumulan
+     * y al confirmarla se publica un solo rango min..max, en lugar de una fila del bus por cupón.
+     */
+    public void publishCreated(long couponId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishCreated(couponId, couponId);
+            return;
+        }
+        CreatedRange range = (CreatedRange) TransactionSynchronizationManager.getResource(createdRangeKey);
+        if (range == null) {
+            range = new CreatedRange();
+            TransactionSynchronizationManager.bindResource(createdRangeKey, range);
+            TransactionSynchronizationManager.registerSynchronization(range);
+        }
+        range.include(couponId);
+    }
+
+    /**
+     * false = el código seguro no existe. true = puede existir (o el filtro aún no está listo).
+     */
+    public boolean mightContainCode(String code) {
+        Filters filters = active;
+        if (filters == null || code == null || filters.codes.mightContain(code)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public boolean mightContainQrToken(String qrToken) {
+        Filters filters = active;
+        if (filters == null || qrToken == null || filters.qrTokens.mightContain(qrToken)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * El filtro dejó pasar un valor que la BD no encontró.
+     */
+    public void recordFalsePositive() {
+        if (active != null) {
+            falsePositives.increment();
+        }
+    }
+
+    public CouponLookupFilterStats stats() {
+        Filters filters = active;
+        long rejectedCount = rejected.sum();
+        long falsePositiveCount = falsePositives.sum();
+        long negatives = rejectedCount + falsePositiveCount;
+        double observed = negatives == 0 ? 0.0 : falsePositiveCount * 100.0 / negatives;
+        if (filters == null) {
+            return new CouponLookupFilterStats(enabled, false, null, 0, 0, 0, 0, 0,
+                    falsePositiveRate * 100, 0.0, rejectedCount, falsePositiveCount, observed);
+        }
+        return new CouponLookupFilterStats(
+                enabled,
+                true,
+                filters.builtAt,
+                filters.buildMillis,
+                filters.codes.getInsertions(),
+                filters.codes.getExpectedInsertions(),
+                filters.codes.getHashFunctions(),
+                filters.memoryBytes(),
+                falsePositiveRate * 100,
+                Math.max(filters.codes.estimatedFalsePositiveRate(), filters.qrTokens.estimatedFalsePositiveRate()) * 100,
+                rejectedCount,
+                falsePositiveCount,
+                observed
+        );
+    }
+
+    /**
+     * Cupones creados en otro nodo: se leen por PK y se agregan a los filtros activo y en construcción.
+     */
+    void addCreatedRange(String range) {
+        if (!enabled) {
+            return;
+        }
+        int dash = range.indexOf('-');
+        long fromId = Long.parseLong(range.substring(0, dash));
+        long toId = Long.parseLong(range.substring(dash + 1));
+        streamingJdbcTemplate.query(RANGE_SQL, rs -> {
+            addNow(rs.getString(1), rs.getString(2));
+        }, fromId, toId);
+    }
+
+    private void addNow(String code, String qrToken) {
+        Filters current = active;
+        Filters building = pending;
+        if (current != null) {
+            current.add(code, qrToken);
+        }
+        if (building != null && building != current) {
+            building.add(code, qrToken);
+        }
+    }
+
+    private static final class Filters {
+        private final BloomFilter codes;
+        private final BloomFilter qrTokens;
+        private volatile LocalDateTime builtAt;
+        private volatile long buildMillis;
+
+        Filters(long capacity, double falsePositiveRate) {
+            this.codes = new BloomFilter(capacity, falsePositiveRate);
+            this.qrTokens = new BloomFilter(capacity, falsePositiveRate);
+        }
+
+        void add(String code, String qrToken) {
+            if (code != null) {
+                codes.put(code);
+            }
+            if (qrToken != null) {
+                qrTokens.put(qrToken);
+            }
+        }
+
+        long memoryBytes() {
+            return codes.getSizeInBytes() + qrTokens.getSizeInBytes();
+        }
+    }
+
+    /**
+     * Ids de cupones creados en una transacción. Se desliga al suspender la transacción para que una
+     * REQUIRES_NEW interna acumule (y publique al confirmar) su propio rango.
+     */
+    private final class CreatedRange implements TransactionSynchronization {
+        private long fromId = Long.MAX_VALUE;
+        private long toId = Long.MIN_VALUE;
+
+        void include(long couponId) {
+            fromId = Math.min(fromId, couponId);
+            toId = Math.max(toId, couponId);
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(createdRangeKey);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(createdRangeKey, this);
+        }
+
+        // afterCompletion y no beforeCommit: el flush del commit todavía puede persistir cupones. Aquí la
+        // sincronización ya se limpió, así que el bus inserta directo en vez de diferir a un afterCommit
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(createdRangeKey);
+            if (status == STATUS_COMMITTED) {
+                publishCreated(fromId, toId);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.lealtixservice.cache;
+
+import com.lealtixservice.entity.Coupon;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Agrega al filtro de Bloom los cupones creados vía JPA (bienvenida, emisión por campaña, etc.)
+ * y avisa a los demás nodos con un solo rango de ids por transacción.
+ */
+@Component
+@RequiredArgsConstructor
+public class CouponLookupFilterListener {
+
+    private final CouponLookupFilter couponLookupFilter;
+
+    @PostPersist
+    public void onCouponCreated(Coupon coupon) {
+        couponLookupFilter.add(coupon.getCode(), coupon.getQrToken());
+        couponLookupFilter.publishCreated(coupon.getId());
+    }
+}
@@ -0,0 +1,133 @@
+package com.lealtixservice.cache;
+
+import com.lealtixservice.dto.CouponValidationCacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache read-through, acotado por tamaño (LRU) y por TTL, de snapshots de validación por QR token.
+ * Las redenciones, cancelaciones y expiraciones invalidan la entrada al confirmar la transacción.
+ */
+@Slf4j
+@Component
+public class CouponValidationCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Cada invalidación incrementa la generación; una carga que se cruzó con una invalidación no se guarda
+    private final AtomicLong generation = new AtomicLong();
+
+    public CouponValidationCache(@Value("${coupon.validation-cache.max-size:10000}") int maxSize,
+                                 @Value("${coupon.validation-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.entries = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CouponValidationCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Regresa el snapshot del cache o lo carga con el loader si no existe o ya venció.
+     * Los cupones inexistentes no se guardan.
+     */
+    public Optional<CouponValidationSnapshot> get(String qrToken, Supplier<Optional<CouponValidationSnapshot>> loader) {
+        if (maxSize <= 0) {
+            return loader.get();
+        }
+
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(qrToken);
+            if (entry != null) {
+                if (now - entry.loadedAt < ttlNanos) {
+                    hits.increment();
+                    return Optional.of(entry.snapshot);
+                }
+                entries.remove(qrToken);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+
+        long loadGeneration = generation.get();
+        Optional<CouponValidationSnapshot> loaded = loader.get();
+        if (loaded.isPresent()) {
+            synchronized (entries) {
+                if (generation.get() == loadGeneration) {
+                    entries.put(qrToken, new Entry(loaded.get(), System.nanoTime()));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Invalida la entrada de inmediato y, si hay una transacción activa, de nuevo al hacer commit
+     * para que una lectura concurrente no vuelva a cachear el estado anterior.
+     */
+    public void evict(String qrToken) {
+        if (qrToken == null) {
+            return;
+        }
+        invalidate(qrToken);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(qrToken);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public CouponValidationCacheStats stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        double hitRate = h + m == 0 ? 0.0 : Math.round(h * 10000.0 / (h + m)) / 100.0;
+        return new CouponValidationCacheStats(h, m, evictions.sum(), generation.get(), size, maxSize, hitRate);
+    }
+
+    private void invalidate(String qrToken) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.remove(qrToken);
+        }
+    }
+
+    private record Entry(CouponValidationSnapshot snapshot, long loadedAt) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.lealtixservice.cache;
+
+import com.lealtixservice.enums.CouponStatus;
+import com.lealtixservice.enums.RewardType;
+import com.lealtixservice.repository.CouponRedemptionView;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Copia inmutable de los datos de un cupón necesarios para validarlo.
+ * La expiración se evalúa al momento de leer (isExpired), nunca se guarda precalculada.
+ */
+@Value
+@Builder
+public class CouponValidationSnapshot {
+
+    String couponCode;
+    String qrToken;
+    CouponStatus status;
+    LocalDateTime expiresAt;
+    LocalDateTime redeemedAt;
+
+    Long campaignId;
+    Long businessId;
+    String campaignTitle;
+    String campaignDescription;
+
+    Long rewardId;
+    RewardType rewardType;
+    BigDecimal rewardNumericValue;
+    String rewardDescription;
+    BigDecimal rewardMinPurchaseAmount;
+    Integer rewardUsageLimit;
+    Integer rewardUsageCount;
+
+    String customerName;
+    String customerEmail;
+
+    Long tenantId;
+    String tenantName;
+
+    public boolean isExpired() {
+        return expiresAt != null && LocalDateTime.now().isAfter(expiresAt);
+    }
+
+    public static CouponValidationSnapshot from(CouponRedemptionView view, String qrToken) {
+        return CouponValidationSnapshot.builder()
+                .couponCode(view.getCouponCode())
+                .qrToken(qrToken)
+                .status(view.getStatus())
+                .expiresAt(view.getExpiresAt())
+                .redeemedAt(view.getRedeemedAt())
+                .campaignId(view.getCampaignId())
+                .businessId(view.getBusinessId())
+                .campaignTitle(view.getCampaignTitle())
+                .campaignDescription(view.getCampaignDescription())
+                .rewardId(view.getRewardId())
+                .rewardType(view.getRewardType())
+                .rewardNumericValue(view.getRewardNumericValue())
+                .rewardDescription(view.getRewardDescription())
+                .rewardMinPurchaseAmount(view.getRewardMinPurchaseAmount())
+                .rewardUsageLimit(view.getRewardUsageLimit())
+                .rewardUsageCount(view.getRewardUsageCount())
+                .customerName(view.getCustomerName())
+                .customerEmail(view.getCustomerEmail())
+                .tenantId(view.getTenantId())
+                .tenantName(view.getTenantName())
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.lealtixservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus de invalidación multi-nodo sobre la tabla cache_invalidation (V13).
+ *
+ * - publish inserta una fila después del commit (en autocommit, fuera de la transacción de negocio).
+ * - Cada nodo consulta periódicamente las filas nuevas (CacheInvalidationPoller): las de id mayor al
+ *   último aplicado (high-water mark sobre el BIGSERIAL) y, para no perder filas confirmadas tarde con
+ *   un id menor, las creadas en los últimos segundos según el reloj de la BD.
+ * - Los ids ya aplicados se recuerdan mientras su created_at siga dentro de esa ventana de traslape,
+ *   así ninguna fila se aplica dos veces sin importar cuántas se publiquen por consulta.
+ * - Si el bus falla, el TTL de cada cache acota cuánto puede durar una entrada obsoleta.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.bus", havingValue = "jdbc")
+public class JdbcCacheInvalidationBus implements CacheInvalidationBus {
+
+    static final String INSERT_SQL = "INSERT INTO cache_invalidation (cache_name, cache_key, created_at) VALUES (?, ?, LOCALTIMESTAMP)";
+    static final String NOW_SQL = "SELECT LOCALTIMESTAMP";
+    static final String POLL_SQL = """
+            SELECT id, cache_name, cache_key, created_at FROM cache_invalidation
+            WHERE id > ? OR created_at > ?
+            ORDER BY id
+            """;
+    static final String MAX_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM cache_invalidation";
+    static final String PURGE_SQL = "DELETE FROM cache_invalidation WHERE created_at < ?";
+
+    private static final long OVERLAP_MILLIS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long retentionMillis;
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+    // id -> created_at de las filas aplicadas que la ventana de traslape todavía puede volver a leer
+    private final Map<Long, Timestamp> seenIds = new HashMap<>();
+
+    private Timestamp lastPolledAt;
+    private long lastSeenId;
+
+    public JdbcCacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                    @Value("${cache.invalidation.retention-minutes:60}") long retentionMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionMillis = retentionMinutes * 60_000;
+    }
+
+    @Override
+    public void publish(String cacheName, String key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    insert(cacheName, key);
+                }
+            });
+        } else {
+            insert(cacheName, key);
+        }
+    }
+
+    @Override
+    public void subscribe(String cacheName, Consumer<String> handler) {
+        handlers.computeIfAbsent(cacheName, k -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Aplica las invalidaciones publicadas desde la última consulta.
+     *
+     * @return número de invalidaciones aplicadas
+     */
+    public synchronized int poll() {
+        Timestamp now = jdbcTemplate.queryForObject(NOW_SQL, Timestamp.class);
+        if (lastPolledAt == null) {
+            // Al arrancar los caches están vacíos: solo interesa lo que se publique desde ahora
+            lastPolledAt = now;
+            lastSeenId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+            return 0;
+        }
+        Timestamp since = new Timestamp(lastPolledAt.getTime() - OVERLAP_MILLIS);
+        int[] applied = {0};
+        jdbcTemplate.query(POLL_SQL, rs -> {
+            long id = rs.getLong(1);
+            if (seenIds.put(id, rs.getTimestamp(4)) != null) {
+                return;
+            }
+            lastSeenId = Math.max(lastSeenId, id);
+            dispatch(rs.getString(2), rs.getString(3));
+            applied[0]++;
+        }, lastSeenId, since);
+        lastPolledAt = now;
+        // Fuera de la ventana una fila solo vuelve si su id supera el high-water mark, y ya no lo supera
+        seenIds.values().removeIf(createdAt -> !createdAt.after(since));
+        if (applied[0] > 0) {
+            log.debug("Bus de invalidación: {} invalidación(es) aplicadas", applied[0]);
+        }
+        return applied[0];
+    }
+
+    /**
+     * Elimina las invalidaciones más viejas que cache.invalidation.retention-minutes.
+     */
+    public int purge() {
+        Timestamp now = jdbcTemplate.queryForObject(NOW_SQL, Timestamp.class);
+        return jdbcTemplate.update(PURGE_SQL, new Timestamp(now.getTime() - retentionMillis));
+    }
+
+    private void insert(String cacheName, String key) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, cacheName, key);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo publicar la invalidación {}:{} (los demás nodos esperarán el TTL): {}",
+                    cacheName, key, e.getMessage());
+        }
+    }
+
+    private void dispatch(String cacheName, String key) {
+        for (Consumer<String> handler : handlers.getOrDefault(cacheName, List.of())) {
+            try {
+                handler.accept(key);
+            } catch (RuntimeException e) {
+                log.warn("Error aplicando invalidación {}:{}: {}", cacheName, key, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.lealtixservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Bus de un solo nodo: no hay a quién avisar, las invalidaciones locales bastan.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.bus", havingValue = "local", matchIfMissing = true)
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    @Override
+    public void publish(String cacheName, String key) {
+        log.debug("Invalidación local de {}:{}", cacheName, key);
+    }
+
+    @Override
+    public void subscribe(String cacheName, Consumer<String> handler) {
+        // Sin otros nodos no llegan invalidaciones remotas
+    }
+}
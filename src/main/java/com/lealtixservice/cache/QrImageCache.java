@@ -0,0 +1,130 @@
+package com.lealtixservice.cache;
+
+import com.lealtixservice.dto.QrImageCacheStats;
+import com.lealtixservice.qr.QrRenderKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache LRU de imágenes QR ya renderizadas, acotado por bytes y direccionado por contenido
+ * (contenido, tamaño, nivel de corrección y formato).
+ *
+ * Un render en curso se comparte: si el pre-render de un cupón aún no termina cuando el flujo de
+ * bienvenida pide la imagen, se espera ese mismo render en lugar de repetirlo.
+ */
+@Component
+public class QrImageCache {
+
+    private final long maxBytes;
+    private final Map<QrRenderKey, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<QrRenderKey, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public QrImageCache(@Value("${qr.image-cache.max-bytes:33554432}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Regresa la imagen del cache o la renderiza con renderer (una sola vez por llave aunque haya
+     * llamadas concurrentes).
+     */
+    public byte[] get(QrRenderKey key, Supplier<byte[]> renderer) {
+        if (maxBytes <= 0) {
+            return renderer.get();
+        }
+        synchronized (entries) {
+            byte[] cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            hits.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        misses.increment();
+        try {
+            byte[] rendered = renderer.get();
+            put(key, rendered);
+            mine.complete(rendered);
+            return rendered;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public boolean contains(QrRenderKey key) {
+        synchronized (entries) {
+            return entries.containsKey(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            usedBytes = 0;
+        }
+    }
+
+    public QrImageCacheStats stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        int size;
+        long used;
+        synchronized (entries) {
+            size = entries.size();
+            used = usedBytes;
+        }
+        double hitRate = h + m == 0 ? 0.0 : Math.round(h * 10000.0 / (h + m)) / 100.0;
+        return new QrImageCacheStats(h, m, evictions.sum(), size, used, maxBytes, hitRate);
+    }
+
+    private void put(QrRenderKey key, byte[] image) {
+        long cost = weight(key, image);
+        if (cost > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            byte[] previous = entries.put(key, image);
+            if (previous != null) {
+                usedBytes -= weight(key, previous);
+            }
+            usedBytes += cost;
+            var iterator = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<QrRenderKey, byte[]> eldest = iterator.next();
+                usedBytes -= weight(eldest.getKey(), eldest.getValue());
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static long weight(QrRenderKey key, byte[] image) {
+        return (long) image.length + key.estimatedBytes();
+    }
+}
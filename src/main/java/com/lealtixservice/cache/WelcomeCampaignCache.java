@@ -0,0 +1,119 @@
+package com.lealtixservice.cache;
+
+import com.lealtixservice.dto.WelcomeCampaignCacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache read-through de la campaña de bienvenida activa por tenant (incluye "no tiene").
+ *
+ * - Se invalida al activar, editar, borrar o cambiar el reward de una campaña del tenant
+ *   (al momento y de nuevo al terminar la transacción), y en los demás nodos vía CacheInvalidationBus.
+ * - Una entrada cuya campaña ya pasó su endDate no se sirve: se vuelve a consultar.
+ * - welcome.campaign-cache.ttl-seconds acota la vida de cada entrada si se pierde una invalidación remota.
+ */
+@Slf4j
+@Component
+public class WelcomeCampaignCache {
+
+    static final String CACHE_NAME = "welcome-campaign";
+
+    private final CacheInvalidationBus invalidationBus;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Cada invalidación incrementa la generación; una carga que se cruzó con una invalidación no se guarda
+    private final AtomicLong generation = new AtomicLong();
+
+    public WelcomeCampaignCache(CacheInvalidationBus invalidationBus,
+                                @Value("${welcome.campaign-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.invalidationBus = invalidationBus;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        invalidationBus.subscribe(CACHE_NAME, key -> invalidate(Long.valueOf(key)));
+    }
+
+    /**
+     * Regresa la campaña de bienvenida activa del tenant desde el cache o la carga con el loader.
+     */
+    public Optional<WelcomeCampaignSnapshot> get(Long tenantId, Supplier<Optional<WelcomeCampaignSnapshot>> loader) {
+        if (ttlNanos <= 0) {
+            return loader.get();
+        }
+
+        Entry entry = entries.get(tenantId);
+        if (entry != null) {
+            boolean fresh = System.nanoTime() - entry.loadedAt < ttlNanos;
+            boolean ended = entry.snapshot.isPresent() && entry.snapshot.get().isEndedOn(LocalDate.now());
+            if (fresh && !ended) {
+                hits.increment();
+                return entry.snapshot;
+            }
+            entries.remove(tenantId, entry);
+        }
+        misses.increment();
+
+        long loadGeneration = generation.get();
+        Optional<WelcomeCampaignSnapshot> loaded = loader.get();
+        Entry fresh = new Entry(loaded, System.nanoTime());
+        entries.put(tenantId, fresh);
+        if (generation.get() != loadGeneration) {
+            // Se invalidó durante la carga: lo leído puede ser el estado anterior
+            entries.remove(tenantId, fresh);
+        }
+        return loaded;
+    }
+
+    /**
+     * Invalida el tenant en este nodo (ahora y al terminar la transacción, para que una lectura
+     * concurrente no vuelva a cachear el estado anterior) y lo publica a los demás nodos.
+     */
+    public void evict(Long tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        invalidate(tenantId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(tenantId);
+                }
+            });
+        }
+        invalidationBus.publish(CACHE_NAME, tenantId.toString());
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public WelcomeCampaignCacheStats stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        double hitRate = h + m == 0 ? 0.0 : Math.round(h * 10000.0 / (h + m)) / 100.0;
+        return new WelcomeCampaignCacheStats(h, m, generation.get(), entries.size(), hitRate);
+    }
+
+    private void invalidate(Long tenantId) {
+        generation.incrementAndGet();
+        entries.remove(tenantId);
+    }
+
+    private record Entry(Optional<WelcomeCampaignSnapshot> snapshot, long loadedAt) {
+    }
+}
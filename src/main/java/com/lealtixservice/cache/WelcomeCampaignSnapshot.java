@@ -0,0 +1,52 @@
+package com.lealtixservice.cache;
+
+import com.lealtixservice.entity.Campaign;
+import com.lealtixservice.entity.PromotionReward;
+import com.lealtixservice.enums.RewardType;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Copia inmutable de la campaña de bienvenida activa de un tenant, con los datos del reward
+ * que necesitan el cupón y el email de bienvenida.
+ */
+@Value
+@Builder
+public class WelcomeCampaignSnapshot {
+
+    Long campaignId;
+    Long businessId;
+    String title;
+    String imageUrl;
+    LocalDate endDate;
+
+    Long rewardId;
+    RewardType rewardType;
+    BigDecimal rewardNumericValue;
+    String rewardDescription;
+
+    /**
+     * La consulta de campaña activa exige endDate >= hoy; pasado ese día la entrada deja de valer.
+     */
+    public boolean isEndedOn(LocalDate today) {
+        return endDate != null && endDate.isBefore(today);
+    }
+
+    public static WelcomeCampaignSnapshot from(Campaign campaign) {
+        PromotionReward reward = campaign.getPromotionReward();
+        return WelcomeCampaignSnapshot.builder()
+                .campaignId(campaign.getId())
+                .businessId(campaign.getBusinessId())
+                .title(campaign.getTitle())
+                .imageUrl(campaign.getImageUrl())
+                .endDate(campaign.getEndDate())
+                .rewardId(reward != null ? reward.getId() : null)
+                .rewardType(reward != null ? reward.getRewardType() : null)
+                .rewardNumericValue(reward != null ? reward.getNumericValue() : null)
+                .rewardDescription(reward != null ? reward.getDescription() : null)
+                .build();
+    }
+}
@@ -2,6 +2,8 @@ package com.lealtixservice.config;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import com.lealtixservice.outbound.OutboundCallRegistry;
+import com.lealtixservice.outbound.OutboundProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,11 +21,14 @@ public class CloudinaryConfig {
     private String apiSecret;
 
     @Bean
-    public Cloudinary cloudinary() {
+    public Cloudinary cloudinary(OutboundCallRegistry outboundCallRegistry) {
+        // Cloudinary recibe el timeout de lectura en segundos
+        int timeoutSeconds = Math.max(1, outboundCallRegistry.settings(OutboundProvider.CLOUDINARY).readTimeoutMs() / 1000);
         return new Cloudinary(ObjectUtils.asMap(
                 "cloud_name", cloudName,
                 "api_key", apiKey,
-                "api_secret", apiSecret
+                "api_secret", apiSecret,
+                "timeout", timeoutSeconds
         ));
     }
 }
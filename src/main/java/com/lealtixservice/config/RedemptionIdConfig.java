@@ -0,0 +1,138 @@
+package com.lealtixservice.config;
+
+import com.lealtixservice.util.RedemptionIdGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Configura el nodo del generador de IDs de redención.
+ * Cada instancia necesita un nodo distinto (0-15): dos nodos con el mismo id generan IDs repetidos en el
+ * mismo segundo. Con redemption.id.node-id >= 0 se usa ese nodo tal cual (override de operaciones, y el
+ * perfil de tests); sin configurar (-1) la instancia toma un nodo libre de redemption_node_lease (V19).
+ *
+ * El lease se toma y se renueva con el reloj de la BD para no depender del reloj de cada instancia.
+ * Cada renovación guarda el último segundo emitido; quien retome el nodo arranca después de él.
+ */
+@Slf4j
+@Configuration
+public class RedemptionIdConfig {
+
+    // El nodo libre que lleva más tiempo sin usarse; SKIP LOCKED evita que dos instancias que arrancan
+    // a la vez se bloqueen o tomen el mismo
+    static final String CLAIM_SQL = """
+            UPDATE redemption_node_lease l
+            SET instance_id = ?, leased_until = now() + make_interval(secs => ?)
+            FROM (
+                SELECT node_id FROM redemption_node_lease
+                WHERE leased_until < now()
+                ORDER BY leased_until, node_id
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            ) free
+            WHERE l.node_id = free.node_id
+            RETURNING l.node_id, l.last_issued_second
+            """;
+
+    static final String RENEW_SQL = """
+            UPDATE redemption_node_lease
+            SET leased_until = now() + make_interval(secs => ?),
+                last_issued_second = GREATEST(last_issued_second, ?)
+            WHERE node_id = ? AND instance_id = ?
+            """;
+
+    static final String RELEASE_SQL = """
+            UPDATE redemption_node_lease
+            SET instance_id = NULL, leased_until = now(),
+                last_issued_second = GREATEST(last_issued_second, ?)
+            WHERE node_id = ? AND instance_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long configuredNodeId;
+    private final long leaseSeconds;
+    private final String instanceId;
+
+    // Nodo tomado de la BD; null si el nodo viene de configuración
+    private volatile Long leasedNodeId;
+
+    @Autowired
+    public RedemptionIdConfig(JdbcTemplate jdbcTemplate,
+                              @Value("${redemption.id.node-id:-1}") long configuredNodeId,
+                              @Value("${redemption.id.lease-seconds:120}") long leaseSeconds) {
+        this(jdbcTemplate, configuredNodeId, leaseSeconds,
+                ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID());
+    }
+
+    RedemptionIdConfig(JdbcTemplate jdbcTemplate, long configuredNodeId, long leaseSeconds, String instanceId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.configuredNodeId = configuredNodeId;
+        this.leaseSeconds = leaseSeconds;
+        this.instanceId = instanceId.length() > 100 ? instanceId.substring(0, 100) : instanceId;
+    }
+
+    @PostConstruct
+    public void configureGenerator() {
+        if (configuredNodeId >= 0) {
+            RedemptionIdGenerator.configureShared(configuredNodeId);
+            log.info("RedemptionIdGenerator configurado con nodeId={} (redemption.id.node-id)", configuredNodeId);
+            return;
+        }
+        claimNode();
+    }
+
+    /**
+     * Renueva el lease del nodo y guarda el último segundo emitido. Si el lease se perdió (la instancia
+     * no pudo renovarlo a tiempo y otra tomó el nodo), toma otro nodo libre.
+     */
+    public void renewLease() {
+        Long nodeId = leasedNodeId;
+        if (nodeId == null) {
+            return;
+        }
+        int renewed = jdbcTemplate.update(RENEW_SQL, leaseSeconds,
+                RedemptionIdGenerator.shared().lastIssuedSecond(), nodeId, instanceId);
+        if (renewed == 0) {
+            log.error("Lease del nodo {} del generador de IDs de redención perdido; tomando otro nodo", nodeId);
+            claimNode();
+        }
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        Long nodeId = leasedNodeId;
+        if (nodeId == null) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(RELEASE_SQL, RedemptionIdGenerator.shared().lastIssuedSecond(), nodeId, instanceId);
+            log.info("Nodo {} del generador de IDs de redención liberado", nodeId);
+        } catch (Exception e) {
+            // El lease vence solo; el nodo queda libre al expirar
+            log.warn("No se pudo liberar el nodo {} del generador de IDs de redención: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void claimNode() {
+        List<long[]> claimed = jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) }, instanceId, leaseSeconds);
+        if (claimed.isEmpty()) {
+            throw new IllegalStateException("No hay nodos libres del generador de IDs de redención (0-15 en uso); "
+                    + "libera uno en redemption_node_lease o configura REDEMPTION_NODE_ID");
+        }
+        long nodeId = claimed.get(0)[0];
+        long lastIssuedSecond = claimed.get(0)[1];
+        RedemptionIdGenerator.configureShared(nodeId, lastIssuedSecond);
+        leasedNodeId = nodeId;
+        log.info("RedemptionIdGenerator configurado con nodeId={} (lease hasta +{}s, último segundo emitido={})",
+                nodeId, leaseSeconds, lastIssuedSecond);
+    }
+}
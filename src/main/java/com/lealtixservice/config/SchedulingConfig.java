@@ -0,0 +1,12 @@
+package com.lealtixservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (dispatcher de la bandeja de salida de emails, etc.).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
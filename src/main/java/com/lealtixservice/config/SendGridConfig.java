@@ -1,19 +1,55 @@
 package com.lealtixservice.config;
 
+import com.lealtixservice.outbound.GuardedSendGridClient;
+import com.lealtixservice.outbound.OutboundCallRegistry;
+import com.lealtixservice.outbound.OutboundProvider;
+import com.lealtixservice.outbound.OutboundSettings;
 import com.sendgrid.SendGrid;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class SendGridConfig {
 
     @Value("${sendgrid.api-key}")
     private String apiKey;
 
+    /**
+     * Pool de conexiones keep-alive hacia api.sendgrid.com con timeouts de conexión y lectura;
+     * el cliente por defecto de SendGrid no define timeouts.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient sendGridHttpClient(OutboundCallRegistry outboundCallRegistry) {
+        OutboundSettings settings = outboundCallRegistry.settings(OutboundProvider.SENDGRID);
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(settings.maxConnections());
+        connectionManager.setDefaultMaxPerRoute(settings.maxConnections());
+        connectionManager.setValidateAfterInactivity(2_000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(settings.connectTimeoutMs())
+                .setSocketTimeout(settings.readTimeoutMs())
+                .setConnectionRequestTimeout(settings.connectTimeoutMs())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .build();
+    }
 
     @Bean
-    public SendGrid sendGrid() {
-        return new SendGrid(apiKey);
+    public SendGrid sendGrid(CloseableHttpClient sendGridHttpClient, OutboundCallRegistry outboundCallRegistry) {
+        return new SendGrid(apiKey, new GuardedSendGridClient(sendGridHttpClient, false,
+                outboundCallRegistry.guard(OutboundProvider.SENDGRID)));
     }
 }
@@ -0,0 +1,41 @@
+package com.lealtixservice.config;
+
+import com.lealtixservice.outbound.GuardedStripeHttpClient;
+import com.lealtixservice.outbound.OutboundCallRegistry;
+import com.lealtixservice.outbound.OutboundProvider;
+import com.lealtixservice.outbound.OutboundSettings;
+import com.stripe.Stripe;
+import com.stripe.net.ApiResource;
+import com.stripe.net.HttpURLConnectionClient;
+import com.stripe.net.LiveStripeResponseGetter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Timeouts y guard (bulkhead + circuito) para todas las llamadas de stripe-java
+ * (Session.retrieve, Charge.retrieve, etc.), que usan el cliente HTTP global de la librería.
+ */
+@Slf4j
+@Configuration
+public class StripeConfig {
+
+    private final OutboundCallRegistry outboundCallRegistry;
+
+    public StripeConfig(OutboundCallRegistry outboundCallRegistry) {
+        this.outboundCallRegistry = outboundCallRegistry;
+    }
+
+    @PostConstruct
+    public void configureStripeClient() {
+        OutboundSettings settings = outboundCallRegistry.settings(OutboundProvider.STRIPE);
+        Stripe.setConnectTimeout(settings.connectTimeoutMs());
+        Stripe.setReadTimeout(settings.readTimeoutMs());
+        ApiResource.setGlobalResponseGetter(new LiveStripeResponseGetter(new GuardedStripeHttpClient(
+                new HttpURLConnectionClient(), outboundCallRegistry.guard(OutboundProvider.STRIPE))));
+        // HttpURLConnection usa el pool keep-alive de toda la JVM: su tamaño es -Dhttp.maxConnections (Dockerfile)
+        log.info("Cliente de Stripe configurado: connect {} ms, read {} ms, {} llamadas concurrentes, http.maxConnections={}",
+                settings.connectTimeoutMs(), settings.readTimeoutMs(), settings.maxConcurrent(),
+                System.getProperty("http.maxConnections", "5"));
+    }
+}
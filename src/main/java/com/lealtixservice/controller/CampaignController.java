@@ -236,6 +236,12 @@ public class CampaignController {
         }
     }
 
+    @Operation(summary = "Métricas del cache de campaña de bienvenida por tenant")
+    @GetMapping("/welcome/cache/stats")
+    public ResponseEntity<WelcomeCampaignCacheStats> getWelcomeCampaignCacheStats() {
+        return ResponseEntity.ok(campaignService.getWelcomeCampaignCacheStats());
+    }
+
     @Operation(summary = "Crear campaña de bienvenida automática para un tenant")
     @PostMapping("/tenant/{tenantId}/welcome")
     public ResponseEntity<GenericResponse> createWelcomeCampaignForTenant(@PathVariable Long tenantId) {
@@ -1,8 +1,10 @@
 package com.lealtixservice.controller;
 
 import com.lealtixservice.dto.CouponResponseDTO;
+import com.lealtixservice.dto.CustomerCouponPage;
 import com.lealtixservice.dto.GenericResponse;
 import com.lealtixservice.entity.Coupon;
+import com.lealtixservice.enums.CouponStatus;
 import com.lealtixservice.exception.BusinessRuleException;
 import com.lealtixservice.exception.ResourceNotFoundException;
 import com.lealtixservice.service.CouponService;
@@ -23,6 +25,8 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CouponController {
 
+    private static final int DEFAULT_CUSTOMER_PAGE_SIZE = 100;
+
     private final CouponService couponService;
 
     @Operation(summary = "Obtener un cupón por su código")
@@ -42,13 +46,25 @@ public class CouponController {
         }
     }
 
-    @Operation(summary = "Listar todos los cupones de un cliente")
+    @Operation(summary = "Listar los cupones de un cliente (filtro opcional por estado)",
+            description = "Sin page ni size devuelve la lista completa; con cualquiera de los dos devuelve una página"
+                    + " con items y hasMore")
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<GenericResponse> getByCustomerId(@PathVariable Long customerId) {
+    public ResponseEntity<GenericResponse> getByCustomerId(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) CouponStatus status,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<Coupon> coupons = couponService.findByCustomerId(customerId);
-            List<CouponResponseDTO> dtos = couponService.toDTOList(coupons);
+            if (page == null && size == null) {
+                List<CouponResponseDTO> dtos = couponService.findCustomerCoupons(customerId, status);
+                return ResponseEntity.ok(new GenericResponse(200, "Cupones encontrados", dtos));
+            }
+            CustomerCouponPage dtos = couponService.findCustomerCoupons(customerId, status,
+                    page != null ? page : 0, size != null ? size : DEFAULT_CUSTOMER_PAGE_SIZE);
             return ResponseEntity.ok(new GenericResponse(200, "Cupones encontrados", dtos));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.ok(new GenericResponse(400, ex.getMessage(), null));
         } catch (Exception e) {
             log.error("Error obteniendo cupones del cliente: {}", customerId, e);
             return ResponseEntity.ok(new GenericResponse(500, "Error interno del servidor", null));
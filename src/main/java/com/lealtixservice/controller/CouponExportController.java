@@ -0,0 +1,57 @@
+package com.lealtixservice.controller;
+
+import com.lealtixservice.dto.GenericResponse;
+import com.lealtixservice.enums.CouponExportFormat;
+import com.lealtixservice.enums.CouponStatus;
+import com.lealtixservice.exception.ResourceNotFoundException;
+import com.lealtixservice.service.CouponSheetExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Slf4j
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Coupon Export", description = "Exportación de QR de cupones para impresión")
+@RequiredArgsConstructor
+public class CouponExportController {
+
+    private final CouponSheetExportService couponSheetExportService;
+
+    @Operation(summary = "Descargar los QR de una campaña (ZIP de PNG u hoja imprimible)",
+            description = "La respuesta se genera en streaming mientras se leen los cupones.")
+    @GetMapping("/campaigns/{campaignId}/coupons/export")
+    public ResponseEntity<?> export(@PathVariable Long campaignId,
+                                    @RequestParam Long tenantId,
+                                    @RequestParam(defaultValue = "ZIP") CouponExportFormat format,
+                                    @RequestParam(required = false) CouponStatus status,
+                                    @RequestParam(defaultValue = "300") int size) {
+        try {
+            couponSheetExportService.validateExport(campaignId, tenantId, size);
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.ok(new GenericResponse(404, ex.getMessage(), null));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.ok(new GenericResponse(400, ex.getMessage(), null));
+        }
+
+        log.info("Exportando QR de campaña {} como {} (estado: {})", campaignId, format, status);
+        boolean sheet = format == CouponExportFormat.SHEET;
+        String filename = "campaign-" + campaignId + "-coupons" + (sheet ? ".html" : ".zip");
+        StreamingResponseBody body = out ->
+                couponSheetExportService.export(campaignId, format, status, size, out);
+
+        return ResponseEntity.ok()
+                .contentType(sheet ? MediaType.TEXT_HTML : MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        (sheet ? ContentDisposition.inline() : ContentDisposition.attachment())
+                                .filename(filename).build().toString())
+                .body(body);
+    }
+}
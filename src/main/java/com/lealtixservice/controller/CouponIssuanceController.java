@@ -0,0 +1,66 @@
+package com.lealtixservice.controller;
+
+import com.lealtixservice.dto.CouponIssuanceJobResponse;
+import com.lealtixservice.dto.GenericResponse;
+import com.lealtixservice.exception.BusinessRuleException;
+import com.lealtixservice.exception.ResourceNotFoundException;
+import com.lealtixservice.service.CouponIssuanceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.function.Supplier;
+
+@Slf4j
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Coupon Issuance", description = "Emisión masiva de cupones por campaña")
+@RequiredArgsConstructor
+public class CouponIssuanceController {
+
+    private final CouponIssuanceService couponIssuanceService;
+
+    @Operation(summary = "Emitir cupones de la campaña a todos los clientes del tenant que aceptan promociones")
+    @PostMapping("/campaigns/{campaignId}/coupon-issuance")
+    public ResponseEntity<GenericResponse> start(@PathVariable Long campaignId, @RequestParam Long tenantId) {
+        return handle(202, "Emisión de cupones programada",
+                () -> couponIssuanceService.startIssuance(campaignId, tenantId));
+    }
+
+    @Operation(summary = "Consultar el avance de una emisión masiva")
+    @GetMapping("/coupon-issuance/jobs/{jobId}")
+    public ResponseEntity<GenericResponse> getJob(@PathVariable Long jobId, @RequestParam Long tenantId) {
+        return handle(200, "Emisión obtenida", () -> couponIssuanceService.getJob(jobId, tenantId));
+    }
+
+    @Operation(summary = "Reanudar una emisión fallida o cancelada desde su último checkpoint")
+    @PostMapping("/coupon-issuance/jobs/{jobId}/resume")
+    public ResponseEntity<GenericResponse> resume(@PathVariable Long jobId, @RequestParam Long tenantId) {
+        return handle(202, "Emisión reanudada", () -> couponIssuanceService.resumeJob(jobId, tenantId));
+    }
+
+    @Operation(summary = "Cancelar una emisión en curso")
+    @PostMapping("/coupon-issuance/jobs/{jobId}/cancel")
+    public ResponseEntity<GenericResponse> cancel(@PathVariable Long jobId, @RequestParam Long tenantId) {
+        return handle(200, "Emisión cancelada", () -> couponIssuanceService.cancelJob(jobId, tenantId));
+    }
+
+    private ResponseEntity<GenericResponse> handle(int code, String message,
+                                                   Supplier<CouponIssuanceJobResponse> action) {
+        try {
+            return ResponseEntity.ok(new GenericResponse(code, message, action.get()));
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.ok(new GenericResponse(404, ex.getMessage(), null));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.ok(new GenericResponse(400, ex.getMessage(), null));
+        } catch (BusinessRuleException ex) {
+            return ResponseEntity.ok(new GenericResponse(422, ex.getMessage(), null));
+        } catch (Exception e) {
+            log.error("Error en emisión masiva de cupones", e);
+            return ResponseEntity.ok(new GenericResponse(500, "Error interno", null));
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.lealtixservice.dto.dashboard.CampaignPerformanceDTO;
 import com.lealtixservice.dto.dashboard.CouponStatsDTO;
 import com.lealtixservice.dto.dashboard.SalesSummaryDTO;
 import com.lealtixservice.dto.dashboard.TimeSeriesCountDTO;
+import com.lealtixservice.scheduler.DashboardRollupBackfillJob;
 import com.lealtixservice.service.DashboardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,9 +12,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -29,6 +32,7 @@ import java.util.List;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardRollupBackfillJob dashboardRollupBackfillJob;
 
     @Operation(summary = "KPI 1: Total de clientes registrados",
                description = "Obtiene el total de clientes registrados en un rango de fechas")
@@ -99,5 +103,22 @@ public class DashboardController {
         List<CampaignPerformanceDTO> performance = dashboardService.getCampaignPerformance(tenantId, from, to);
         return ResponseEntity.ok(performance);
     }
-}
 
+    @Operation(summary = "Recalcular acumulados diarios del dashboard",
+               description = "Recalcula en segundo plano los acumulados por día y campaña desde cupones y redenciones. "
+                     + "El rango está acotado por dashboard.rollup.max-rebuild-days")
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Void> rebuildRollups(
+            @Parameter(description = "ID del tenant (vacío = todos)") @RequestParam(required = false) Long tenantId,
+            @Parameter(description = "Día inicial (formato: yyyy-MM-dd)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Día final (formato: yyyy-MM-dd)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        log.info("POST /api/dashboard/rollups/rebuild - tenantId={}, from={}, to={}", tenantId, from, to);
+        if (!dashboardRollupBackfillJob.startBackfill(tenantId, from, to)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -1,7 +1,9 @@
 package com.lealtixservice.controller;
 
 import com.lealtixservice.dto.EmailDTO;
+import com.lealtixservice.dto.EmailLogWriterStats;
 import com.lealtixservice.dto.GenericResponse;
+import com.lealtixservice.service.EmailLogService;
 import com.lealtixservice.service.Emailservice;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -20,6 +22,9 @@ public class EmailController {
     @Autowired
     private Emailservice emailService;
 
+    @Autowired
+    private EmailLogService emailLogService;
+
 
     @Operation(summary = "Envía un correo electrónico usando el EmailService")
     @ApiResponses(value = {
@@ -36,4 +41,10 @@ public class EmailController {
             return ResponseEntity.status(500).body(new GenericResponse(500, "Error al enviar el correo: " + e.getMessage(), null));
         }
     }
+
+    @Operation(summary = "Métricas del escritor asíncrono de EmailLog (cola y latencia de flush)")
+    @GetMapping("/log-writer/stats")
+    public ResponseEntity<EmailLogWriterStats> getLogWriterStats() {
+        return ResponseEntity.ok(emailLogService.getWriterStats());
+    }
 }
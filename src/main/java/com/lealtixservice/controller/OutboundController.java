@@ -0,0 +1,28 @@
+package com.lealtixservice.controller;
+
+import com.lealtixservice.dto.OutboundProviderStats;
+import com.lealtixservice.outbound.OutboundCallRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/outbound")
+public class OutboundController {
+
+    private final OutboundCallRegistry outboundCallRegistry;
+
+    public OutboundController(OutboundCallRegistry outboundCallRegistry) {
+        this.outboundCallRegistry = outboundCallRegistry;
+    }
+
+    @Operation(summary = "Métricas de llamadas a proveedores externos (SendGrid, Stripe, Cloudinary): circuito, rechazos y latencia")
+    @GetMapping("/stats")
+    public ResponseEntity<List<OutboundProviderStats>> getOutboundStats() {
+        return ResponseEntity.ok(outboundCallRegistry.stats());
+    }
+}
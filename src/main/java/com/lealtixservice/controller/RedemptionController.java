@@ -1,7 +1,14 @@
 package com.lealtixservice.controller;
 
+import com.lealtixservice.dto.BasketQuoteRequest;
+import com.lealtixservice.dto.BasketQuoteResponse;
+import com.lealtixservice.dto.BulkRedemptionRequest;
+import com.lealtixservice.dto.BulkRedemptionResponse;
+import com.lealtixservice.dto.CouponLookupFilterStats;
+import com.lealtixservice.dto.CouponValidationCacheStats;
 import com.lealtixservice.dto.CouponValidationResponse;
 import com.lealtixservice.dto.RedeemCouponRequest;
+import com.lealtixservice.dto.RedemptionHistoryPage;
 import com.lealtixservice.dto.RedemptionResponse;
 import com.lealtixservice.entity.CouponRedemption;
 import com.lealtixservice.service.CouponRedemptionService;
@@ -97,6 +104,59 @@ public class RedemptionController {
         }
     }
 
+    /**
+     * COTIZAR cupón sobre una cuenta (preview en el POS, NO redime).
+     */
+    @Operation(summary = "Cotizar descuento de un cupón sobre una cuenta",
+            description = "Calcula subtotal, descuento y total con los precios del menú del tenant sin redimir el cupón.")
+    @PostMapping("/quote/qr/{qrToken}")
+    public ResponseEntity<BasketQuoteResponse> quoteBasket(
+            @PathVariable String qrToken,
+            @RequestParam Long tenantId,
+            @Valid @RequestBody BasketQuoteRequest request) {
+
+        log.info("Cotizando cuenta con cupón por QR token para tenant: {}", tenantId);
+
+        try {
+            return ResponseEntity.ok(validationService.quoteBasket(qrToken, request, tenantId));
+        } catch (IllegalArgumentException e) {
+            log.error("Error al cotizar cuenta: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(BasketQuoteResponse.builder().applied(false).message(e.getMessage()).build());
+        }
+    }
+
+    /**
+     * Métricas del cache de validación por QR token.
+     */
+    @Operation(summary = "Métricas del cache de validación",
+            description = "Hits, misses, evictions y tamaño del cache de validación de cupones por QR token.")
+    @GetMapping("/validate/cache/stats")
+    public ResponseEntity<CouponValidationCacheStats> getValidationCacheStats() {
+        return ResponseEntity.ok(validationService.getCacheStats());
+    }
+
+    /**
+     * Métricas del filtro de Bloom de códigos y QR tokens.
+     */
+    @Operation(summary = "Métricas del filtro de cupones inexistentes",
+            description = "Memoria, entradas, rechazos y tasa de falsos positivos observada del filtro de Bloom de códigos y QR tokens.")
+    @GetMapping("/validate/filter/stats")
+    public ResponseEntity<CouponLookupFilterStats> getLookupFilterStats() {
+        return ResponseEntity.ok(validationService.getLookupFilterStats());
+    }
+
+    /**
+     * Reconstruir el filtro de Bloom desde la tabla de cupones.
+     */
+    @Operation(summary = "Reconstruir el filtro de cupones inexistentes",
+            description = "Vuelve a leer todos los códigos y QR tokens; elimina los cupones borrados y ajusta la capacidad.")
+    @PostMapping("/validate/filter/rebuild")
+    public ResponseEntity<CouponLookupFilterStats> rebuildLookupFilter() {
+        log.info("Reconstruyendo filtro de cupones");
+        return ResponseEntity.ok(validationService.rebuildLookupFilter());
+    }
+
     /**
      * REDIMIR cupón por QR token (acción definitiva).
      * Este endpoint ejecuta la redención y no puede deshacerse.
@@ -163,51 +223,88 @@ public class RedemptionController {
     }
 
     /**
-     * Obtener historial de redenciones por tenant.
+     * REDIMIR lote de cupones capturados offline (sincronización de terminales POS).
+     * Siempre responde 200 con el resultado de cada elemento en el mismo orden de la solicitud.
+     */
+    @Operation(summary = "Sincronizar redenciones offline en lote",
+            description = "Redime en una sola transacción las redenciones encoladas por una terminal sin conexión. " +
+                    "Si un cupón aparece varias veces gana el escaneo más antiguo (empate: posición en el lote).")
+    @PostMapping("/redeem/batch")
+    public ResponseEntity<BulkRedemptionResponse> redeemBatch(
+            @RequestParam Long tenantId,
+            @Valid @RequestBody BulkRedemptionRequest request) {
+
+        log.info("Sincronizando {} redenciones offline para tenant: {}", request.getItems().size(), tenantId);
+
+        BulkRedemptionResponse response = redemptionService.redeemBatch(request, tenantId);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Obtener historial de redenciones por tenant (paginado por cursor).
      */
     @Operation(summary = "Obtener historial de redenciones del tenant",
-            description = "Lista todas las redenciones realizadas por un tenant.")
+            description = "Lista las redenciones del tenant, más recientes primero. " +
+                    "Para la siguiente página enviar el nextCursor de la respuesta.")
     @GetMapping("/history")
-    public ResponseEntity<List<CouponRedemption>> getRedemptionHistory(
-            @RequestParam Long tenantId) {
+    public ResponseEntity<RedemptionHistoryPage> getRedemptionHistory(
+            @RequestParam Long tenantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
 
         log.info("Obteniendo historial de redenciones para tenant: {}", tenantId);
 
-        List<CouponRedemption> redemptions = redemptionService.getRedemptionsByTenant(tenantId);
-        return ResponseEntity.ok(redemptions);
+        try {
+            return ResponseEntity.ok(redemptionService.getRedemptionHistory(tenantId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            log.error("Error al obtener historial: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
-     * Obtener redenciones de una campaña específica.
+     * Obtener redenciones de una campaña específica (paginado por cursor).
      */
     @Operation(summary = "Obtener redenciones por campaña",
-            description = "Lista todas las redenciones de una campaña específica.")
+            description = "Lista las redenciones de una campaña del tenant, más recientes primero.")
     @GetMapping("/campaign/{campaignId}")
-    public ResponseEntity<List<CouponRedemption>> getRedemptionsByCampaign(
+    public ResponseEntity<RedemptionHistoryPage> getRedemptionsByCampaign(
             @PathVariable Long campaignId,
-            @RequestParam Long tenantId) {
+            @RequestParam Long tenantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
 
         log.info("Obteniendo redenciones de campaña: {} para tenant: {}", campaignId, tenantId);
 
-        List<CouponRedemption> redemptions = redemptionService.getRedemptionsByCampaign(campaignId, tenantId);
-        return ResponseEntity.ok(redemptions);
+        try {
+            return ResponseEntity.ok(redemptionService.getRedemptionsByCampaign(campaignId, tenantId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            log.error("Error al obtener redenciones de campaña: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
-     * Obtener redenciones en un rango de fechas.
+     * Obtener redenciones en un rango de fechas (paginado por cursor).
      */
     @Operation(summary = "Obtener redenciones por rango de fechas",
-            description = "Lista redenciones realizadas en un período específico.")
+            description = "Lista redenciones realizadas en un período específico, más recientes primero.")
     @GetMapping("/date-range")
-    public ResponseEntity<List<CouponRedemption>> getRedemptionsByDateRange(
+    public ResponseEntity<RedemptionHistoryPage> getRedemptionsByDateRange(
             @RequestParam Long tenantId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
 
         log.info("Obteniendo redenciones para tenant: {} entre {} y {}", tenantId, startDate, endDate);
 
-        List<CouponRedemption> redemptions = redemptionService.getRedemptionsByDateRange(tenantId, startDate, endDate);
-        return ResponseEntity.ok(redemptions);
+        try {
+            return ResponseEntity.ok(redemptionService.getRedemptionsByDateRange(tenantId, startDate, endDate, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            log.error("Error al obtener redenciones por rango: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -0,0 +1,79 @@
+package com.lealtixservice.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lealtixservice.dto.SendGridEvent;
+import com.lealtixservice.dto.SendGridEventStats;
+import com.lealtixservice.service.SendGridEventService;
+import com.lealtixservice.util.SendGridWebhookVerifier;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+@Slf4j
+@Tag(name = "SendGrid Webhook", description = "Recibe los eventos de entrega, apertura, clic y rebote de SendGrid")
+@RestController
+@RequestMapping("/api/sendgrid")
+public class SendGridWebhookController {
+
+    private static final TypeReference<List<SendGridEvent>> EVENTS = new TypeReference<>() {};
+
+    private final SendGridEventService sendGridEventService;
+    private final SendGridWebhookVerifier webhookVerifier;
+    private final ObjectMapper objectMapper;
+
+    public SendGridWebhookController(SendGridEventService sendGridEventService,
+                                     SendGridWebhookVerifier webhookVerifier,
+                                     ObjectMapper objectMapper) {
+        this.sendGridEventService = sendGridEventService;
+        this.webhookVerifier = webhookVerifier;
+        this.objectMapper = objectMapper;
+    }
+
+    @Operation(summary = "Recibe un lote del Event Webhook de SendGrid",
+            description = "Verifica la firma, encola los eventos y responde de inmediato; se aplican en segundo plano")
+    @PostMapping(value = "/events", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> receiveEvents(
+            @RequestBody byte[] payload,
+            @RequestHeader(name = SendGridWebhookVerifier.SIGNATURE_HEADER, required = false) String signature,
+            @RequestHeader(name = SendGridWebhookVerifier.TIMESTAMP_HEADER, required = false) String timestamp) {
+
+        if (!webhookVerifier.isConfigured()) {
+            log.error("❌ sendgrid.webhook.public-key no está configurado");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Webhook public key no configurada");
+        }
+        if (!webhookVerifier.verify(payload, signature, timestamp)) {
+            log.warn("⚠️ Firma inválida o ausente en webhook de SendGrid");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Firma inválida");
+        }
+
+        List<SendGridEvent> events;
+        try {
+            events = objectMapper.readValue(payload, EVENTS);
+        } catch (IOException e) {
+            log.error("❌ Payload inválido en webhook de SendGrid: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Payload inválido");
+        }
+
+        sendGridEventService.accept(events);
+        return ResponseEntity.ok("Eventos recibidos: " + events.size());
+    }
+
+    @Operation(summary = "Métricas de la ingesta de eventos de SendGrid")
+    @GetMapping("/events/stats")
+    public ResponseEntity<SendGridEventStats> getEventStats() {
+        return ResponseEntity.ok(sendGridEventService.getStats());
+    }
+}
@@ -1,8 +1,11 @@
 package com.lealtixservice.controller;
 
+import com.lealtixservice.dto.CustomerImportResult;
 import com.lealtixservice.dto.GenericResponse;
 import com.lealtixservice.dto.TenantCustomerDTO;
 import com.lealtixservice.entity.TenantCustomer;
+import com.lealtixservice.exception.ResourceNotFoundException;
+import com.lealtixservice.service.CustomerImportService;
 import com.lealtixservice.service.TenantCustomerService;
 import com.lealtixservice.util.TenantCustomerMapper;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,6 +16,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +31,9 @@ public class TenantCustomerController {
     @Autowired
     private TenantCustomerService tenantCustomerService;
 
+    @Autowired
+    private CustomerImportService customerImportService;
+
     @Operation(summary = "Crear un nuevo cliente")
     @PostMapping
     public ResponseEntity<GenericResponse> create(@RequestBody TenantCustomerDTO customerDTO) {
@@ -43,6 +50,30 @@ public class TenantCustomerController {
         }
     }
 
+    @Operation(summary = "Importar clientes desde CSV",
+            description = "Cuerpo text/csv con columnas name, email y opcionales gender, birth_date, phone, "
+                    + "accepted_promotions. Los emails ya registrados se omiten y se reportan por fila.")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/octet-stream"})
+    public ResponseEntity<GenericResponse> importCsv(@RequestParam Long tenantId,
+                                                     @RequestParam(defaultValue = "false") boolean sendWelcome,
+                                                     InputStream csv) {
+        try {
+            CustomerImportResult result = customerImportService.importCsv(tenantId, csv, sendWelcome);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(new GenericResponse(200, "SUCCESS", result));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new GenericResponse(404, e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new GenericResponse(400, e.getMessage(), null));
+        } catch (Exception e) {
+            log.error("Error importing TenantCustomers for tenant {}", tenantId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new GenericResponse(500, e.getMessage(), null));
+        }
+    }
+
     @Operation(summary = "Obtener un cliente por ID")
     @GetMapping("/{id}")
     public ResponseEntity<GenericResponse> getById(@PathVariable Long id) {
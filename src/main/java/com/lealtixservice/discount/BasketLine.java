@@ -0,0 +1,9 @@
+package com.lealtixservice.discount;
+
+import java.math.BigDecimal;
+
+/**
+ * Línea de una cuenta (producto, precio unitario y cantidad) para cotizar descuentos.
+ */
+public record BasketLine(Long productId, BigDecimal unitPrice, int quantity) {
+}
@@ -0,0 +1,30 @@
+package com.lealtixservice.discount;
+
+import com.lealtixservice.enums.RewardType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Calculadora inmutable compilada a partir de un PromotionReward.
+ * Es segura para usarse concurrentemente y se reutiliza entre redenciones.
+ */
+public interface DiscountCalculator {
+
+    RewardType getRewardType();
+
+    /**
+     * Valor del cupón que se registra en la auditoría (porcentaje, monto fijo, etc.).
+     */
+    BigDecimal getCouponValue();
+
+    /**
+     * Aplica el reward a un monto total (redención sin detalle de productos).
+     */
+    DiscountQuote apply(BigDecimal originalAmount);
+
+    /**
+     * Aplica el reward a una cuenta con detalle de productos.
+     */
+    DiscountQuote applyToBasket(List<BasketLine> lines);
+}
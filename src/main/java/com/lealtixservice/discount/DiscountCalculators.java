@@ -0,0 +1,238 @@
+package com.lealtixservice.discount;
+
+import com.lealtixservice.enums.RewardType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Implementaciones de DiscountCalculator por tipo de reward.
+ * Todos los parámetros se convierten a centavos (long) al compilar, por lo que cada cálculo
+ * solo hace aritmética entera y crea los BigDecimal del resultado.
+ */
+final class DiscountCalculators {
+
+    private DiscountCalculators() {
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    static long basketSubtotalCents(List<BasketLine> lines) {
+        long subtotal = 0;
+        for (BasketLine line : lines) {
+            subtotal += toCents(line.unitPrice()) * line.quantity();
+        }
+        return subtotal;
+    }
+
+    /**
+     * Base común: monto mínimo de compra y construcción del resultado.
+     */
+    abstract static class Base implements DiscountCalculator {
+        private final RewardType rewardType;
+        private final BigDecimal couponValue;
+        private final long minPurchaseCents;
+        private final String minPurchaseMessage;
+
+        Base(RewardType rewardType, BigDecimal couponValue, BigDecimal minPurchaseAmount) {
+            this.rewardType = rewardType;
+            this.couponValue = couponValue;
+            this.minPurchaseCents = minPurchaseAmount != null ? toCents(minPurchaseAmount) : 0L;
+            this.minPurchaseMessage = minPurchaseAmount != null
+                    ? "Compra mínima de " + minPurchaseAmount.setScale(2, RoundingMode.HALF_UP) + " no alcanzada"
+                    : null;
+        }
+
+        @Override
+        public RewardType getRewardType() {
+            return rewardType;
+        }
+
+        @Override
+        public BigDecimal getCouponValue() {
+            return couponValue;
+        }
+
+        @Override
+        public DiscountQuote apply(BigDecimal originalAmount) {
+            long cents = toCents(originalAmount);
+            if (cents < minPurchaseCents) {
+                return notApplied(cents, minPurchaseMessage);
+            }
+            return discountAmount(cents);
+        }
+
+        @Override
+        public DiscountQuote applyToBasket(List<BasketLine> lines) {
+            long subtotal = basketSubtotalCents(lines);
+            if (subtotal < minPurchaseCents) {
+                return notApplied(subtotal, minPurchaseMessage);
+            }
+            return discountBasket(lines, subtotal);
+        }
+
+        /**
+         * Descuento sobre un monto total ya validado contra el mínimo.
+         */
+        abstract DiscountQuote discountAmount(long amountCents);
+
+        /**
+         * Por defecto la cuenta se trata como un monto total.
+         */
+        DiscountQuote discountBasket(List<BasketLine> lines, long subtotalCents) {
+            return discountAmount(subtotalCents);
+        }
+
+        DiscountQuote applied(long amountCents, long discountCents) {
+            return applied(amountCents, discountCents, couponValue);
+        }
+
+        DiscountQuote applied(long amountCents, long discountCents, BigDecimal value) {
+            long discount = Math.min(Math.max(discountCents, 0L), amountCents);
+            return new DiscountQuote(rewardType, value, fromCents(amountCents), fromCents(discount),
+                    fromCents(amountCents - discount), discount > 0, discount > 0 ? null : "Sin descuento aplicable");
+        }
+
+        DiscountQuote notApplied(long amountCents, String message) {
+            BigDecimal amount = fromCents(amountCents);
+            return new DiscountQuote(rewardType, couponValue, amount, BigDecimal.ZERO.setScale(2), amount, false, message);
+        }
+    }
+
+    /**
+     * Descuento porcentual en puntos base: 12.5% -> 1250.
+     */
+    static final class Percent extends Base {
+        private final long basisPoints;
+        private final long maxDiscountCents;
+
+        Percent(RewardType rewardType, BigDecimal percent, BigDecimal maxDiscount, BigDecimal minPurchaseAmount) {
+            super(rewardType, percent, minPurchaseAmount);
+            this.basisPoints = percent.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            this.maxDiscountCents = maxDiscount != null ? toCents(maxDiscount) : Long.MAX_VALUE;
+        }
+
+        @Override
+        DiscountQuote discountAmount(long amountCents) {
+            // HALF_UP a centavos: (monto * bp + 5000) / 10000
+            long discount = (amountCents * basisPoints + 5_000L) / 10_000L;
+            return applied(amountCents, Math.min(discount, maxDiscountCents));
+        }
+    }
+
+    /**
+     * Descuento de monto fijo, nunca mayor al total.
+     */
+    static final class Fixed extends Base {
+        private final long fixedCents;
+
+        Fixed(RewardType rewardType, BigDecimal amount, BigDecimal minPurchaseAmount) {
+            super(rewardType, amount, minPurchaseAmount);
+            this.fixedCents = toCents(amount);
+        }
+
+        @Override
+        DiscountQuote discountAmount(long amountCents) {
+            return applied(amountCents, fixedCents);
+        }
+    }
+
+    /**
+     * Producto gratis: descuenta el precio del producto (una unidad).
+     * Sin detalle de cuenta se usa el precio vigente del catálogo, consultado en cada cálculo
+     * para no aplicar un precio que cambió después de compilar.
+     */
+    static final class FreeProduct extends Base {
+        private final Long productId;
+        private final Function<Long, BigDecimal> catalogPrice;
+
+        FreeProduct(Long productId, Function<Long, BigDecimal> catalogPrice, BigDecimal minPurchaseAmount) {
+            super(RewardType.FREE_PRODUCT, null, minPurchaseAmount);
+            this.productId = productId;
+            this.catalogPrice = catalogPrice;
+        }
+
+        @Override
+        DiscountQuote discountAmount(long amountCents) {
+            BigDecimal price = catalogPrice.apply(productId);
+            if (price == null) {
+                return notApplied(amountCents, "Producto de regalo no encontrado en el menú");
+            }
+            return applied(amountCents, toCents(price), price);
+        }
+
+        @Override
+        DiscountQuote discountBasket(List<BasketLine> lines, long subtotalCents) {
+            for (BasketLine line : lines) {
+                if (productId.equals(line.productId()) && line.quantity() > 0) {
+                    return applied(subtotalCents, toCents(line.unitPrice()), line.unitPrice());
+                }
+            }
+            return notApplied(subtotalCents, "El producto de regalo no está en la cuenta");
+        }
+    }
+
+    /**
+     * Compra X lleva Y: por cada X+Y unidades, Y son gratis.
+     * Si el reward tiene productId solo aplica a ese producto; si no, a cada línea.
+     */
+    static final class BuyXGetY extends Base {
+        private final Long productId;
+        private final int buyQuantity;
+        private final int freeQuantity;
+
+        BuyXGetY(Long productId, int buyQuantity, int freeQuantity, BigDecimal minPurchaseAmount) {
+            super(RewardType.BUY_X_GET_Y, null, minPurchaseAmount);
+            this.productId = productId;
+            this.buyQuantity = buyQuantity;
+            this.freeQuantity = freeQuantity;
+        }
+
+        @Override
+        DiscountQuote discountAmount(long amountCents) {
+            return notApplied(amountCents, "BUY_X_GET_Y requiere el detalle de productos de la cuenta");
+        }
+
+        @Override
+        DiscountQuote discountBasket(List<BasketLine> lines, long subtotalCents) {
+            int groupSize = buyQuantity + freeQuantity;
+            long discount = 0;
+            for (BasketLine line : lines) {
+                if (productId != null && !productId.equals(line.productId())) {
+                    continue;
+                }
+                long freeUnits = (long) (line.quantity() / groupSize) * freeQuantity;
+                discount += freeUnits * toCents(line.unitPrice());
+            }
+            if (discount == 0) {
+                return notApplied(subtotalCents, "La cuenta no completa la promoción " + buyQuantity + "x" + groupSize);
+            }
+            return applied(subtotalCents, discount);
+        }
+    }
+
+    /**
+     * Reward que no se puede calcular automáticamente (sin reward, CUSTOM no soportado, etc.).
+     */
+    static final class NotApplicable extends Base {
+        private final String reason;
+
+        NotApplicable(RewardType rewardType, BigDecimal couponValue, String reason) {
+            super(rewardType, couponValue, null);
+            this.reason = reason;
+        }
+
+        @Override
+        DiscountQuote discountAmount(long amountCents) {
+            return notApplied(amountCents, reason);
+        }
+    }
+}
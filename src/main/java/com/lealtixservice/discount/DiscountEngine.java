@@ -0,0 +1,212 @@
+package com.lealtixservice.discount;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lealtixservice.cache.CacheInvalidationBus;
+import com.lealtixservice.entity.PromotionReward;
+import com.lealtixservice.enums.RewardType;
+import com.lealtixservice.repository.ProductPriceView;
+import com.lealtixservice.repository.PromotionRewardRepository;
+import com.lealtixservice.repository.TenantMenuProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motor de descuentos: compila cada PromotionReward una sola vez en un DiscountCalculator inmutable
+ * y lo cachea por id de reward. Al modificar o eliminar un reward se debe llamar a invalidate.
+ *
+ * - La invalidación llega a los demás nodos vía CacheInvalidationBus.
+ * - Una compilación que se cruzó con una invalidación no se guarda; un reward inexistente no se cachea.
+ * - discount.calculator-cache.ttl-seconds acota la vida de cada entrada si se pierde una invalidación remota.
+ * - El precio del producto de regalo (FREE_PRODUCT) se consulta al calcular, no al compilar.
+ *
+ * customConfig (CUSTOM) soporta: {"type": "PERCENT" | "FIXED", "value": 15, "maxDiscount": 100}
+ */
+@Slf4j
+@Component
+public class DiscountEngine {
+
+    static final String CACHE_NAME = "discount-calculator";
+
+    private static final DiscountCalculator NO_REWARD =
+            new DiscountCalculators.NotApplicable(null, null, "La campaña no tiene reward configurado");
+
+    private final PromotionRewardRepository promotionRewardRepository;
+    private final TenantMenuProductRepository tenantMenuProductRepository;
+    private final ObjectMapper objectMapper;
+    private final CacheInvalidationBus invalidationBus;
+    private final long ttlNanos;
+
+    private final Map<Long, Entry> calculators = new ConcurrentHashMap<>();
+    // Cada invalidación incrementa la generación; una compilación que se cruzó con una invalidación no se guarda
+    private final AtomicLong generation = new AtomicLong();
+
+    public DiscountEngine(PromotionRewardRepository promotionRewardRepository,
+                          TenantMenuProductRepository tenantMenuProductRepository,
+                          ObjectMapper objectMapper,
+                          CacheInvalidationBus invalidationBus,
+                          @Value("${discount.calculator-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.promotionRewardRepository = promotionRewardRepository;
+        this.tenantMenuProductRepository = tenantMenuProductRepository;
+        this.objectMapper = objectMapper;
+        this.invalidationBus = invalidationBus;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        invalidationBus.subscribe(CACHE_NAME, key -> evictLocal(Long.valueOf(key)));
+    }
+
+    /**
+     * Calculadora compilada para el reward; en el primer uso (o al vencer el TTL) se carga y compila.
+     */
+    public DiscountCalculator calculatorFor(Long rewardId) {
+        if (rewardId == null) {
+            return NO_REWARD;
+        }
+        Entry entry = calculators.get(rewardId);
+        if (entry != null) {
+            if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                return entry.calculator;
+            }
+            calculators.remove(rewardId, entry);
+        }
+
+        long loadGeneration = generation.get();
+        Optional<PromotionReward> reward = promotionRewardRepository.findById(rewardId);
+        if (reward.isEmpty()) {
+            // Sin cachear: el reward puede crearse después (o verse al hacer commit quien lo crea)
+            return NO_REWARD;
+        }
+        DiscountCalculator calculator = compile(reward.get());
+        if (ttlNanos > 0) {
+            Entry fresh = new Entry(calculator, System.nanoTime());
+            calculators.put(rewardId, fresh);
+            if (generation.get() != loadGeneration) {
+                // Se invalidó durante la carga: lo compilado puede venir del estado anterior
+                calculators.remove(rewardId, fresh);
+            }
+        }
+        return calculator;
+    }
+
+    /**
+     * Aplica el reward a un monto total.
+     */
+    public DiscountQuote quote(Long rewardId, BigDecimal originalAmount) {
+        return calculatorFor(rewardId).apply(originalAmount);
+    }
+
+    /**
+     * Aplica el reward a una cuenta con detalle de productos.
+     */
+    public DiscountQuote quoteBasket(Long rewardId, List<BasketLine> lines) {
+        return calculatorFor(rewardId).applyToBasket(lines);
+    }
+
+    /**
+     * Descarta la calculadora compilada en este nodo (ahora y al terminar la transacción, para no
+     * conservar una compilación hecha con el estado anterior al commit) y lo publica a los demás nodos.
+     */
+    public void invalidate(Long rewardId) {
+        if (rewardId == null) {
+            return;
+        }
+        evictLocal(rewardId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictLocal(rewardId);
+                }
+            });
+        }
+        invalidationBus.publish(CACHE_NAME, rewardId.toString());
+    }
+
+    private void evictLocal(Long rewardId) {
+        generation.incrementAndGet();
+        calculators.remove(rewardId);
+    }
+
+    /**
+     * Compila un reward en una calculadora inmutable.
+     */
+    public DiscountCalculator compile(PromotionReward reward) {
+        RewardType type = reward.getRewardType();
+        BigDecimal minPurchase = reward.getMinPurchaseAmount();
+        if (type == null) {
+            return NO_REWARD;
+        }
+
+        return switch (type) {
+            case PERCENT_DISCOUNT -> reward.getNumericValue() != null
+                    ? new DiscountCalculators.Percent(type, reward.getNumericValue(), null, minPurchase)
+                    : new DiscountCalculators.NotApplicable(type, null, "Porcentaje no configurado");
+            case FIXED_AMOUNT -> reward.getNumericValue() != null
+                    ? new DiscountCalculators.Fixed(type, reward.getNumericValue(), minPurchase)
+                    : new DiscountCalculators.NotApplicable(type, null, "Monto no configurado");
+            case FREE_PRODUCT -> compileFreeProduct(reward);
+            case BUY_X_GET_Y -> reward.getBuyQuantity() != null && reward.getBuyQuantity() > 0
+                    && reward.getFreeQuantity() != null && reward.getFreeQuantity() > 0
+                    ? new DiscountCalculators.BuyXGetY(reward.getProductId(), reward.getBuyQuantity(),
+                            reward.getFreeQuantity(), minPurchase)
+                    : new DiscountCalculators.NotApplicable(type, null, "Promoción X+Y no configurada");
+            case CUSTOM -> compileCustom(reward);
+        };
+    }
+
+    private DiscountCalculator compileFreeProduct(PromotionReward reward) {
+        if (reward.getProductId() == null) {
+            return new DiscountCalculators.NotApplicable(RewardType.FREE_PRODUCT, null, "Producto de regalo no configurado");
+        }
+        return new DiscountCalculators.FreeProduct(reward.getProductId(), this::catalogPrice,
+                reward.getMinPurchaseAmount());
+    }
+
+    /**
+     * Precio vigente del producto en el menú; null si ya no existe.
+     */
+    private BigDecimal catalogPrice(Long productId) {
+        return tenantMenuProductRepository.findPricesByIds(List.of(productId)).stream()
+                .findFirst()
+                .map(ProductPriceView::getPrice)
+                .orElse(null);
+    }
+
+    private DiscountCalculator compileCustom(PromotionReward reward) {
+        String config = reward.getCustomConfig();
+        if (config == null || config.isBlank()) {
+            return new DiscountCalculators.NotApplicable(RewardType.CUSTOM, null, "Reward CUSTOM sin configuración");
+        }
+        try {
+            JsonNode node = objectMapper.readTree(config);
+            String type = node.path("type").asText("");
+            BigDecimal value = node.hasNonNull("value") ? node.get("value").decimalValue() : null;
+            BigDecimal maxDiscount = node.hasNonNull("maxDiscount") ? node.get("maxDiscount").decimalValue() : null;
+            if (value != null && value.signum() > 0) {
+                if ("PERCENT".equalsIgnoreCase(type) && value.compareTo(BigDecimal.valueOf(100)) <= 0) {
+                    return new DiscountCalculators.Percent(RewardType.CUSTOM, value, maxDiscount, reward.getMinPurchaseAmount());
+                }
+                if ("FIXED".equalsIgnoreCase(type)) {
+                    return new DiscountCalculators.Fixed(RewardType.CUSTOM, value, reward.getMinPurchaseAmount());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("customConfig inválido en reward {}: {}", reward.getId(), e.getMessage());
+        }
+        return new DiscountCalculators.NotApplicable(RewardType.CUSTOM, null,
+                "Reward CUSTOM no calculable automáticamente");
+    }
+
+    private record Entry(DiscountCalculator calculator, long loadedAt) {
+    }
+}
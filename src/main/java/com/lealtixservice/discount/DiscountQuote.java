@@ -0,0 +1,22 @@
+package com.lealtixservice.discount;
+
+import com.lealtixservice.enums.RewardType;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado de aplicar un reward a un monto o a una cuenta.
+ *
+ * @param applied false si el reward no aplica (monto mínimo no alcanzado, producto ausente, etc.);
+ *                en ese caso discountAmount es 0 y finalAmount es igual a originalAmount
+ */
+public record DiscountQuote(
+        RewardType rewardType,
+        BigDecimal couponValue,
+        BigDecimal originalAmount,
+        BigDecimal discountAmount,
+        BigDecimal finalAmount,
+        boolean applied,
+        String message
+) {
+}
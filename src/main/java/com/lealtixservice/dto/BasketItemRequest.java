@@ -0,0 +1,25 @@
+package com.lealtixservice.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Producto y cantidad de una cuenta para cotizar un descuento en el POS.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BasketItemRequest {
+
+    @NotNull(message = "El campo 'productId' es requerido")
+    private Long productId;
+
+    @NotNull(message = "El campo 'quantity' es requerido")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    private Integer quantity;
+}
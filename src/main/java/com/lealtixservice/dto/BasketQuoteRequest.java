@@ -0,0 +1,24 @@
+package com.lealtixservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para cotizar (preview) el descuento de un cupón sobre una cuenta con productos del menú.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BasketQuoteRequest {
+
+    @NotEmpty(message = "La lista 'items' no puede estar vacía")
+    @Valid
+    private List<BasketItemRequest> items;
+}
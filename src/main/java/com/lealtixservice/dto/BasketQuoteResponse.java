@@ -0,0 +1,45 @@
+package com.lealtixservice.dto;
+
+import com.lealtixservice.enums.RewardType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO de respuesta de la cotización de un cupón sobre una cuenta. No redime el cupón.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BasketQuoteResponse {
+
+    private boolean applied;
+    private String message;
+
+    private String couponCode;
+    private RewardType rewardType;
+    private BigDecimal couponValue;
+
+    private BigDecimal subtotal;
+    private BigDecimal discountAmount;
+    private BigDecimal finalAmount;
+
+    private List<Line> lines;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long productId;
+        private String name;
+        private BigDecimal unitPrice;
+        private int quantity;
+        private BigDecimal lineTotal;
+    }
+}
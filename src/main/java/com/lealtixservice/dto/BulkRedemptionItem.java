@@ -0,0 +1,32 @@
+package com.lealtixservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Redención capturada por una terminal POS (posiblemente sin conexión).
+ * Se identifica el cupón por qrToken o por code; si vienen ambos, prevalece qrToken.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRedemptionItem {
+
+    private String qrToken;
+
+    private String code;
+
+    @NotNull(message = "El campo 'clientRedeemedAt' es requerido")
+    private LocalDateTime clientRedeemedAt; // Momento del escaneo en la terminal
+
+    @NotNull(message = "El campo 'redemption' es requerido")
+    @Valid
+    private RedeemCouponRequest redemption;
+}
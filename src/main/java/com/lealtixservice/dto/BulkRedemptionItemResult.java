@@ -0,0 +1,21 @@
+package com.lealtixservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una redención dentro de un lote, en la misma posición que en la solicitud.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRedemptionItemResult {
+
+    private int index;
+    private String qrToken;
+    private String code;
+    private RedemptionResponse result;
+}
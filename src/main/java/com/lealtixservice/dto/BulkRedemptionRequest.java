@@ -0,0 +1,26 @@
+package com.lealtixservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para la sincronización masiva de redenciones capturadas offline.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRedemptionRequest {
+
+    @NotEmpty(message = "La lista 'items' no puede estar vacía")
+    @Size(max = 1000, message = "Máximo 1000 redenciones por lote")
+    @Valid
+    private List<BulkRedemptionItem> items;
+}
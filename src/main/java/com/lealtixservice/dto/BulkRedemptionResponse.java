@@ -0,0 +1,23 @@
+package com.lealtixservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para la respuesta de la sincronización masiva de redenciones.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRedemptionResponse {
+
+    private int totalProcessed;
+    private int successCount;
+    private int failureCount;
+    private List<BulkRedemptionItemResult> results;
+}
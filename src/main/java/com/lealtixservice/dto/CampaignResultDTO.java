@@ -16,5 +16,11 @@ public class CampaignResultDTO {
     private Integer redemptions;
     private LocalDateTime lastViewAt;
     private LocalDateTime lastRedemptionAt;
+    private Integer emailsDelivered;
+    private Integer emailsOpened;
+    private Integer emailsClicked;
+    private Integer emailsBounced;
+    private Double openRatePct;
+    private Double clickRatePct;
 }
 
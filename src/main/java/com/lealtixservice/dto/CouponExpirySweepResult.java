@@ -0,0 +1,24 @@
+package com.lealtixservice.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Resultado de un barrido de expiración de cupones.
+ *
+ * @param executed           false si otro nodo tenía el lock y este no hizo nada
+ * @param expiredByCampaign  cupones expirados por campaignId
+ */
+public record CouponExpirySweepResult(
+        boolean executed,
+        LocalDateTime cutoff,
+        int expiredTotal,
+        int chunks,
+        long durationMillis,
+        Map<Long, Integer> expiredByCampaign
+) {
+
+    public static CouponExpirySweepResult skipped(LocalDateTime cutoff) {
+        return new CouponExpirySweepResult(false, cutoff, 0, 0, 0, Map.of());
+    }
+}
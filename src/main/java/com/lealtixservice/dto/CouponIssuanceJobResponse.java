@@ -0,0 +1,56 @@
+package com.lealtixservice.dto;
+
+import com.lealtixservice.entity.CouponIssuanceJob;
+import com.lealtixservice.enums.CouponIssuanceJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado y avance de un trabajo de emisión masiva de cupones.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponIssuanceJobResponse {
+
+    private Long jobId;
+    private Long campaignId;
+    private Long tenantId;
+    private CouponIssuanceJobStatus status;
+    private int totalCustomers;
+    private int alreadyHolding;
+    private int issuedCount;
+    private double progressPct;
+    private Long lastCustomerId;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public static CouponIssuanceJobResponse from(CouponIssuanceJob job) {
+        int toIssue = job.getTotalCustomers() - job.getAlreadyHolding();
+        double progress = job.getStatus() == CouponIssuanceJobStatus.COMPLETED || toIssue <= 0
+                ? (job.getStatus() == CouponIssuanceJobStatus.COMPLETED ? 100.0 : 0.0)
+                : Math.min(100.0, job.getIssuedCount() * 100.0 / toIssue);
+        return CouponIssuanceJobResponse.builder()
+                .jobId(job.getId())
+                .campaignId(job.getCampaignId())
+                .tenantId(job.getTenantId())
+                .status(job.getStatus())
+                .totalCustomers(job.getTotalCustomers())
+                .alreadyHolding(job.getAlreadyHolding())
+                .issuedCount(job.getIssuedCount())
+                .progressPct(Math.round(progress * 10) / 10.0)
+                .lastCustomerId(job.getLastCustomerId())
+                .lastError(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.lealtixservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Métricas de los filtros de Bloom de códigos y QR tokens de cupones.
+ */
+public record CouponLookupFilterStats(
+        boolean enabled,
+        boolean ready,
+        LocalDateTime builtAt,
+        long buildMillis,
+        long entries,
+        long capacity,
+        int hashFunctions,
+        long memoryBytes,
+        double targetFalsePositivePct,
+        double estimatedFalsePositivePct,
+        long rejected,
+        long falsePositives,
+        double observedFalsePositivePct
+) {}
@@ -46,5 +46,21 @@ public class CouponResponseDTO {
     private Integer usageCount;
     private RewardType rewardType;
     private BigDecimal numericValue; // Para PERCENT_DISCOUNT o FIXED_AMOUNT
+
+    /**
+     * Constructor de la proyección JPQL (CouponRepository.findCustomerCouponRows).
+     * expired se calcula igual que Coupon.isExpired().
+     */
+    public CouponResponseDTO(Long id, String code, CouponStatus status, LocalDateTime expiresAt,
+                             LocalDateTime createdAt, LocalDateTime redeemedAt, String qrToken, String qrUrl,
+                             String redeemedBy, String redemptionMetadata,
+                             Long campaignId, String campaignTitle, Long customerId, String customerName,
+                             String rewardDescription, BigDecimal minPurchaseAmount, Integer usageLimit,
+                             Integer usageCount, RewardType rewardType, BigDecimal numericValue) {
+        this(id, code, status, expiresAt, createdAt, redeemedAt, qrToken, qrUrl, redeemedBy, redemptionMetadata,
+                expiresAt != null && LocalDateTime.now().isAfter(expiresAt),
+                campaignId, campaignTitle, customerId, customerName,
+                rewardDescription, minPurchaseAmount, usageLimit, usageCount, rewardType, numericValue);
+    }
 }
 
@@ -0,0 +1,14 @@
+package com.lealtixservice.dto;
+
+/**
+ * Métricas del cache de validación de cupones por QR token.
+ */
+public record CouponValidationCacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        long invalidations,
+        int size,
+        int maxSize,
+        double hitRatePct
+) {}
@@ -0,0 +1,24 @@
+package com.lealtixservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de cupones de un cliente (más recientes primero).
+ * hasMore indica si existe la página page + 1; se sabe sin COUNT consultando una fila extra.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerCouponPage {
+
+    private List<CouponResponseDTO> items;
+    private boolean hasMore;
+    private int page;
+    private int size;
+}
@@ -0,0 +1,17 @@
+package com.lealtixservice.dto;
+
+import java.util.List;
+
+/**
+ * Resumen de una importación de clientes desde CSV.
+ * errors se acota a customer.import.max-reported-errors; errorsTruncated indica que hubo más.
+ */
+public record CustomerImportResult(
+        long rows,
+        long imported,
+        long duplicates,
+        long rejected,
+        long welcomeQueued,
+        List<CustomerImportRowError> errors,
+        boolean errorsTruncated
+) {}
@@ -0,0 +1,14 @@
+package com.lealtixservice.dto;
+
+/**
+ * Fila del CSV que no se importó.
+ *
+ * @param line   línea del archivo donde empieza el registro (1 = encabezado)
+ * @param email  email de la fila, si se pudo leer
+ * @param reason motivo del rechazo
+ */
+public record CustomerImportRowError(
+        long line,
+        String email,
+        String reason
+) {}
@@ -36,4 +36,7 @@ public class EmailDTO {
 
     @Schema(description = "ID de la entidad asociada al email", example = "123")
     private Long entityId;
+
+    @Schema(description = "Campaña a la que pertenece el envío (métricas de apertura y clics)", example = "45")
+    private Long campaignId;
 }
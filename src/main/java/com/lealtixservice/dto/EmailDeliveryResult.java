@@ -0,0 +1,29 @@
+package com.lealtixservice.dto;
+
+import com.lealtixservice.entity.EmailLog;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resultado de una llamada a SendGrid junto con el EmailLog (aún no persistido) que la describe.
+ */
+@Getter
+@AllArgsConstructor
+public class EmailDeliveryResult {
+
+    private final int statusCode;
+    private final String responseBody;
+    private final EmailLog emailLog;
+
+    public boolean isSuccess() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * Rate limit (429), errores 5xx de SendGrid y envíos sin respuesta (statusCode 0, error de red
+     * en un envío masivo) son transitorios y vale la pena reintentarlos.
+     */
+    public boolean isRetryable() {
+        return statusCode == 0 || statusCode == 429 || statusCode >= 500;
+    }
+}
@@ -0,0 +1,17 @@
+package com.lealtixservice.dto;
+
+/**
+ * Métricas del escritor asíncrono de EmailLog (cola, lotes y latencia de flush).
+ */
+public record EmailLogWriterStats(
+        int queueDepth,
+        int capacity,
+        long enqueued,
+        long written,
+        long flushes,
+        long syncFallbacks,
+        long failed,
+        double meanFlushMs,
+        double lastFlushMs,
+        double maxFlushMs
+) {}
@@ -0,0 +1,22 @@
+package com.lealtixservice.dto;
+
+import java.util.Map;
+
+/**
+ * Métricas de las llamadas salientes a un proveedor externo.
+ * rejected cuenta las llamadas no hechas por circuito abierto o bulkhead lleno.
+ */
+public record OutboundProviderStats(
+        String provider,
+        String circuitState,
+        long calls,
+        long failures,
+        long rejected,
+        int inFlight,
+        int maxConcurrent,
+        double meanMs,
+        long p50Ms,
+        long p95Ms,
+        long p99Ms,
+        Map<String, Long> latencyHistogram
+) {}
@@ -0,0 +1,14 @@
+package com.lealtixservice.dto;
+
+/**
+ * Métricas del cache de imágenes QR.
+ */
+public record QrImageCacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        int size,
+        long usedBytes,
+        long maxBytes,
+        double hitRatePct
+) {}
@@ -0,0 +1,54 @@
+package com.lealtixservice.dto;
+
+import com.lealtixservice.repository.RedemptionHistoryView;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Elemento del historial de redenciones (sin metadata, IP ni user agent).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedemptionHistoryItem {
+
+    private String redemptionId;
+    private Long couponId;
+    private Long campaignId;
+    private String customerName;
+    private String customerEmail;
+    private String redeemedBy;
+    private String channel;
+    private String location;
+    private String couponType;
+    private BigDecimal couponValue;
+    private BigDecimal originalAmount;
+    private BigDecimal discountAmount;
+    private BigDecimal finalAmount;
+    private LocalDateTime redeemedAt;
+
+    public static RedemptionHistoryItem from(RedemptionHistoryView view) {
+        return RedemptionHistoryItem.builder()
+                .redemptionId(view.getId())
+                .couponId(view.getCouponId())
+                .campaignId(view.getCampaignId())
+                .customerName(view.getCustomerName())
+                .customerEmail(view.getCustomerEmail())
+                .redeemedBy(view.getRedeemedBy())
+                .channel(view.getChannel())
+                .location(view.getLocation())
+                .couponType(view.getCouponType())
+                .couponValue(view.getCouponValue())
+                .originalAmount(view.getOriginalAmount())
+                .discountAmount(view.getDiscountAmount())
+                .finalAmount(view.getFinalAmount())
+                .redeemedAt(view.getRedeemedAt())
+                .build();
+    }
+}
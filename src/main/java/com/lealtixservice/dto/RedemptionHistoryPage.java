@@ -0,0 +1,24 @@
+package com.lealtixservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página del historial de redenciones (más recientes primero).
+ * Para la siguiente página se envía nextCursor como parámetro cursor; es null en la última.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedemptionHistoryPage {
+
+    private List<RedemptionHistoryItem> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int limit;
+}
@@ -0,0 +1,21 @@
+package com.lealtixservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Evento del Event Webhook de SendGrid (solo los campos que se usan).
+ *
+ * @param timestamp    epoch en segundos
+ * @param sgMessageId  X-Message-Id del envío seguido de ".filter..." (un id por destinatario)
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SendGridEvent(
+        String email,
+        String event,
+        Long timestamp,
+        @JsonProperty("sg_message_id") String sgMessageId,
+        @JsonProperty("sg_event_id") String sgEventId,
+        String reason,
+        String type
+) {}
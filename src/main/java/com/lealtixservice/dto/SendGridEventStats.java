@@ -0,0 +1,17 @@
+package com.lealtixservice.dto;
+
+/**
+ * Métricas de la ingesta de eventos del webhook de SendGrid.
+ */
+public record SendGridEventStats(
+        long batchesReceived,
+        long eventsReceived,
+        long eventsIgnored,
+        long rowsUpdated,
+        long rowsUnmatched,
+        long campaignsUpdated,
+        long failedBatches,
+        int queuedBatches,
+        int parkedMessages,
+        double meanApplyMs
+) {}
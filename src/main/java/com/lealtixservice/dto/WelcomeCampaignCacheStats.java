@@ -0,0 +1,12 @@
+package com.lealtixservice.dto;
+
+/**
+ * Métricas del cache de campaña de bienvenida activa por tenant.
+ */
+public record WelcomeCampaignCacheStats(
+        long hits,
+        long misses,
+        long invalidations,
+        int size,
+        double hitRatePct
+) {}
@@ -0,0 +1,18 @@
+package com.lealtixservice.dto.dashboard;
+
+import java.math.BigDecimal;
+
+/**
+ * Suma de los acumulados diarios de una campaña en un rango de días.
+ * ticketCount es el número de redenciones con monto final (divisor del ticket promedio).
+ */
+public record CampaignRollupTotals(
+        Long campaignId,
+        String campaignName,
+        long couponsIssued,
+        long redemptions,
+        long ticketCount,
+        BigDecimal salesTotal,
+        BigDecimal discountTotal,
+        BigDecimal originalTotal
+) {}
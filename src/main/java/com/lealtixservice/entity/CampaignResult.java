@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class CampaignResult {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "campaign_result_seq")
+    @SequenceGenerator(name = "campaign_result_seq", sequenceName = "campaign_result_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -36,6 +37,23 @@ public class CampaignResult {
     @Builder.Default
     private Integer redemptions = 0;
 
+    // Métricas de email acumuladas por el webhook de SendGrid (SendGridEventServiceImpl)
+    @Builder.Default
+    @Column(name = "emails_delivered", nullable = false)
+    private Integer emailsDelivered = 0;
+
+    @Builder.Default
+    @Column(name = "emails_opened", nullable = false)
+    private Integer emailsOpened = 0;
+
+    @Builder.Default
+    @Column(name = "emails_clicked", nullable = false)
+    private Integer emailsClicked = 0;
+
+    @Builder.Default
+    @Column(name = "emails_bounced", nullable = false)
+    private Integer emailsBounced = 0;
+
     private LocalDateTime lastViewAt;
     private LocalDateTime lastClickAt;
     private LocalDateTime lastRedemptionAt;
@@ -1,7 +1,10 @@
 package com.lealtixservice.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.lealtixservice.cache.CouponCacheEvictionListener;
+import com.lealtixservice.cache.CouponLookupFilterListener;
 import com.lealtixservice.enums.CouponStatus;
+import com.lealtixservice.util.CouponCodeAllocator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -11,6 +14,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@EntityListeners({CouponCacheEvictionListener.class, CouponLookupFilterListener.class})
 @Table(name = "coupon", indexes = {
         @Index(name = "idx_coupon_code", columnList = "code", unique = true),
         @Index(name = "idx_coupon_qr_token", columnList = "qr_token", unique = true),
@@ -31,7 +35,8 @@ import java.util.UUID;
 @AllArgsConstructor
 public class Coupon {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coupon_seq")
+    @SequenceGenerator(name = "coupon_seq", sequenceName = "coupon_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -96,13 +101,13 @@ public class Coupon {
     }
 
     /**
-     * Genera un código único de cupón basado en UUID.
+     * Genera un código único de cupón tomado del pool de códigos (sin consultar la BD).
      * Formato: 12 caracteres alfanuméricos en mayúsculas.
      *
      * @return Código de cupón único
      */
-    private String generateCouponCode() {
-        return UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+    public static String generateCouponCode() {
+        return CouponCodeAllocator.nextSharedCode();
     }
 
     /**
@@ -111,7 +116,7 @@ public class Coupon {
      *
      * @return Token QR único (64 caracteres hexadecimales)
      */
-    private String generateQrToken() {
+    public static String generateQrToken() {
         return UUID.randomUUID().toString().replace("-", "") +
                UUID.randomUUID().toString().replace("-", "");
     }
@@ -0,0 +1,79 @@
+package com.lealtixservice.entity;
+
+import com.lealtixservice.enums.CouponIssuanceJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trabajo de emisión masiva de cupones de una campaña para los clientes del tenant.
+ * Se procesa por lotes ordenados por id de cliente; lastCustomerId es el checkpoint para reanudar.
+ */
+@Entity
+@Table(name = "coupon_issuance_job", indexes = {
+        @Index(name = "idx_coupon_issuance_job_campaign", columnList = "campaign_id")
+})
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponIssuanceJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "campaign_id", nullable = false)
+    private Long campaignId;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CouponIssuanceJobStatus status = CouponIssuanceJobStatus.PENDING;
+
+    // Último cliente procesado (checkpoint)
+    @Builder.Default
+    @Column(name = "last_customer_id", nullable = false)
+    private Long lastCustomerId = 0L;
+
+    // Clientes que aceptan promociones al crear el trabajo
+    @Builder.Default
+    @Column(name = "total_customers", nullable = false)
+    private Integer totalCustomers = 0;
+
+    // De ellos, los que ya tenían un cupón activo de la campaña
+    @Builder.Default
+    @Column(name = "already_holding", nullable = false)
+    private Integer alreadyHolding = 0;
+
+    @Builder.Default
+    @Column(name = "issued_count", nullable = false)
+    private Integer issuedCount = 0;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    // Se actualiza en cada lote; un RUNNING sin latido reciente se considera abandonado y se reanuda
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -2,6 +2,7 @@ package com.lealtixservice.entity;
 
 import com.lealtixservice.enums.RedemptionChannel;
 import com.lealtixservice.enums.RewardType;
+import com.lealtixservice.util.RedemptionIdGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,7 +10,6 @@ import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Random;
 
 /**
  * Entidad de auditoría para cada redención de cupón.
@@ -17,7 +17,7 @@ import java.util.Random;
  */
 @Entity
 @Table(name = "coupon_redemption", indexes = {
-        @Index(name = "idx_redemption_coupon", columnList = "coupon_id"),
+        @Index(name = "uk_redemption_coupon", columnList = "coupon_id", unique = true),
         @Index(name = "idx_redemption_tenant", columnList = "tenant_id"),
         @Index(name = "idx_redemption_campaign", columnList = "campaign_id"),
         @Index(name = "idx_redemption_date", columnList = "redeemed_at"),
@@ -115,19 +115,11 @@ public class CouponRedemption {
     }
 
     /**
-     * Genera un UID único de 10 posiciones alfanumérico.
+     * Genera un UID único de 10 posiciones alfanumérico, ordenado por tiempo.
      * Formato: Letras mayúsculas y números (0-9, A-Z excluyendo vocales para evitar palabras)
      */
     private String generateUid() {
-        String chars = "0123456789BCDFGHJKLMNPQRSTVWXYZ"; // Sin vocales para evitar palabras ofensivas
-        Random random = new Random();
-        StringBuilder uid = new StringBuilder(10);
-
-        for (int i = 0; i < 10; i++) {
-            uid.append(chars.charAt(random.nextInt(chars.length())));
-        }
-
-        return uid.toString();
+        return RedemptionIdGenerator.shared().nextId();
     }
 }
 
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 @Table(name = "email_log")
 public class EmailLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_log_seq")
+    @SequenceGenerator(name = "email_log_seq", sequenceName = "email_log_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "entity_type", nullable = false, length = 50)
@@ -33,6 +34,9 @@ public class EmailLog {
     @Column(name = "sendgrid_message_id", length = 255)
     private String sendgridMessageId;
 
+    @Column(name = "campaign_id")
+    private Long campaignId;
+
     @Builder.Default
     @Column(nullable = false, length = 50)
     private String status = "pending";
@@ -44,4 +48,17 @@ public class EmailLog {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Eventos del webhook de SendGrid (primera ocurrencia)
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
+    @Column(name = "opened_at")
+    private LocalDateTime openedAt;
+
+    @Column(name = "clicked_at")
+    private LocalDateTime clickedAt;
+
+    @Column(name = "last_event_at")
+    private LocalDateTime lastEventAt;
+
 }
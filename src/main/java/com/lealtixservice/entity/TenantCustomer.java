@@ -24,7 +24,8 @@ import java.time.LocalDateTime;
 public class TenantCustomer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tenant_customer_seq")
+    @SequenceGenerator(name = "tenant_customer_seq", sequenceName = "tenant_customer_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -65,4 +66,8 @@ public class TenantCustomer {
     @Column(name = "accepted_at")
     private LocalDate acceptedAt;
 
+    // Bienvenida diferida por saturación del flujo (V18); null = sin bienvenida pendiente
+    @Column(name = "welcome_pending_at")
+    private LocalDateTime welcomePendingAt;
+
 }
@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class TenantMenuProduct {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tenant_menu_product_seq")
+    @SequenceGenerator(name = "tenant_menu_product_seq", sequenceName = "tenant_menu_product_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -0,0 +1,6 @@
+package com.lealtixservice.enums;
+
+public enum CouponExportFormat {
+    ZIP,    // Un PNG por cupón dentro de un ZIP
+    SHEET   // Hoja imprimible (HTML con QR en SVG, 12 por página A4)
+}
@@ -0,0 +1,9 @@
+package com.lealtixservice.enums;
+
+public enum CouponIssuanceJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
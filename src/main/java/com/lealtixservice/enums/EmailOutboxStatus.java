@@ -0,0 +1,15 @@
+package com.lealtixservice.enums;
+
+/**
+ * Estado de un mensaje en la bandeja de salida de emails (email_outbox).
+ */
+public enum EmailOutboxStatus {
+    PENDING,     // Pendiente de envío (o esperando reintento)
+    IN_FLIGHT,   // Tomado por un dispatcher; next_attempt_at es el vencimiento del lease
+    SENT,        // Entregado a SendGrid
+    FAILED;      // Descartado tras agotar reintentos o por error no recuperable
+
+    public String getValue() {
+        return name();
+    }
+}
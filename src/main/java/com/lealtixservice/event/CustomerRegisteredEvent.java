@@ -0,0 +1,8 @@
+package com.lealtixservice.event;
+
+/**
+ * Un cliente se registró en un negocio. Se publica dentro de la transacción del alta y
+ * se procesa después del commit (cupón de bienvenida y email).
+ */
+public record CustomerRegisteredEvent(Long customerId, Long tenantId) {
+}
@@ -0,0 +1,149 @@
+package com.lealtixservice.event;
+
+import com.lealtixservice.service.WelcomePipelineService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Procesa el alta de clientes después del commit, fuera del hilo de la petición.
+ *
+ * - Pool acotado (welcome.pipeline.threads) con cola acotada (welcome.pipeline.queue-capacity).
+ *   El alta ya dejó la bienvenida pendiente en la BD con un lease (welcome_pending_at); si el nodo cae
+ *   o se reinicia con el evento en cola, DeferredWelcomePoller la retoma cuando el lease vence.
+ *   Si la cola se llena, el alta no procesa la bienvenida en su hilo: la deja pendiente desde ya
+ *   (un UPDATE) y el poller la retoma cuando la cola tiene espacio, en este u otro nodo.
+ * - Cada evento se reintenta con backoff exponencial; si se agotan los intentos se envía la
+ *   bienvenida sin cupón.
+ * - Los lotes de la importación CSV (CustomersImportedEvent) ocupan una sola tarea por lote.
+ */
+@Slf4j
+@Component
+public class CustomerRegisteredListener {
+
+    private final WelcomePipelineService welcomePipelineService;
+    private final ThreadPoolExecutor executor;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    public CustomerRegisteredListener(WelcomePipelineService welcomePipelineService,
+                                      @Value("${welcome.pipeline.threads:4}") int threads,
+                                      @Value("${welcome.pipeline.queue-capacity:1000}") int queueCapacity,
+                                      @Value("${welcome.pipeline.max-attempts:3}") int maxAttempts,
+                                      @Value("${welcome.pipeline.retry-backoff-ms:500}") long retryBackoffMs) {
+        this.welcomePipelineService = welcomePipelineService;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "welcome-pipeline-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCustomerRegistered(CustomerRegisteredEvent event) {
+        submit(() -> process(event), List.of(event.customerId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCustomersImported(CustomersImportedEvent event) {
+        submit(() -> {
+            for (Long customerId : event.customerIds()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.warn("Bienvenida de importación interrumpida para el tenant {}", event.tenantId());
+                    return;
+                }
+                process(new CustomerRegisteredEvent(customerId, event.tenantId()));
+            }
+        }, event.customerIds());
+    }
+
+    /**
+     * Retoma bienvenidas diferidas mientras la cola tenga espacio.
+     *
+     * @return número de bienvenidas retomadas
+     */
+    public int resumeDeferred(int limit) {
+        int capacity = Math.min(limit, executor.getQueue().remainingCapacity());
+        if (capacity <= 0 || executor.isShutdown()) {
+            return 0;
+        }
+        List<CustomerRegisteredEvent> events = welcomePipelineService.claimDeferredWelcomes(capacity);
+        for (CustomerRegisteredEvent event : events) {
+            // Si se vuelve a saturar queda pendiente; el lease ya la protege hasta el siguiente intento
+            submit(() -> process(event), List.of(event.customerId()));
+        }
+        return events.size();
+    }
+
+    private void submit(Runnable task, List<Long> customerIds) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            try {
+                welcomePipelineService.deferWelcome(customerIds);
+                log.warn("Flujo de bienvenida saturado: {} bienvenida(s) diferidas", customerIds.size());
+            } catch (Exception deferError) {
+                log.error("No se pudieron diferir {} bienvenida(s): {}", customerIds.size(),
+                        deferError.getMessage(), deferError);
+            }
+        }
+    }
+
+    void process(CustomerRegisteredEvent event) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                welcomePipelineService.processCustomerRegistered(event);
+                return;
+            } catch (Exception e) {
+                log.warn("Error en flujo de bienvenida del customer {} (intento {}/{}): {}",
+                        event.customerId(), attempt, maxAttempts, e.getMessage());
+                if (attempt < maxAttempts && !sleep(retryBackoffMs << (attempt - 1))) {
+                    return;
+                }
+            }
+        }
+
+        try {
+            welcomePipelineService.sendWelcomeWithoutCoupon(event);
+            log.warn("Bienvenida sin cupón encolada para customer {} tras {} intentos fallidos",
+                    event.customerId(), maxAttempts);
+        } catch (Exception e) {
+            log.error("No se pudo encolar la bienvenida del customer {}: {}", event.customerId(), e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Deja terminar los eventos en cola para no perder bienvenidas en un redeploy
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Flujo de bienvenida detenido con {} evento(s) pendientes", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.lealtixservice.event;
+
+import java.util.List;
+
+/**
+ * Un lote de clientes importados desde CSV. Se publica dentro de la transacción del lote y
+ * se procesa después del commit como una sola tarea del flujo de bienvenida.
+ */
+public record CustomersImportedEvent(Long tenantId, List<Long> customerIds) {
+}
@@ -146,9 +146,20 @@ public class CampaignMapper {
                 .redemptions(result.getRedemptions())
                 .lastViewAt(result.getLastViewAt())
                 .lastRedemptionAt(result.getLastRedemptionAt())
+                .emailsDelivered(result.getEmailsDelivered())
+                .emailsOpened(result.getEmailsOpened())
+                .emailsClicked(result.getEmailsClicked())
+                .emailsBounced(result.getEmailsBounced())
+                .openRatePct(ratePct(result.getEmailsOpened(), result.getEmailsDelivered()))
+                .clickRatePct(ratePct(result.getEmailsClicked(), result.getEmailsDelivered()))
                 .build();
     }
 
+    private static double ratePct(Integer count, Integer total) {
+        if (count == null || total == null || total == 0) return 0.0;
+        return Math.round(count * 10000.0 / total) / 100.0;
+    }
+
     private static PromoType parsePromoType(String value) {
         if (value == null) return null;
         try {
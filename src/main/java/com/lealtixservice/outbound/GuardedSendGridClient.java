@@ -0,0 +1,33 @@
+package com.lealtixservice.outbound;
+
+import com.sendgrid.Client;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.io.IOException;
+
+/**
+ * Cliente HTTP de SendGrid que pasa cada petición por el OutboundCallGuard del proveedor.
+ * 429 y 5xx cuentan como falla para el circuito; un rechazo del guard se reporta como IOException,
+ * igual que un error de red, para que la bandeja de salida lo reintente.
+ */
+public class GuardedSendGridClient extends Client {
+
+    private final OutboundCallGuard guard;
+
+    public GuardedSendGridClient(CloseableHttpClient httpClient, boolean test, OutboundCallGuard guard) {
+        super(httpClient, test);
+        this.guard = guard;
+    }
+
+    @Override
+    public Response api(Request request) throws IOException {
+        try {
+            return guard.execute(() -> super.api(request),
+                    response -> response.getStatusCode() == 429 || response.getStatusCode() >= 500);
+        } catch (OutboundRejectedException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
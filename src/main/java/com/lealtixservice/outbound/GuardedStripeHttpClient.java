@@ -0,0 +1,41 @@
+package com.lealtixservice.outbound;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import com.stripe.net.HttpClient;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+import com.stripe.net.StripeResponseStream;
+
+/**
+ * HttpClient de Stripe que pasa cada intento por el OutboundCallGuard del proveedor.
+ * 5xx cuenta como falla para el circuito; un rechazo del guard se reporta como ApiConnectionException.
+ */
+public class GuardedStripeHttpClient extends HttpClient {
+
+    private final HttpClient delegate;
+    private final OutboundCallGuard guard;
+
+    public GuardedStripeHttpClient(HttpClient delegate, OutboundCallGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public StripeResponse request(StripeRequest request) throws StripeException {
+        try {
+            return guard.execute(() -> delegate.request(request), response -> response.code() >= 500);
+        } catch (OutboundRejectedException e) {
+            throw new ApiConnectionException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public StripeResponseStream requestStream(StripeRequest request) throws StripeException {
+        try {
+            return guard.execute(() -> delegate.requestStream(request), response -> response.code() >= 500);
+        } catch (OutboundRejectedException e) {
+            throw new ApiConnectionException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.lealtixservice.outbound;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencia con cubetas fijas (ms); registrar es sin bloqueo.
+ * Los percentiles se reportan como el límite superior de la cubeta que los contiene
+ * (la última cubeta reporta el máximo observado).
+ */
+final class LatencyHistogram {
+
+    static final long[] BOUNDS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final LongAdder[] counts = new LongAdder[BOUNDS_MS.length + 1];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        int bucket = 0;
+        while (bucket < BOUNDS_MS.length && nanos > TimeUnit.MILLISECONDS.toNanos(BOUNDS_MS[bucket])) {
+            bucket++;
+        }
+        counts[bucket].increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    long count() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    double meanMs() {
+        long total = count();
+        return total == 0 ? 0.0 : Math.round(totalNanos.sum() / 1_000.0 / total) / 1_000.0;
+    }
+
+    long percentileMs(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(percentile * total);
+        long cumulative = 0;
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            cumulative += counts[i].sum();
+            if (cumulative >= target) {
+                return BOUNDS_MS[i];
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    Map<String, Long> buckets() {
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            buckets.put("<=" + BOUNDS_MS[i] + "ms", counts[i].sum());
+        }
+        buckets.put(">" + BOUNDS_MS[BOUNDS_MS.length - 1] + "ms", counts[BOUNDS_MS.length].sum());
+        return buckets;
+    }
+}
@@ -0,0 +1,10 @@
+package com.lealtixservice.outbound;
+
+/**
+ * Llamada a un proveedor externo que puede lanzar la excepción propia de su cliente.
+ */
+@FunctionalInterface
+public interface OutboundCall<T, E extends Exception> {
+
+    T execute() throws E;
+}
@@ -0,0 +1,140 @@
+package com.lealtixservice.outbound;
+
+import com.lealtixservice.dto.OutboundProviderStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Aísla las llamadas salientes a un proveedor:
+ *
+ * - Bulkhead: a lo sumo maxConcurrent llamadas en curso; si no hay lugar en maxWaitMs se rechaza,
+ *   así un proveedor lento no acapara los hilos de las peticiones que usan a los demás.
+ * - Circuit breaker: failureThreshold fallas consecutivas (excepción o respuesta marcada como falla)
+ *   abren el circuito durante openMs; después pasa una sola llamada de prueba (medio abierto) que
+ *   lo cierra si responde bien o lo vuelve a abrir si falla.
+ * - Histograma de latencia de las llamadas hechas.
+ */
+@Slf4j
+public class OutboundCallGuard {
+
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    private final OutboundProvider provider;
+    private final OutboundSettings settings;
+    private final Semaphore permits;
+    private final long openNanos;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    // Estado del circuito, protegido por this
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public OutboundCallGuard(OutboundProvider provider, OutboundSettings settings) {
+        this.provider = provider;
+        this.settings = settings;
+        this.permits = new Semaphore(Math.max(1, settings.maxConcurrent()), true);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(settings.openMs());
+    }
+
+    /**
+     * Ejecuta la llamada dentro del bulkhead y el circuito del proveedor.
+     *
+     * @param isFailure marca como falla una respuesta sin excepción (p. ej. HTTP 5xx); null = solo excepciones
+     * @throws OutboundRejectedException si el circuito está abierto o el bulkhead está lleno
+     */
+    public <T, E extends Exception> T execute(OutboundCall<T, E> call, Predicate<? super T> isFailure) throws E {
+        enterCircuit();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(settings.maxWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            abandonTrial();
+            rejected.increment();
+            throw new OutboundRejectedException(provider,
+                    "bulkhead lleno (" + settings.maxConcurrent() + " llamadas en curso)");
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.execute();
+            failed = isFailure != null && isFailure.test(result);
+            return result;
+        } finally {
+            latency.record(System.nanoTime() - start);
+            permits.release();
+            calls.increment();
+            if (failed) {
+                failures.increment();
+            }
+            onCompletion(!failed);
+        }
+    }
+
+    public synchronized CircuitState getCircuitState() {
+        return state;
+    }
+
+    public OutboundProviderStats stats() {
+        return new OutboundProviderStats(provider.key(), getCircuitState().name(), calls.sum(), failures.sum(),
+                rejected.sum(), settings.maxConcurrent() - permits.availablePermits(), settings.maxConcurrent(),
+                latency.meanMs(), latency.percentileMs(0.50), latency.percentileMs(0.95), latency.percentileMs(0.99),
+                latency.buckets());
+    }
+
+    private synchronized void enterCircuit() {
+        if (state == CircuitState.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                rejected.increment();
+                throw new OutboundRejectedException(provider, "circuito abierto");
+            }
+            state = CircuitState.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            if (trialInFlight) {
+                rejected.increment();
+                throw new OutboundRejectedException(provider, "circuito medio abierto, llamada de prueba en curso");
+            }
+            trialInFlight = true;
+        }
+    }
+
+    private synchronized void abandonTrial() {
+        trialInFlight = false;
+    }
+
+    private synchronized void onCompletion(boolean success) {
+        trialInFlight = false;
+        if (success) {
+            consecutiveFailures = 0;
+            if (state != CircuitState.CLOSED) {
+                log.info("Circuito de {} cerrado: la llamada de prueba respondió bien", provider.key());
+                state = CircuitState.CLOSED;
+            }
+            return;
+        }
+
+        consecutiveFailures++;
+        boolean threshold = settings.failureThreshold() > 0 && consecutiveFailures >= settings.failureThreshold();
+        if (state == CircuitState.HALF_OPEN || (state == CircuitState.CLOSED && threshold)) {
+            log.warn("Circuito de {} abierto por {} ms tras {} falla(s) consecutiva(s)",
+                    provider.key(), settings.openMs(), consecutiveFailures);
+            state = CircuitState.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.lealtixservice.outbound;
+
+import com.lealtixservice.dto.OutboundProviderStats;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Un OutboundCallGuard y su configuración por proveedor, compartidos por los clientes HTTP
+ * (SendGridConfig, StripeConfig, CloudinaryConfig) y las métricas.
+ */
+@Component
+public class OutboundCallRegistry {
+
+    private final Map<OutboundProvider, OutboundSettings> settings = new EnumMap<>(OutboundProvider.class);
+    private final Map<OutboundProvider, OutboundCallGuard> guards = new EnumMap<>(OutboundProvider.class);
+
+    public OutboundCallRegistry(Environment environment) {
+        for (OutboundProvider provider : OutboundProvider.values()) {
+            OutboundSettings providerSettings = OutboundSettings.from(environment, provider);
+            settings.put(provider, providerSettings);
+            guards.put(provider, new OutboundCallGuard(provider, providerSettings));
+        }
+    }
+
+    public OutboundCallGuard guard(OutboundProvider provider) {
+        return guards.get(provider);
+    }
+
+    public OutboundSettings settings(OutboundProvider provider) {
+        return settings.get(provider);
+    }
+
+    public List<OutboundProviderStats> stats() {
+        return guards.values().stream().map(OutboundCallGuard::stats).toList();
+    }
+}
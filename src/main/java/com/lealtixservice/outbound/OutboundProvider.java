@@ -0,0 +1,21 @@
+package com.lealtixservice.outbound;
+
+/**
+ * Proveedores externos con llamadas salientes aisladas por OutboundCallGuard.
+ * La clave se usa en las propiedades outbound.&lt;clave&gt;.*.
+ */
+public enum OutboundProvider {
+    SENDGRID("sendgrid"),
+    STRIPE("stripe"),
+    CLOUDINARY("cloudinary");
+
+    private final String key;
+
+    OutboundProvider(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+}
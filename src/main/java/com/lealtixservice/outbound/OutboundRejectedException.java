@@ -0,0 +1,20 @@
+package com.lealtixservice.outbound;
+
+/**
+ * La llamada no se hizo: el circuito del proveedor está abierto o su bulkhead está lleno.
+ * Los adaptadores la traducen a la excepción de red de cada cliente (IOException, ApiConnectionException)
+ * para que los llamadores la traten como un error transitorio.
+ */
+public class OutboundRejectedException extends RuntimeException {
+
+    private final OutboundProvider provider;
+
+    public OutboundRejectedException(OutboundProvider provider, String message) {
+        super(provider.key() + ": " + message);
+        this.provider = provider;
+    }
+
+    public OutboundProvider getProvider() {
+        return provider;
+    }
+}
@@ -0,0 +1,37 @@
+package com.lealtixservice.outbound;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuración de llamadas salientes de un proveedor (propiedades outbound.&lt;proveedor&gt;.*).
+ *
+ * @param maxConnections   conexiones keep-alive en el pool del cliente HTTP (solo SendGrid)
+ * @param connectTimeoutMs timeout de conexión (SendGrid y Stripe)
+ * @param readTimeoutMs    timeout de lectura (socket)
+ * @param maxConcurrent    llamadas simultáneas permitidas (bulkhead)
+ * @param maxWaitMs        espera máxima por un lugar en el bulkhead antes de rechazar
+ * @param failureThreshold fallas consecutivas que abren el circuito (0 lo deshabilita)
+ * @param openMs           tiempo que el circuito permanece abierto antes de una llamada de prueba
+ */
+public record OutboundSettings(
+        int maxConnections,
+        int connectTimeoutMs,
+        int readTimeoutMs,
+        int maxConcurrent,
+        long maxWaitMs,
+        int failureThreshold,
+        long openMs
+) {
+
+    static OutboundSettings from(Environment environment, OutboundProvider provider) {
+        String prefix = "outbound." + provider.key() + ".";
+        return new OutboundSettings(
+                environment.getProperty(prefix + "max-connections", Integer.class, 20),
+                environment.getProperty(prefix + "connect-timeout-ms", Integer.class, 2000),
+                environment.getProperty(prefix + "read-timeout-ms", Integer.class, 10000),
+                environment.getProperty(prefix + "max-concurrent", Integer.class, 10),
+                environment.getProperty(prefix + "max-wait-ms", Long.class, 500L),
+                environment.getProperty(prefix + "failure-threshold", Integer.class, 5),
+                environment.getProperty(prefix + "open-ms", Long.class, 30000L));
+    }
+}
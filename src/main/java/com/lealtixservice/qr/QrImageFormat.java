@@ -0,0 +1,19 @@
+package com.lealtixservice.qr;
+
+/**
+ * Formatos de salida del renderizado de QR.
+ */
+public enum QrImageFormat {
+    PNG("image/png"),
+    SVG("image/svg+xml");
+
+    private final String contentType;
+
+    QrImageFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,190 @@
+package com.lealtixservice.qr;
+
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Escribe un PNG en escala de grises de 1 bit directamente desde la matriz de módulos del QR,
+ * sin BufferedImage ni ImageIO.
+ *
+ * El escalado y el margen son los mismos de QRCodeWriter: cada módulo ocupa multiple x multiple
+ * píxeles y la imagen se centra con padding blanco. Cada fila de módulos se empaqueta una sola vez y
+ * se repite; el Deflater y los buffers se reutilizan por hilo.
+ */
+public final class QrPngWriter {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private QrPngWriter() {
+    }
+
+    /**
+     * @param modules   matriz del QR (1 = módulo oscuro), sin margen
+     * @param width     ancho solicitado en píxeles
+     * @param height    alto solicitado en píxeles
+     * @param quietZone margen en módulos
+     */
+    public static byte[] write(ByteMatrix modules, int width, int height, int quietZone) {
+        int inputWidth = modules.getWidth();
+        int inputHeight = modules.getHeight();
+        int qrWidth = inputWidth + quietZone * 2;
+        int qrHeight = inputHeight + quietZone * 2;
+        int outputWidth = Math.max(width, qrWidth);
+        int outputHeight = Math.max(height, qrHeight);
+        int multiple = Math.min(outputWidth / qrWidth, outputHeight / qrHeight);
+        int leftPadding = (outputWidth - inputWidth * multiple) / 2;
+        int topPadding = (outputHeight - inputHeight * multiple) / 2;
+
+        int rowBytes = (outputWidth + 7) / 8;
+        int stride = rowBytes + 1;
+        Buffers buffers = BUFFERS.get();
+        byte[] raw = buffers.raw(stride * outputHeight);
+
+        // Filas de padding: filtro 0 + todo blanco
+        byte[] blank = buffers.row(stride);
+        Arrays.fill(blank, (byte) 0xFF);
+        blank[0] = 0;
+
+        int y = 0;
+        int offset = 0;
+        for (; y < topPadding; y++, offset += stride) {
+            System.arraycopy(blank, 0, raw, offset, stride);
+        }
+        for (int moduleY = 0; moduleY < inputHeight; moduleY++) {
+            int rowStart = offset;
+            System.arraycopy(blank, 0, raw, rowStart, stride);
+            for (int moduleX = 0; moduleX < inputWidth; moduleX++) {
+                if (modules.get(moduleX, moduleY) == 1) {
+                    clearBits(raw, rowStart + 1, leftPadding + moduleX * multiple, multiple);
+                }
+            }
+            offset += stride;
+            y++;
+            for (int repeat = 1; repeat < multiple; repeat++, y++, offset += stride) {
+                System.arraycopy(raw, rowStart, raw, offset, stride);
+            }
+        }
+        for (; y < outputHeight; y++, offset += stride) {
+            System.arraycopy(blank, 0, raw, offset, stride);
+        }
+
+        ByteArrayOutputStream out = buffers.out();
+        out.write(SIGNATURE, 0, SIGNATURE.length);
+
+        byte[] header = new byte[13];
+        putInt(header, 0, outputWidth);
+        putInt(header, 4, outputHeight);
+        header[8] = 1;  // bit depth
+        header[9] = 0;  // escala de grises
+        writeChunk(out, buffers.crc, IHDR, header, header.length);
+
+        Deflater deflater = buffers.deflater;
+        deflater.reset();
+        deflater.setInput(raw, 0, offset);
+        deflater.finish();
+        byte[] compressed = buffers.compressed(offset / 2 + 64);
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = buffers.growCompressed();
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        writeChunk(out, buffers.crc, IDAT, compressed, compressedLength);
+        writeChunk(out, buffers.crc, IEND, new byte[0], 0);
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Pone en 0 (negro) count bits a partir del píxel x; bit más significativo primero.
+     */
+    private static void clearBits(byte[] row, int rowOffset, int x, int count) {
+        int end = x + count;
+        while (x < end) {
+            int bit = x & 7;
+            int index = rowOffset + (x >>> 3);
+            if (bit == 0 && end - x >= 8) {
+                row[index] = 0;
+                x += 8;
+            } else {
+                row[index] &= (byte) ~(0x80 >>> bit);
+                x++;
+            }
+        }
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, CRC32 crc, byte[] type, byte[] data, int length) {
+        byte[] lengthBytes = new byte[4];
+        putInt(lengthBytes, 0, length);
+        out.write(lengthBytes, 0, 4);
+        out.write(type, 0, 4);
+        out.write(data, 0, length);
+        crc.reset();
+        crc.update(type, 0, 4);
+        crc.update(data, 0, length);
+        byte[] crcBytes = new byte[4];
+        putInt(crcBytes, 0, (int) crc.getValue());
+        out.write(crcBytes, 0, 4);
+    }
+
+    private static void putInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Buffers reutilizados por hilo; solo crecen.
+     */
+    private static final class Buffers {
+
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        final CRC32 crc = new CRC32();
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        private byte[] raw = new byte[0];
+        private byte[] row = new byte[0];
+        private byte[] compressed = new byte[0];
+
+        byte[] raw(int size) {
+            if (raw.length < size) {
+                raw = new byte[size];
+            }
+            return raw;
+        }
+
+        byte[] row(int size) {
+            if (row.length != size) {
+                row = new byte[size];
+            }
+            return row;
+        }
+
+        byte[] compressed(int minSize) {
+            if (compressed.length < minSize) {
+                compressed = new byte[minSize];
+            }
+            return compressed;
+        }
+
+        byte[] growCompressed() {
+            compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            return compressed;
+        }
+
+        ByteArrayOutputStream out() {
+            out.reset();
+            return out;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.lealtixservice.qr;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+/**
+ * Llave del cache de imágenes QR: la misma combinación siempre produce los mismos bytes.
+ */
+public record QrRenderKey(String content, int width, int height, ErrorCorrectionLevel ecc, QrImageFormat format) {
+
+    /**
+     * Tamaño aproximado en memoria de la llave (para el límite de bytes del cache).
+     */
+    public int estimatedBytes() {
+        return 64 + content.length() * 2;
+    }
+}
@@ -0,0 +1,52 @@
+package com.lealtixservice.qr;
+
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Genera un SVG vectorial desde la matriz de módulos: un solo path con un rectángulo por cada
+ * tramo horizontal de módulos oscuros. Escala sin pérdida a cualquier tamaño (impresión, PDF).
+ */
+public final class QrSvgWriter {
+
+    private QrSvgWriter() {
+    }
+
+    /**
+     * @param modules   matriz del QR (1 = módulo oscuro), sin margen
+     * @param size      ancho/alto sugerido en píxeles
+     * @param quietZone margen en módulos
+     */
+    public static byte[] write(ByteMatrix modules, int size, int quietZone) {
+        int inputWidth = modules.getWidth();
+        int inputHeight = modules.getHeight();
+        int viewWidth = inputWidth + quietZone * 2;
+        int viewHeight = inputHeight + quietZone * 2;
+
+        StringBuilder svg = new StringBuilder(64 + inputWidth * inputHeight * 3);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(size)
+                .append("\" height=\"").append(size)
+                .append("\" viewBox=\"0 0 ").append(viewWidth).append(' ').append(viewHeight)
+                .append("\" shape-rendering=\"crispEdges\">")
+                .append("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>")
+                .append("<path fill=\"#000\" d=\"");
+        for (int y = 0; y < inputHeight; y++) {
+            int x = 0;
+            while (x < inputWidth) {
+                if (modules.get(x, y) != 1) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < inputWidth && modules.get(x, y) == 1) {
+                    x++;
+                }
+                svg.append('M').append(start + quietZone).append(' ').append(y + quietZone)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+        svg.append("\"/></svg>");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,41 @@
+package com.lealtixservice.repository;
+
+import com.lealtixservice.entity.CouponIssuanceJob;
+import com.lealtixservice.enums.CouponIssuanceJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CouponIssuanceJobRepository extends JpaRepository<CouponIssuanceJob, Long> {
+
+    /**
+     * Bloquea el siguiente trabajo a ejecutar: pendiente, o en curso sin latido desde staleBefore
+     * (el nodo que lo procesaba murió). SKIP LOCKED permite varios nodos sin pisarse.
+     */
+    @Query(value = """
+            SELECT * FROM coupon_issuance_job
+            WHERE status = 'PENDING'
+               OR (status = 'RUNNING' AND heartbeat_at < :staleBefore)
+            ORDER BY id
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<CouponIssuanceJob> lockNextRunnable(@Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Bloquea el trabajo mientras se procesa un lote, para que un solo nodo avance el checkpoint.
+     */
+    @Query(value = "SELECT * FROM coupon_issuance_job WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<CouponIssuanceJob> lockById(@Param("id") Long id);
+
+    boolean existsByCampaignIdAndStatusIn(Long campaignId, Collection<CouponIssuanceJobStatus> statuses);
+
+    List<CouponIssuanceJob> findByCampaignIdOrderByIdDesc(Long campaignId);
+}
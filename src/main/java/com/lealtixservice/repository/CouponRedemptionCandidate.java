@@ -0,0 +1,13 @@
+package com.lealtixservice.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cupón candidato a redención en un lote: los datos del claim más lo necesario
+ * para decidir en memoria si se puede redimir.
+ */
+public interface CouponRedemptionCandidate extends CouponRedemptionClaim {
+    String getStatus();
+    LocalDateTime getExpiresAt();
+    Long getBusinessId();
+}
@@ -0,0 +1,30 @@
+package com.lealtixservice.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección devuelta por el UPDATE condicional que redime un cupón.
+ * Contiene todo lo necesario para el registro de auditoría, el email y la respuesta,
+ * sin tocar proxies lazy de Coupon/Campaign/TenantCustomer/Tenant.
+ */
+public interface CouponRedemptionClaim {
+    Long getCouponId();
+    String getCouponCode();
+    String getQrToken();
+
+    Long getCampaignId();
+    String getCampaignTitle();
+    String getCampaignDescription();
+
+    Long getRewardId();
+    String getRewardType();
+    BigDecimal getRewardNumericValue();
+    String getRewardDescription();
+
+    String getCustomerName();
+    String getCustomerEmail();
+
+    Long getTenantId();
+    String getTenantName();
+    String getTenantLogoUrl();
+}
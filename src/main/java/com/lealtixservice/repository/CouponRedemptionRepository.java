@@ -14,6 +14,38 @@ import java.util.Optional;
 @Repository
 public interface CouponRedemptionRepository extends JpaRepository<CouponRedemption, String> {
 
+    /**
+     * Columnas del historial paginado. El orden (redeemed_at DESC, id DESC) es total porque id es único,
+     * y el filtro por tenant + redeemed_at lo resuelve idx_redemption_tenant_date.
+     * "redeemed_at <= :cursorAt" da el límite del rango del índice; la segunda condición
+     * descarta las filas con el mismo redeemed_at ya entregadas.
+     */
+    String HISTORY_SELECT = """
+            SELECT r.id AS "id",
+                   r.coupon_id AS "couponId",
+                   r.campaign_id AS "campaignId",
+                   r.customer_name AS "customerName",
+                   r.customer_email AS "customerEmail",
+                   r.redeemed_by AS "redeemedBy",
+                   r.channel AS "channel",
+                   r.location AS "location",
+                   r.coupon_type AS "couponType",
+                   r.coupon_value AS "couponValue",
+                   r.original_amount AS "originalAmount",
+                   r.discount_amount AS "discountAmount",
+                   r.final_amount AS "finalAmount",
+                   r.redeemed_at AS "redeemedAt"
+            FROM coupon_redemption r
+            WHERE r.tenant_id = :tenantId
+              AND r.redeemed_at <= :cursorAt
+              AND (r.redeemed_at < :cursorAt OR r.id < :cursorId)
+            """;
+
+    String HISTORY_ORDER = """
+            ORDER BY r.redeemed_at DESC, r.id DESC
+            LIMIT :limit
+            """;
+
     /**
      * Buscar redenciones por tenant
      */
@@ -78,6 +110,43 @@ public interface CouponRedemptionRepository extends JpaRepository<CouponRedempti
             @Param("endDate") LocalDateTime endDate
     );
 
+    /**
+     * Página del historial de un tenant posterior al cursor (redeemedAt, id).
+     */
+    @Query(value = HISTORY_SELECT + HISTORY_ORDER, nativeQuery = true)
+    List<RedemptionHistoryView> findHistoryPage(
+            @Param("tenantId") Long tenantId,
+            @Param("cursorAt") LocalDateTime cursorAt,
+            @Param("cursorId") String cursorId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Página del historial de una campaña, filtrada por tenant en SQL.
+     */
+    @Query(value = HISTORY_SELECT + " AND r.campaign_id = :campaignId " + HISTORY_ORDER, nativeQuery = true)
+    List<RedemptionHistoryView> findCampaignHistoryPage(
+            @Param("tenantId") Long tenantId,
+            @Param("campaignId") Long campaignId,
+            @Param("cursorAt") LocalDateTime cursorAt,
+            @Param("cursorId") String cursorId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Página del historial de un tenant dentro de un rango de fechas.
+     */
+    @Query(value = HISTORY_SELECT + " AND r.redeemed_at BETWEEN :startDate AND :endDate " + HISTORY_ORDER,
+            nativeQuery = true)
+    List<RedemptionHistoryView> findDateRangeHistoryPage(
+            @Param("tenantId") Long tenantId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("cursorAt") LocalDateTime cursorAt,
+            @Param("cursorId") String cursorId,
+            @Param("limit") int limit
+    );
+
     /**
      * Redenciones recientes por tenant (últimas N)
      */
@@ -0,0 +1,42 @@
+package com.lealtixservice.repository;
+
+import com.lealtixservice.enums.CouponStatus;
+import com.lealtixservice.enums.RewardType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Vista plana del grafo Coupon -> Campaign -> PromotionReward / TenantCustomer -> Tenant
+ * cargada en un solo SELECT para validar o rechazar una redención sin tocar proxies lazy.
+ */
+public interface CouponRedemptionView {
+    Long getCouponId();
+    String getCouponCode();
+    CouponStatus getStatus();
+    LocalDateTime getExpiresAt();
+    LocalDateTime getRedeemedAt();
+
+    Long getCampaignId();
+    Long getBusinessId();
+    String getCampaignTitle();
+    String getCampaignDescription();
+
+    Long getRewardId();
+    RewardType getRewardType();
+    BigDecimal getRewardNumericValue();
+    String getRewardDescription();
+    BigDecimal getRewardMinPurchaseAmount();
+    Integer getRewardUsageLimit();
+    Integer getRewardUsageCount();
+
+    String getCustomerName();
+    String getCustomerEmail();
+
+    Long getTenantId();
+    String getTenantName();
+
+    default boolean isExpired() {
+        return getExpiresAt() != null && LocalDateTime.now().isAfter(getExpiresAt());
+    }
+}
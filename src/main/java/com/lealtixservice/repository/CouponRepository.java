@@ -1,19 +1,92 @@
 package com.lealtixservice.repository;
 
+import com.lealtixservice.dto.CouponResponseDTO;
 import com.lealtixservice.entity.Coupon;
 import com.lealtixservice.enums.CouponStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CouponRepository extends JpaRepository<Coupon, Long> {
 
+    /**
+     * UPDATE condicional compartido por los métodos claim*: solo transiciona cupones
+     * ACTIVE, no expirados y pertenecientes al tenant. Postgres serializa las escrituras
+     * sobre la fila, por lo que de N redenciones concurrentes exactamente una afecta la fila.
+     */
+    String CLAIM_UPDATE = """
+            UPDATE coupon c
+            SET status = 'REDEEMED',
+                redeemed_at = :redeemedAt,
+                redeemed_by = :redeemedBy,
+                redemption_metadata = :metadata
+            FROM campaign ca
+            LEFT JOIN promotion_reward pr ON pr.campaign_id = ca.id,
+                 tenant_customer tc,
+                 tenant t
+            WHERE ca.id = c.campaign_id
+              AND tc.id = c.customer_id
+              AND t.id = tc.tenant_id
+              AND ca.business_id = :tenantId
+              AND c.status = 'ACTIVE'
+              AND (c.expires_at IS NULL OR c.expires_at > :redeemedAt)
+            """;
+
+    String CLAIM_RETURNING = """
+            RETURNING c.id AS "couponId",
+                      c.code AS "couponCode",
+                      c.qr_token AS "qrToken",
+                      ca.id AS "campaignId",
+                      ca.title AS "campaignTitle",
+                      ca.description AS "campaignDescription",
+                      pr.id AS "rewardId",
+                      pr.reward_type AS "rewardType",
+                      pr.numeric_value AS "rewardNumericValue",
+                      pr.description AS "rewardDescription",
+                      tc.name AS "customerName",
+                      tc.email AS "customerEmail",
+                      t.id AS "tenantId",
+                      t.nombre_negocio AS "tenantName",
+                      t.logo_url AS "tenantLogoUrl"
+            """;
+
+    String REDEMPTION_VIEW_SELECT = """
+            SELECT c.id AS couponId,
+                   c.code AS couponCode,
+                   c.status AS status,
+                   c.expiresAt AS expiresAt,
+                   c.redeemedAt AS redeemedAt,
+                   ca.id AS campaignId,
+                   ca.businessId AS businessId,
+                   ca.title AS campaignTitle,
+                   ca.description AS campaignDescription,
+                   pr.id AS rewardId,
+                   pr.rewardType AS rewardType,
+                   pr.numericValue AS rewardNumericValue,
+                   pr.description AS rewardDescription,
+                   pr.minPurchaseAmount AS rewardMinPurchaseAmount,
+                   pr.usageLimit AS rewardUsageLimit,
+                   pr.usageCount AS rewardUsageCount,
+                   cu.name AS customerName,
+                   cu.email AS customerEmail,
+                   t.id AS tenantId,
+                   t.nombreNegocio AS tenantName
+            FROM Coupon c
+            JOIN c.campaign ca
+            LEFT JOIN ca.promotionReward pr
+            JOIN c.customer cu
+            JOIN cu.tenant t
+            """;
+
     /**
      * Buscar cupón por código
      */
@@ -24,6 +97,104 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
      */
     Optional<Coupon> findByQrToken(String qrToken);
 
+    /**
+     * Carga en un solo SELECT los datos que necesita la validación/rechazo de una redención por QR.
+     */
+    @Query(REDEMPTION_VIEW_SELECT + " WHERE c.qrToken = :qrToken")
+    Optional<CouponRedemptionView> findRedemptionViewByQrToken(@Param("qrToken") String qrToken);
+
+    /**
+     * Igual que findRedemptionViewByQrToken para QR tokens firmados: busca por PK y confirma el token.
+     */
+    @Query(REDEMPTION_VIEW_SELECT + " WHERE c.id = :couponId AND c.qrToken = :qrToken")
+    Optional<CouponRedemptionView> findRedemptionViewByIdAndQrToken(@Param("couponId") Long couponId,
+                                                                    @Param("qrToken") String qrToken);
+
+    /**
+     * Carga en un solo SELECT los datos que necesita la validación/rechazo de una redención por código.
+     */
+    @Query(REDEMPTION_VIEW_SELECT + " WHERE c.code = :code")
+    Optional<CouponRedemptionView> findRedemptionViewByCode(@Param("code") String code);
+
+    /**
+     * Redime atómicamente un cupón por QR token en un solo round trip.
+     * Retorna vacío si el cupón no existe, es de otro tenant, ya no está ACTIVE o expiró.
+     */
+    @Query(value = CLAIM_UPDATE + " AND c.qr_token = :qrToken " + CLAIM_RETURNING, nativeQuery = true)
+    Optional<CouponRedemptionClaim> claimByQrToken(
+            @Param("qrToken") String qrToken,
+            @Param("tenantId") Long tenantId,
+            @Param("redeemedBy") String redeemedBy,
+            @Param("metadata") String metadata,
+            @Param("redeemedAt") LocalDateTime redeemedAt
+    );
+
+    /**
+     * Redime atómicamente un cupón con QR token firmado, localizándolo por PK.
+     */
+    @Query(value = CLAIM_UPDATE + " AND c.id = :couponId AND c.qr_token = :qrToken " + CLAIM_RETURNING, nativeQuery = true)
+    Optional<CouponRedemptionClaim> claimByIdAndQrToken(
+            @Param("couponId") Long couponId,
+            @Param("qrToken") String qrToken,
+            @Param("tenantId") Long tenantId,
+            @Param("redeemedBy") String redeemedBy,
+            @Param("metadata") String metadata,
+            @Param("redeemedAt") LocalDateTime redeemedAt
+    );
+
+    /**
+     * Redime atómicamente un cupón por código en un solo round trip.
+     */
+    @Query(value = CLAIM_UPDATE + " AND c.code = :code " + CLAIM_RETURNING, nativeQuery = true)
+    Optional<CouponRedemptionClaim> claimByCode(
+            @Param("code") String code,
+            @Param("tenantId") Long tenantId,
+            @Param("redeemedBy") String redeemedBy,
+            @Param("metadata") String metadata,
+            @Param("redeemedAt") LocalDateTime redeemedAt
+    );
+
+    /**
+     * Resuelve en un solo SELECT ... IN todos los cupones de un lote de redenciones,
+     * bloqueándolos (orden por id para evitar deadlocks entre lotes concurrentes).
+     * Solo los del tenant que redime: un lote nunca bloquea cupones de otro negocio.
+     * Las listas no pueden ir vacías: el llamador pasa un valor centinela.
+     */
+    @Query(value = """
+            SELECT c.id AS "couponId",
+                   c.code AS "couponCode",
+                   c.qr_token AS "qrToken",
+                   c.status AS "status",
+                   c.expires_at AS "expiresAt",
+                   ca.business_id AS "businessId",
+                   ca.id AS "campaignId",
+                   ca.title AS "campaignTitle",
+                   ca.description AS "campaignDescription",
+                   pr.id AS "rewardId",
+                   pr.reward_type AS "rewardType",
+                   pr.numeric_value AS "rewardNumericValue",
+                   pr.description AS "rewardDescription",
+                   tc.name AS "customerName",
+                   tc.email AS "customerEmail",
+                   t.id AS "tenantId",
+                   t.nombre_negocio AS "tenantName",
+                   t.logo_url AS "tenantLogoUrl"
+            FROM coupon c
+            JOIN campaign ca ON ca.id = c.campaign_id
+            LEFT JOIN promotion_reward pr ON pr.campaign_id = ca.id
+            JOIN tenant_customer tc ON tc.id = c.customer_id
+            JOIN tenant t ON t.id = tc.tenant_id
+            WHERE (c.qr_token IN (:qrTokens) OR c.code IN (:codes))
+              AND ca.business_id = :tenantId
+            ORDER BY c.id
+            FOR UPDATE OF c
+            """, nativeQuery = true)
+    List<CouponRedemptionCandidate> lockRedemptionCandidates(
+            @Param("qrTokens") Collection<String> qrTokens,
+            @Param("codes") Collection<String> codes,
+            @Param("tenantId") Long tenantId
+    );
+
     /**
      * Verificar si existe un cupón con el código
      */
@@ -39,6 +210,29 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
      */
     List<Coupon> findByCustomerId(Long customerId);
 
+    /**
+     * Cupones de un cliente proyectados directo a CouponResponseDTO en una sola consulta
+     * (campaña, cliente y reward en JOINs, sin cargar entidades). status null = todos.
+     * Con Pageable.unpaged() devuelve todos; paginado consulta una fila extra para hasNext().
+     */
+    @Query("""
+            SELECT new com.lealtixservice.dto.CouponResponseDTO(
+                c.id, c.code, c.status, c.expiresAt, c.createdAt, c.redeemedAt, c.qrToken, c.qrUrl,
+                c.redeemedBy, c.redemptionMetadata,
+                ca.id, ca.title, cu.id, cu.name,
+                pr.description, pr.minPurchaseAmount, pr.usageLimit, pr.usageCount, pr.rewardType, pr.numericValue)
+            FROM Coupon c
+            JOIN c.campaign ca
+            JOIN c.customer cu
+            LEFT JOIN ca.promotionReward pr
+            WHERE cu.id = :customerId
+              AND (:status IS NULL OR c.status = :status)
+            ORDER BY c.createdAt DESC, c.id DESC
+            """)
+    Slice<CouponResponseDTO> findCustomerCouponRows(@Param("customerId") Long customerId,
+                                                    @Param("status") CouponStatus status,
+                                                    Pageable pageable);
+
     /**
      * Listar cupones activos de un cliente
      */
@@ -54,12 +248,6 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
      */
     long countByCampaignIdAndStatus(Long campaignId, CouponStatus status);
 
-    /**
-     * Cupones expirados que aún están en estado ACTIVE
-     */
-    @Query("SELECT c FROM Coupon c WHERE c.status = 'ACTIVE' AND c.expiresAt < :now")
-    List<Coupon> findExpiredActiveCoupons(@Param("now") LocalDateTime now);
-
     /**
      * Cupones activos de un cliente para una campaña específica
      */
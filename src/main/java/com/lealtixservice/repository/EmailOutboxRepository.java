@@ -0,0 +1,41 @@
+package com.lealtixservice.repository;
+
+import com.lealtixservice.entity.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Bloquea un lote de mensajes pendientes listos para enviarse, incluidos los IN_FLIGHT con lease vencido.
+     * SKIP LOCKED permite que varios nodos tomen lotes sin pisarse.
+     */
+    @Query(value = """
+            SELECT * FROM email_outbox
+            WHERE status IN ('PENDING', 'IN_FLIGHT')
+              AND next_attempt_at <= :now
+            ORDER BY next_attempt_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<EmailOutbox> lockPendingBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Bloquea los mensajes del lote que siguen IN_FLIGHT con su lease (los demás los tomó otro dispatcher).
+     */
+    @Query(value = """
+            SELECT * FROM email_outbox
+            WHERE id IN (:ids)
+              AND status = 'IN_FLIGHT'
+              AND lease_id = :leaseId
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<EmailOutbox> lockLeased(@Param("ids") Collection<Long> ids, @Param("leaseId") String leaseId);
+}
@@ -0,0 +1,12 @@
+package com.lealtixservice.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección mínima de TenantMenuProduct para cotizar descuentos.
+ */
+public interface ProductPriceView {
+    Long getProductId();
+    String getName();
+    BigDecimal getPrice();
+}
@@ -0,0 +1,25 @@
+package com.lealtixservice.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección ligera de CouponRedemption para el historial paginado.
+ * Omite metadata, user agent e IP, que pueden ser grandes y no se muestran en listados.
+ */
+public interface RedemptionHistoryView {
+    String getId();
+    Long getCouponId();
+    Long getCampaignId();
+    String getCustomerName();
+    String getCustomerEmail();
+    String getRedeemedBy();
+    String getChannel();
+    String getLocation();
+    String getCouponType();
+    BigDecimal getCouponValue();
+    BigDecimal getOriginalAmount();
+    BigDecimal getDiscountAmount();
+    BigDecimal getFinalAmount();
+    LocalDateTime getRedeemedAt();
+}
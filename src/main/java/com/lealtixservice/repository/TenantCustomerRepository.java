@@ -1,7 +1,11 @@
 package com.lealtixservice.repository;
 
 import com.lealtixservice.entity.TenantCustomer;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,5 +16,12 @@ public interface TenantCustomerRepository extends JpaRepository<TenantCustomer,
     List<TenantCustomer> findByTenantId(Long tenantId);
     Optional<TenantCustomer> findByEmailAndTenantId(String email, Long tenantId);
     boolean existsByEmailAndTenantId(String email, Long tenantId);
+
+    /**
+     * Cliente bloqueado hasta el commit: dos procesamientos de la misma bienvenida se serializan.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM TenantCustomer c WHERE c.id = :id")
+    Optional<TenantCustomer> findForWelcomeById(@Param("id") Long id);
 }
 
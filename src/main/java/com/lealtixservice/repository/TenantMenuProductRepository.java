@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,4 +19,13 @@ public interface TenantMenuProductRepository extends JpaRepository<TenantMenuPro
            "where t.id = :tenantId "+
            "order by c.displayOrder asc, c.nombre asc")
     List<TenantMenuProductDTO> findByCategoryTenantId(@Param("tenantId") Long tenantId);
+
+    @Query("select p.id as productId, p.nombre as name, p.precio as price " +
+           "from TenantMenuProduct p where p.id in :ids")
+    List<ProductPriceView> findPricesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id as productId, p.nombre as name, p.precio as price " +
+           "from TenantMenuProduct p join p.category c " +
+           "where c.tenant.id = :tenantId and p.id in :ids")
+    List<ProductPriceView> findPricesByTenantAndIds(@Param("tenantId") Long tenantId, @Param("ids") Collection<Long> ids);
 }
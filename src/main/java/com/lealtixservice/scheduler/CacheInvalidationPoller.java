@@ -0,0 +1,72 @@
+package com.lealtixservice.scheduler;
+
+import com.lealtixservice.cache.JdbcCacheInvalidationBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aplica en este nodo las invalidaciones de cache publicadas por otros nodos
+ * y depura periódicamente la tabla cache_invalidation.
+ *
+ * La consulta corre en su propio hilo y no en el pool de @Scheduled: un trabajo largo
+ * (emisión masiva, barrido de expiración, reconciliación) no debe retrasar las invalidaciones.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.bus", havingValue = "jdbc")
+public class CacheInvalidationPoller {
+
+    private final JdbcCacheInvalidationBus cacheInvalidationBus;
+    private final long pollIntervalMs;
+    private final ScheduledExecutorService executor;
+
+    public CacheInvalidationPoller(JdbcCacheInvalidationBus cacheInvalidationBus,
+                                   @Value("${cache.invalidation.poll-interval-ms:2000}") long pollIntervalMs) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.pollIntervalMs = pollIntervalMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void poll() {
+        try {
+            cacheInvalidationBus.poll();
+        } catch (Exception e) {
+            log.error("Error consultando invalidaciones de cache: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.purge-interval-ms:3600000}")
+    public void purge() {
+        try {
+            int deleted = cacheInvalidationBus.purge();
+            if (deleted > 0) {
+                log.info("Invalidaciones de cache depuradas: {}", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Error depurando invalidaciones de cache: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
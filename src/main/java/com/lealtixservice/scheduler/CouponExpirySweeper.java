@@ -0,0 +1,31 @@
+package com.lealtixservice.scheduler;
+
+import com.lealtixservice.service.CouponExpiryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expira periódicamente los cupones ACTIVE vencidos para que status (y los reportes por estado)
+ * no se desfase de expires_at. Seguro en cluster: el servicio usa un advisory lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.expiry.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class CouponExpirySweeper {
+
+    private final CouponExpiryService couponExpiryService;
+
+    @Scheduled(fixedDelayString = "${coupon.expiry.sweeper.interval-ms:300000}",
+            initialDelayString = "${coupon.expiry.sweeper.initial-delay-ms:60000}")
+    public void sweep() {
+        try {
+            couponExpiryService.sweepExpired();
+        } catch (Exception e) {
+            log.error("Error en el barrido de expiración de cupones: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.lealtixservice.scheduler;
+
+import com.lealtixservice.service.CouponIssuanceService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecuta los trabajos de emisión masiva de cupones.
+ * Cada lote es su propia transacción; si el nodo cae, otro retoma el trabajo desde el checkpoint.
+ *
+ * El hilo de @Scheduled solo toma trabajos; cada trabajo corre en el pool propio del runner
+ * (coupon.issuance.runner.threads) para no ocupar el pool compartido de tareas programadas.
+ * No se toman más trabajos que hilos libres: los demás quedan en la BD para otro nodo.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "coupon.issuance.runner.enabled", havingValue = "true", matchIfMissing = true)
+public class CouponIssuanceJobRunner {
+
+    private final CouponIssuanceService couponIssuanceService;
+    private final int threads;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger running = new AtomicInteger();
+
+    public CouponIssuanceJobRunner(CouponIssuanceService couponIssuanceService,
+                                   @Value("${coupon.issuance.runner.threads:1}") int threads) {
+        this.couponIssuanceService = couponIssuanceService;
+        this.threads = Math.max(1, threads);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "coupon-issuance-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.issuance.poll-interval-ms:5000}")
+    public void run() {
+        while (running.get() < threads) {
+            Optional<Long> claimed;
+            try {
+                claimed = couponIssuanceService.claimNextJob();
+            } catch (Exception e) {
+                log.error("Error tomando trabajos de emisión masiva: {}", e.getMessage(), e);
+                return;
+            }
+            if (claimed.isEmpty()) {
+                return;
+            }
+            Long jobId = claimed.get();
+            running.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    process(jobId);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void process(Long jobId) {
+        try {
+            while (couponIssuanceService.issueNextChunk(jobId) > 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.warn("Emisión masiva {} interrumpida; se retoma desde el checkpoint", jobId);
+                    return;
+                }
+            }
+            couponIssuanceService.completeJob(jobId);
+        } catch (Exception e) {
+            log.error("Error en la emisión masiva {}: {}", jobId, e.getMessage(), e);
+            couponIssuanceService.failJob(jobId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // El trabajo interrumpido queda RUNNING sin latido y otro nodo lo retoma desde el checkpoint
+        executor.shutdownNow();
+    }
+}
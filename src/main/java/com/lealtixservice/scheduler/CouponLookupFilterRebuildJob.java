@@ -0,0 +1,30 @@
+package com.lealtixservice.scheduler;
+
+import com.lealtixservice.cache.CouponLookupFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconstrucción diaria del filtro de Bloom de cupones: descarta cupones eliminados
+ * y ajusta la capacidad al volumen actual para mantener la tasa de falsos positivos.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.lookup-filter.enabled", havingValue = "true", matchIfMissing = true)
+public class CouponLookupFilterRebuildJob {
+
+    private final CouponLookupFilter couponLookupFilter;
+
+    @Scheduled(cron = "${coupon.lookup-filter.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        try {
+            couponLookupFilter.rebuild();
+        } catch (Exception e) {
+            log.error("Error en la reconstrucción programada del filtro de cupones: {}", e.getMessage(), e);
+        }
+    }
+}
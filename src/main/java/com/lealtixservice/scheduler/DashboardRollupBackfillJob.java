@@ -0,0 +1,168 @@
+package com.lealtixservice.scheduler;
+
+import com.lealtixservice.service.DashboardRollupService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recalcula campaign_daily_rollup desde coupon y coupon_redemption, un (tenant, día) por transacción:
+ * - Reconciliación nocturna de los últimos días para todos los tenants (corrige deltas perdidos,
+ *   p. ej. cargas directas a la BD). Solo un nodo la ejecuta: el que obtiene el advisory lock.
+ * - Backfill bajo demanda de un rango acotado (dashboard.rollup.max-rebuild-days), en segundo plano;
+ *   solo corre uno a la vez por nodo.
+ * Ambos corren en el hilo propio del job, fuera del pool de @Scheduled.
+ */
+@Slf4j
+@Component
+public class DashboardRollupBackfillJob {
+
+    // "LTROLLUP" en ASCII; identifica el lock de la reconciliación en pg_locks
+    static final long ADVISORY_LOCK_KEY = 0x4C54524F4C4C5550L;
+
+    // Lock de transacción: se libera con el commit o el rollback, nunca queda en la conexión del pool
+    static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+
+    private final DashboardRollupService dashboardRollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int reconcileDays;
+    private final int maxRebuildDays;
+    private final ThreadPoolExecutor executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public DashboardRollupBackfillJob(DashboardRollupService dashboardRollupService,
+                                      JdbcTemplate jdbcTemplate,
+                                      @Value("${dashboard.rollup.reconcile-days:3}") int reconcileDays,
+                                      @Value("${dashboard.rollup.max-rebuild-days:93}") int maxRebuildDays) {
+        this.dashboardRollupService = dashboardRollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.reconcileDays = Math.max(1, reconcileDays);
+        this.maxRebuildDays = Math.max(1, maxRebuildDays);
+        this.executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-rollup-backfill");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Scheduled(cron = "${dashboard.rollup.reconcile-cron:0 15 4 * * *}")
+    public void reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Reconciliación del acumulado del dashboard omitida: hay un backfill en curso");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                reconcileExclusively();
+            } catch (Exception e) {
+                log.error("Error en la reconciliación del acumulado del dashboard: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Recalcula en segundo plano los días de from a to (inclusive).
+     *
+     * @param tenantId tenant a recalcular; null = todos
+     * @return false si ya hay un recálculo en curso
+     */
+    public boolean startBackfill(Long tenantId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+        if (ChronoUnit.DAYS.between(from, to) + 1 > maxRebuildDays) {
+            throw new IllegalArgumentException("El rango a recalcular no puede exceder " + maxRebuildDays + " días");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                rebuild(tenantId, from, to);
+            } catch (Exception e) {
+                log.error("Error en el backfill del acumulado del dashboard ({} a {}, tenant {}): {}",
+                        from, to, tenantId, e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Mantiene abierta una transacción con el advisory lock en una conexión propia mientras los días se
+     * recalculan en sus propias transacciones; si este nodo cae, la sesión se cierra y el lock se libera.
+     */
+    private void reconcileExclusively() {
+        LocalDate today = LocalDate.now();
+        Boolean reconciled = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (!tryLock(connection)) {
+                    return false;
+                }
+                rebuild(null, today.minusDays(reconcileDays - 1L), today);
+                return true;
+            } finally {
+                // Termina la transacción y con ella el lock
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+        if (!Boolean.TRUE.equals(reconciled)) {
+            log.debug("Reconciliación del acumulado del dashboard omitida: otro nodo tiene el lock");
+        }
+    }
+
+    private void rebuild(Long tenantId, LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        long rows = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            List<Long> tenants = tenantId != null ? List.of(tenantId) : dashboardRollupService.tenantsForDay(day);
+            for (Long tenant : tenants) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.warn("Recálculo del acumulado del dashboard interrumpido en {}", day);
+                    return;
+                }
+                rows += dashboardRollupService.rebuildDay(tenant, day);
+            }
+        }
+        log.info("Acumulado del dashboard recalculado de {} a {} (tenant {}): {} fila(s) en {} ms",
+                from, to, tenantId != null ? tenantId : "todos", rows,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(TRY_LOCK_SQL)) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
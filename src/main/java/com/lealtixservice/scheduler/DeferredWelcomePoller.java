@@ -0,0 +1,35 @@
+package com.lealtixservice.scheduler;
+
+import com.lealtixservice.event.CustomerRegisteredListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retoma las bienvenidas que se difirieron a la BD porque la cola del flujo de bienvenida estaba llena,
+ * y las de un nodo que cayó con el lease tomado.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeferredWelcomePoller {
+
+    private final CustomerRegisteredListener customerRegisteredListener;
+
+    @Value("${welcome.pipeline.deferred-batch-size:200}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${welcome.pipeline.deferred-poll-interval-ms:10000}")
+    public void resume() {
+        try {
+            int resumed = customerRegisteredListener.resumeDeferred(batchSize);
+            if (resumed > 0) {
+                log.info("Bienvenidas diferidas retomadas: {}", resumed);
+            }
+        } catch (Exception e) {
+            log.error("Error retomando bienvenidas diferidas: {}", e.getMessage(), e);
+        }
+    }
+}
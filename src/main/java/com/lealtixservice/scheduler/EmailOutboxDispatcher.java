@@ -0,0 +1,42 @@
+package com.lealtixservice.scheduler;
+
+import com.lealtixservice.service.EmailOutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drena periódicamente la bandeja de salida de emails.
+ * Cada lote corre en su propia transacción; mientras se llenen lotes completos se sigue drenando.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "email.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxService emailOutboxService;
+
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${email.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                int processed = emailOutboxService.dispatchPendingBatch(batchSize);
+                if (processed < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error drenando la bandeja de salida de emails: {}", e.getMessage(), e);
+        }
+    }
+}
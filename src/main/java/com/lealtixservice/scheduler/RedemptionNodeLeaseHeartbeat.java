@@ -0,0 +1,28 @@
+package com.lealtixservice.scheduler;
+
+import com.lealtixservice.config.RedemptionIdConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renueva el lease del nodo del generador de IDs de redención antes de que venza
+ * (redemption.id.lease-seconds).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedemptionNodeLeaseHeartbeat {
+
+    private final RedemptionIdConfig redemptionIdConfig;
+
+    @Scheduled(fixedDelayString = "${redemption.id.lease-renew-interval-ms:30000}")
+    public void renew() {
+        try {
+            redemptionIdConfig.renewLease();
+        } catch (Exception e) {
+            log.error("Error renovando el lease del nodo de IDs de redención: {}", e.getMessage(), e);
+        }
+    }
+}
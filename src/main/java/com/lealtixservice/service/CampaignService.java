@@ -1,8 +1,10 @@
 package com.lealtixservice.service;
 
+import com.lealtixservice.cache.WelcomeCampaignSnapshot;
 import com.lealtixservice.dto.*;
 import com.lealtixservice.entity.Campaign;
 import java.util.List;
+import java.util.Optional;
 
 public interface CampaignService {
     CampaignResponse create(CreateCampaignRequest request);
@@ -30,6 +32,11 @@ public interface CampaignService {
     // Nuevo: Obtener la campaña de bienvenida activa (entidad completa para generar cupones)
     Campaign getActiveWelcomeCampaignEntity(Long tenantId);
 
+    // Campaña de bienvenida activa desde el cache por tenant (sin consulta en cada alta de cliente)
+    Optional<WelcomeCampaignSnapshot> findActiveWelcomeCampaign(Long tenantId);
+
+    WelcomeCampaignCacheStats getWelcomeCampaignCacheStats();
+
     // Nuevo: Validar campañas de un negocio y retornar lista de faltantes
     List<CampaignValidationResult> validateCampaignsForBusiness(Long businessId);
 }
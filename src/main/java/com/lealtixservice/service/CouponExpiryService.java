@@ -0,0 +1,15 @@
+package com.lealtixservice.service;
+
+import com.lealtixservice.dto.CouponExpirySweepResult;
+
+/**
+ * Expiración de cupones ACTIVE cuya fecha de expiración ya pasó.
+ */
+public interface CouponExpiryService {
+
+    /**
+     * Marca como EXPIRED, por lotes, los cupones ACTIVE vencidos e invalida sus entradas de cache.
+     * Solo un nodo del cluster barre a la vez; si otro tiene el lock, no hace nada.
+     */
+    CouponExpirySweepResult sweepExpired();
+}
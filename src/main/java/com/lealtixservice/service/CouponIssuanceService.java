@@ -0,0 +1,47 @@
+package com.lealtixservice.service;
+
+import com.lealtixservice.dto.CouponIssuanceJobResponse;
+
+import java.util.Optional;
+
+/**
+ * Emisión masiva de cupones de una campaña para todo el segmento de clientes de un tenant.
+ * El trabajo se procesa por lotes con checkpoint, por lo que puede reanudarse tras una caída.
+ */
+public interface CouponIssuanceService {
+
+    /**
+     * Crea un trabajo de emisión para los clientes del tenant que aceptan promociones.
+     *
+     * @throws com.lealtixservice.exception.ResourceNotFoundException si la campaña no existe o no pertenece al tenant
+     * @throws com.lealtixservice.exception.BusinessRuleException si la campaña no está activa/programada o ya tiene un trabajo en curso
+     */
+    CouponIssuanceJobResponse startIssuance(Long campaignId, Long tenantId);
+
+    CouponIssuanceJobResponse getJob(Long jobId, Long tenantId);
+
+    /**
+     * Reencola un trabajo fallido o cancelado; continúa desde su último checkpoint.
+     */
+    CouponIssuanceJobResponse resumeJob(Long jobId, Long tenantId);
+
+    CouponIssuanceJobResponse cancelJob(Long jobId, Long tenantId);
+
+    /**
+     * Toma el siguiente trabajo pendiente (o abandonado) y lo marca RUNNING.
+     *
+     * @return id del trabajo tomado, vacío si no hay trabajo
+     */
+    Optional<Long> claimNextJob();
+
+    /**
+     * Emite el siguiente lote de cupones y avanza el checkpoint en la misma transacción.
+     *
+     * @return cupones emitidos en el lote; 0 cuando ya no quedan clientes (o el trabajo dejó de estar RUNNING)
+     */
+    int issueNextChunk(Long jobId);
+
+    void completeJob(Long jobId);
+
+    void failJob(Long jobId, String error);
+}
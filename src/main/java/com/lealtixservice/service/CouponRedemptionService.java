@@ -1,6 +1,9 @@
 package com.lealtixservice.service;
 
+import com.lealtixservice.dto.BulkRedemptionRequest;
+import com.lealtixservice.dto.BulkRedemptionResponse;
 import com.lealtixservice.dto.RedeemCouponRequest;
+import com.lealtixservice.dto.RedemptionHistoryPage;
 import com.lealtixservice.dto.RedemptionResponse;
 import com.lealtixservice.entity.CouponRedemption;
 
@@ -36,31 +39,50 @@ public interface CouponRedemptionService {
     RedemptionResponse redeemCouponByCode(String couponCode, RedeemCouponRequest request, Long tenantId);
 
     /**
-     * Obtiene el historial de redenciones de un tenant.
+     * Sincroniza un lote de redenciones capturadas offline por terminales POS.
+     * Resuelve todos los cupones en una sola consulta y aplica las redenciones en batch.
+     * Los conflictos (mismo cupón varias veces) se resuelven por hora de escaneo y posición en el lote.
+     *
+     * @param bulkRequest Redenciones con su hora de escaneo en la terminal
+     * @param tenantId ID del tenant que redime
+     * @return Resultado por elemento, en el mismo orden de la solicitud
+     */
+    BulkRedemptionResponse redeemBatch(BulkRedemptionRequest bulkRequest, Long tenantId);
+
+    /**
+     * Obtiene el historial de redenciones de un tenant, paginado por cursor (más recientes primero).
      *
      * @param tenantId ID del tenant
-     * @return Lista de redenciones
+     * @param cursor nextCursor de la página anterior (null para la primera)
+     * @param limit Tamaño de página (máximo 200)
+     * @return Página de redenciones
+     * @throws IllegalArgumentException si el cursor no es válido
      */
-    List<CouponRedemption> getRedemptionsByTenant(Long tenantId);
+    RedemptionHistoryPage getRedemptionHistory(Long tenantId, String cursor, int limit);
 
     /**
-     * Obtiene el historial de redenciones de una campaña.
+     * Obtiene el historial de redenciones de una campaña del tenant, paginado por cursor.
      *
      * @param campaignId ID de la campaña
-     * @param tenantId ID del tenant (para validación)
-     * @return Lista de redenciones
+     * @param tenantId ID del tenant (filtro de seguridad)
+     * @param cursor nextCursor de la página anterior (null para la primera)
+     * @param limit Tamaño de página (máximo 200)
+     * @return Página de redenciones
      */
-    List<CouponRedemption> getRedemptionsByCampaign(Long campaignId, Long tenantId);
+    RedemptionHistoryPage getRedemptionsByCampaign(Long campaignId, Long tenantId, String cursor, int limit);
 
     /**
-     * Obtiene redenciones en un rango de fechas para un tenant.
+     * Obtiene redenciones en un rango de fechas para un tenant, paginadas por cursor.
      *
      * @param tenantId ID del tenant
      * @param startDate Fecha inicio
      * @param endDate Fecha fin
-     * @return Lista de redenciones
+     * @param cursor nextCursor de la página anterior (null para la primera)
+     * @param limit Tamaño de página (máximo 200)
+     * @return Página de redenciones
      */
-    List<CouponRedemption> getRedemptionsByDateRange(Long tenantId, LocalDateTime startDate, LocalDateTime endDate);
+    RedemptionHistoryPage getRedemptionsByDateRange(Long tenantId, LocalDateTime startDate, LocalDateTime endDate,
+                                                    String cursor, int limit);
 
     /**
      * Obtiene las últimas N redenciones de un tenant.
@@ -1,9 +1,12 @@
 package com.lealtixservice.service;
 
+import com.lealtixservice.cache.WelcomeCampaignSnapshot;
 import com.lealtixservice.dto.CouponResponseDTO;
+import com.lealtixservice.dto.CustomerCouponPage;
 import com.lealtixservice.entity.Campaign;
 import com.lealtixservice.entity.Coupon;
 import com.lealtixservice.entity.TenantCustomer;
+import com.lealtixservice.enums.CouponStatus;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +23,16 @@ public interface CouponService {
      */
     Coupon generateWelcomeCoupon(Campaign campaign, TenantCustomer customer);
 
+    /**
+     * Genera un cupón de bienvenida a partir del snapshot cacheado de la campaña,
+     * sin volver a cargar la campaña.
+     *
+     * @param campaign Campaña de bienvenida activa (WelcomeCampaignCache)
+     * @param customer Cliente que recibe el cupón
+     * @return Cupón generado con código QR
+     */
+    Coupon generateWelcomeCoupon(WelcomeCampaignSnapshot campaign, TenantCustomer customer);
+
     /**
      * Busca un cupón por su código
      */
@@ -30,6 +43,22 @@ public interface CouponService {
      */
     List<Coupon> findByCustomerId(Long customerId);
 
+    /**
+     * Lista todos los cupones de un cliente ya como DTO, en una sola consulta (más recientes primero).
+     *
+     * @param status filtro opcional; null = todos
+     */
+    List<CouponResponseDTO> findCustomerCoupons(Long customerId, CouponStatus status);
+
+    /**
+     * Una página de los cupones de un cliente ya como DTO, en una sola consulta (más recientes primero).
+     *
+     * @param status filtro opcional; null = todos
+     * @param page   página base 0
+     * @param size   tamaño de página (se limita a un máximo)
+     */
+    CustomerCouponPage findCustomerCoupons(Long customerId, CouponStatus status, int page, int size);
+
     /**
      * Canjea un cupón por su código
      */
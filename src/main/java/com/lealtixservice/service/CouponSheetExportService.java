@@ -0,0 +1,33 @@
+package com.lealtixservice.service;
+
+import com.lealtixservice.enums.CouponExportFormat;
+import com.lealtixservice.enums.CouponStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Exportación masiva de los QR de una campaña para impresión.
+ * Los cupones se leen con cursor y se escriben a la salida conforme se renderizan,
+ * por lo que la memoria no crece con el tamaño de la campaña.
+ */
+public interface CouponSheetExportService {
+
+    /**
+     * Valida la exportación antes de empezar a escribir la respuesta.
+     *
+     * @throws com.lealtixservice.exception.ResourceNotFoundException si la campaña no existe o no pertenece al tenant
+     * @throws IllegalArgumentException si el tamaño de imagen está fuera de rango
+     */
+    void validateExport(Long campaignId, Long tenantId, int size);
+
+    /**
+     * Escribe los QR de la campaña en la salida.
+     *
+     * @param status filtro opcional por estado (null = todos)
+     * @param size   ancho/alto de cada PNG en píxeles (ZIP)
+     * @return número de cupones exportados
+     */
+    long export(Long campaignId, CouponExportFormat format, CouponStatus status, int size,
+                OutputStream out) throws IOException;
+}
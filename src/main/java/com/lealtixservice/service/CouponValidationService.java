@@ -1,5 +1,9 @@
 package com.lealtixservice.service;
 
+import com.lealtixservice.dto.BasketQuoteRequest;
+import com.lealtixservice.dto.BasketQuoteResponse;
+import com.lealtixservice.dto.CouponLookupFilterStats;
+import com.lealtixservice.dto.CouponValidationCacheStats;
 import com.lealtixservice.dto.CouponValidationResponse;
 
 /**
@@ -35,5 +39,31 @@ public interface CouponValidationService {
      * @return Información completa del cupón para mostrar al cliente
      */
     CouponValidationResponse validateCouponByQrTokenForCustomer(String qrToken);
+
+    /**
+     * Cotiza (sin redimir) el descuento de un cupón sobre una cuenta con productos del menú del tenant.
+     *
+     * @param qrToken Token QR del cupón
+     * @param request Productos y cantidades de la cuenta
+     * @param tenantId ID del tenant (los productos deben pertenecer a su menú)
+     * @return Subtotal, descuento y total final
+     * @throws IllegalArgumentException si algún producto no existe en el menú del tenant
+     */
+    BasketQuoteResponse quoteBasket(String qrToken, BasketQuoteRequest request, Long tenantId);
+
+    /**
+     * Métricas (hits/misses/evictions) del cache de validación por QR token.
+     */
+    CouponValidationCacheStats getCacheStats();
+
+    /**
+     * Métricas de los filtros de Bloom de códigos y QR tokens (memoria, falsos positivos).
+     */
+    CouponLookupFilterStats getLookupFilterStats();
+
+    /**
+     * Reconstruye los filtros de Bloom desde la tabla de cupones.
+     */
+    CouponLookupFilterStats rebuildLookupFilter();
 }
 
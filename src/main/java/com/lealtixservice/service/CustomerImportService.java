@@ -0,0 +1,26 @@
+package com.lealtixservice.service;
+
+import com.lealtixservice.dto.CustomerImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Importación masiva de clientes de un tenant desde CSV.
+ * El archivo se lee registro por registro y se inserta por lotes, por lo que la memoria no
+ * crece con el tamaño del archivo.
+ */
+public interface CustomerImportService {
+
+    /**
+     * Importa los clientes del CSV (UTF-8, separador ',' o ';').
+     * Columnas: name y email obligatorias; gender, birth_date (yyyy-MM-dd o dd/MM/yyyy), phone y
+     * accepted_promotions opcionales. Los emails ya registrados en el tenant o repetidos en el
+     * archivo se omiten y se reportan.
+     *
+     * @param sendWelcome si es true, cada lote importado se encola al flujo de bienvenida (cupón y email)
+     * @throws com.lealtixservice.exception.ResourceNotFoundException si el tenant no existe
+     * @throws IllegalArgumentException si el archivo está vacío o le faltan columnas obligatorias
+     */
+    CustomerImportResult importCsv(Long tenantId, InputStream csv, boolean sendWelcome) throws IOException;
+}
@@ -0,0 +1,43 @@
+package com.lealtixservice.service;
+
+import com.lealtixservice.dto.dashboard.CampaignRollupTotals;
+import com.lealtixservice.entity.CouponRedemption;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Acumulados diarios por tenant, día y campaña (campaign_daily_rollup) que alimentan el dashboard.
+ */
+public interface DashboardRollupService {
+
+    /**
+     * Suma cupones emitidos al día de issuedAt. Se ejecuta en la transacción de la emisión.
+     */
+    void recordIssued(Long tenantId, Long campaignId, LocalDateTime issuedAt, int count);
+
+    /**
+     * Suma redenciones y montos, agrupados por tenant, día y campaña. Se ejecuta en la transacción de la redención.
+     */
+    void recordRedemptions(Collection<CouponRedemption> redemptions);
+
+    /**
+     * Totales por campaña entre dos días (inclusive), sumando filas del acumulado.
+     */
+    List<CampaignRollupTotals> sumByCampaign(Long tenantId, LocalDate fromDay, LocalDate toDay);
+
+    /**
+     * Tenants con acumulado o con emisiones o redenciones en el día (los que un recálculo debe recorrer).
+     */
+    List<Long> tenantsForDay(LocalDate day);
+
+    /**
+     * Recalcula el acumulado de un tenant en un día desde coupon y coupon_redemption, reemplazando lo que hubiera.
+     * Solo bloquea ese (tenant, día): las sumas de los demás tenants y días siguen en paralelo.
+     *
+     * @return filas escritas
+     */
+    int rebuildDay(Long tenantId, LocalDate day);
+}
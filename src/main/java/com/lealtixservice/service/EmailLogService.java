@@ -1,11 +1,23 @@
 package com.lealtixservice.service;
 
+import com.lealtixservice.dto.EmailLogWriterStats;
 import com.lealtixservice.entity.EmailLog;
 import java.util.List;
 import java.util.Optional;
 
 public interface EmailLogService {
     EmailLog save(EmailLog emailLog);
+    List<EmailLog> saveAll(List<EmailLog> emailLogs);
+
+    /**
+     * Encola el registro para el escritor asíncrono (INSERT por lotes); no espera a la base de datos.
+     */
+    void saveAsync(EmailLog emailLog);
+
+    void saveAllAsync(List<EmailLog> emailLogs);
+
+    EmailLogWriterStats getWriterStats();
+
     Optional<EmailLog> findById(Long id);
     List<EmailLog> findAll();
     void deleteById(Long id);
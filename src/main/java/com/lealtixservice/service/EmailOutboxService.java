@@ -0,0 +1,24 @@
+package com.lealtixservice.service;
+
+import com.lealtixservice.dto.EmailDTO;
+import com.lealtixservice.entity.EmailOutbox;
+
+/**
+ * Bandeja de salida transaccional de emails.
+ */
+public interface EmailOutboxService {
+
+    /**
+     * Registra el email en la bandeja de salida dentro de la transacción actual.
+     * Si la transacción hace rollback, el email nunca se envía.
+     */
+    EmailOutbox enqueue(EmailDTO emailDTO);
+
+    /**
+     * Toma un lote de emails pendientes (lease IN_FLIGHT), los envía fuera de transacción y registra los resultados.
+     *
+     * @param batchSize máximo de mensajes a procesar
+     * @return número de mensajes procesados (enviados, reprogramados o descartados)
+     */
+    int dispatchPendingBatch(int batchSize);
+}
@@ -1,8 +1,10 @@
 package com.lealtixservice.service;
 
 import com.lealtixservice.dto.EmailDTO;
+import com.lealtixservice.dto.EmailDeliveryResult;
 
 import java.io.IOException;
+import java.util.List;
 
 public interface Emailservice {
 
@@ -10,4 +12,25 @@ public interface Emailservice {
     public void sendEmail(String to, String subject, String body) throws IOException;
 
     public void sendEmailWithTemplate(EmailDTO emailDTO) throws IOException;
+
+    /**
+     * Envía el email con template y regresa el resultado junto con su EmailLog sin persistirlo,
+     * para que el llamador pueda guardar los logs en lote.
+     */
+    public EmailDeliveryResult deliverEmailWithTemplate(EmailDTO emailDTO) throws IOException;
+
+    /**
+     * Envío masivo con template: agrupa los destinatarios por template en peticiones de hasta
+     * sendgrid.bulk.batch-size personalizations y envía los grupos en paralelo (sendgrid.bulk.concurrency).
+     * Los emails con adjuntos se envían uno por uno (SendGrid no permite adjuntos por destinatario).
+     * Registra un EmailLog por destinatario con inserts en lote.
+     *
+     * @return un resultado por email, en el mismo orden de entrada; los que tengan isRetryable() pueden reenviarse
+     */
+    public List<EmailDeliveryResult> sendBulkWithTemplate(List<EmailDTO> emails);
+
+    /**
+     * Igual que sendBulkWithTemplate pero sin persistir los EmailLog.
+     */
+    public List<EmailDeliveryResult> deliverBulkWithTemplate(List<EmailDTO> emails);
 }
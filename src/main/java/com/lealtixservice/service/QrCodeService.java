@@ -1,5 +1,9 @@
 package com.lealtixservice.service;
 
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.lealtixservice.dto.QrImageCacheStats;
+import com.lealtixservice.qr.QrImageFormat;
+
 import java.io.IOException;
 
 /**
@@ -46,5 +50,61 @@ public interface QrCodeService {
      * @throws IOException Si ocurre un error al generar el QR
      */
     String generateQrCodeBase64(String content) throws IOException;
+
+    /**
+     * Genera un código QR con nivel de corrección y formato explícitos (cacheado).
+     *
+     * @param content El contenido a codificar en el QR
+     * @param width Ancho en píxeles
+     * @param height Alto en píxeles
+     * @param ecc Nivel de corrección de errores
+     * @param format PNG (1 bit) o SVG
+     * @return Los bytes de la imagen
+     * @throws IOException Si ocurre un error al generar el QR
+     */
+    byte[] generateQrCode(String content, int width, int height,
+                          ErrorCorrectionLevel ecc, QrImageFormat format) throws IOException;
+
+    /**
+     * Genera un código QR vectorial (SVG)
+     *
+     * @param content El contenido a codificar en el QR
+     * @param size Ancho/alto sugerido en píxeles (el SVG escala sin pérdida)
+     * @return El SVG en UTF-8
+     * @throws IOException Si ocurre un error al generar el QR
+     */
+    byte[] generateQrSvg(String content, int size) throws IOException;
+
+    /**
+     * Genera un código QR sin pasar por el cache (exportaciones masivas: no desplazan las imágenes calientes)
+     *
+     * @param content El contenido a codificar en el QR
+     * @param size Ancho/alto en píxeles
+     * @param format PNG (1 bit) o SVG
+     * @return Los bytes de la imagen
+     * @throws IOException Si ocurre un error al generar el QR
+     */
+    byte[] renderQrCode(String content, int size, QrImageFormat format) throws IOException;
+
+    /**
+     * Contenido del QR de un cupón (URL de canje del dashboard)
+     *
+     * @param qrToken Token QR del cupón
+     * @return URL a codificar en el QR
+     */
+    String couponQrContent(String qrToken);
+
+    /**
+     * Renderiza en segundo plano el QR por defecto (PNG 300x300) para dejarlo en cache.
+     * Best effort: nunca lanza excepción.
+     *
+     * @param content El contenido a codificar en el QR
+     */
+    void prerender(String content);
+
+    /**
+     * Métricas del cache de imágenes QR
+     */
+    QrImageCacheStats cacheStats();
 }
 
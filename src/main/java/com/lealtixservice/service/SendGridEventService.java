@@ -0,0 +1,23 @@
+package com.lealtixservice.service;
+
+import com.lealtixservice.dto.SendGridEvent;
+import com.lealtixservice.dto.SendGridEventStats;
+
+import java.util.List;
+
+public interface SendGridEventService {
+
+    /**
+     * Encola un lote del webhook para aplicarlo en segundo plano; no espera a la base de datos.
+     */
+    void accept(List<SendGridEvent> events);
+
+    /**
+     * Aplica el lote a email_log y campaign_result con una sentencia por cada bloque de mensajes.
+     *
+     * @return filas de email_log actualizadas
+     */
+    int apply(List<SendGridEvent> events);
+
+    SendGridEventStats getStats();
+}
@@ -0,0 +1,35 @@
+package com.lealtixservice.service;
+
+import com.lealtixservice.event.CustomerRegisteredEvent;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Flujo de bienvenida de un cliente recién registrado: cupón de bienvenida (si el negocio
+ * tiene campaña activa) y email, que se encola en la bandeja de salida.
+ */
+public interface WelcomePipelineService {
+
+    /**
+     * Genera el cupón y encola el email en una sola transacción.
+     * Si falla no queda nada a medias, por lo que puede reintentarse.
+     */
+    void processCustomerRegistered(CustomerRegisteredEvent event);
+
+    /**
+     * Encola solo el email de bienvenida sin cupón (degradación cuando el cupón no se pudo generar).
+     */
+    void sendWelcomeWithoutCoupon(CustomerRegisteredEvent event);
+
+    /**
+     * Marca la bienvenida de los clientes como pendiente en la BD (flujo saturado); en su propia transacción.
+     */
+    void deferWelcome(Collection<Long> customerIds);
+
+    /**
+     * Toma hasta limit bienvenidas pendientes con un lease; processCustomerRegistered y
+     * sendWelcomeWithoutCoupon las dan por terminadas. Si el lease vence se vuelven a tomar.
+     */
+    List<CustomerRegisteredEvent> claimDeferredWelcomes(int limit);
+}
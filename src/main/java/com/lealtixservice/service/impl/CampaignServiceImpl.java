@@ -1,5 +1,8 @@
 package com.lealtixservice.service.impl;
 
+import com.lealtixservice.cache.WelcomeCampaignCache;
+import com.lealtixservice.cache.WelcomeCampaignSnapshot;
+import com.lealtixservice.discount.DiscountEngine;
 import com.lealtixservice.dto.*;
 import com.lealtixservice.entity.Campaign;
 import com.lealtixservice.entity.CampaignTemplate;
@@ -28,6 +31,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,6 +44,8 @@ public class CampaignServiceImpl implements CampaignService {
     private final CampaignTemplateRepository templateRepository;
     private final PromotionRewardRepository promotionRewardRepository;
     private final CouponRepository couponRepository;
+    private final DiscountEngine discountEngine;
+    private final WelcomeCampaignCache welcomeCampaignCache;
 
     @Override
     @Transactional
@@ -52,6 +58,7 @@ public class CampaignServiceImpl implements CampaignService {
         }
         Campaign entity = CampaignMapper.toEntity(request, template);
         Campaign saved = campaignRepository.save(entity);
+        welcomeCampaignCache.evict(saved.getBusinessId());
         return CampaignMapper.toResponse(saved);
     }
 
@@ -85,6 +92,7 @@ public class CampaignServiceImpl implements CampaignService {
         long t3 = System.currentTimeMillis();
 
         Campaign saved = campaignRepository.save(campaign);
+        welcomeCampaignCache.evict(saved.getBusinessId());
         long t4 = System.currentTimeMillis();
 
         // REGLA: Si promoType = NONE, eliminar reward y coupons asociados
@@ -141,6 +149,7 @@ public class CampaignServiceImpl implements CampaignService {
         Campaign campaign = campaignRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Campaign no encontrada id=" + id));
         campaignRepository.delete(campaign);
+        welcomeCampaignCache.evict(campaign.getBusinessId());
     }
 
     private void validateDates(LocalDate start, LocalDate end) {
@@ -211,6 +220,7 @@ public class CampaignServiceImpl implements CampaignService {
         campaign.setIsAutomatic(dto.getIsAutomatic() != null ? dto.getIsAutomatic() : false);
 
         Campaign saved = campaignRepository.save(campaign);
+        welcomeCampaignCache.evict(saved.getBusinessId());
         return CampaignMapper.toResponse(saved);
     }
 
@@ -259,6 +269,7 @@ public class CampaignServiceImpl implements CampaignService {
         campaign.setPublishedAt(LocalDateTime.now());
 
         Campaign saved = campaignRepository.save(campaign);
+        welcomeCampaignCache.evict(saved.getBusinessId());
         return CampaignMapper.toResponse(saved);
     }
 
@@ -310,6 +321,7 @@ public class CampaignServiceImpl implements CampaignService {
                 .build();
 
         Campaign saved = campaignRepository.save(campaign);
+        welcomeCampaignCache.evict(saved.getBusinessId());
         return CampaignMapper.toResponse(saved);
     }
 
@@ -361,6 +373,7 @@ public class CampaignServiceImpl implements CampaignService {
         campaign.setPublishedAt(LocalDateTime.now());
 
         Campaign saved = campaignRepository.save(campaign);
+        welcomeCampaignCache.evict(saved.getBusinessId());
         log.info("Campaña {} activada exitosamente en FASE 4", campaignId);
 
         return CampaignMapper.toResponse(saved);
@@ -515,6 +528,7 @@ public class CampaignServiceImpl implements CampaignService {
             // Actualizar reward existente
             log.info("Actualizando reward existente ID: {} para campaña {}", existingReward.getId(), campaignId);
             reward = updateRewardFromRequest(existingReward, request);
+            discountEngine.invalidate(existingReward.getId());
         } else {
             // Crear nuevo reward
             log.info("Creando nuevo reward para campaña {}", campaignId);
@@ -523,6 +537,7 @@ public class CampaignServiceImpl implements CampaignService {
 
         // 4. Guardar el reward (NO modificar el status de la campaña)
         PromotionReward savedReward = promotionRewardRepository.save(reward);
+        welcomeCampaignCache.evict(campaign.getBusinessId());
         log.info("Reward {} configurado exitosamente para campaña {}",
                 savedReward.getId(), campaignId);
 
@@ -643,15 +658,26 @@ public class CampaignServiceImpl implements CampaignService {
 
     @Override
     public boolean hasActiveWelcomeCampaign(Long tenantId) {
-        log.info("Verificando si el tenant {} tiene una campaña de bienvenida activa", tenantId);
+        boolean exists = findActiveWelcomeCampaign(tenantId).isPresent();
+        log.debug("Resultado verificación campaña bienvenida para tenant {}: {}", tenantId, exists);
+        return exists;
+    }
+
+    @Override
+    public Optional<WelcomeCampaignSnapshot> findActiveWelcomeCampaign(Long tenantId) {
         if (tenantId == null) {
-            return false;
+            return Optional.empty();
         }
         // Reglas: template.category = 'General', template.name = 'Bienvenida', status = ACTIVE, endDate null o >= today
-        boolean exists = campaignRepository.existsActiveWelcomeCampaignForTenant(
-                tenantId, CampaignStatus.ACTIVE, "General", "Bienvenida");
-        log.info("Resultado verificación campaña bienvenida para tenant {}: {}", tenantId, exists);
-        return exists;
+        return welcomeCampaignCache.get(tenantId, () -> campaignRepository.findActiveWelcomeCampaignsForTenant(
+                        tenantId, CampaignStatus.ACTIVE, "General", "Bienvenida").stream()
+                .findFirst()
+                .map(WelcomeCampaignSnapshot::from));
+    }
+
+    @Override
+    public WelcomeCampaignCacheStats getWelcomeCampaignCacheStats() {
+        return welcomeCampaignCache.stats();
     }
 
     @Override
@@ -661,6 +687,10 @@ public class CampaignServiceImpl implements CampaignService {
             log.warn("tenantId es null, retornando null");
             return null;
         }
+        if (findActiveWelcomeCampaign(tenantId).isEmpty()) {
+            // El cache ya sabe que no hay campaña: sin consulta
+            return null;
+        }
 
         // Buscar campañas activas de bienvenida (con template y promotionReward precargados)
         log.debug("Ejecutando query findActiveWelcomeCampaignsForTenant con parámetros: tenantId={}, status=ACTIVE, category=General, name=Bienvenida", tenantId);
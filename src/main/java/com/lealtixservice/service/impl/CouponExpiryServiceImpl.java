@@ -0,0 +1,155 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.cache.CouponValidationCache;
+import com.lealtixservice.dto.CouponExpirySweepResult;
+import com.lealtixservice.service.CouponExpiryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Barrido de expiración basado en conjuntos.
+ *
+ * Cada lote es una transacción propia que primero toma el advisory lock de transacción y luego hace un
+ * UPDATE ... RETURNING de hasta chunkSize cupones vencidos (índice parcial idx_coupon_active_expires_at)
+ * con SKIP LOCKED para no esperar a una redención en curso. El lock se libera con el commit o el
+ * rollback del lote, así nunca vuelve al pool pegado a la conexión. Si otro nodo lo tiene al empezar,
+ * el barrido se omite; si lo toma entre dos lotes, este nodo se detiene y el otro sigue.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CouponExpiryServiceImpl implements CouponExpiryService {
+
+    // "LTEXPIRY" en ASCII; identifica el lock del barrido en pg_locks
+    static final long ADVISORY_LOCK_KEY = 0x4C54455850495259L;
+
+    static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+
+    // expireChunk sin el lock: otro nodo está barriendo
+    private static final int NOT_LOCKED = -1;
+
+    static final String EXPIRE_CHUNK_SQL = """
+            WITH expired AS (
+                SELECT id FROM coupon
+                WHERE status = 'ACTIVE' AND expires_at < ?
+                ORDER BY expires_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE coupon c SET status = 'EXPIRED'
+            FROM expired e
+            WHERE c.id = e.id
+            RETURNING c.campaign_id, c.qr_token
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CouponValidationCache couponValidationCache;
+
+    @Value("${coupon.expiry.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${coupon.expiry.max-chunks-per-run:200}")
+    private int maxChunksPerRun = 200;
+
+    @Override
+    public CouponExpirySweepResult sweepExpired() {
+        // expires_at se guarda en hora local de la aplicación, por eso el corte se calcula aquí y no con now() de la BD
+        LocalDateTime cutoff = LocalDateTime.now();
+        long startedAt = System.currentTimeMillis();
+        Map<Long, Integer> expiredByCampaign = new TreeMap<>();
+
+        Integer chunks = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                int executed = 0;
+                while (executed < maxChunksPerRun) {
+                    int expired = expireChunk(connection, cutoff, expiredByCampaign);
+                    if (expired == NOT_LOCKED) {
+                        return executed == 0 ? null : executed;
+                    }
+                    executed++;
+                    if (expired < chunkSize) {
+                        break;
+                    }
+                }
+                return executed;
+            } finally {
+                // Sin efecto tras el commit del lote; si un lote falló, descarta su UPDATE y su lock
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+
+        if (chunks == null) {
+            log.debug("Barrido de expiración omitido: otro nodo tiene el lock");
+            return CouponExpirySweepResult.skipped(cutoff);
+        }
+
+        int total = expiredByCampaign.values().stream().mapToInt(Integer::intValue).sum();
+        long duration = System.currentTimeMillis() - startedAt;
+        if (total > 0) {
+            expiredByCampaign.forEach((campaignId, count) ->
+                    log.info("Barrido de expiración: campaña {} -> {} cupones expirados", campaignId, count));
+            log.info("Barrido de expiración: {} cupones expirados en {} lotes ({} ms)", total, chunks, duration);
+        }
+        return new CouponExpirySweepResult(true, cutoff, total, chunks, duration,
+                Collections.unmodifiableMap(expiredByCampaign));
+    }
+
+    /**
+     * Un lote en su propia transacción.
+     *
+     * @return cupones expirados, o NOT_LOCKED si otro nodo tiene el lock
+     */
+    private int expireChunk(Connection connection, LocalDateTime cutoff,
+                            Map<Long, Integer> expiredByCampaign) throws SQLException {
+        if (!tryLock(connection)) {
+            connection.rollback();
+            return NOT_LOCKED;
+        }
+        List<Long> campaignIds = new ArrayList<>();
+        List<String> qrTokens = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(EXPIRE_CHUNK_SQL)) {
+            ps.setTimestamp(1, Timestamp.valueOf(cutoff));
+            ps.setInt(2, chunkSize);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    campaignIds.add(rs.getLong(1));
+                    qrTokens.add(rs.getString(2));
+                }
+            }
+        }
+        connection.commit();
+
+        // El lote ya está confirmado: se cuenta y se invalida
+        campaignIds.forEach(campaignId -> expiredByCampaign.merge(campaignId, 1, Integer::sum));
+        qrTokens.forEach(couponValidationCache::evict);
+        return qrTokens.size();
+    }
+
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(TRY_LOCK_SQL)) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.cache.CouponLookupFilter;
+import com.lealtixservice.dto.CouponIssuanceJobResponse;
+import com.lealtixservice.entity.Campaign;
+import com.lealtixservice.entity.Coupon;
+import com.lealtixservice.entity.CouponIssuanceJob;
+import com.lealtixservice.enums.CampaignStatus;
+import com.lealtixservice.enums.CouponIssuanceJobStatus;
+import com.lealtixservice.exception.BusinessRuleException;
+import com.lealtixservice.exception.ResourceNotFoundException;
+import com.lealtixservice.repository.CampaignRepository;
+import com.lealtixservice.repository.CouponIssuanceJobRepository;
+import com.lealtixservice.service.CouponIssuanceService;
+import com.lealtixservice.service.DashboardRollupService;
+import com.lealtixservice.util.QrTokenSigner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementación de la emisión masiva de cupones.
+ * Cada lote: anti-join por keyset de clientes sin cupón activo de la campaña, ids preasignados por
+ * bloques de coupon_seq, códigos/tokens generados en memoria e INSERT en bloque con ON CONFLICT DO NOTHING.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CouponIssuanceServiceImpl implements CouponIssuanceService {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+    private static final int MAX_CODE_RETRIES = 3;
+    private static final EnumSet<CouponIssuanceJobStatus> ACTIVE_STATUSES =
+            EnumSet.of(CouponIssuanceJobStatus.PENDING, CouponIssuanceJobStatus.RUNNING);
+
+    private static final String ACTIVE_COUPON_EXISTS = """
+            EXISTS (SELECT 1 FROM coupon c
+                    WHERE c.customer_id = tc.id AND c.campaign_id = ? AND c.status = 'ACTIVE')
+            """;
+
+    static final String SEGMENT_COUNT_SQL = """
+            SELECT COUNT(*) AS total,
+                   COALESCE(SUM(CASE WHEN %s THEN 1 ELSE 0 END), 0) AS holding
+            FROM tenant_customer tc
+            WHERE tc.tenant_id = ? AND tc.accepted_promotions = TRUE
+            """.formatted(ACTIVE_COUPON_EXISTS);
+
+    static final String NEXT_CUSTOMERS_SQL = """
+            SELECT tc.id FROM tenant_customer tc
+            WHERE tc.tenant_id = ? AND tc.accepted_promotions = TRUE AND tc.id > ?
+              AND NOT %s
+            ORDER BY tc.id
+            LIMIT ?
+            """.formatted(ACTIVE_COUPON_EXISTS);
+
+    // coupon_seq es pooled-lo (INCREMENT BY 50, como el @SequenceGenerator de Coupon): cada nextval reserva [v, v+49]
+    static final String NEXT_COUPON_ID_BLOCKS_SQL =
+            "SELECT nextval('coupon_seq') FROM generate_series(1, ?)";
+    static final int COUPON_ID_BLOCK_SIZE = 50;
+
+    static final String INSERT_COUPON_SQL = """
+            INSERT INTO coupon (id, code, campaign_id, customer_id, status, expires_at, created_at, qr_token, qr_url)
+            VALUES (?, ?, ?, ?, 'ACTIVE', ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private final CouponIssuanceJobRepository jobRepository;
+    private final CampaignRepository campaignRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CouponLookupFilter couponLookupFilter;
+    private final QrTokenSigner qrTokenSigner;
+    private final DashboardRollupService dashboardRollupService;
+
+    @Value("${coupon.issuance.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${coupon.issuance.stale-after-seconds:300}")
+    private long staleAfterSeconds = 300;
+
+    @Value("${app.base-url:http://localhost:8080}")
+    private String baseUrl = "http://localhost:8080";
+
+    @Override
+    @Transactional
+    public CouponIssuanceJobResponse startIssuance(Long campaignId, Long tenantId) {
+        Campaign campaign = campaignRepository.findById(campaignId)
+                .filter(c -> c.getBusinessId().equals(tenantId))
+                .orElseThrow(() -> new ResourceNotFoundException("Campaña no encontrada: " + campaignId));
+
+        if (campaign.getStatus() != CampaignStatus.ACTIVE && campaign.getStatus() != CampaignStatus.SCHEDULED) {
+            throw new BusinessRuleException("Solo se pueden emitir cupones de campañas activas o programadas");
+        }
+        if (jobRepository.existsByCampaignIdAndStatusIn(campaignId, ACTIVE_STATUSES)) {
+            throw new BusinessRuleException("La campaña ya tiene una emisión de cupones en curso");
+        }
+
+        Map<String, Object> counts = jdbcTemplate.queryForMap(SEGMENT_COUNT_SQL, campaignId, tenantId);
+        CouponIssuanceJob job = CouponIssuanceJob.builder()
+                .campaignId(campaignId)
+                .tenantId(tenantId)
+                .totalCustomers(((Number) counts.get("total")).intValue())
+                .alreadyHolding(((Number) counts.get("holding")).intValue())
+                .build();
+        job = jobRepository.save(job);
+
+        log.info("Emisión masiva {} creada para campaña {}: {} clientes, {} ya con cupón activo",
+                job.getId(), campaignId, job.getTotalCustomers(), job.getAlreadyHolding());
+        return CouponIssuanceJobResponse.from(job);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CouponIssuanceJobResponse getJob(Long jobId, Long tenantId) {
+        return CouponIssuanceJobResponse.from(findTenantJob(jobId, tenantId));
+    }
+
+    @Override
+    @Transactional
+    public CouponIssuanceJobResponse resumeJob(Long jobId, Long tenantId) {
+        CouponIssuanceJob job = findTenantJob(jobId, tenantId);
+        if (job.getStatus() != CouponIssuanceJobStatus.FAILED && job.getStatus() != CouponIssuanceJobStatus.CANCELLED) {
+            throw new BusinessRuleException("Solo se pueden reanudar emisiones fallidas o canceladas");
+        }
+        if (jobRepository.existsByCampaignIdAndStatusIn(job.getCampaignId(), ACTIVE_STATUSES)) {
+            throw new BusinessRuleException("La campaña ya tiene una emisión de cupones en curso");
+        }
+        job.setStatus(CouponIssuanceJobStatus.PENDING);
+        job.setLastError(null);
+        job.setFinishedAt(null);
+        log.info("Emisión masiva {} reanudada desde el cliente {}", jobId, job.getLastCustomerId());
+        return CouponIssuanceJobResponse.from(jobRepository.save(job));
+    }
+
+    @Override
+    @Transactional
+    public CouponIssuanceJobResponse cancelJob(Long jobId, Long tenantId) {
+        CouponIssuanceJob job = findTenantJob(jobId, tenantId);
+        if (!ACTIVE_STATUSES.contains(job.getStatus())) {
+            throw new BusinessRuleException("La emisión ya finalizó con estado " + job.getStatus());
+        }
+        // Se bloquea para no cancelar a mitad de un lote; el runner lo detecta en el siguiente lote
+        job = jobRepository.lockById(jobId).orElseThrow();
+        job.setStatus(CouponIssuanceJobStatus.CANCELLED);
+        job.setFinishedAt(LocalDateTime.now());
+        log.info("Emisión masiva {} cancelada tras emitir {} cupones", jobId, job.getIssuedCount());
+        return CouponIssuanceJobResponse.from(jobRepository.save(job));
+    }
+
+    @Override
+    @Transactional
+    public Optional<Long> claimNextJob() {
+        LocalDateTime now = LocalDateTime.now();
+        return jobRepository.lockNextRunnable(now.minusSeconds(staleAfterSeconds))
+                .map(job -> {
+                    if (job.getStatus() == CouponIssuanceJobStatus.RUNNING) {
+                        log.warn("Emisión masiva {} sin latido desde {}; se reanuda desde el cliente {}",
+                                job.getId(), job.getHeartbeatAt(), job.getLastCustomerId());
+                    }
+                    job.setStatus(CouponIssuanceJobStatus.RUNNING);
+                    if (job.getStartedAt() == null) {
+                        job.setStartedAt(now);
+                    }
+                    job.setHeartbeatAt(now);
+                    return jobRepository.save(job).getId();
+                });
+    }
+
+    @Override
+    @Transactional
+    public int issueNextChunk(Long jobId) {
+        CouponIssuanceJob job = jobRepository.lockById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Emisión no encontrada: " + jobId));
+        if (job.getStatus() != CouponIssuanceJobStatus.RUNNING) {
+            return 0;
+        }
+        Campaign campaign = campaignRepository.findById(job.getCampaignId())
+                .orElseThrow(() -> new ResourceNotFoundException("Campaña no encontrada: " + job.getCampaignId()));
+
+        List<Long> customerIds = jdbcTemplate.queryForList(NEXT_CUSTOMERS_SQL, Long.class,
+                job.getTenantId(), job.getLastCustomerId(), job.getCampaignId(), chunkSize);
+        if (customerIds.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = campaign.getEndDate() != null ? campaign.getEndDate().atTime(23, 59, 59) : null;
+        List<Long> couponIds = reserveCouponIds(customerIds.size());
+
+        List<Object[]> pending = new ArrayList<>(customerIds.size());
+        for (int i = 0; i < customerIds.size(); i++) {
+            pending.add(newCouponRow(couponIds.get(i), customerIds.get(i), campaign, expiresAt, now));
+        }
+
+        int issued = 0;
+        for (int attempt = 0; attempt <= MAX_CODE_RETRIES && !pending.isEmpty(); attempt++) {
+            if (attempt > 0) {
+                // Colisión de código/token (improbable): se regeneran solo las filas rechazadas
+                pending.replaceAll(row -> newCouponRow((Long) row[0], (Long) row[3], campaign, expiresAt, now));
+            }
+            int[] results = jdbcTemplate.batchUpdate(INSERT_COUPON_SQL, pending);
+            List<Object[]> rejected = new ArrayList<>();
+            for (int i = 0; i < results.length; i++) {
+                Object[] row = pending.get(i);
+                if (results[i] == 0) {
+                    rejected.add(row);
+                } else {
+                    couponLookupFilter.add((String) row[1], (String) row[6]);
+                    issued++;
+                }
+            }
+            pending = rejected;
+        }
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException(pending.size() + " cupones no se pudieron insertar tras "
+                    + MAX_CODE_RETRIES + " reintentos de código");
+        }
+        // Los demás nodos agregan el lote a su filtro de Bloom después del commit
+        couponLookupFilter.publishCreated(Collections.min(couponIds), Collections.max(couponIds));
+        dashboardRollupService.recordIssued(campaign.getBusinessId(), campaign.getId(), now, issued);
+
+        job.setLastCustomerId(customerIds.get(customerIds.size() - 1));
+        job.setIssuedCount(job.getIssuedCount() + issued);
+        job.setHeartbeatAt(now);
+        jobRepository.save(job);
+
+        log.debug("Emisión masiva {}: lote de {} cupones, checkpoint en cliente {}",
+                jobId, issued, job.getLastCustomerId());
+        return issued;
+    }
+
+    @Override
+    @Transactional
+    public void completeJob(Long jobId) {
+        jobRepository.lockById(jobId)
+                .filter(job -> job.getStatus() == CouponIssuanceJobStatus.RUNNING)
+                .ifPresent(job -> {
+                    job.setStatus(CouponIssuanceJobStatus.COMPLETED);
+                    job.setFinishedAt(LocalDateTime.now());
+                    jobRepository.save(job);
+                    log.info("Emisión masiva {} completada: {} cupones emitidos para campaña {}",
+                            jobId, job.getIssuedCount(), job.getCampaignId());
+                });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void failJob(Long jobId, String error) {
+        jobRepository.findById(jobId)
+                .filter(job -> job.getStatus() == CouponIssuanceJobStatus.RUNNING)
+                .ifPresent(job -> {
+                    job.setStatus(CouponIssuanceJobStatus.FAILED);
+                    job.setLastError(truncate(error));
+                    job.setFinishedAt(LocalDateTime.now());
+                    jobRepository.save(job);
+                    log.error("Emisión masiva {} fallida en el cliente {}: {}", jobId, job.getLastCustomerId(), error);
+                });
+    }
+
+    private CouponIssuanceJob findTenantJob(Long jobId, Long tenantId) {
+        return jobRepository.findById(jobId)
+                .filter(job -> job.getTenantId().equals(tenantId))
+                .orElseThrow(() -> new ResourceNotFoundException("Emisión no encontrada: " + jobId));
+    }
+
+    private List<Long> reserveCouponIds(int count) {
+        int blocks = (count + COUPON_ID_BLOCK_SIZE - 1) / COUPON_ID_BLOCK_SIZE;
+        List<Long> ids = new ArrayList<>(count);
+        for (Long blockStart : jdbcTemplate.queryForList(NEXT_COUPON_ID_BLOCKS_SQL, Long.class, blocks)) {
+            for (int i = 0; i < COUPON_ID_BLOCK_SIZE && ids.size() < count; i++) {
+                ids.add(blockStart + i);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Fila del INSERT: id, code, campaign_id, customer_id, expires_at, created_at, qr_token, qr_url.
+     */
+    private Object[] newCouponRow(Long couponId, Long customerId, Campaign campaign,
+                                  LocalDateTime expiresAt, LocalDateTime now) {
+        String code = Coupon.generateCouponCode();
+        String qrToken = qrTokenSigner.isIssuingSigned()
+                ? qrTokenSigner.sign(couponId, campaign.getBusinessId(), expiresAt)
+                : Coupon.generateQrToken();
+        return new Object[]{
+                couponId,
+                code,
+                campaign.getId(),
+                customerId,
+                expiresAt != null ? Timestamp.valueOf(expiresAt) : null,
+                Timestamp.valueOf(now),
+                qrToken,
+                baseUrl + "/api/coupons/redeem/" + code
+        };
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
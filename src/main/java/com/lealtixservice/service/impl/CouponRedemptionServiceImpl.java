@@ -1,30 +1,56 @@
 package com.lealtixservice.service.impl;
 
+import com.lealtixservice.cache.CouponValidationCache;
+import com.lealtixservice.discount.DiscountEngine;
+import com.lealtixservice.discount.DiscountQuote;
+import com.lealtixservice.dto.BulkRedemptionItem;
+import com.lealtixservice.dto.BulkRedemptionItemResult;
+import com.lealtixservice.dto.BulkRedemptionRequest;
+import com.lealtixservice.dto.BulkRedemptionResponse;
 import com.lealtixservice.dto.EmailDTO;
 import com.lealtixservice.dto.RedeemCouponRequest;
+import com.lealtixservice.dto.RedemptionHistoryItem;
+import com.lealtixservice.dto.RedemptionHistoryPage;
 import com.lealtixservice.dto.RedemptionResponse;
-import com.lealtixservice.entity.*;
+import com.lealtixservice.entity.CouponRedemption;
+import com.lealtixservice.enums.CouponStatus;
 import com.lealtixservice.enums.RewardType;
+import com.lealtixservice.repository.CouponRedemptionCandidate;
+import com.lealtixservice.repository.CouponRedemptionClaim;
+import com.lealtixservice.repository.CouponRedemptionView;
 import com.lealtixservice.repository.CouponRedemptionRepository;
 import com.lealtixservice.repository.CouponRepository;
+import com.lealtixservice.repository.RedemptionHistoryView;
 import com.lealtixservice.service.CouponRedemptionService;
-import com.lealtixservice.service.Emailservice;
+import com.lealtixservice.service.DashboardRollupService;
+import com.lealtixservice.service.EmailOutboxService;
+import com.lealtixservice.util.QrTokenSigner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.text.NumberFormat;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementación del servicio de redención de cupones.
@@ -34,23 +60,82 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class CouponRedemptionServiceImpl implements CouponRedemptionService {
 
+    /**
+     * Tolerancia para relojes de terminales adelantados respecto al servidor.
+     */
+    private static final Duration CLIENT_CLOCK_SKEW = Duration.ofMinutes(5);
+
+    private static final int DEFAULT_HISTORY_LIMIT = 50;
+    private static final int MAX_HISTORY_LIMIT = 200;
+
+    /**
+     * Transición del lote: los cupones ya están bloqueados por lockRedemptionCandidates,
+     * la condición de estado se conserva como defensa.
+     */
+    private static final String BULK_CLAIM_UPDATE = """
+            UPDATE coupon
+            SET status = 'REDEEMED', redeemed_at = ?, redeemed_by = ?, redemption_metadata = ?
+            WHERE id = ? AND status = 'ACTIVE'
+            """;
+
     private final CouponRepository couponRepository;
     private final CouponRedemptionRepository redemptionRepository;
-    private final Emailservice emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final JdbcTemplate jdbcTemplate;
+    private final CouponValidationCache couponValidationCache;
+    private final DiscountEngine discountEngine;
+    private final QrTokenSigner qrTokenSigner;
+    private final DashboardRollupService dashboardRollupService;
 
     @Value("${sendgrid.templates.coupon-redemption}")
     private String couponRedemptionTemplateId;
 
+    @Value("${redemption.bulk.max-offline-hours:72}")
+    private long maxOfflineHours = 72;
+
     @Override
     @Transactional
     public RedemptionResponse redeemCouponByQrToken(String qrToken, RedeemCouponRequest request, Long tenantId) {
         log.info("Iniciando redención de cupón por QR token para tenant: {}", tenantId);
 
-        // 1. Buscar cupón por QR token
-        Coupon coupon = couponRepository.findByQrToken(qrToken)
+        LocalDateTime redeemedAt = LocalDateTime.now();
+        if (QrTokenSigner.isSignedFormat(qrToken)) {
+            return redeemSignedQrToken(qrToken, request, tenantId, redeemedAt);
+        }
+
+        // 1. Transición atómica ACTIVE -> REDEEMED (un solo UPDATE ... RETURNING)
+        Optional<CouponRedemptionClaim> claim = couponRepository.claimByQrToken(
+                qrToken, tenantId, request.getRedeemedBy(), request.getMetadata(), redeemedAt);
+
+        if (claim.isEmpty()) {
+            return rejectRedemption(couponRepository.findRedemptionViewByQrToken(qrToken), tenantId);
+        }
+        return completeRedemption(claim.get(), request, redeemedAt);
+    }
+
+    /**
+     * QR token firmado: firma, tenant y expiración se validan antes de tocar la BD
+     * y el UPDATE localiza el cupón por PK.
+     */
+    private RedemptionResponse redeemSignedQrToken(String qrToken, RedeemCouponRequest request, Long tenantId,
+                                                   LocalDateTime redeemedAt) {
+        QrTokenSigner.SignedQrToken signed = qrTokenSigner.verify(qrToken)
                 .orElseThrow(() -> new IllegalArgumentException("Cupón no encontrado"));
+        if (signed.tenantId() != tenantId) {
+            log.warn("Redención con QR token firmado de otro tenant. Token tenant: {}, Request tenant: {}",
+                    signed.tenantId(), tenantId);
+            return RedemptionResponse.failure("Cupón no válido para este negocio");
+        }
+        if (signed.isExpired(redeemedAt)) {
+            return RedemptionResponse.failure("El cupón está expirado");
+        }
 
-        return redeemCoupon(coupon, request, tenantId);
+        Optional<CouponRedemptionClaim> claim = couponRepository.claimByIdAndQrToken(
+                signed.couponId(), qrToken, tenantId, request.getRedeemedBy(), request.getMetadata(), redeemedAt);
+        if (claim.isEmpty()) {
+            return rejectRedemption(couponRepository.findRedemptionViewByIdAndQrToken(signed.couponId(), qrToken), tenantId);
+        }
+        return completeRedemption(claim.get(), request, redeemedAt);
     }
 
     @Override
@@ -58,84 +143,232 @@ public class CouponRedemptionServiceImpl implements CouponRedemptionService {
     public RedemptionResponse redeemCouponByCode(String couponCode, RedeemCouponRequest request, Long tenantId) {
         log.info("Iniciando redención de cupón por código para tenant: {}", tenantId);
 
-        Coupon coupon = couponRepository.findByCode(couponCode)
-                .orElseThrow(() -> new IllegalArgumentException("Cupón no encontrado"));
+        LocalDateTime redeemedAt = LocalDateTime.now();
+        Optional<CouponRedemptionClaim> claim = couponRepository.claimByCode(
+                couponCode, tenantId, request.getRedeemedBy(), request.getMetadata(), redeemedAt);
+
+        if (claim.isEmpty()) {
+            return rejectRedemption(couponRepository.findRedemptionViewByCode(couponCode), tenantId);
+        }
+        return completeRedemption(claim.get(), request, redeemedAt);
+    }
 
-        return redeemCoupon(coupon, request, tenantId);
+    @Override
+    @Transactional
+    public BulkRedemptionResponse redeemBatch(BulkRedemptionRequest bulkRequest, Long tenantId) {
+        List<BulkRedemptionItem> items = bulkRequest.getItems();
+        log.info("Iniciando sincronización de {} redenciones offline para tenant: {}", items.size(), tenantId);
+
+        // 1. Resolver los cupones del tenant con un solo SELECT ... IN (bloqueados hasta el commit)
+        Set<String> qrTokens = new HashSet<>();
+        Set<String> codes = new HashSet<>();
+        for (BulkRedemptionItem item : items) {
+            if (item.getQrToken() != null) {
+                qrTokens.add(item.getQrToken());
+            } else if (item.getCode() != null) {
+                codes.add(item.getCode());
+            }
+        }
+        Map<String, CouponRedemptionCandidate> byQrToken = new HashMap<>();
+        Map<String, CouponRedemptionCandidate> byCode = new HashMap<>();
+        for (CouponRedemptionCandidate candidate : couponRepository.lockRedemptionCandidates(
+                orSentinel(qrTokens), orSentinel(codes), tenantId)) {
+            byQrToken.put(candidate.getQrToken(), candidate);
+            byCode.put(candidate.getCouponCode(), candidate);
+        }
+
+        // 2. Orden determinista: por hora de escaneo en la terminal y luego por posición en el lote.
+        //    Si un cupón aparece varias veces, gana la primera redención y las demás se rechazan.
+        Integer[] order = new Integer[items.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator
+                .comparing((Integer i) -> items.get(i).getClientRedeemedAt())
+                .thenComparing(i -> i));
+
+        LocalDateTime now = LocalDateTime.now();
+        RedemptionResponse[] results = new RedemptionResponse[items.size()];
+        Set<Long> claimedCouponIds = new HashSet<>();
+        List<CouponRedemptionCandidate> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+
+        for (Integer i : order) {
+            BulkRedemptionItem item = items.get(i);
+            CouponRedemptionCandidate candidate = item.getQrToken() != null
+                    ? byQrToken.get(item.getQrToken())
+                    : byCode.get(item.getCode());
+            if (candidate == null) {
+                results[i] = RedemptionResponse.failure("Cupón no encontrado");
+                continue;
+            }
+
+            LocalDateTime redeemedAt = item.getClientRedeemedAt();
+            if (redeemedAt.isAfter(now.plus(CLIENT_CLOCK_SKEW))
+                    || redeemedAt.isBefore(now.minusHours(maxOfflineHours))) {
+                results[i] = RedemptionResponse.failure("Fecha de redención fuera del rango permitido");
+                continue;
+            }
+
+            if (claimedCouponIds.contains(candidate.getCouponId())) {
+                results[i] = RedemptionResponse.failure("Este cupón ya fue redimido");
+                continue;
+            }
+
+            // La vigencia se evalúa contra la hora del escaneo, no la de sincronización
+            String rejection = rejectionMessage(candidate.getBusinessId(), CouponStatus.valueOf(candidate.getStatus()),
+                    candidate.getExpiresAt(), tenantId, redeemedAt);
+            if (rejection != null) {
+                results[i] = RedemptionResponse.failure(rejection);
+                continue;
+            }
+
+            claimedCouponIds.add(candidate.getCouponId());
+            accepted.add(candidate);
+            acceptedIndexes.add(i);
+        }
+
+        // 3. Aplicar las transiciones ACTIVE -> REDEEMED en un batch JDBC
+        if (!accepted.isEmpty()) {
+            List<Object[]> updateArgs = new ArrayList<>(accepted.size());
+            for (int k = 0; k < accepted.size(); k++) {
+                BulkRedemptionItem item = items.get(acceptedIndexes.get(k));
+                updateArgs.add(new Object[]{
+                        Timestamp.valueOf(item.getClientRedeemedAt()),
+                        item.getRedemption().getRedeemedBy(),
+                        item.getRedemption().getMetadata(),
+                        accepted.get(k).getCouponId()
+                });
+            }
+            jdbcTemplate.batchUpdate(BULK_CLAIM_UPDATE, updateArgs);
+
+            // 4. Registros de auditoría: id asignado en @PrePersist, Hibernate los agrupa en batch (jdbc.batch_size)
+            List<CouponRedemption> redemptions = new ArrayList<>(accepted.size());
+            for (int k = 0; k < accepted.size(); k++) {
+                BulkRedemptionItem item = items.get(acceptedIndexes.get(k));
+                redemptions.add(buildRedemption(accepted.get(k), item.getRedemption(), item.getClientRedeemedAt()));
+            }
+            redemptions = redemptionRepository.saveAll(redemptions);
+            dashboardRollupService.recordRedemptions(redemptions);
+
+            for (int k = 0; k < accepted.size(); k++) {
+                CouponRedemption redemption = redemptions.get(k);
+                couponValidationCache.evict(accepted.get(k).getQrToken());
+                enqueueRedemptionEmail(accepted.get(k), redemption);
+                results[acceptedIndexes.get(k)] = toSuccessResponse(accepted.get(k), redemption);
+            }
+        }
+
+        List<BulkRedemptionItemResult> itemResults = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            itemResults.add(BulkRedemptionItemResult.builder()
+                    .index(i)
+                    .qrToken(items.get(i).getQrToken())
+                    .code(items.get(i).getCode())
+                    .result(results[i])
+                    .build());
+        }
+
+        log.info("Sincronización offline completada para tenant {}: {} redimidos, {} rechazados",
+                tenantId, accepted.size(), items.size() - accepted.size());
+
+        return BulkRedemptionResponse.builder()
+                .totalProcessed(items.size())
+                .successCount(accepted.size())
+                .failureCount(items.size() - accepted.size())
+                .results(itemResults)
+                .build();
     }
 
     /**
-     * Lógica común de redención de cupón.
+     * Determina por qué el UPDATE condicional no afectó ninguna fila.
+     * Solo se ejecuta en el camino de rechazo (un SELECT plano), el camino feliz no lee el cupón.
+     *
+     * @throws IllegalArgumentException si el cupón no existe
      */
-    private RedemptionResponse redeemCoupon(Coupon coupon, RedeemCouponRequest request, Long tenantId) {
-        Campaign campaign = coupon.getCampaign();
-        TenantCustomer customer = coupon.getCustomer();
-        Tenant tenant = customer.getTenant();
-
-        // 1. Validar que el cupón pertenece al tenant
-        if (!campaign.getBusinessId().equals(tenantId)) {
-            log.warn("Intento de redimir cupón de otro tenant. Cupón tenant: {}, Request tenant: {}",
-                    campaign.getBusinessId(), tenantId);
-            return RedemptionResponse.failure("Cupón no válido para este negocio");
+    private RedemptionResponse rejectRedemption(Optional<CouponRedemptionView> couponOpt, Long tenantId) {
+        CouponRedemptionView coupon = couponOpt.orElseThrow(() -> new IllegalArgumentException("Cupón no encontrado"));
+
+        String rejection = rejectionMessage(coupon.getBusinessId(), coupon.getStatus(),
+                coupon.getExpiresAt(), tenantId, LocalDateTime.now());
+        if (rejection == null) {
+            // El cupón cambió entre el UPDATE y esta lectura (p. ej. otra caja lo redimió)
+            rejection = "Cupón no disponible para redención";
         }
+        log.warn("Redención rechazada para cupón {} (tenant {}): {}", coupon.getCouponCode(), tenantId, rejection);
+        return RedemptionResponse.failure(rejection);
+    }
 
-        // 2. Validar que no fue redimido previamente
-        if (redemptionRepository.existsByCouponId(coupon.getId())) {
-            log.warn("Intento de redimir cupón ya redimido: {}", coupon.getCode());
-            return RedemptionResponse.failure("Este cupón ya fue redimido");
+    /**
+     * Reglas de redención compartidas por la redención individual y la sincronización por lote.
+     *
+     * @return mensaje de rechazo, o null si el cupón se puede redimir
+     */
+    private static String rejectionMessage(Long couponTenantId, CouponStatus status, LocalDateTime expiresAt,
+                                           Long tenantId, LocalDateTime at) {
+        if (!couponTenantId.equals(tenantId)) {
+            return "Cupón no válido para este negocio";
         }
-
-        // 3. Validar estado del cupón y redimirlo
-        try {
-            coupon.redeem(request.getRedeemedBy(), request.getMetadata());
-        } catch (IllegalStateException e) {
-            log.warn("Error al redimir cupón {}: {}", coupon.getCode(), e.getMessage());
-            return RedemptionResponse.failure(e.getMessage());
+        if (status == CouponStatus.REDEEMED) {
+            return "Este cupón ya fue redimido";
+        }
+        if (status != CouponStatus.ACTIVE) {
+            return "El cupón no está en estado ACTIVE";
+        }
+        if (expiresAt != null && !at.isBefore(expiresAt)) {
+            return "El cupón está expirado";
         }
+        return null;
+    }
+
+    /**
+     * Registra la auditoría de un cupón ya redimido por el UPDATE condicional.
+     */
+    private RedemptionResponse completeRedemption(CouponRedemptionClaim claim, RedeemCouponRequest request,
+                                                  LocalDateTime redeemedAt) {
+        CouponRedemption redemption = redemptionRepository.save(buildRedemption(claim, request, redeemedAt));
+        dashboardRollupService.recordRedemptions(List.of(redemption));
+        couponValidationCache.evict(claim.getQrToken());
+
+        log.info("Cupón {} redimido exitosamente. Redemption ID: {}", claim.getCouponCode(), redemption.getId());
+
+        // Encolar email de confirmación en la misma transacción (outbox); el dispatcher lo envía
+        enqueueRedemptionEmail(claim, redemption);
 
-        // 4. Calcular descuentos si hay monto original
+        return toSuccessResponse(claim, redemption);
+    }
+
+    /**
+     * Calcula el descuento y arma el registro de auditoría (sin persistir).
+     */
+    private CouponRedemption buildRedemption(CouponRedemptionClaim claim, RedeemCouponRequest request,
+                                             LocalDateTime redeemedAt) {
+        // 1. Calcular descuentos si hay monto original (calculadora compilada y cacheada por reward)
         BigDecimal originalAmount = request.getOriginalAmount();
         BigDecimal discountAmount = null;
         BigDecimal finalAmount = null;
         RewardType couponType = null;
         BigDecimal couponValue = null;
 
-        PromotionReward reward = campaign.getPromotionReward();
-        if (reward != null && originalAmount != null && originalAmount.compareTo(BigDecimal.ZERO) > 0) {
-            couponType = reward.getRewardType();
-
-            if (couponType == RewardType.PERCENT_DISCOUNT && reward.getNumericValue() != null) {
-                // Descuento porcentual
-                couponValue = reward.getNumericValue();
-                discountAmount = originalAmount
-                        .multiply(couponValue)
-                        .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                finalAmount = originalAmount.subtract(discountAmount);
-
-            } else if (couponType == RewardType.FIXED_AMOUNT && reward.getNumericValue() != null) {
-                // Descuento de monto fijo
-                couponValue = reward.getNumericValue();
-                discountAmount = couponValue;
-                finalAmount = originalAmount.subtract(discountAmount);
-
-                // Validar que el monto final no sea negativo
-                if (finalAmount.compareTo(BigDecimal.ZERO) < 0) {
-                    finalAmount = BigDecimal.ZERO;
-                    discountAmount = originalAmount;
-                }
-            }
+        if (claim.getRewardId() != null && originalAmount != null && originalAmount.compareTo(BigDecimal.ZERO) > 0) {
+            DiscountQuote quote = discountEngine.quote(claim.getRewardId(), originalAmount);
+            couponType = quote.rewardType();
+            couponValue = quote.couponValue();
+            discountAmount = quote.discountAmount();
+            finalAmount = quote.finalAmount();
 
-            log.info("Cálculo de descuento - Tipo: {}, Valor: {}, Original: {}, Descuento: {}, Final: {}",
-                    couponType, couponValue, originalAmount, discountAmount, finalAmount);
+            log.info("Cálculo de descuento - Tipo: {}, Valor: {}, Original: {}, Descuento: {}, Final: {}{}",
+                    couponType, couponValue, originalAmount, discountAmount, finalAmount,
+                    quote.applied() ? "" : " (" + quote.message() + ")");
         }
 
-        // 5. Crear registro de auditoría
-        CouponRedemption redemption = CouponRedemption.builder()
-                .couponId(coupon.getId())
-                .tenantId(tenantId)
-                .campaignId(campaign.getId())
-                .customerEmail(customer.getEmail())
-                .customerName(customer.getName())
+        // 2. Crear registro de auditoría (coupon_redemption.coupon_id es UNIQUE)
+        return CouponRedemption.builder()
+                .couponId(claim.getCouponId())
+                .tenantId(claim.getTenantId())
+                .campaignId(claim.getCampaignId())
+                .customerEmail(claim.getCustomerEmail())
+                .customerName(claim.getCustomerName())
                 .redeemedBy(request.getRedeemedBy())
                 .channel(request.getChannel())
                 .ipAddress(request.getIpAddress())
@@ -147,76 +380,69 @@ public class CouponRedemptionServiceImpl implements CouponRedemptionService {
                 .finalAmount(finalAmount)
                 .couponType(couponType)
                 .couponValue(couponValue)
-                .redeemedAt(LocalDateTime.now())
+                .redeemedAt(redeemedAt)
                 .build();
+    }
 
-        redemption = redemptionRepository.save(redemption);
-
-        // 6. Guardar cambios en el cupón
-        couponRepository.save(coupon);
-
-        log.info("Cupón {} redimido exitosamente. Redemption ID: {}", coupon.getCode(), redemption.getId());
-
-        // 7. Enviar email de confirmación de redención
-        try {
-            sendRedemptionEmail(coupon.getId(), customer, tenant, coupon, redemption.getId(), originalAmount, discountAmount, finalAmount);
-            log.info("Email de redención enviado a: {}", customer.getEmail());
-        } catch (Exception e) {
-            log.error("Error al enviar email de redención para cupón {}: {}", coupon.getCode(), e.getMessage());
-            // No fallar la redención si el email falla
-        }
-
-        // 8. Construir respuesta
-        String benefit = getBenefitDescription(campaign);
-
+    private RedemptionResponse toSuccessResponse(CouponRedemptionClaim claim, CouponRedemption redemption) {
         return RedemptionResponse.success(
                 redemption.getId(),
                 redemption.getRedeemedAt(),
                 redemption.getRedeemedBy(),
                 redemption.getChannel(),
-                coupon.getCode(),
-                coupon.getId(),
-                campaign.getId(),
-                campaign.getTitle(),
-                benefit,
-                customer.getName(),
-                customer.getEmail(),
-                tenant.getId(),
-                tenant.getNombreNegocio(),
-                originalAmount,
-                discountAmount,
-                finalAmount,
-                couponType,
-                couponValue
+                claim.getCouponCode(),
+                claim.getCouponId(),
+                claim.getCampaignId(),
+                claim.getCampaignTitle(),
+                getBenefitDescription(claim),
+                claim.getCustomerName(),
+                claim.getCustomerEmail(),
+                claim.getTenantId(),
+                claim.getTenantName(),
+                redemption.getOriginalAmount(),
+                redemption.getDiscountAmount(),
+                redemption.getFinalAmount(),
+                redemption.getCouponType(),
+                redemption.getCouponValue()
         );
     }
 
+    /**
+     * Postgres no acepta "IN ()": una lista vacía se reemplaza por un valor que ningún cupón tiene.
+     */
+    private static Collection<String> orSentinel(Set<String> values) {
+        return values.isEmpty() ? List.of("") : values;
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public List<CouponRedemption> getRedemptionsByTenant(Long tenantId) {
-        log.debug("Obteniendo redenciones para tenant: {}", tenantId);
-        return redemptionRepository.findByTenantId(tenantId);
+    public RedemptionHistoryPage getRedemptionHistory(Long tenantId, String cursor, int limit) {
+        log.debug("Obteniendo historial de redenciones para tenant: {} (cursor: {})", tenantId, cursor);
+        HistoryCursor from = HistoryCursor.decode(cursor);
+        int pageSize = clampHistoryLimit(limit);
+        return toHistoryPage(redemptionRepository.findHistoryPage(
+                tenantId, from.redeemedAt(), from.id(), pageSize + 1), pageSize);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<CouponRedemption> getRedemptionsByCampaign(Long campaignId, Long tenantId) {
-        log.debug("Obteniendo redenciones para campaña: {} del tenant: {}", campaignId, tenantId);
-
-        // Validar que la campaña pertenece al tenant
-        List<CouponRedemption> redemptions = redemptionRepository.findByCampaignId(campaignId);
-
-        // Filtrar por tenant para seguridad
-        return redemptions.stream()
-                .filter(r -> r.getTenantId().equals(tenantId))
-                .toList();
+    public RedemptionHistoryPage getRedemptionsByCampaign(Long campaignId, Long tenantId, String cursor, int limit) {
+        log.debug("Obteniendo redenciones para campaña: {} del tenant: {} (cursor: {})", campaignId, tenantId, cursor);
+        HistoryCursor from = HistoryCursor.decode(cursor);
+        int pageSize = clampHistoryLimit(limit);
+        return toHistoryPage(redemptionRepository.findCampaignHistoryPage(
+                tenantId, campaignId, from.redeemedAt(), from.id(), pageSize + 1), pageSize);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<CouponRedemption> getRedemptionsByDateRange(Long tenantId, LocalDateTime startDate, LocalDateTime endDate) {
-        log.debug("Obteniendo redenciones para tenant: {} entre {} y {}", tenantId, startDate, endDate);
-        return redemptionRepository.findByTenantIdAndDateRange(tenantId, startDate, endDate);
+    public RedemptionHistoryPage getRedemptionsByDateRange(Long tenantId, LocalDateTime startDate, LocalDateTime endDate,
+                                                           String cursor, int limit) {
+        log.debug("Obteniendo redenciones para tenant: {} entre {} y {} (cursor: {})", tenantId, startDate, endDate, cursor);
+        HistoryCursor from = HistoryCursor.decode(cursor);
+        int pageSize = clampHistoryLimit(limit);
+        return toHistoryPage(redemptionRepository.findDateRangeHistoryPage(
+                tenantId, startDate, endDate, from.redeemedAt(), from.id(), pageSize + 1), pageSize);
     }
 
     @Override
@@ -226,27 +452,80 @@ public class CouponRedemptionServiceImpl implements CouponRedemptionService {
         return redemptionRepository.findRecentByTenantId(tenantId, limit);
     }
 
+    private static int clampHistoryLimit(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_HISTORY_LIMIT;
+        }
+        return Math.min(limit, MAX_HISTORY_LIMIT);
+    }
+
+    /**
+     * Se consulta una fila extra para saber si hay más páginas sin hacer un COUNT.
+     */
+    private static RedemptionHistoryPage toHistoryPage(List<RedemptionHistoryView> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<RedemptionHistoryView> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            RedemptionHistoryView last = page.get(page.size() - 1);
+            nextCursor = new HistoryCursor(last.getRedeemedAt(), last.getId()).encode();
+        }
+        return RedemptionHistoryPage.builder()
+                .items(page.stream().map(RedemptionHistoryItem::from).toList())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .limit(pageSize)
+                .build();
+    }
+
+    /**
+     * Posición en el historial: última fila entregada (redeemedAt, id), codificada en Base64 URL-safe.
+     * Sin cursor se parte de una posición posterior a cualquier redención.
+     */
+    record HistoryCursor(LocalDateTime redeemedAt, String id) {
+
+        private static final HistoryCursor START = new HistoryCursor(LocalDateTime.of(9999, 12, 31, 23, 59), "~");
+
+        static HistoryCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return START;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor de historial inválido");
+            }
+        }
+
+        String encode() {
+            String raw = redeemedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
     /**
      * Obtiene la descripción del beneficio desde PromotionReward si existe.
      */
-    private String getBenefitDescription(Campaign campaign) {
-        PromotionReward reward = campaign.getPromotionReward();
-        if (reward != null && reward.getDescription() != null) {
-            return reward.getDescription();
+    private String getBenefitDescription(CouponRedemptionClaim claim) {
+        if (claim.getRewardDescription() != null) {
+            return claim.getRewardDescription();
         }
-        return campaign.getDescription();
+        return claim.getCampaignDescription();
     }
 
     /**
-     * Envía email de confirmación de redención al cliente.
+     * Encola el email de confirmación de redención al cliente.
      */
-    private void sendRedemptionEmail(Long couponId, TenantCustomer customer, Tenant tenant, Coupon coupon,
-                                     String redemptionId, BigDecimal originalAmount, BigDecimal discountAmount,
-                                     BigDecimal finalAmount) throws IOException {
+    private void enqueueRedemptionEmail(CouponRedemptionClaim claim, CouponRedemption redemption) {
+        BigDecimal originalAmount = redemption.getOriginalAmount();
+        BigDecimal discountAmount = redemption.getDiscountAmount();
+        BigDecimal finalAmount = redemption.getFinalAmount();
 
         // Formatear fecha de redención
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        String redemptionDate = LocalDateTime.now().format(dateFormatter);
+        String redemptionDate = redemption.getRedeemedAt().format(dateFormatter);
 
         // Formatear montos en MXN
         NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "MX"));
@@ -255,35 +534,35 @@ public class CouponRedemptionServiceImpl implements CouponRedemptionService {
         String finalAmountStr = finalAmount != null ? currencyFormat.format(finalAmount) + " MXN" : "N/A";
 
         // Obtener logo del tenant (usar un placeholder si no existe)
-        String logoUrl = tenant.getLogoUrl() != null ? tenant.getLogoUrl() :
+        String logoUrl = claim.getTenantLogoUrl() != null ? claim.getTenantLogoUrl() :
                         "https://res.cloudinary.com/demo/image/upload/v1700000000/logo-default.png";
 
         // Preparar datos dinámicos para el template
         Map<String, Object> dynamicData = new HashMap<>();
-        dynamicData.put("couponCode", coupon.getCode());
+        dynamicData.put("couponCode", claim.getCouponCode());
         dynamicData.put("redemptionDate", redemptionDate);
         dynamicData.put("originalAmount", originalAmountStr);
         dynamicData.put("discountAmount", discountAmountStr);
         dynamicData.put("finalAmount", finalAmountStr);
-        dynamicData.put("tenantName", tenant.getNombreNegocio());
-        dynamicData.put("customerName", customer.getName());
+        dynamicData.put("tenantName", claim.getTenantName());
+        dynamicData.put("customerName", claim.getCustomerName());
         dynamicData.put("logoUrl", logoUrl);
 
         // Crear DTO de email
         EmailDTO emailDTO = EmailDTO.builder()
-                .to(customer.getEmail())
+                .to(claim.getCustomerEmail())
                 .subject("¡Cupón redimido exitosamente!")
                 .templateId(couponRedemptionTemplateId)
                 .dynamicData(dynamicData)
                 .entityType("COUPON_REDEMPTION")
-                .entityId(couponId) // Usar couponId como referencia ya que EntityLog.entityId es Long
+                .entityId(claim.getCouponId()) // Usar couponId como referencia ya que EntityLog.entityId es Long
                 .build();
 
-        // Enviar email
-        emailService.sendEmailWithTemplate(emailDTO);
+        // Encolar email (se envía tras el commit de la redención)
+        emailOutboxService.enqueue(emailDTO);
 
-        log.info("Email de redención enviado - Cupón: {}, Cliente: {}, Monto final: {}, RedemptionID: {}",
-                coupon.getCode(), customer.getEmail(), finalAmountStr, redemptionId);
+        log.info("Email de redención encolado - Cupón: {}, Cliente: {}, Monto final: {}, RedemptionID: {}",
+                claim.getCouponCode(), claim.getCustomerEmail(), finalAmountStr, redemption.getId());
     }
 }
 
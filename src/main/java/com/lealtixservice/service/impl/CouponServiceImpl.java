@@ -1,6 +1,9 @@
 package com.lealtixservice.service.impl;
 
+import com.lealtixservice.cache.CouponLookupFilter;
+import com.lealtixservice.cache.WelcomeCampaignSnapshot;
 import com.lealtixservice.dto.CouponResponseDTO;
+import com.lealtixservice.dto.CustomerCouponPage;
 import com.lealtixservice.entity.Campaign;
 import com.lealtixservice.entity.Coupon;
 import com.lealtixservice.entity.PromotionReward;
@@ -8,18 +11,26 @@ import com.lealtixservice.entity.TenantCustomer;
 import com.lealtixservice.enums.CouponStatus;
 import com.lealtixservice.exception.BusinessRuleException;
 import com.lealtixservice.exception.ResourceNotFoundException;
+import com.lealtixservice.repository.CampaignRepository;
 import com.lealtixservice.repository.CouponRepository;
 import com.lealtixservice.service.CouponService;
+import com.lealtixservice.service.DashboardRollupService;
+import com.lealtixservice.service.QrCodeService;
+import com.lealtixservice.util.CouponCodeAllocator;
+import com.lealtixservice.util.QrTokenSigner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +39,14 @@ import java.util.stream.Collectors;
 public class CouponServiceImpl implements CouponService {
 
     private final CouponRepository couponRepository;
+    private final CampaignRepository campaignRepository;
+    private final CouponLookupFilter couponLookupFilter;
+    private final QrTokenSigner qrTokenSigner;
+    private final CouponCodeAllocator couponCodeAllocator;
+    private final QrCodeService qrCodeService;
+    private final DashboardRollupService dashboardRollupService;
+
+    private static final int MAX_CUSTOMER_PAGE_SIZE = 500;
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
@@ -36,7 +55,7 @@ public class CouponServiceImpl implements CouponService {
      * Genera un cupón de bienvenida para un cliente en una campaña específica.
      *
      * Reglas de negocio:
-     * - El código del cupón es un UUID único
+     * - El código del cupón sale del pool de códigos (único sin consultar la BD)
      * - El estado inicial es ACTIVE
      * - Se genera una URL de QR apuntando al endpoint de canje
      * - Si la campaña tiene endDate, el cupón expira en esa fecha
@@ -71,34 +90,49 @@ public class CouponServiceImpl implements CouponService {
             log.error("Error al loggear detalles de campaña/customer: {}", e.getMessage());
         }
 
+        return issueWelcomeCoupon(campaign, campaign.getId(), campaign.getBusinessId(), campaign.getEndDate(), customer);
+    }
+
+    @Override
+    public Coupon generateWelcomeCoupon(WelcomeCampaignSnapshot campaign, TenantCustomer customer) {
+        log.info("Generando cupón de bienvenida para customer {} en campaña {}",
+                customer.getId(), campaign.getCampaignId());
+        // Referencia sin cargar la campaña: el snapshot del cache ya trae lo necesario
+        Campaign campaignRef = campaignRepository.getReferenceById(campaign.getCampaignId());
+        return issueWelcomeCoupon(campaignRef, campaign.getCampaignId(), campaign.getBusinessId(),
+                campaign.getEndDate(), customer);
+    }
+
+    private Coupon issueWelcomeCoupon(Campaign campaignRef, Long campaignId, Long businessId, LocalDate endDate,
+                                      TenantCustomer customer) {
         // Validar que el cliente no tenga ya un cupón activo para esta campaña
         boolean hasActiveCoupon = couponRepository.hasActiveCouponForCampaign(
-                customer.getId(), campaign.getId());
+                customer.getId(), campaignId);
 
         if (hasActiveCoupon) {
             log.warn("El customer {} ya tiene un cupón activo para la campaña {}",
-                    customer.getId(), campaign.getId());
+                    customer.getId(), campaignId);
             throw new BusinessRuleException(
                     "El cliente ya tiene un cupón activo para esta campaña de bienvenida");
         }
 
-        // Generar código único usando UUID
-        String code = generateUniqueCode();
+        // Código único del pool pre-reservado (sin consultar existsByCode)
+        String code = couponCodeAllocator.nextCode();
 
         // Generar URL del QR (apunta al endpoint de canje)
         String qrUrl = generateQrUrl(code);
 
         // Determinar fecha de expiración (basada en campaign.endDate si existe)
         LocalDateTime expiresAt = null;
-        if (campaign.getEndDate() != null) {
+        if (endDate != null) {
             // Convertir LocalDate a LocalDateTime (final del día)
-            expiresAt = campaign.getEndDate().atTime(23, 59, 59);
+            expiresAt = endDate.atTime(23, 59, 59);
         }
 
         // Construir el cupón
         Coupon coupon = Coupon.builder()
                 .code(code)
-                .campaign(campaign)
+                .campaign(campaignRef)
                 .customer(customer)
                 .status(CouponStatus.ACTIVE)
                 .qrUrl(qrUrl)
@@ -108,36 +142,19 @@ public class CouponServiceImpl implements CouponService {
 
         // Persistir
         Coupon saved = couponRepository.save(coupon);
-        log.info("Cupón {} generado exitosamente para customer {} en campaña {}",
-                saved.getCode(), customer.getId(), campaign.getId());
 
-        return saved;
-    }
-
-    /**
-     * Genera un código único basado en UUID (12 caracteres alfanuméricos en mayúsculas).
-     * Intenta hasta 5 veces en caso de colisión (muy improbable).
-     *
-     * @return Código único
-     */
-    private String generateUniqueCode() {
-        int maxAttempts = 5;
-        for (int i = 0; i < maxAttempts; i++) {
-            String code = UUID.randomUUID()
-                    .toString()
-                    .replace("-", "")
-                    .substring(0, 12)
-                    .toUpperCase();
-
-            if (!couponRepository.existsByCode(code)) {
-                return code;
-            }
-            log.warn("Código de cupón {} ya existe, reintentando... (intento {}/{})",
-                    code, i + 1, maxAttempts);
+        // QR token firmado: requiere el id generado, por lo que se asigna después del INSERT
+        if (qrTokenSigner.isIssuingSigned()) {
+            saved.setQrToken(qrTokenSigner.sign(saved.getId(), businessId, expiresAt));
+            saved = couponRepository.save(saved);
         }
+        dashboardRollupService.recordIssued(businessId, campaignId, saved.getCreatedAt(), 1);
+        // El email de bienvenida adjunta el QR: se renderiza en segundo plano desde ya
+        qrCodeService.prerender(qrCodeService.couponQrContent(saved.getQrToken()));
+        log.info("Cupón {} generado exitosamente para customer {} en campaña {}",
+                saved.getCode(), customer.getId(), campaignId);
 
-        // Fallback: UUID completo sin guiones
-        return UUID.randomUUID().toString().replace("-", "").toUpperCase();
+        return saved;
     }
 
     /**
@@ -153,7 +170,15 @@ public class CouponServiceImpl implements CouponService {
 
     @Override
     public Optional<Coupon> findByCode(String code) {
-        return couponRepository.findByCode(code);
+        // Código que seguro no existe: sin consulta a la BD
+        if (!couponLookupFilter.mightContainCode(code)) {
+            return Optional.empty();
+        }
+        Optional<Coupon> coupon = couponRepository.findByCode(code);
+        if (coupon.isEmpty()) {
+            couponLookupFilter.recordFalsePositive();
+        }
+        return coupon;
     }
 
     @Override
@@ -161,6 +186,30 @@ public class CouponServiceImpl implements CouponService {
         return couponRepository.findByCustomerId(customerId);
     }
 
+    @Override
+    public List<CouponResponseDTO> findCustomerCoupons(Long customerId, CouponStatus status) {
+        return couponRepository.findCustomerCouponRows(customerId, status, Pageable.unpaged()).getContent();
+    }
+
+    @Override
+    public CustomerCouponPage findCustomerCoupons(Long customerId, CouponStatus status, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page debe ser mayor o igual a 0");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("size debe ser mayor a 0");
+        }
+        int pageSize = Math.min(size, MAX_CUSTOMER_PAGE_SIZE);
+        Slice<CouponResponseDTO> rows = couponRepository.findCustomerCouponRows(customerId, status,
+                PageRequest.of(page, pageSize));
+        return CustomerCouponPage.builder()
+                .items(rows.getContent())
+                .hasMore(rows.hasNext())
+                .page(page)
+                .size(pageSize)
+                .build();
+    }
+
     @Override
     @Transactional
     public Coupon redeemCoupon(String code, String metadata) {
@@ -0,0 +1,321 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.enums.CouponExportFormat;
+import com.lealtixservice.enums.CouponStatus;
+import com.lealtixservice.exception.ResourceNotFoundException;
+import com.lealtixservice.qr.QrImageFormat;
+import com.lealtixservice.repository.CampaignRepository;
+import com.lealtixservice.service.CouponSheetExportService;
+import com.lealtixservice.service.QrCodeService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Implementación de la exportación de QR por campaña.
+ *
+ * - Los cupones se leen con un cursor JDBC (fetch size dentro de una transacción de solo lectura).
+ * - Cada QR se renderiza en un pool acotado; a lo sumo coupon.export.window imágenes están en vuelo,
+ *   y se escriben en el orden de lectura conforme terminan.
+ * - Las imágenes no pasan por QrImageCache para no desplazar las del flujo de bienvenida.
+ */
+@Slf4j
+@Service
+public class CouponSheetExportServiceImpl implements CouponSheetExportService {
+
+    static final String COUPONS_SQL = """
+            SELECT c.code, c.qr_token, c.expires_at FROM coupon c
+            WHERE c.campaign_id = ? AND c.qr_token IS NOT NULL
+            ORDER BY c.id
+            """;
+
+    static final String COUPONS_BY_STATUS_SQL = """
+            SELECT c.code, c.qr_token, c.expires_at FROM coupon c
+            WHERE c.campaign_id = ? AND c.status = ? AND c.qr_token IS NOT NULL
+            ORDER BY c.id
+            """;
+
+    static final int MIN_SIZE = 100;
+    static final int MAX_SIZE = 1000;
+    private static final int SHEET_QR_SIZE = 300;
+    private static final int CARDS_PER_PAGE = 12;
+    private static final DateTimeFormatter EXPIRY_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final CampaignRepository campaignRepository;
+    private final QrCodeService qrCodeService;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolExecutor renderExecutor;
+    private final int window;
+
+    @Autowired
+    public CouponSheetExportServiceImpl(CampaignRepository campaignRepository,
+                                        QrCodeService qrCodeService,
+                                        DataSource dataSource,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${coupon.export.fetch-size:1000}") int fetchSize,
+                                        @Value("${coupon.export.render-threads:0}") int renderThreads,
+                                        @Value("${coupon.export.window:256}") int window) {
+        this(campaignRepository, qrCodeService, streamingTemplate(dataSource, fetchSize),
+                readOnly(new TransactionTemplate(transactionManager)), renderThreads, window);
+    }
+
+    CouponSheetExportServiceImpl(CampaignRepository campaignRepository,
+                                 QrCodeService qrCodeService,
+                                 JdbcTemplate streamingJdbcTemplate,
+                                 TransactionTemplate readOnlyTransaction,
+                                 int renderThreads,
+                                 int window) {
+        this.campaignRepository = campaignRepository;
+        this.qrCodeService = qrCodeService;
+        this.streamingJdbcTemplate = streamingJdbcTemplate;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.window = Math.max(1, window);
+        int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        // Cola acotada: si varias exportaciones la llenan, el hilo que lee renderiza (contrapresión)
+        this.renderExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.window * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "coupon-export-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.renderExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdownNow();
+    }
+
+    @Override
+    public void validateExport(Long campaignId, Long tenantId, int size) {
+        campaignRepository.findById(campaignId)
+                .filter(c -> c.getBusinessId().equals(tenantId))
+                .orElseThrow(() -> new ResourceNotFoundException("Campaña no encontrada: " + campaignId));
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("El tamaño del QR debe estar entre " + MIN_SIZE + " y " + MAX_SIZE);
+        }
+    }
+
+    @Override
+    public long export(Long campaignId, CouponExportFormat format, CouponStatus status, int size,
+                       OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        CouponSink sink = format == CouponExportFormat.SHEET ? new SheetSink(out) : new ZipSink(out);
+        QrImageFormat imageFormat = format == CouponExportFormat.SHEET ? QrImageFormat.SVG : QrImageFormat.PNG;
+        int imageSize = format == CouponExportFormat.SHEET ? SHEET_QR_SIZE : size;
+
+        ArrayDeque<Future<RenderedCoupon>> inFlight = new ArrayDeque<>(window);
+        long[] written = {0};
+        RowCallbackHandler onRow = rs -> {
+            String code = rs.getString(1);
+            String content = qrCodeService.couponQrContent(rs.getString(2));
+            Timestamp expiresAt = rs.getTimestamp(3);
+            inFlight.add(renderExecutor.submit(() -> new RenderedCoupon(code,
+                    expiresAt != null ? expiresAt.toLocalDateTime() : null,
+                    qrCodeService.renderQrCode(content, imageSize, imageFormat))));
+            if (inFlight.size() >= window) {
+                writeNext(sink, inFlight);
+                written[0]++;
+            }
+        };
+
+        try {
+            sink.begin();
+            readOnlyTransaction.executeWithoutResult(tx -> {
+                if (status == null) {
+                    streamingJdbcTemplate.query(COUPONS_SQL, onRow, campaignId);
+                } else {
+                    streamingJdbcTemplate.query(COUPONS_BY_STATUS_SQL, onRow, campaignId, status.name());
+                }
+            });
+            while (!inFlight.isEmpty()) {
+                writeNext(sink, inFlight);
+                written[0]++;
+            }
+            sink.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+        }
+
+        log.info("Exportación {} de campaña {}: {} cupones en {} ms",
+                format, campaignId, written[0], System.currentTimeMillis() - start);
+        return written[0];
+    }
+
+    private static void writeNext(CouponSink sink, ArrayDeque<Future<RenderedCoupon>> inFlight) {
+        try {
+            sink.write(inFlight.poll().get());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Exportación interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw cause instanceof RuntimeException re ? re : new IllegalStateException(cause);
+        }
+    }
+
+    private static JdbcTemplate streamingTemplate(DataSource dataSource, int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        return template;
+    }
+
+    private static TransactionTemplate readOnly(TransactionTemplate template) {
+        // PostgreSQL solo respeta el fetch size dentro de una transacción
+        template.setReadOnly(true);
+        return template;
+    }
+
+    record RenderedCoupon(String code, LocalDateTime expiresAt, byte[] image) {
+    }
+
+    private interface CouponSink {
+        void begin() throws IOException;
+
+        void write(RenderedCoupon coupon) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * Un PNG por cupón. Los PNG ya van comprimidos, así que se guardan sin volver a comprimir (STORED).
+     */
+    private static final class ZipSink implements CouponSink {
+
+        private final ZipOutputStream zip;
+        private final CRC32 crc = new CRC32();
+
+        ZipSink(OutputStream out) {
+            this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void write(RenderedCoupon coupon) throws IOException {
+            crc.reset();
+            crc.update(coupon.image());
+            ZipEntry entry = new ZipEntry(coupon.code() + ".png");
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(coupon.image().length);
+            entry.setCompressedSize(coupon.image().length);
+            entry.setCrc(crc.getValue());
+            zip.putNextEntry(entry);
+            zip.write(coupon.image());
+            zip.closeEntry();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            zip.finish();
+            zip.flush();
+        }
+    }
+
+    /**
+     * Hoja imprimible: HTML con los QR en SVG (vectoriales), 3x4 por página A4.
+     * Se imprime o guarda como PDF desde el navegador.
+     */
+    private static final class SheetSink implements CouponSink {
+
+        private final Writer writer;
+        private long count;
+
+        SheetSink(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write("""
+                    <!DOCTYPE html>
+                    <html lang="es"><head><meta charset="utf-8"><title>Cupones</title>
+                    <style>
+                    @page { size: A4; margin: 10mm; }
+                    body { margin: 0; font-family: sans-serif; }
+                    .page { display: grid; grid-template-columns: repeat(3, 1fr); grid-auto-rows: 68mm;
+                            gap: 2mm; break-after: page; }
+                    .card { border: 1px dashed #999; display: flex; flex-direction: column;
+                            align-items: center; justify-content: center; break-inside: avoid; }
+                    .card svg { width: 48mm; height: 48mm; }
+                    .code { font-family: monospace; font-size: 12pt; margin-top: 1mm; }
+                    .expires { font-size: 8pt; color: #555; }
+                    </style></head><body>
+                    """);
+        }
+
+        @Override
+        public void write(RenderedCoupon coupon) throws IOException {
+            if (count % CARDS_PER_PAGE == 0) {
+                if (count > 0) {
+                    writer.write("</section>\n");
+                }
+                writer.write("<section class=\"page\">\n");
+            }
+            writer.write("<div class=\"card\">");
+            writer.write(new String(coupon.image(), StandardCharsets.UTF_8));
+            writer.write("<div class=\"code\">");
+            writer.write(escape(coupon.code()));
+            writer.write("</div>");
+            if (coupon.expiresAt() != null) {
+                writer.write("<div class=\"expires\">Vence: ");
+                writer.write(coupon.expiresAt().format(EXPIRY_FORMAT));
+                writer.write("</div>");
+            }
+            writer.write("</div>\n");
+            count++;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (count > 0) {
+                writer.write("</section>\n");
+            }
+            writer.write("</body></html>\n");
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+        }
+    }
+}
@@ -1,20 +1,39 @@
 package com.lealtixservice.service.impl;
 
+import com.lealtixservice.cache.CouponLookupFilter;
+import com.lealtixservice.cache.CouponValidationCache;
+import com.lealtixservice.cache.CouponValidationSnapshot;
+import com.lealtixservice.discount.BasketLine;
+import com.lealtixservice.discount.DiscountEngine;
+import com.lealtixservice.discount.DiscountQuote;
+import com.lealtixservice.dto.BasketItemRequest;
+import com.lealtixservice.dto.BasketQuoteRequest;
+import com.lealtixservice.dto.BasketQuoteResponse;
+import com.lealtixservice.dto.CouponLookupFilterStats;
+import com.lealtixservice.dto.CouponValidationCacheStats;
 import com.lealtixservice.dto.CouponValidationResponse;
-import com.lealtixservice.entity.Campaign;
-import com.lealtixservice.entity.Coupon;
-import com.lealtixservice.entity.PromotionReward;
-import com.lealtixservice.entity.Tenant;
-import com.lealtixservice.entity.TenantCustomer;
 import com.lealtixservice.enums.CouponStatus;
 import com.lealtixservice.repository.CouponRepository;
+import com.lealtixservice.repository.ProductPriceView;
+import com.lealtixservice.repository.TenantMenuProductRepository;
 import com.lealtixservice.repository.TenantRepository;
 import com.lealtixservice.service.CouponValidationService;
+import com.lealtixservice.util.QrTokenSigner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Implementación del servicio de validación de cupones.
  */
@@ -25,25 +44,34 @@ public class CouponValidationServiceImpl implements CouponValidationService {
 
     private final CouponRepository couponRepository;
     private final TenantRepository tenantRepository;
+    private final CouponValidationCache couponValidationCache;
+    private final TenantMenuProductRepository tenantMenuProductRepository;
+    private final DiscountEngine discountEngine;
+    private final CouponLookupFilter couponLookupFilter;
+    private final QrTokenSigner qrTokenSigner;
 
     @Override
     @Transactional(readOnly = true)
     public CouponValidationResponse validateCouponByQrToken(String qrToken, Long tenantId) {
         log.debug("Validando cupón por QR token para tenant: {}", tenantId);
 
-        // 1. Buscar cupón por QR token
-        Coupon coupon = couponRepository.findByQrToken(qrToken)
-                .orElse(null);
+        // 0. Token firmado: firma, tenant y expiración se comprueban sin ir a la BD
+        CouponValidationResponse signedRejection = rejectSignedToken(qrToken, tenantId);
+        if (signedRejection != null) {
+            return signedRejection;
+        }
+
+        // 1. Buscar cupón por QR token (cache; en miss un solo SELECT con campaña, reward, cliente y tenant)
+        CouponValidationSnapshot coupon = findSnapshotByQrToken(qrToken).orElse(null);
 
         if (coupon == null) {
             return CouponValidationResponse.invalidCoupon("Cupón no encontrado");
         }
 
         // 2. Validar que el cupón pertenece al tenant
-        Campaign campaign = coupon.getCampaign();
-        if (!campaign.getBusinessId().equals(tenantId)) {
+        if (!coupon.getBusinessId().equals(tenantId)) {
             log.warn("Intento de validar cupón de otro tenant. Cupón tenant: {}, Request tenant: {}",
-                    campaign.getBusinessId(), tenantId);
+                    coupon.getBusinessId(), tenantId);
             return CouponValidationResponse.invalidCoupon("Cupón no válido para este negocio");
         }
 
@@ -55,15 +83,21 @@ public class CouponValidationServiceImpl implements CouponValidationService {
     public CouponValidationResponse validateCouponByCode(String couponCode, Long tenantId) {
         log.debug("Validando cupón por código para tenant: {}", tenantId);
 
-        Coupon coupon = couponRepository.findByCode(couponCode)
+        // Código que seguro no existe: se rechaza sin consultar la BD
+        if (!couponLookupFilter.mightContainCode(couponCode)) {
+            return CouponValidationResponse.invalidCoupon("Cupón no encontrado");
+        }
+
+        CouponValidationSnapshot coupon = couponRepository.findRedemptionViewByCode(couponCode)
+                .map(view -> CouponValidationSnapshot.from(view, null))
                 .orElse(null);
 
         if (coupon == null) {
+            couponLookupFilter.recordFalsePositive();
             return CouponValidationResponse.invalidCoupon("Cupón no encontrado");
         }
 
-        Campaign campaign = coupon.getCampaign();
-        if (!campaign.getBusinessId().equals(tenantId)) {
+        if (!coupon.getBusinessId().equals(tenantId)) {
             log.warn("Intento de validar cupón de otro tenant");
             return CouponValidationResponse.invalidCoupon("Cupón no válido para este negocio");
         }
@@ -76,9 +110,13 @@ public class CouponValidationServiceImpl implements CouponValidationService {
     public CouponValidationResponse validateCouponByQrTokenForCustomer(String qrToken) {
         log.debug("Validando cupón por QR token desde perspectiva del cliente");
 
+        CouponValidationResponse signedRejection = rejectSignedToken(qrToken, null);
+        if (signedRejection != null) {
+            return signedRejection;
+        }
+
         // 1. Buscar cupón por QR token
-        Coupon coupon = couponRepository.findByQrToken(qrToken)
-                .orElse(null);
+        CouponValidationSnapshot coupon = findSnapshotByQrToken(qrToken).orElse(null);
 
         if (coupon == null) {
             return CouponValidationResponse.invalidCoupon("Cupón no encontrado");
@@ -88,29 +126,144 @@ public class CouponValidationServiceImpl implements CouponValidationService {
         return validateCoupon(coupon);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public BasketQuoteResponse quoteBasket(String qrToken, BasketQuoteRequest request, Long tenantId) {
+        log.debug("Cotizando cuenta de {} producto(s) para tenant: {}", request.getItems().size(), tenantId);
+
+        CouponValidationResponse validation = validateCouponByQrToken(qrToken, tenantId);
+        if (!validation.isValid()) {
+            return BasketQuoteResponse.builder()
+                    .applied(false)
+                    .message(validation.getMessage())
+                    .couponCode(validation.getCouponCode())
+                    .build();
+        }
+        CouponValidationSnapshot coupon = findSnapshotByQrToken(qrToken)
+                .orElseThrow(() -> new IllegalArgumentException("Cupón no encontrado"));
+
+        // Precios del menú del tenant en un solo SELECT
+        Set<Long> productIds = request.getItems().stream()
+                .map(BasketItemRequest::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, ProductPriceView> products = tenantMenuProductRepository.findPricesByTenantAndIds(tenantId, productIds)
+                .stream()
+                .collect(Collectors.toMap(ProductPriceView::getProductId, Function.identity()));
+
+        List<BasketLine> lines = new ArrayList<>(request.getItems().size());
+        List<BasketQuoteResponse.Line> responseLines = new ArrayList<>(request.getItems().size());
+        for (BasketItemRequest item : request.getItems()) {
+            ProductPriceView product = products.get(item.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Producto no encontrado en el menú: " + item.getProductId());
+            }
+            lines.add(new BasketLine(product.getProductId(), product.getPrice(), item.getQuantity()));
+            responseLines.add(BasketQuoteResponse.Line.builder()
+                    .productId(product.getProductId())
+                    .name(product.getName())
+                    .unitPrice(product.getPrice())
+                    .quantity(item.getQuantity())
+                    .lineTotal(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                    .build());
+        }
+
+        DiscountQuote quote = discountEngine.quoteBasket(coupon.getRewardId(), lines);
+        return BasketQuoteResponse.builder()
+                .applied(quote.applied())
+                .message(quote.message())
+                .couponCode(coupon.getCouponCode())
+                .rewardType(quote.rewardType())
+                .couponValue(quote.couponValue())
+                .subtotal(quote.originalAmount())
+                .discountAmount(quote.discountAmount())
+                .finalAmount(quote.finalAmount())
+                .lines(responseLines)
+                .build();
+    }
+
+    @Override
+    public CouponValidationCacheStats getCacheStats() {
+        return couponValidationCache.stats();
+    }
+
+    @Override
+    public CouponLookupFilterStats getLookupFilterStats() {
+        return couponLookupFilter.stats();
+    }
+
+    @Override
+    public CouponLookupFilterStats rebuildLookupFilter() {
+        return couponLookupFilter.rebuild();
+    }
+
     /**
-     * Lógica común de validación de cupón.
+     * Rechazo temprano de QR tokens firmados: alterados, de otro tenant (si se indica) o expirados.
+     *
+     * @return respuesta de rechazo, o null si el token no es firmado o pasa la verificación
+     */
+    private CouponValidationResponse rejectSignedToken(String qrToken, Long tenantId) {
+        if (!QrTokenSigner.isSignedFormat(qrToken)) {
+            return null;
+        }
+        Optional<QrTokenSigner.SignedQrToken> signed = qrTokenSigner.verify(qrToken);
+        if (signed.isEmpty()) {
+            log.warn("QR token firmado inválido");
+            return CouponValidationResponse.invalidCoupon("Cupón no encontrado");
+        }
+        if (tenantId != null && signed.get().tenantId() != tenantId) {
+            log.warn("QR token firmado de otro tenant. Token tenant: {}, Request tenant: {}",
+                    signed.get().tenantId(), tenantId);
+            return CouponValidationResponse.invalidCoupon("Cupón no válido para este negocio");
+        }
+        if (signed.get().isExpired(LocalDateTime.now())) {
+            return CouponValidationResponse.expired(null, signed.get().expiresAt(), null);
+        }
+        return null;
+    }
+
+    /**
+     * Token firmado: cache -> BD por PK. Token anterior: filtro de Bloom -> cache -> BD por token,
+     * de modo que los QR tokens que seguro no existen no llegan a la BD.
      */
-    private CouponValidationResponse validateCoupon(Coupon coupon) {
-        Campaign campaign = coupon.getCampaign();
-        TenantCustomer customer = coupon.getCustomer();
-        Tenant tenant = customer.getTenant();
+    private Optional<CouponValidationSnapshot> findSnapshotByQrToken(String qrToken) {
+        if (QrTokenSigner.isSignedFormat(qrToken)) {
+            return qrTokenSigner.verify(qrToken).flatMap(signed -> couponValidationCache.get(qrToken, () ->
+                    couponRepository.findRedemptionViewByIdAndQrToken(signed.couponId(), qrToken)
+                            .map(view -> CouponValidationSnapshot.from(view, qrToken))));
+        }
+        if (!couponLookupFilter.mightContainQrToken(qrToken)) {
+            return Optional.empty();
+        }
+        return couponValidationCache.get(qrToken, () -> {
+            Optional<CouponValidationSnapshot> loaded = couponRepository.findRedemptionViewByQrToken(qrToken)
+                    .map(view -> CouponValidationSnapshot.from(view, qrToken));
+            if (loaded.isEmpty()) {
+                couponLookupFilter.recordFalsePositive();
+            }
+            return loaded;
+        });
+    }
 
+    /**
+     * Lógica común de validación de cupón.
+     * La expiración se evalúa en cada lectura, por lo que un snapshot cacheado nunca la oculta.
+     */
+    private CouponValidationResponse validateCoupon(CouponValidationSnapshot coupon) {
         // 1. Verificar si ya fue redimido
         if (coupon.getStatus() == CouponStatus.REDEEMED) {
             return CouponValidationResponse.alreadyRedeemed(
-                    coupon.getCode(),
+                    coupon.getCouponCode(),
                     coupon.getRedeemedAt(),
-                    campaign.getTitle()
+                    coupon.getCampaignTitle()
             );
         }
 
         // 2. Verificar si está expirado
         if (coupon.isExpired()) {
             return CouponValidationResponse.expired(
-                    coupon.getCode(),
+                    coupon.getCouponCode(),
                     coupon.getExpiresAt(),
-                    campaign.getTitle()
+                    coupon.getCampaignTitle()
             );
         }
 
@@ -124,45 +277,44 @@ public class CouponValidationServiceImpl implements CouponValidationService {
             return CouponValidationResponse.invalidCoupon("Cupón no disponible para redención");
         }
 
-        // 5. Obtener información del beneficio y reward
-        String benefit = getBenefitDescription(campaign);
-        PromotionReward reward = campaign.getPromotionReward();
+        // 5. Obtener información del beneficio
+        String benefit = getBenefitDescription(coupon);
 
         // 6. Cupón válido - incluir datos completos del reward si existe
-        if (reward != null) {
+        if (coupon.getRewardId() != null) {
             return CouponValidationResponse.validCoupon(
-                    coupon.getCode(),
+                    coupon.getCouponCode(),
                     coupon.getStatus(),
                     coupon.getExpiresAt(),
-                    campaign.getTitle(),
-                    campaign.getDescription(),
+                    coupon.getCampaignTitle(),
+                    coupon.getCampaignDescription(),
                     benefit,
-                    customer.getName(),
-                    customer.getEmail(),
-                    campaign.getId(),
-                    tenant.getId(),
-                    tenant.getNombreNegocio(),
-                    reward.getDescription(),
-                    reward.getMinPurchaseAmount(),
-                    reward.getUsageLimit(),
-                    reward.getNumericValue(),
-                    reward.getUsageCount(),
-                    reward.getRewardType()
+                    coupon.getCustomerName(),
+                    coupon.getCustomerEmail(),
+                    coupon.getCampaignId(),
+                    coupon.getTenantId(),
+                    coupon.getTenantName(),
+                    coupon.getRewardDescription(),
+                    coupon.getRewardMinPurchaseAmount(),
+                    coupon.getRewardUsageLimit(),
+                    coupon.getRewardNumericValue(),
+                    coupon.getRewardUsageCount(),
+                    coupon.getRewardType()
             );
         } else {
             // Sin reward, usar factory method sin datos de reward
             return CouponValidationResponse.validCoupon(
-                    coupon.getCode(),
+                    coupon.getCouponCode(),
                     coupon.getStatus(),
                     coupon.getExpiresAt(),
-                    campaign.getTitle(),
-                    campaign.getDescription(),
+                    coupon.getCampaignTitle(),
+                    coupon.getCampaignDescription(),
                     benefit,
-                    customer.getName(),
-                    customer.getEmail(),
-                    campaign.getId(),
-                    tenant.getId(),
-                    tenant.getNombreNegocio()
+                    coupon.getCustomerName(),
+                    coupon.getCustomerEmail(),
+                    coupon.getCampaignId(),
+                    coupon.getTenantId(),
+                    coupon.getTenantName()
             );
         }
     }
@@ -170,12 +322,10 @@ public class CouponValidationServiceImpl implements CouponValidationService {
     /**
      * Obtiene la descripción del beneficio desde PromotionReward si existe.
      */
-    private String getBenefitDescription(Campaign campaign) {
-        PromotionReward reward = campaign.getPromotionReward();
-        if (reward != null && reward.getDescription() != null) {
-            return reward.getDescription();
+    private String getBenefitDescription(CouponValidationSnapshot coupon) {
+        if (coupon.getRewardDescription() != null) {
+            return coupon.getRewardDescription();
         }
-        return campaign.getDescription();
+        return coupon.getCampaignDescription();
     }
 }
-
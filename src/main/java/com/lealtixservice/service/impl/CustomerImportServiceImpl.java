@@ -0,0 +1,405 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.dto.CustomerImportResult;
+import com.lealtixservice.dto.CustomerImportRowError;
+import com.lealtixservice.event.CustomersImportedEvent;
+import com.lealtixservice.exception.ResourceNotFoundException;
+import com.lealtixservice.repository.TenantRepository;
+import com.lealtixservice.service.CustomerImportService;
+import com.lealtixservice.util.CsvReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Implementación de la importación de clientes desde CSV.
+ *
+ * - El CSV se lee con CsvReader; solo el lote actual (customer.import.chunk-size filas) está en memoria.
+ * - Cada lote, en su propia transacción: ids preasignados por bloques de tenant_customer_seq,
+ *   INSERT en bloque a una tabla temporal y un INSERT ... SELECT con anti-join contra los clientes
+ *   del tenant por lower(email) (índice V14). Los repetidos dentro del archivo se resuelven con
+ *   DISTINCT ON y, entre lotes, porque el anti-join ve los lotes ya confirmados.
+ * - Un advisory lock de transacción por tenant evita que dos importaciones simultáneas dupliquen emails.
+ * - Con sendWelcome, cada lote publica un CustomersImportedEvent que el flujo de bienvenida procesa
+ *   después del commit.
+ */
+@Slf4j
+@Service
+public class CustomerImportServiceImpl implements CustomerImportService {
+
+    static final String LOCK_TENANT_SQL = "SELECT 1 FROM pg_advisory_xact_lock(?, ?)";
+    static final int IMPORT_LOCK_NAMESPACE = 0x4C544349;
+
+    static final String NEXT_CUSTOMER_ID_BLOCKS_SQL =
+            "SELECT nextval('tenant_customer_seq') FROM generate_series(1, ?)";
+    static final int CUSTOMER_ID_BLOCK_SIZE = 50;
+
+    static final String CREATE_STAGE_SQL = """
+            CREATE TEMP TABLE IF NOT EXISTS customer_import_stage (
+                id BIGINT NOT NULL,
+                line BIGINT NOT NULL,
+                name VARCHAR(150) NOT NULL,
+                email VARCHAR(150) NOT NULL,
+                gender VARCHAR(10),
+                birth_date DATE,
+                phone VARCHAR(20),
+                accepted_promotions BOOLEAN NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    static final String INSERT_STAGE_SQL = """
+            INSERT INTO customer_import_stage (id, line, name, email, gender, birth_date, phone, accepted_promotions)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    static final String MERGE_SQL = """
+            WITH candidates AS (
+                SELECT DISTINCT ON (lower(s.email)) s.*
+                FROM customer_import_stage s
+                WHERE NOT EXISTS (SELECT 1 FROM tenant_customer tc
+                                  WHERE tc.tenant_id = ? AND lower(tc.email) = lower(s.email))
+                ORDER BY lower(s.email), s.line
+            )
+            INSERT INTO tenant_customer (id, tenant_id, name, email, gender, birth_date, phone,
+                                         created_at, updated_at, accepted_promotions, accepted_at, welcome_pending_at)
+            SELECT c.id, ?, c.name, c.email, c.gender, c.birth_date, c.phone, ?, ?, c.accepted_promotions,
+                   CASE WHEN c.accepted_promotions THEN CAST(? AS DATE) END, CAST(? AS TIMESTAMP)
+            FROM candidates c
+            RETURNING id
+            """;
+
+    private static final int MAX_NAME_LENGTH = 150;
+    private static final int MAX_EMAIL_LENGTH = 150;
+    private static final int MAX_GENDER_LENGTH = 10;
+    private static final int MAX_PHONE_LENGTH = 20;
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final DateTimeFormatter LOCAL_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT);
+    private static final Set<String> TRUE_VALUES = Set.of("true", "1", "si", "sí", "s", "yes", "y");
+    private static final Set<String> FALSE_VALUES = Set.of("false", "0", "no", "n");
+
+    enum Column { NAME, EMAIL, GENDER, BIRTH_DATE, PHONE, ACCEPTED_PROMOTIONS }
+
+    private static final Map<String, Column> HEADER_ALIASES = Map.ofEntries(
+            Map.entry("name", Column.NAME),
+            Map.entry("nombre", Column.NAME),
+            Map.entry("email", Column.EMAIL),
+            Map.entry("correo", Column.EMAIL),
+            Map.entry("correoelectronico", Column.EMAIL),
+            Map.entry("gender", Column.GENDER),
+            Map.entry("genero", Column.GENDER),
+            Map.entry("sexo", Column.GENDER),
+            Map.entry("birthdate", Column.BIRTH_DATE),
+            Map.entry("fechanacimiento", Column.BIRTH_DATE),
+            Map.entry("fechadenacimiento", Column.BIRTH_DATE),
+            Map.entry("phone", Column.PHONE),
+            Map.entry("telefono", Column.PHONE),
+            Map.entry("celular", Column.PHONE),
+            Map.entry("acceptedpromotions", Column.ACCEPTED_PROMOTIONS),
+            Map.entry("aceptapromociones", Column.ACCEPTED_PROMOTIONS));
+
+    private final TenantRepository tenantRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final long welcomeLeaseSeconds;
+
+    @Autowired
+    public CustomerImportServiceImpl(TenantRepository tenantRepository,
+                                     JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${customer.import.chunk-size:1000}") int chunkSize,
+                                     @Value("${customer.import.max-reported-errors:1000}") int maxReportedErrors,
+                                     @Value("${welcome.pipeline.deferred-lease-seconds:300}") long welcomeLeaseSeconds) {
+        this(tenantRepository, jdbcTemplate, new TransactionTemplate(transactionManager), eventPublisher,
+                chunkSize, maxReportedErrors, welcomeLeaseSeconds);
+    }
+
+    CustomerImportServiceImpl(TenantRepository tenantRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              int chunkSize,
+                              int maxReportedErrors,
+                              long welcomeLeaseSeconds) {
+        this.tenantRepository = tenantRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxReportedErrors = Math.max(0, maxReportedErrors);
+        this.welcomeLeaseSeconds = welcomeLeaseSeconds;
+    }
+
+    @Override
+    public CustomerImportResult importCsv(Long tenantId, InputStream csv, boolean sendWelcome) throws IOException {
+        if (!tenantRepository.existsById(tenantId)) {
+            throw new ResourceNotFoundException("Tenant no encontrado: " + tenantId);
+        }
+
+        long start = System.currentTimeMillis();
+        Progress progress = new Progress(maxReportedErrors);
+        try (CsvReader reader = CsvReader.open(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("El archivo CSV está vacío");
+            }
+            Map<Column, Integer> columns = mapHeader(header);
+
+            List<StagedCustomer> chunk = new ArrayList<>(chunkSize);
+            List<String> record;
+            while ((record = nextRecord(reader, progress)) != null) {
+                if (isBlank(record)) {
+                    continue;
+                }
+                progress.rows++;
+                StagedCustomer customer = parse(record, columns, reader.getRecordLine(), progress);
+                if (customer == null) {
+                    continue;
+                }
+                chunk.add(customer);
+                if (chunk.size() >= chunkSize) {
+                    flush(tenantId, chunk, sendWelcome, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flush(tenantId, chunk, sendWelcome, progress);
+            }
+        }
+
+        log.info("Importación de clientes del tenant {}: {} filas, {} importados, {} duplicados, {} rechazados en {} ms",
+                tenantId, progress.rows, progress.imported, progress.duplicates, progress.rejected,
+                System.currentTimeMillis() - start);
+        return progress.toResult();
+    }
+
+    /**
+     * Inserta un lote en su propia transacción y reporta como duplicadas las filas que el anti-join descartó.
+     */
+    private void flush(Long tenantId, List<StagedCustomer> chunk, boolean sendWelcome, Progress progress) {
+        long[] ids = new long[chunk.size()];
+        List<Long> inserted = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject(LOCK_TENANT_SQL, Integer.class, IMPORT_LOCK_NAMESPACE, Long.hashCode(tenantId));
+            jdbcTemplate.execute(CREATE_STAGE_SQL);
+
+            List<Long> reserved = reserveCustomerIds(chunk.size());
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                ids[i] = reserved.get(i);
+                rows.add(chunk.get(i).toStageRow(ids[i]));
+            }
+            jdbcTemplate.batchUpdate(INSERT_STAGE_SQL, rows);
+
+            LocalDateTime createdAt = LocalDateTime.now();
+            Timestamp now = Timestamp.valueOf(createdAt);
+            // Con bienvenida, queda pendiente en la misma transacción: DeferredWelcomePoller la retoma si se pierde
+            Timestamp welcomePendingAt = sendWelcome
+                    ? Timestamp.valueOf(createdAt.plusSeconds(welcomeLeaseSeconds)) : null;
+            List<Long> insertedIds = jdbcTemplate.queryForList(MERGE_SQL, Long.class,
+                    tenantId, tenantId, now, now, Date.valueOf(LocalDate.now()), welcomePendingAt);
+            if (sendWelcome && !insertedIds.isEmpty()) {
+                eventPublisher.publishEvent(new CustomersImportedEvent(tenantId, insertedIds));
+            }
+            return insertedIds;
+        });
+
+        Set<Long> insertedSet = inserted != null ? new HashSet<>(inserted) : Set.of();
+        progress.imported += insertedSet.size();
+        if (sendWelcome) {
+            progress.welcomeQueued += insertedSet.size();
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            if (!insertedSet.contains(ids[i])) {
+                StagedCustomer duplicate = chunk.get(i);
+                progress.duplicates++;
+                progress.report(duplicate.line(), duplicate.email(),
+                        "Email ya registrado en el tenant o repetido en el archivo");
+            }
+        }
+    }
+
+    private List<Long> reserveCustomerIds(int count) {
+        int blocks = (count + CUSTOMER_ID_BLOCK_SIZE - 1) / CUSTOMER_ID_BLOCK_SIZE;
+        List<Long> ids = new ArrayList<>(count);
+        for (Long blockStart : jdbcTemplate.queryForList(NEXT_CUSTOMER_ID_BLOCKS_SQL, Long.class, blocks)) {
+            for (int i = 0; i < CUSTOMER_ID_BLOCK_SIZE && ids.size() < count; i++) {
+                ids.add(blockStart + i);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Lee el siguiente registro; si el archivo está mal formado lo reporta y termina la lectura
+     * (los lotes anteriores ya quedaron confirmados).
+     */
+    private static List<String> nextRecord(CsvReader reader, Progress progress) throws IOException {
+        try {
+            return reader.readRecord();
+        } catch (IllegalArgumentException e) {
+            progress.rows++;
+            progress.rejected++;
+            progress.report(reader.getRecordLine(), null, "Archivo mal formado, se detuvo la lectura: " + e.getMessage());
+            return null;
+        }
+    }
+
+    static Map<Column, Integer> mapHeader(List<String> header) {
+        Map<Column, Integer> columns = new EnumMap<>(Column.class);
+        for (int i = 0; i < header.size(); i++) {
+            Column column = HEADER_ALIASES.get(normalizeHeader(header.get(i)));
+            if (column != null) {
+                columns.putIfAbsent(column, i);
+            }
+        }
+        if (!columns.containsKey(Column.NAME) || !columns.containsKey(Column.EMAIL)) {
+            throw new IllegalArgumentException("El encabezado del CSV debe incluir las columnas name y email");
+        }
+        return columns;
+    }
+
+    private static String normalizeHeader(String header) {
+        return Normalizer.normalize(header.trim().toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replaceAll("[^a-z]", "");
+    }
+
+    /**
+     * Valida una fila; si no es válida la reporta y regresa null.
+     */
+    private static StagedCustomer parse(List<String> record, Map<Column, Integer> columns, long line,
+                                        Progress progress) {
+        String name = field(record, columns, Column.NAME);
+        String email = field(record, columns, Column.EMAIL).toLowerCase(Locale.ROOT);
+        String gender = field(record, columns, Column.GENDER);
+        String phone = field(record, columns, Column.PHONE);
+        String birthDateText = field(record, columns, Column.BIRTH_DATE);
+        String acceptedText = field(record, columns, Column.ACCEPTED_PROMOTIONS).toLowerCase(Locale.ROOT);
+
+        String error = null;
+        LocalDate birthDate = null;
+        if (email.isEmpty()) {
+            error = "El email es obligatorio";
+        } else if (email.length() > MAX_EMAIL_LENGTH || !EMAIL_PATTERN.matcher(email).matches()) {
+            error = "Email inválido";
+        } else if (name.isEmpty()) {
+            error = "El nombre es obligatorio";
+        } else if (name.length() > MAX_NAME_LENGTH) {
+            error = "El nombre excede " + MAX_NAME_LENGTH + " caracteres";
+        } else if (gender.length() > MAX_GENDER_LENGTH) {
+            error = "El género excede " + MAX_GENDER_LENGTH + " caracteres";
+        } else if (phone.length() > MAX_PHONE_LENGTH) {
+            error = "El teléfono excede " + MAX_PHONE_LENGTH + " caracteres";
+        } else if (!acceptedText.isEmpty() && !TRUE_VALUES.contains(acceptedText)
+                && !FALSE_VALUES.contains(acceptedText)) {
+            error = "accepted_promotions inválido: " + acceptedText;
+        } else if (!birthDateText.isEmpty()) {
+            birthDate = parseDate(birthDateText);
+            if (birthDate == null || birthDate.isAfter(LocalDate.now())) {
+                error = "Fecha de nacimiento inválida: " + birthDateText;
+            }
+        }
+
+        if (error != null) {
+            progress.rejected++;
+            progress.report(line, email.isEmpty() ? null : email, error);
+            return null;
+        }
+        return new StagedCustomer(line, name, email, emptyToNull(gender), birthDate, emptyToNull(phone),
+                !FALSE_VALUES.contains(acceptedText));
+    }
+
+    private static LocalDate parseDate(String text) {
+        try {
+            return text.contains("/") ? LocalDate.parse(text, LOCAL_DATE_FORMAT) : LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String field(List<String> record, Map<Column, Integer> columns, Column column) {
+        Integer index = columns.get(column);
+        return index != null && index < record.size() ? record.get(index).trim() : "";
+    }
+
+    private static boolean isBlank(List<String> record) {
+        return record.stream().allMatch(value -> value.trim().isEmpty());
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private record StagedCustomer(long line, String name, String email, String gender, LocalDate birthDate,
+                                  String phone, boolean acceptedPromotions) {
+
+        /**
+         * Fila de customer_import_stage: id, line, name, email, gender, birth_date, phone, accepted_promotions.
+         */
+        Object[] toStageRow(long id) {
+            return new Object[]{id, line, name, email, gender, birthDate != null ? Date.valueOf(birthDate) : null,
+                    phone, acceptedPromotions};
+        }
+    }
+
+    /**
+     * Contadores de la importación y errores reportados (acotados).
+     */
+    private static final class Progress {
+
+        private final int maxErrors;
+        private final List<CustomerImportRowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long duplicates;
+        private long rejected;
+        private long welcomeQueued;
+        private boolean truncated;
+
+        private Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void report(long line, String email, String reason) {
+            if (errors.size() < maxErrors) {
+                errors.add(new CustomerImportRowError(line, email, reason));
+            } else {
+                truncated = true;
+            }
+        }
+
+        private CustomerImportResult toResult() {
+            return new CustomerImportResult(rows, imported, duplicates, rejected, welcomeQueued,
+                    List.copyOf(errors), truncated);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.dto.dashboard.CampaignRollupTotals;
+import com.lealtixservice.entity.CouponRedemption;
+import com.lealtixservice.service.DashboardRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mantiene campaign_daily_rollup sumando deltas con INSERT ... ON CONFLICT DO UPDATE en la transacción
+ * de la emisión o la redención, y lo recalcula por día desde las tablas de origen (reconciliación).
+ *
+ * La fila (tenant, día, campaña) queda bloqueada hasta el commit de quien la actualiza; los lotes se
+ * agrupan por fila y se aplican en orden de llave para que dos lotes concurrentes no se bloqueen en cruz.
+ *
+ * Cada (tenant, día) tiene un advisory lock de transacción: las sumas lo toman compartido (no se esperan
+ * entre sí) y el recálculo exclusivo. El recálculo espera a las sumas en curso y las nuevas esperan a que
+ * termine, sin detener a los demás tenants ni días. La llave es (hash del tenant, día): una colisión
+ * entre tenants solo provoca una espera, nunca un delta perdido.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardRollupServiceImpl implements DashboardRollupService {
+
+    static final String UPSERT_SQL = """
+            INSERT INTO campaign_daily_rollup (tenant_id, day, campaign_id, coupons_issued, redemptions, ticket_count,
+                                               sales_total, discount_total, original_total)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (tenant_id, day, campaign_id) DO UPDATE SET
+                coupons_issued = campaign_daily_rollup.coupons_issued + EXCLUDED.coupons_issued,
+                redemptions = campaign_daily_rollup.redemptions + EXCLUDED.redemptions,
+                ticket_count = campaign_daily_rollup.ticket_count + EXCLUDED.ticket_count,
+                sales_total = campaign_daily_rollup.sales_total + EXCLUDED.sales_total,
+                discount_total = campaign_daily_rollup.discount_total + EXCLUDED.discount_total,
+                original_total = campaign_daily_rollup.original_total + EXCLUDED.original_total
+            """;
+
+    static final String SUM_BY_CAMPAIGN_SQL = """
+            SELECT r.campaign_id, ca.title,
+                   SUM(r.coupons_issued) AS coupons_issued, SUM(r.redemptions) AS redemptions,
+                   SUM(r.ticket_count) AS ticket_count, SUM(r.sales_total) AS sales_total,
+                   SUM(r.discount_total) AS discount_total, SUM(r.original_total) AS original_total
+            FROM campaign_daily_rollup r
+            JOIN campaign ca ON ca.id = r.campaign_id
+            WHERE r.tenant_id = ?
+              AND r.day BETWEEN ? AND ?
+            GROUP BY r.campaign_id, ca.title
+            """;
+
+    // Las sumas se esperan solo con un recálculo del mismo (tenant, día); se liberan al terminar la transacción
+    static final String DELTA_LOCK_SQL = "SELECT pg_advisory_xact_lock_shared(?, ?)";
+    // El recálculo espera a que confirmen las sumas en curso antes de leer el origen: ningún delta se pierde ni se duplica
+    static final String REBUILD_LOCK_SQL = "SELECT pg_advisory_xact_lock(?, ?)";
+
+    static final String TENANTS_FOR_DAY_SQL = """
+            SELECT tenant_id FROM campaign_daily_rollup WHERE day = ?
+            UNION
+            SELECT ca.business_id
+            FROM coupon c
+            JOIN campaign ca ON ca.id = c.campaign_id
+            WHERE c.created_at >= ? AND c.created_at < ?
+            UNION
+            SELECT tenant_id FROM coupon_redemption WHERE redeemed_at >= ? AND redeemed_at < ?
+            ORDER BY 1
+            """;
+
+    static final String DELETE_DAY_SQL = """
+            DELETE FROM campaign_daily_rollup
+            WHERE tenant_id = ? AND day = ?
+            """;
+
+    static final String REBUILD_DAY_SQL = """
+            INSERT INTO campaign_daily_rollup (tenant_id, day, campaign_id, coupons_issued, redemptions, ticket_count,
+                                               sales_total, discount_total, original_total)
+            SELECT CAST(? AS BIGINT), CAST(? AS DATE), campaign_id,
+                   SUM(issued), SUM(redeemed), SUM(tickets), SUM(sales), SUM(discount), SUM(original)
+            FROM (
+                SELECT c.campaign_id,
+                       COUNT(*) AS issued, 0 AS redeemed, 0 AS tickets, 0 AS sales, 0 AS discount, 0 AS original
+                FROM coupon c
+                JOIN campaign ca ON ca.id = c.campaign_id
+                WHERE ca.business_id = ?
+                  AND c.created_at >= ? AND c.created_at < ?
+                GROUP BY c.campaign_id
+                UNION ALL
+                SELECT cr.campaign_id,
+                       0, COUNT(*), COUNT(cr.final_amount), COALESCE(SUM(cr.final_amount), 0),
+                       COALESCE(SUM(cr.discount_amount), 0), COALESCE(SUM(cr.original_amount), 0)
+                FROM coupon_redemption cr
+                WHERE cr.tenant_id = ?
+                  AND cr.redeemed_at >= ? AND cr.redeemed_at < ?
+                GROUP BY cr.campaign_id
+            ) daily
+            GROUP BY campaign_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void recordIssued(Long tenantId, Long campaignId, LocalDateTime issuedAt, int count) {
+        if (count <= 0) {
+            return;
+        }
+        lockDay(DELTA_LOCK_SQL, tenantId, issuedAt.toLocalDate());
+        jdbcTemplate.update(UPSERT_SQL, tenantId, Date.valueOf(issuedAt.toLocalDate()), campaignId,
+                count, 0, 0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    @Override
+    public void recordRedemptions(Collection<CouponRedemption> redemptions) {
+        if (redemptions.isEmpty()) {
+            return;
+        }
+        Map<RollupKey, Delta> deltas = new TreeMap<>();
+        for (CouponRedemption redemption : redemptions) {
+            RollupKey key = new RollupKey(redemption.getTenantId(), redemption.getRedeemedAt().toLocalDate(),
+                    redemption.getCampaignId());
+            deltas.computeIfAbsent(key, k -> new Delta()).add(redemption);
+        }
+
+        // Un lock compartido por (tenant, día), en orden de llave como las filas
+        RollupKey locked = null;
+        for (RollupKey key : deltas.keySet()) {
+            if (locked == null || !locked.tenantId().equals(key.tenantId()) || !locked.day().equals(key.day())) {
+                lockDay(DELTA_LOCK_SQL, key.tenantId(), key.day());
+                locked = key;
+            }
+        }
+
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> args.add(new Object[]{
+                key.tenantId(), Date.valueOf(key.day()), key.campaignId(), 0,
+                delta.redemptions, delta.tickets, delta.sales, delta.discount, delta.original
+        }));
+        if (args.size() == 1) {
+            jdbcTemplate.update(UPSERT_SQL, args.get(0));
+        } else {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CampaignRollupTotals> sumByCampaign(Long tenantId, LocalDate fromDay, LocalDate toDay) {
+        return jdbcTemplate.query(SUM_BY_CAMPAIGN_SQL, (rs, rowNum) -> new CampaignRollupTotals(
+                rs.getLong("campaign_id"),
+                rs.getString("title"),
+                rs.getLong("coupons_issued"),
+                rs.getLong("redemptions"),
+                rs.getLong("ticket_count"),
+                rs.getBigDecimal("sales_total"),
+                rs.getBigDecimal("discount_total"),
+                rs.getBigDecimal("original_total")
+        ), tenantId, Date.valueOf(fromDay), Date.valueOf(toDay));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> tenantsForDay(LocalDate day) {
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        return jdbcTemplate.queryForList(TENANTS_FOR_DAY_SQL, Long.class, Date.valueOf(day), start, end, start, end);
+    }
+
+    @Override
+    @Transactional
+    public int rebuildDay(Long tenantId, LocalDate day) {
+        if (tenantId == null) {
+            throw new IllegalArgumentException("El recálculo del acumulado requiere un tenant");
+        }
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+
+        lockDay(REBUILD_LOCK_SQL, tenantId, day);
+        int deleted = jdbcTemplate.update(DELETE_DAY_SQL, tenantId, Date.valueOf(day));
+        int written = jdbcTemplate.update(REBUILD_DAY_SQL, tenantId, Date.valueOf(day),
+                tenantId, start, end, tenantId, start, end);
+
+        log.debug("Acumulado del dashboard recalculado para {} (tenant {}): {} fila(s) reemplazan {}",
+                day, tenantId, written, deleted);
+        return written;
+    }
+
+    private void lockDay(String sql, Long tenantId, LocalDate day) {
+        jdbcTemplate.query(sql, rs -> {
+        }, Long.hashCode(tenantId), (int) day.toEpochDay());
+    }
+
+    private record RollupKey(Long tenantId, LocalDate day, Long campaignId) implements Comparable<RollupKey> {
+
+        private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::tenantId)
+                .thenComparing(RollupKey::day)
+                .thenComparing(RollupKey::campaignId);
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Delta {
+        private long redemptions;
+        private long tickets;
+        private BigDecimal sales = BigDecimal.ZERO;
+        private BigDecimal discount = BigDecimal.ZERO;
+        private BigDecimal original = BigDecimal.ZERO;
+
+        void add(CouponRedemption redemption) {
+            redemptions++;
+            if (redemption.getFinalAmount() != null) {
+                tickets++;
+                sales = sales.add(redemption.getFinalAmount());
+            }
+            if (redemption.getDiscountAmount() != null) {
+                discount = discount.add(redemption.getDiscountAmount());
+            }
+            if (redemption.getOriginalAmount() != null) {
+                original = original.add(redemption.getOriginalAmount());
+            }
+        }
+    }
+}
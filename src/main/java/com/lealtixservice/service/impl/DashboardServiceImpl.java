@@ -1,11 +1,12 @@
 package com.lealtixservice.service.impl;
 
 import com.lealtixservice.dto.dashboard.CampaignPerformanceDTO;
+import com.lealtixservice.dto.dashboard.CampaignRollupTotals;
 import com.lealtixservice.dto.dashboard.CouponStatsDTO;
 import com.lealtixservice.dto.dashboard.SalesSummaryDTO;
 import com.lealtixservice.dto.dashboard.TimeSeriesCountDTO;
 import com.lealtixservice.repository.DashboardCustomerRepository;
-import com.lealtixservice.repository.DashboardRedemptionRepository;
+import com.lealtixservice.service.DashboardRollupService;
 import com.lealtixservice.service.DashboardService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,8 +14,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.Date;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -27,7 +30,7 @@ import java.util.List;
 public class DashboardServiceImpl implements DashboardService {
 
     private final DashboardCustomerRepository customerRepository;
-    private final DashboardRedemptionRepository redemptionRepository;
+    private final DashboardRollupService dashboardRollupService;
 
     @Override
     public Long getTotalCustomers(Long tenantId, LocalDateTime from, LocalDateTime to) {
@@ -69,22 +72,15 @@ public class DashboardServiceImpl implements DashboardService {
     public List<CouponStatsDTO> getCouponStats(Long tenantId, LocalDateTime from, LocalDateTime to) {
         log.debug("Obteniendo estadísticas de cupones para tenant {} entre {} y {}", tenantId, from, to);
 
-        List<Object[]> results = redemptionRepository.findCouponStatsByCampaign(tenantId, from, to);
-
-        if (results == null || results.isEmpty()) {
-            return List.of();
-        }
-
-        return results.stream()
-                .map(row -> {
-                    Long campaignId = ((Number) row[0]).longValue();
-                    String campaignName = (String) row[1];
-                    Long couponsCreated = ((Number) row[2]).longValue();
-                    Long couponsRedeemed = ((Number) row[3]).longValue();
-                    Double redemptionRatePct = row[4] != null ? ((Number) row[4]).doubleValue() : 0.0;
-
-                    return new CouponStatsDTO(campaignId, campaignName, couponsCreated, couponsRedeemed, redemptionRatePct);
-                })
+        return sumByCampaign(tenantId, from, to).stream()
+                .sorted(Comparator.comparingLong(CampaignRollupTotals::redemptions).reversed())
+                .map(totals -> new CouponStatsDTO(
+                        totals.campaignId(),
+                        totals.campaignName(),
+                        totals.couponsIssued(),
+                        totals.redemptions(),
+                        ratePct(totals.redemptions(), totals.couponsIssued())
+                ))
                 .toList();
     }
 
@@ -92,19 +88,16 @@ public class DashboardServiceImpl implements DashboardService {
     public SalesSummaryDTO getSalesSummary(Long tenantId, LocalDateTime from, LocalDateTime to) {
         log.debug("Obteniendo resumen de ventas para tenant {} entre {} y {}", tenantId, from, to);
 
-        List<Object[]> results = redemptionRepository.findSalesSummary(tenantId, from, to);
-
-        if (results == null || results.isEmpty()) {
-            return new SalesSummaryDTO(BigDecimal.ZERO, BigDecimal.ZERO, 0L);
+        BigDecimal totalSales = BigDecimal.ZERO;
+        long ticketCount = 0;
+        long transactionCount = 0;
+        for (CampaignRollupTotals totals : sumByCampaign(tenantId, from, to)) {
+            totalSales = totalSales.add(totals.salesTotal());
+            ticketCount += totals.ticketCount();
+            transactionCount += totals.redemptions();
         }
 
-        Object[] row = results.get(0);
-
-        BigDecimal totalSales = new BigDecimal(row[0].toString());
-        BigDecimal avgTicket = new BigDecimal(row[1].toString());
-        Long transactionCount = ((Number) row[2]).longValue();
-
-        return new SalesSummaryDTO(totalSales, avgTicket, transactionCount);
+        return new SalesSummaryDTO(totalSales, avgTicket(totalSales, ticketCount), transactionCount);
     }
 
     @Override
@@ -116,33 +109,35 @@ public class DashboardServiceImpl implements DashboardService {
         log.debug("Obteniendo rendimiento de campañas para tenant {} entre {} y {}",
                 tenantId, from, to);
 
-        List<Object[]> results = redemptionRepository.findCampaignPerformance(tenantId, from, to);
+        return sumByCampaign(tenantId, from, to).stream()
+                .sorted(Comparator.comparing(CampaignRollupTotals::salesTotal).reversed())
+                .map(totals -> new CampaignPerformanceDTO(
+                        totals.campaignId(),
+                        totals.campaignName(),
+                        totals.couponsIssued(),
+                        totals.redemptions(),
+                        totals.salesTotal(),
+                        avgTicket(totals.salesTotal(), totals.ticketCount()),
+                        ratePct(totals.redemptions(), totals.couponsIssued())
+                ))
+                .toList();
+    }
+
+    /**
+     * Los KPIs de cupones y ventas suman filas del acumulado diario (una por día y campaña) en lugar de
+     * recorrer coupon y coupon_redemption; el rango se toma por días completos, de from a to inclusive.
+     */
+    private List<CampaignRollupTotals> sumByCampaign(Long tenantId, LocalDateTime from, LocalDateTime to) {
+        return dashboardRollupService.sumByCampaign(tenantId, from.toLocalDate(), to.toLocalDate());
+    }
 
-        if (results == null || results.isEmpty()) {
-            return List.of();
-        }
+    private static BigDecimal avgTicket(BigDecimal totalSales, long ticketCount) {
+        return ticketCount == 0
+                ? BigDecimal.ZERO
+                : totalSales.divide(BigDecimal.valueOf(ticketCount), 2, RoundingMode.HALF_UP);
+    }
 
-        return results.stream()
-                .map(row -> {
-                    Long campaignId = ((Number) row[0]).longValue();
-                    String campaignName = (String) row[1];
-                    Long couponsIssued = ((Number) row[2]).longValue();
-                    Long redemptions = ((Number) row[3]).longValue();
-                    BigDecimal totalSales = new BigDecimal(row[4].toString());
-                    BigDecimal avgTicket = new BigDecimal(row[5].toString());
-                    Double redemptionRatePct = row[6] != null ? ((Number) row[6]).doubleValue() : 0.0;
-
-                    return new CampaignPerformanceDTO(
-                            campaignId,
-                            campaignName,
-                            couponsIssued,
-                            redemptions,
-                            totalSales,
-                            avgTicket,
-                            redemptionRatePct
-                    );
-                })
-                .toList();
+    private static Double ratePct(long part, long total) {
+        return total == 0 ? 0.0 : Math.round(part * 10000.0 / total) / 100.0;
     }
 }
-
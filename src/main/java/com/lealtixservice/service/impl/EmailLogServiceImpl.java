@@ -1,5 +1,6 @@
 package com.lealtixservice.service.impl;
 
+import com.lealtixservice.dto.EmailLogWriterStats;
 import com.lealtixservice.entity.EmailLog;
 import com.lealtixservice.repository.EmailLogRepository;
 import com.lealtixservice.service.EmailLogService;
@@ -12,9 +13,11 @@ import java.util.Optional;
 public class EmailLogServiceImpl implements EmailLogService {
 
     private final EmailLogRepository emailLogRepository;
+    private final EmailLogWriter emailLogWriter;
 
-    public EmailLogServiceImpl(EmailLogRepository emailLogRepository) {
+    public EmailLogServiceImpl(EmailLogRepository emailLogRepository, EmailLogWriter emailLogWriter) {
         this.emailLogRepository = emailLogRepository;
+        this.emailLogWriter = emailLogWriter;
     }
 
     @Override
@@ -22,6 +25,26 @@ public class EmailLogServiceImpl implements EmailLogService {
         return emailLogRepository.save(emailLog);
     }
 
+    @Override
+    public List<EmailLog> saveAll(List<EmailLog> emailLogs) {
+        return emailLogRepository.saveAll(emailLogs);
+    }
+
+    @Override
+    public void saveAsync(EmailLog emailLog) {
+        emailLogWriter.write(emailLog);
+    }
+
+    @Override
+    public void saveAllAsync(List<EmailLog> emailLogs) {
+        emailLogWriter.writeAll(emailLogs);
+    }
+
+    @Override
+    public EmailLogWriterStats getWriterStats() {
+        return emailLogWriter.getStats();
+    }
+
     @Override
     public Optional<EmailLog> findById(Long id) {
         return emailLogRepository.findById(id);
@@ -0,0 +1,234 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.dto.EmailLogWriterStats;
+import com.lealtixservice.entity.EmailLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escritura diferida de EmailLog: el hilo que envía el email solo encola el registro y un único
+ * hilo escritor lo inserta junto con otros en un INSERT de varias filas.
+ *
+ * - Cola sin bloqueo acotada a email.log-writer.capacity; si está llena, el registro se inserta
+ *   en el hilo que llama (contrapresión, no se pierde).
+ * - El escritor hace flush al juntar email.log-writer.batch-size registros o cada
+ *   email.log-writer.flush-interval-ms, lo que ocurra primero.
+ * - Si un lote falla se reintenta fila por fila; solo se descartan (con log de error) las que vuelven a fallar.
+ * - Al apagar la aplicación se vacía la cola antes de terminar.
+ */
+@Slf4j
+@Component
+public class EmailLogWriter {
+
+    static final String NEXT_EMAIL_LOG_ID_BLOCKS_SQL =
+            "SELECT nextval('email_log_seq') FROM generate_series(1, ?)";
+    // email_log_seq es INCREMENT BY 50 (pooled-lo, V12): cada nextval reserva [v, v+49]
+    static final int EMAIL_LOG_ID_BLOCK_SIZE = 50;
+
+    static final String INSERT_PREFIX = "INSERT INTO email_log (id, entity_type, entity_id, email, template_name,"
+            + " sendgrid_message_id, campaign_id, status, error_message, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final int COLUMNS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final ConcurrentLinkedQueue<EmailLog> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder syncFallbacks = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0);
+    private volatile long lastFlushNanos;
+
+    public EmailLogWriter(JdbcTemplate jdbcTemplate,
+                          @Value("${email.log-writer.capacity:10000}") int capacity,
+                          @Value("${email.log-writer.batch-size:500}") int batchSize,
+                          @Value("${email.log-writer.flush-interval-ms:200}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, Math.min(batchSize, this.capacity));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.writer = new Thread(this::run, "email-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Encola el registro; si la cola está llena o el escritor ya se detuvo, lo inserta en el hilo actual.
+     */
+    public void write(EmailLog emailLog) {
+        if (!running) {
+            insertOnCaller(emailLog);
+            return;
+        }
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            insertOnCaller(emailLog);
+            return;
+        }
+        queue.offer(emailLog);
+        enqueued.increment();
+        if (!running) {
+            // El escritor pudo vaciar la cola y terminar entre la lectura de running y el offer
+            drain(new ArrayList<>());
+            return;
+        }
+        if (depth.get() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    public void writeAll(List<EmailLog> emailLogs) {
+        for (EmailLog emailLog : emailLogs) {
+            write(emailLog);
+        }
+    }
+
+    public EmailLogWriterStats getStats() {
+        long flushCount = flushes.sum();
+        return new EmailLogWriterStats(depth.get(), capacity, enqueued.sum(), written.sum(), flushCount,
+                syncFallbacks.sum(), failed.sum(),
+                flushCount == 0 ? 0.0 : toMs(flushNanos.sum() / flushCount),
+                toMs(lastFlushNanos), toMs(maxFlushNanos.get()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Lo que se encoló mientras el escritor terminaba; poll es atómico, así que no se duplica
+        // aunque el escritor siga vivo tras el timeout del join
+        drain(new ArrayList<>());
+        if (depth.get() > 0) {
+            log.error("{} EmailLog pendientes sin escribir al apagar", depth.get());
+        }
+    }
+
+    private void run() {
+        List<EmailLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            if (running && depth.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            drain(batch);
+        }
+    }
+
+    private void drain(List<EmailLog> batch) {
+        EmailLog emailLog;
+        while ((emailLog = queue.poll()) != null) {
+            depth.decrementAndGet();
+            batch.add(emailLog);
+            if (batch.size() == batchSize) {
+                flush(batch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void insertOnCaller(EmailLog emailLog) {
+        syncFallbacks.increment();
+        insert(List.of(emailLog));
+        written.increment();
+    }
+
+    private void flush(List<EmailLog> batch) {
+        long start = System.nanoTime();
+        try {
+            insert(batch);
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Falló el INSERT de {} EmailLog, se reintenta fila por fila: {}", batch.size(), e.getMessage());
+            for (EmailLog emailLog : batch) {
+                try {
+                    insert(List.of(emailLog));
+                    written.increment();
+                } catch (RuntimeException rowError) {
+                    failed.increment();
+                    log.error("EmailLog descartado ({} {} -> {}, messageId={}): {}", emailLog.getEntityType(),
+                            emailLog.getEntityId(), emailLog.getEmail(), emailLog.getSendgridMessageId(),
+                            rowError.getMessage());
+                }
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.increment();
+            flushNanos.add(elapsed);
+            maxFlushNanos.accumulate(elapsed);
+            lastFlushNanos = elapsed;
+            batch.clear();
+        }
+    }
+
+    void insert(List<EmailLog> emailLogs) {
+        List<Long> ids = nextIds(emailLogs.size());
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + emailLogs.size() * (ROW_PLACEHOLDERS.length() + 2))
+                .append(INSERT_PREFIX);
+        Object[] args = new Object[emailLogs.size() * COLUMNS];
+        int arg = 0;
+        for (int i = 0; i < emailLogs.size(); i++) {
+            EmailLog emailLog = emailLogs.get(i);
+            LocalDateTime createdAt = emailLog.getCreatedAt() != null ? emailLog.getCreatedAt() : LocalDateTime.now();
+            sql.append(i == 0 ? "" : ", ").append(ROW_PLACEHOLDERS);
+            args[arg++] = ids.get(i);
+            args[arg++] = emailLog.getEntityType();
+            args[arg++] = emailLog.getEntityId();
+            args[arg++] = emailLog.getEmail();
+            args[arg++] = emailLog.getTemplateName();
+            args[arg++] = emailLog.getSendgridMessageId();
+            args[arg++] = emailLog.getCampaignId();
+            args[arg++] = emailLog.getStatus() != null ? emailLog.getStatus() : "pending";
+            args[arg++] = emailLog.getErrorMessage();
+            args[arg++] = Timestamp.valueOf(createdAt);
+        }
+        jdbcTemplate.update(sql.toString(), args);
+        for (int i = 0; i < emailLogs.size(); i++) {
+            emailLogs.get(i).setId(ids.get(i));
+        }
+    }
+
+    private List<Long> nextIds(int count) {
+        int blocks = (count + EMAIL_LOG_ID_BLOCK_SIZE - 1) / EMAIL_LOG_ID_BLOCK_SIZE;
+        List<Long> ids = new ArrayList<>(count);
+        for (Long blockStart : jdbcTemplate.queryForList(NEXT_EMAIL_LOG_ID_BLOCKS_SQL, Long.class, blocks)) {
+            for (int i = 0; i < EMAIL_LOG_ID_BLOCK_SIZE && ids.size() < count; i++) {
+                ids.add(blockStart + i);
+            }
+        }
+        return ids;
+    }
+
+    private static double toMs(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,265 @@
+package com.lealtixservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lealtixservice.dto.EmailDTO;
+import com.lealtixservice.dto.EmailDeliveryResult;
+import com.lealtixservice.entity.EmailLog;
+import com.lealtixservice.entity.EmailOutbox;
+import com.lealtixservice.enums.EmailOutboxStatus;
+import com.lealtixservice.repository.EmailOutboxRepository;
+import com.lealtixservice.service.EmailLogService;
+import com.lealtixservice.service.EmailOutboxService;
+import com.lealtixservice.service.Emailservice;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación de la bandeja de salida de emails.
+ * Cada lote pasa por tres pasos para no tener una transacción abierta durante las llamadas a SendGrid:
+ * 1. Transacción corta: toma el lote con FOR UPDATE SKIP LOCKED y lo marca IN_FLIGHT con un lease.
+ * 2. Sin transacción: envía cada mensaje.
+ * 3. Transacción corta: registra resultados (reintentos exponenciales para 429/5xx/IO) y EmailLog en bloque,
+ *    solo en las filas cuyo lease sigue siendo de este lote.
+ * Si el nodo cae entre 1 y 3, el lease vence y otro dispatcher reenvía el mensaje (al menos una vez).
+ */
+@Slf4j
+@Service
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final Emailservice emailService;
+    private final EmailLogService emailLogService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public EmailOutboxServiceImpl(EmailOutboxRepository outboxRepository,
+                                  Emailservice emailService,
+                                  EmailLogService emailLogService,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this(outboxRepository, emailService, emailLogService, objectMapper, new TransactionTemplate(transactionManager));
+    }
+
+    EmailOutboxServiceImpl(EmailOutboxRepository outboxRepository,
+                           Emailservice emailService,
+                           EmailLogService emailLogService,
+                           ObjectMapper objectMapper,
+                           TransactionTemplate transactionTemplate) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.emailLogService = emailLogService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${email.outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds = 30;
+
+    @Value("${email.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds = 3600;
+
+    // Debe cubrir con holgura el envío de un lote completo; al vencer, otro dispatcher retoma los mensajes
+    @Value("${email.outbox.lease-seconds:300}")
+    private long leaseSeconds = 300;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public EmailOutbox enqueue(EmailDTO emailDTO) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(emailDTO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el email para la bandeja de salida", e);
+        }
+
+        EmailOutbox outbox = EmailOutbox.builder()
+                .recipient(emailDTO.getTo())
+                .templateId(emailDTO.getTemplateId())
+                .entityType(emailDTO.getEntityType())
+                .entityId(emailDTO.getEntityId())
+                .payload(payload)
+                .build();
+        outbox = outboxRepository.save(outbox);
+        log.debug("Email encolado en outbox id={} para {}", outbox.getId(), emailDTO.getTo());
+        return outbox;
+    }
+
+    @Override
+    public int dispatchPendingBatch(int batchSize) {
+        String leaseId = UUID.randomUUID().toString();
+        List<EmailOutbox> batch = transactionTemplate.execute(status -> claimBatch(batchSize, leaseId));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        // Sin transacción ni locks: el lease protege los mensajes mientras se llama a SendGrid
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, EmailLog> logs = new HashMap<>();
+        for (EmailOutbox entry : batch) {
+            send(entry, now, logs);
+        }
+
+        Integer recorded = transactionTemplate.execute(status -> recordResults(batch, leaseId, logs));
+        log.info("Outbox: {} mensaje(s) procesados, {} log(s) registrados", batch.size(), recorded);
+        return batch.size();
+    }
+
+    private List<EmailOutbox> claimBatch(int batchSize, String leaseId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> batch = outboxRepository.lockPendingBatch(now, batchSize);
+        for (EmailOutbox entry : batch) {
+            if (entry.getStatus() == EmailOutboxStatus.IN_FLIGHT) {
+                log.warn("Outbox id={} con lease vencido ({}); se vuelve a enviar", entry.getId(), entry.getLeaseId());
+            }
+            entry.setStatus(EmailOutboxStatus.IN_FLIGHT);
+            entry.setLeaseId(leaseId);
+            entry.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+        }
+        if (!batch.isEmpty()) {
+            outboxRepository.saveAll(batch);
+        }
+        return batch;
+    }
+
+    private void send(EmailOutbox entry, LocalDateTime now, Map<Long, EmailLog> logs) {
+        EmailDTO emailDTO;
+        try {
+            emailDTO = objectMapper.readValue(entry.getPayload(), EmailDTO.class);
+        } catch (IOException e) {
+            log.error("Payload inválido en outbox id={}: {}", entry.getId(), e.getMessage());
+            markFailed(entry, "Payload inválido: " + e.getMessage());
+            logs.put(entry.getId(), failureLog(entry, null));
+            return;
+        }
+
+        try {
+            EmailDeliveryResult result = emailService.deliverEmailWithTemplate(emailDTO);
+            if (result.isSuccess()) {
+                entry.setStatus(EmailOutboxStatus.SENT);
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setSentAt(LocalDateTime.now());
+                entry.setLastError(null);
+                logs.put(entry.getId(), result.getEmailLog());
+            } else if (result.isRetryable()) {
+                scheduleRetry(entry, now, "SendGrid " + result.getStatusCode() + ": " + result.getResponseBody());
+                if (entry.getStatus() == EmailOutboxStatus.FAILED) {
+                    logs.put(entry.getId(), result.getEmailLog());
+                }
+            } else {
+                markFailed(entry, "SendGrid " + result.getStatusCode() + ": " + result.getResponseBody());
+                logs.put(entry.getId(), result.getEmailLog());
+            }
+        } catch (IOException e) {
+            log.warn("Error de red enviando outbox id={}: {}", entry.getId(), e.getMessage());
+            scheduleRetry(entry, now, e.getMessage());
+            if (entry.getStatus() == EmailOutboxStatus.FAILED) {
+                logs.put(entry.getId(), failureLog(entry, emailDTO));
+            }
+        }
+    }
+
+    /**
+     * Guarda los resultados de las filas que siguen con el lease del lote.
+     *
+     * @return número de EmailLog registrados
+     */
+    private int recordResults(List<EmailOutbox> batch, String leaseId, Map<Long, EmailLog> logs) {
+        List<Long> ids = batch.stream().map(EmailOutbox::getId).toList();
+        Set<Long> leased = outboxRepository.lockLeased(ids, leaseId).stream()
+                .map(EmailOutbox::getId)
+                .collect(Collectors.toSet());
+
+        List<EmailOutbox> owned = new ArrayList<>(leased.size());
+        List<EmailLog> ownedLogs = new ArrayList<>(logs.size());
+        for (EmailOutbox entry : batch) {
+            if (!leased.contains(entry.getId())) {
+                log.warn("Outbox id={}: el lease venció durante el envío; el resultado lo registra otro dispatcher",
+                        entry.getId());
+                continue;
+            }
+            entry.setLeaseId(null);
+            owned.add(entry);
+            EmailLog emailLog = logs.get(entry.getId());
+            if (emailLog != null) {
+                ownedLogs.add(emailLog);
+            }
+        }
+
+        if (!ownedLogs.isEmpty()) {
+            emailLogService.saveAll(ownedLogs);
+        }
+        if (!owned.isEmpty()) {
+            outboxRepository.saveAll(owned);
+        }
+        return ownedLogs.size();
+    }
+
+    private void scheduleRetry(EmailOutbox entry, LocalDateTime now, String error) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(truncate(error));
+        if (attempts >= maxAttempts) {
+            entry.setStatus(EmailOutboxStatus.FAILED);
+            log.error("Outbox id={} descartado tras {} intentos", entry.getId(), attempts);
+            return;
+        }
+        // Backoff exponencial: base * 2^(intentos-1), con tope
+        long delay = Math.min(backoffMaxSeconds, backoffBaseSeconds << Math.min(attempts - 1, 20));
+        entry.setStatus(EmailOutboxStatus.PENDING);
+        entry.setNextAttemptAt(now.plusSeconds(delay));
+    }
+
+    private void markFailed(EmailOutbox entry, String error) {
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setStatus(EmailOutboxStatus.FAILED);
+        entry.setLastError(truncate(error));
+    }
+
+    /**
+     * EmailLog de un mensaje que terminó FAILED sin respuesta de SendGrid (error de red o payload inválido),
+     * con los mismos campos que registra EmailServiceImpl.
+     */
+    private static EmailLog failureLog(EmailOutbox entry, EmailDTO emailDTO) {
+        String templateId = entry.getTemplateId() != null ? entry.getTemplateId() : "unknown";
+        return EmailLog.builder()
+                .entityType(entry.getEntityType() != null ? entry.getEntityType() : templateId)
+                .entityId(entry.getEntityId() != null ? entry.getEntityId() : 0L)
+                .email(entry.getRecipient())
+                .templateName(templateId)
+                .campaignId(emailDTO != null ? emailDTO.getCampaignId() : null)
+                .status("failed")
+                .errorMessage(entry.getLastError())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static String truncate(String value) {
+        if (value == null || value.length() <= MAX_ERROR_LENGTH) {
+            return value;
+        }
+        return value.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -1,7 +1,10 @@
 package com.lealtixservice.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lealtixservice.dto.EmailAttachmentDTO;
 import com.lealtixservice.dto.EmailDTO;
+import com.lealtixservice.dto.EmailDeliveryResult;
 import com.lealtixservice.entity.EmailLog;
 import com.lealtixservice.service.EmailLogService;
 import com.lealtixservice.service.Emailservice;
@@ -14,6 +17,7 @@ import com.sendgrid.helpers.mail.objects.Attachments;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
 import com.sendgrid.helpers.mail.objects.Personalization;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,11 +25,31 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @Slf4j
 public class EmailServiceImpl implements Emailservice {
 
+    // Límite de SendGrid: 1000 personalizations por petición a mail/send
+    static final int MAX_PERSONALIZATIONS = 1000;
+    private static final Pattern PERSONALIZATION_FIELD = Pattern.compile("personalizations\\.(\\d+)");
+    private static final ObjectMapper RESPONSE_MAPPER = new ObjectMapper();
+
     @Autowired
     private SendGrid sendGrid;
 
@@ -35,6 +59,14 @@ public class EmailServiceImpl implements Emailservice {
     @Value("${sendgrid.email.from}")
     private String emailFrom;
 
+    @Value("${sendgrid.bulk.batch-size:1000}")
+    private int bulkBatchSize = MAX_PERSONALIZATIONS;
+
+    @Value("${sendgrid.bulk.concurrency:4}")
+    private int bulkConcurrency = 4;
+
+    private volatile ThreadPoolExecutor bulkExecutor;
+
 
     public void sendEmail(String to, String subject, String body) throws IOException {
         Email from = new Email(emailFrom);
@@ -58,6 +90,12 @@ public class EmailServiceImpl implements Emailservice {
     }
 
     public void sendEmailWithTemplate(EmailDTO emailDTO) throws IOException {
+        EmailDeliveryResult result = deliverEmailWithTemplate(emailDTO);
+        emailLogService.saveAsync(result.getEmailLog());
+    }
+
+    @Override
+    public EmailDeliveryResult deliverEmailWithTemplate(EmailDTO emailDTO) throws IOException {
         log.info("📧 [EmailService] Iniciando envío de email a: {}", emailDTO.getTo());
         log.debug("[EmailService] Template ID: {}", emailDTO.getTemplateId());
         log.debug("[EmailService] Subject: {}", emailDTO.getSubject());
@@ -68,14 +106,7 @@ public class EmailServiceImpl implements Emailservice {
         mail.setSubject(emailDTO.getSubject());
         mail.setTemplateId(emailDTO.getTemplateId());
         log.info("Sending email ... : {}", emailDTO.getSubject());
-        Personalization personalization = new Personalization();
-        personalization.addTo(new Email(emailDTO.getTo()));
-        personalization.setSubject(emailDTO.getSubject());
-
-        if (emailDTO.getDynamicData() != null) {
-            emailDTO.getDynamicData().forEach(personalization::addDynamicTemplateData);
-        }
-        mail.addPersonalization(personalization);
+        mail.addPersonalization(toPersonalization(emailDTO));
 
         // Agregar attachments si existen
         if (emailDTO.getAttachments() != null && !emailDTO.getAttachments().isEmpty()) {
@@ -101,18 +132,251 @@ public class EmailServiceImpl implements Emailservice {
         Response response = sendGrid.api(request);
         log.info("SendGrid response: {}", response.getStatusCode());
 
-        EmailLog emailLog = EmailLog.builder()
+        boolean success = response.getStatusCode() >= 200 && response.getStatusCode() < 300;
+        EmailLog emailLog = toEmailLog(emailDTO, messageId(response), success, response.getBody());
+        return new EmailDeliveryResult(response.getStatusCode(), response.getBody(), emailLog);
+    }
+
+    @Override
+    public List<EmailDeliveryResult> sendBulkWithTemplate(List<EmailDTO> emails) {
+        return deliverBulk(emails, true);
+    }
+
+    @Override
+    public List<EmailDeliveryResult> deliverBulkWithTemplate(List<EmailDTO> emails) {
+        return deliverBulk(emails, false);
+    }
+
+    @PreDestroy
+    public void shutdownBulkExecutor() {
+        if (bulkExecutor != null) {
+            bulkExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Agrupa por template (los emails con adjuntos van solos), envía cada grupo en el pool acotado y
+     * acomoda los resultados en el orden de entrada. Con persist, cada grupo guarda sus logs con saveAll
+     * (inserts en lote por hibernate.jdbc.batch_size y email_log_seq pooled).
+     */
+    private List<EmailDeliveryResult> deliverBulk(List<EmailDTO> emails, boolean persist) {
+        if (emails == null || emails.isEmpty()) {
+            return List.of();
+        }
+        int batchSize = Math.max(1, Math.min(bulkBatchSize, MAX_PERSONALIZATIONS));
+        Map<String, List<Integer>> byTemplate = new LinkedHashMap<>();
+        List<List<Integer>> groups = new ArrayList<>();
+        for (int i = 0; i < emails.size(); i++) {
+            EmailDTO email = emails.get(i);
+            if (email.getAttachments() != null && !email.getAttachments().isEmpty()) {
+                groups.add(List.of(i));
+                continue;
+            }
+            List<Integer> group = byTemplate.computeIfAbsent(email.getTemplateId(), k -> new ArrayList<>());
+            group.add(i);
+            if (group.size() == batchSize) {
+                groups.add(group);
+                byTemplate.remove(email.getTemplateId());
+            }
+        }
+        groups.addAll(byTemplate.values());
+
+        long start = System.currentTimeMillis();
+        EmailDeliveryResult[] results = new EmailDeliveryResult[emails.size()];
+        ThreadPoolExecutor executor = bulkExecutor();
+        List<Future<?>> futures = new ArrayList<>(groups.size());
+        for (List<Integer> indexes : groups) {
+            futures.add(executor.submit(() -> {
+                List<EmailDTO> group = indexes.stream().map(emails::get).toList();
+                List<EmailDeliveryResult> groupResults;
+                try {
+                    groupResults = sendGroup(group, true);
+                } catch (RuntimeException e) {
+                    log.error("Error inesperado en envío masivo de {} email(s): {}", group.size(), e.getMessage(), e);
+                    groupResults = group.stream().map(email -> failed(email, 0, e.getMessage())).toList();
+                }
+                for (int i = 0; i < indexes.size(); i++) {
+                    results[indexes.get(i)] = groupResults.get(i);
+                }
+                if (persist) {
+                    saveLogs(groupResults);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Envío masivo interrumpido", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error en envío masivo: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        long sent = Arrays.stream(results).filter(EmailDeliveryResult::isSuccess).count();
+        log.info("📧 [EmailService] Envío masivo: {} email(s) en {} petición(es), {} aceptados, en {} ms",
+                emails.size(), groups.size(), sent, System.currentTimeMillis() - start);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Envía un grupo en una sola petición. Un 400 de SendGrid rechaza la petición completa; si el error
+     * señala personalizations concretas, esas se marcan como fallidas y el resto se reenvía una vez.
+     */
+    private List<EmailDeliveryResult> sendGroup(List<EmailDTO> group, boolean retryRejected) {
+        if (group.size() == 1 && group.get(0).getAttachments() != null && !group.get(0).getAttachments().isEmpty()) {
+            return List.of(deliverSingle(group.get(0)));
+        }
+
+        Mail mail = new Mail();
+        mail.setFrom(new Email(emailFrom));
+        mail.setSubject(group.get(0).getSubject());
+        mail.setTemplateId(group.get(0).getTemplateId());
+        group.forEach(email -> mail.addPersonalization(toPersonalization(email)));
+
+        Response response;
+        try {
+            Request request = new Request();
+            request.setMethod(Method.POST);
+            request.setEndpoint("mail/send");
+            request.setBody(mail.build());
+            response = sendGrid.api(request);
+        } catch (IOException e) {
+            log.warn("Error de red en envío masivo de {} email(s) (template {}): {}",
+                    group.size(), group.get(0).getTemplateId(), e.getMessage());
+            return group.stream().map(email -> failed(email, 0, e.getMessage())).toList();
+        }
+
+        int status = response.getStatusCode();
+        if (status >= 200 && status < 300) {
+            String messageId = messageId(response);
+            return group.stream()
+                    .map(email -> new EmailDeliveryResult(status, response.getBody(),
+                            toEmailLog(email, messageId, true, null)))
+                    .toList();
+        }
+
+        Set<Integer> rejected = status == 400 ? rejectedPersonalizations(response.getBody(), group.size()) : Set.of();
+        if (retryRejected && !rejected.isEmpty() && rejected.size() < group.size()) {
+            log.warn("SendGrid rechazó {} de {} destinatario(s) (template {}); se reenvía el resto",
+                    rejected.size(), group.size(), group.get(0).getTemplateId());
+            List<EmailDTO> remaining = new ArrayList<>();
+            for (int i = 0; i < group.size(); i++) {
+                if (!rejected.contains(i)) {
+                    remaining.add(group.get(i));
+                }
+            }
+            List<EmailDeliveryResult> remainingResults = sendGroup(remaining, false);
+            List<EmailDeliveryResult> results = new ArrayList<>(group.size());
+            for (int i = 0, next = 0; i < group.size(); i++) {
+                results.add(rejected.contains(i)
+                        ? failed(group.get(i), status, response.getBody())
+                        : remainingResults.get(next++));
+            }
+            return results;
+        }
+
+        log.warn("SendGrid respondió {} al envío masivo de {} email(s) (template {})",
+                status, group.size(), group.get(0).getTemplateId());
+        return group.stream().map(email -> failed(email, status, response.getBody())).toList();
+    }
+
+    private EmailDeliveryResult deliverSingle(EmailDTO email) {
+        try {
+            return deliverEmailWithTemplate(email);
+        } catch (IOException e) {
+            log.warn("Error de red enviando email a {}: {}", email.getTo(), e.getMessage());
+            return failed(email, 0, e.getMessage());
+        }
+    }
+
+    /**
+     * Índices de personalization señalados en los errores de SendGrid (campo "personalizations.N...").
+     */
+    static Set<Integer> rejectedPersonalizations(String body, int groupSize) {
+        Set<Integer> indexes = new TreeSet<>();
+        if (body == null || body.isBlank()) {
+            return indexes;
+        }
+        try {
+            for (JsonNode error : RESPONSE_MAPPER.readTree(body).path("errors")) {
+                Matcher matcher = PERSONALIZATION_FIELD.matcher(error.path("field").asText(""));
+                if (matcher.lookingAt()) {
+                    int index = Integer.parseInt(matcher.group(1));
+                    if (index < groupSize) {
+                        indexes.add(index);
+                    }
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Respuesta de error de SendGrid no interpretable: {}", e.getMessage());
+        }
+        return indexes;
+    }
+
+    private void saveLogs(List<EmailDeliveryResult> results) {
+        try {
+            emailLogService.saveAllAsync(results.stream().map(EmailDeliveryResult::getEmailLog).toList());
+        } catch (RuntimeException e) {
+            log.error("No se pudieron registrar {} EmailLog del envío masivo: {}", results.size(), e.getMessage(), e);
+        }
+    }
+
+    private ThreadPoolExecutor bulkExecutor() {
+        ThreadPoolExecutor executor = bulkExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = bulkExecutor;
+                if (executor == null) {
+                    int threads = Math.max(1, bulkConcurrency);
+                    AtomicInteger counter = new AtomicInteger();
+                    // Cola acotada: si varios envíos masivos la llenan, el hilo llamador envía (contrapresión)
+                    executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(threads * 16), runnable -> {
+                                Thread thread = new Thread(runnable, "sendgrid-bulk-" + counter.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            }, new ThreadPoolExecutor.CallerRunsPolicy());
+                    executor.allowCoreThreadTimeOut(true);
+                    bulkExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private Personalization toPersonalization(EmailDTO emailDTO) {
+        Personalization personalization = new Personalization();
+        personalization.addTo(new Email(emailDTO.getTo()));
+        personalization.setSubject(emailDTO.getSubject());
+        if (emailDTO.getDynamicData() != null) {
+            emailDTO.getDynamicData().forEach(personalization::addDynamicTemplateData);
+        }
+        return personalization;
+    }
+
+    private EmailDeliveryResult failed(EmailDTO emailDTO, int statusCode, String error) {
+        return new EmailDeliveryResult(statusCode, error, toEmailLog(emailDTO, null, false, error));
+    }
+
+    private static String messageId(Response response) {
+        String messageId = response.getHeaders() != null ? response.getHeaders().get("X-Message-Id") : null;
+        return messageId != null ? messageId.trim() : null;
+    }
+
+    private EmailLog toEmailLog(EmailDTO emailDTO, String messageId, boolean success, String error) {
+        return EmailLog.builder()
                 .entityType(emailDTO.getEntityType() != null ? emailDTO.getEntityType() : emailDTO.getTemplateId())
                 .entityId(emailDTO.getEntityId() != null ? emailDTO.getEntityId() : 0L)
                 .email(emailDTO.getTo())
                 .templateName(emailDTO.getTemplateId())
-                .sendgridMessageId(response.getHeaders().get("X-Message-Id") != null ? response.getHeaders().get("X-Message-Id").trim() : null)
-                .status(response.getStatusCode() >= 200 && response.getStatusCode() < 300 ? "sent" : "failed")
-                .errorMessage(response.getStatusCode() >= 200 && response.getStatusCode() < 300 ? null : response.getBody())
+                .sendgridMessageId(messageId)
+                .campaignId(emailDTO.getCampaignId())
+                .status(success ? "sent" : "failed")
+                .errorMessage(success ? null : error)
                 .createdAt(LocalDateTime.now())
                 .build();
-        emailLogService.save(emailLog);
     }
-
-
 }
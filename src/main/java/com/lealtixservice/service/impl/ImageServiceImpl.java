@@ -7,6 +7,11 @@ import com.cloudinary.utils.ObjectUtils;
 import com.lealtixservice.dto.ImageDTO;
 import com.lealtixservice.entity.AppUser;
 import com.lealtixservice.entity.Tenant;
+import com.lealtixservice.outbound.OutboundCall;
+import com.lealtixservice.outbound.OutboundCallGuard;
+import com.lealtixservice.outbound.OutboundCallRegistry;
+import com.lealtixservice.outbound.OutboundProvider;
+import com.lealtixservice.outbound.OutboundRejectedException;
 import com.lealtixservice.repository.AppUserRepository;
 import com.lealtixservice.repository.TenantRepository;
 import com.lealtixservice.service.ImageService;
@@ -27,6 +32,7 @@ import java.util.Optional;
 public class ImageServiceImpl implements ImageService {
 
     private final Cloudinary cloudinary;
+    private final OutboundCallGuard cloudinaryGuard;
 
     @Autowired
     private AppUserRepository appUserRepository;
@@ -34,8 +40,9 @@ public class ImageServiceImpl implements ImageService {
     @Autowired
     private TenantRepository tenantRepository;
 
-    public ImageServiceImpl(Cloudinary cloudinary) {
+    public ImageServiceImpl(Cloudinary cloudinary, OutboundCallRegistry outboundCallRegistry) {
         this.cloudinary = cloudinary;
+        this.cloudinaryGuard = outboundCallRegistry.guard(OutboundProvider.CLOUDINARY);
     }
 
     @Override
@@ -68,7 +75,7 @@ public class ImageServiceImpl implements ImageService {
                         .fetchFormat("auto")
         );
 
-        Map<String, Object> uploadResult = cloudinary.uploader().upload(file, params);
+        Map<String, Object> uploadResult = guardedUpload(() -> cloudinary.uploader().upload(file, params));
         log.info("Resultado de la subida: " + uploadResult);
 
         Object url = uploadResult.get("secure_url");
@@ -207,6 +214,15 @@ public class ImageServiceImpl implements ImageService {
                         .quality("auto")
                         .fetchFormat("auto")
             );
-            return cloudinary.uploader().upload(imageBytes, params);
+            return guardedUpload(() -> cloudinary.uploader().upload(imageBytes, params));
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map<String, Object> guardedUpload(OutboundCall<Map, IOException> upload) throws IOException {
+            try {
+                return cloudinaryGuard.execute(upload, null);
+            } catch (OutboundRejectedException e) {
+                throw new IOException(e.getMessage(), e);
+            }
         }
 }
@@ -1,5 +1,7 @@
 package com.lealtixservice.service.impl;
 
+import com.lealtixservice.cache.WelcomeCampaignCache;
+import com.lealtixservice.discount.DiscountEngine;
 import com.lealtixservice.dto.PromotionRewardDTO;
 import com.lealtixservice.dto.PromotionRewardResponse;
 import com.lealtixservice.entity.PromotionReward;
@@ -23,6 +25,8 @@ import java.util.stream.Collectors;
 public class PromotionRewardServiceImpl implements PromotionRewardService {
 
     private final PromotionRewardRepository promotionRewardRepository;
+    private final DiscountEngine discountEngine;
+    private final WelcomeCampaignCache welcomeCampaignCache;
 
     private static final int DESCRIPTION_MAX_LENGTH = 500;
 
@@ -86,6 +90,8 @@ public class PromotionRewardServiceImpl implements PromotionRewardService {
 
         // 4. Guardar
         PromotionReward updated = promotionRewardRepository.save(reward);
+        discountEngine.invalidate(rewardId);
+        welcomeCampaignCache.evict(reward.getCampaign().getBusinessId());
         log.info("PromotionReward {} actualizado exitosamente", rewardId);
         return mapToResponse(updated);
     }
@@ -94,10 +100,11 @@ public class PromotionRewardServiceImpl implements PromotionRewardService {
     @Transactional
     public void delete(Long rewardId) {
         log.info("Eliminando PromotionReward ID: {}", rewardId);
-        if (!promotionRewardRepository.existsById(rewardId)) {
-            throw new ResourceNotFoundException("No se encontró el reward con ID: " + rewardId);
-        }
-        promotionRewardRepository.deleteById(rewardId);
+        PromotionReward reward = promotionRewardRepository.findById(rewardId)
+                .orElseThrow(() -> new ResourceNotFoundException("No se encontró el reward con ID: " + rewardId));
+        promotionRewardRepository.delete(reward);
+        discountEngine.invalidate(rewardId);
+        welcomeCampaignCache.evict(reward.getCampaign().getBusinessId());
         log.info("PromotionReward {} eliminado exitosamente", rewardId);
     }
 
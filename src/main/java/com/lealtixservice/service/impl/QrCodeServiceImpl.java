@@ -1,63 +1,103 @@
 package com.lealtixservice.service.impl;
 
-import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.lealtixservice.cache.QrImageCache;
+import com.lealtixservice.dto.QrImageCacheStats;
+import com.lealtixservice.qr.QrImageFormat;
+import com.lealtixservice.qr.QrPngWriter;
+import com.lealtixservice.qr.QrRenderKey;
+import com.lealtixservice.qr.QrSvgWriter;
 import com.lealtixservice.service.QrCodeService;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Base64;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Implementación del servicio de generación de códigos QR usando ZXing
+ * Implementación del servicio de generación de códigos QR usando ZXing.
+ *
+ * - Se codifica solo la matriz de módulos (Encoder) y se escribe el PNG de 1 bit directo desde ella
+ *   (QrPngWriter), o un SVG vectorial (QrSvgWriter); no se pasa por BufferedImage/ImageIO.
+ * - Las imágenes se guardan en QrImageCache por (contenido, tamaño, corrección, formato).
+ * - Al crear un cupón se pre-renderiza su QR en segundo plano para que el flujo de bienvenida
+ *   lo encuentre en el cache.
  */
 @Service
 @Slf4j
 public class QrCodeServiceImpl implements QrCodeService {
 
     private static final int DEFAULT_QR_SIZE = 300;
-    private static final String IMAGE_FORMAT = "PNG";
+    private static final int QUIET_ZONE = 1;
+    private static final ErrorCorrectionLevel DEFAULT_ECC = ErrorCorrectionLevel.H;
+    private static final Map<EncodeHintType, Object> HINTS = Map.of(EncodeHintType.CHARACTER_SET, "UTF-8");
+    private static final long DEFAULT_CACHE_BYTES = 32L * 1024 * 1024;
 
-    @Override
-    public byte[] generateQrCode(String content, int width, int height) throws IOException {
-        log.debug("Generando código QR para contenido: {}", content);
+    private final QrImageCache qrImageCache;
+    private final ThreadPoolExecutor prerenderExecutor;
 
-        try {
-            // Configurar opciones del QR
-            Map<EncodeHintType, Object> hints = new HashMap<>();
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-            hints.put(EncodeHintType.MARGIN, 1);
+    @Value("${lealtix.dashboard.url:}")
+    private String dashboardUrl = "";
 
-            // Generar matriz del QR
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, width, height, hints);
+    @Value("${qr.prerender.enabled:true}")
+    private boolean prerenderEnabled = true;
 
-            // Convertir a imagen
-            BufferedImage qrImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
+    public QrCodeServiceImpl() {
+        this(new QrImageCache(DEFAULT_CACHE_BYTES));
+    }
+
+    @Autowired
+    public QrCodeServiceImpl(QrImageCache qrImageCache) {
+        this.qrImageCache = qrImageCache;
+        // Pre-render best effort: si la cola se llena se descarta, la imagen se generará al pedirse
+        this.prerenderExecutor = new ThreadPoolExecutor(1, 2, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000), runnable -> {
+                    Thread thread = new Thread(runnable, "qr-prerender");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
 
-            // Convertir imagen a bytes
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            ImageIO.write(qrImage, IMAGE_FORMAT, byteArrayOutputStream);
-            byte[] qrBytes = byteArrayOutputStream.toByteArray();
+    @PreDestroy
+    public void shutdown() {
+        prerenderExecutor.shutdownNow();
+    }
 
-            log.info("Código QR generado exitosamente. Tamaño: {} bytes", qrBytes.length);
-            return qrBytes;
+    @Override
+    public byte[] generateQrCode(String content, int width, int height) throws IOException {
+        return generateQrCode(content, width, height, DEFAULT_ECC, QrImageFormat.PNG);
+    }
 
-        } catch (WriterException e) {
-            log.error("Error al generar código QR: {}", e.getMessage(), e);
-            throw new IOException("Error al generar código QR: " + e.getMessage(), e);
+    @Override
+    public byte[] generateQrCode(String content, int width, int height,
+                                 ErrorCorrectionLevel ecc, QrImageFormat format) throws IOException {
+        QrRenderKey key = renderKey(content, width, height, ecc, format);
+        log.debug("Generando código QR {} para contenido: {}", format, content);
+        try {
+            return qrImageCache.get(key, () -> render(key));
+        } catch (QrRenderException e) {
+            throw renderFailure(e);
+        }
+    }
+
+    @Override
+    public byte[] renderQrCode(String content, int size, QrImageFormat format) throws IOException {
+        QrRenderKey key = renderKey(content, size, size, DEFAULT_ECC, format);
+        try {
+            return render(key);
+        } catch (QrRenderException e) {
+            throw renderFailure(e);
         }
     }
 
@@ -66,6 +106,11 @@ public class QrCodeServiceImpl implements QrCodeService {
         return generateQrCode(content, DEFAULT_QR_SIZE, DEFAULT_QR_SIZE);
     }
 
+    @Override
+    public byte[] generateQrSvg(String content, int size) throws IOException {
+        return generateQrCode(content, size, size, DEFAULT_ECC, QrImageFormat.SVG);
+    }
+
     @Override
     public String generateQrCodeBase64(String content, int width, int height) throws IOException {
         byte[] qrBytes = generateQrCode(content, width, height);
@@ -78,5 +123,68 @@ public class QrCodeServiceImpl implements QrCodeService {
     public String generateQrCodeBase64(String content) throws IOException {
         return generateQrCodeBase64(content, DEFAULT_QR_SIZE, DEFAULT_QR_SIZE);
     }
-}
 
+    @Override
+    public String couponQrContent(String qrToken) {
+        return dashboardUrl + "/redeem?code=" + qrToken;
+    }
+
+    @Override
+    public void prerender(String content) {
+        if (!prerenderEnabled || content == null || content.isEmpty()) {
+            return;
+        }
+        QrRenderKey key = new QrRenderKey(content, DEFAULT_QR_SIZE, DEFAULT_QR_SIZE, DEFAULT_ECC, QrImageFormat.PNG);
+        if (qrImageCache.contains(key)) {
+            return;
+        }
+        prerenderExecutor.execute(() -> {
+            try {
+                qrImageCache.get(key, () -> render(key));
+            } catch (Exception e) {
+                log.warn("Error pre-renderizando QR: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public QrImageCacheStats cacheStats() {
+        return qrImageCache.stats();
+    }
+
+    private static QrRenderKey renderKey(String content, int width, int height,
+                                         ErrorCorrectionLevel ecc, QrImageFormat format) {
+        if (content == null || content.isEmpty()) {
+            throw new IllegalArgumentException("Found empty contents");
+        }
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Requested dimensions are too small: " + width + 'x' + height);
+        }
+        return new QrRenderKey(content, width, height, ecc, format);
+    }
+
+    private static IOException renderFailure(QrRenderException e) {
+        log.error("Error al generar código QR: {}", e.getCause().getMessage(), e.getCause());
+        return new IOException("Error al generar código QR: " + e.getCause().getMessage(), e.getCause());
+    }
+
+    private byte[] render(QrRenderKey key) {
+        ByteMatrix modules;
+        try {
+            modules = Encoder.encode(key.content(), key.ecc(), HINTS).getMatrix();
+        } catch (WriterException e) {
+            throw new QrRenderException(e);
+        }
+        byte[] image = key.format() == QrImageFormat.SVG
+                ? QrSvgWriter.write(modules, Math.max(key.width(), key.height()), QUIET_ZONE)
+                : QrPngWriter.write(modules, key.width(), key.height(), QUIET_ZONE);
+        log.debug("Código QR {} generado. Tamaño: {} bytes", key.format(), image.length);
+        return image;
+    }
+
+    private static final class QrRenderException extends RuntimeException {
+        QrRenderException(WriterException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.dto.SendGridEvent;
+import com.lealtixservice.dto.SendGridEventStats;
+import com.lealtixservice.service.SendGridEventService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ingesta del Event Webhook de SendGrid.
+ *
+ * - El controller solo encola el lote; un único hilo lo aplica (cola acotada, CallerRunsPolicy
+ *   como contrapresión), así los lotes no compiten por las mismas filas.
+ * - Los eventos se agrupan por mensaje (sg_message_id sin el sufijo ".filter..." + email) y se aplican
+ *   con un solo UPDATE email_log ... FROM (VALUES ...) por bloque, sin cargar entidades.
+ * - En la misma sentencia, las primeras entregas/aperturas/clics/rebotes de cada mensaje se suman a
+ *   campaign_result (INSERT ... ON CONFLICT); un evento repetido no vuelve a contar.
+ * - Un mensaje sin fila en email_log (el webhook llegó antes de que se guardara el X-Message-Id) se
+ *   aparta y se reintenta una vez tras sendgrid.events.unmatched-retry-delay-ms; solo entonces se descarta.
+ *   Como mucho sendgrid.events.max-parked mensajes esperan a la vez.
+ */
+@Slf4j
+@Service
+public class SendGridEventServiceImpl implements SendGridEventService {
+
+    static final int MAX_MESSAGES_PER_STATEMENT = 1000;
+
+    static final String APPLY_SQL_PREFIX = """
+            WITH v (message_id, email, delivered_at, opened_at, clicked_at, event_at, status, status_rank, error) AS (
+                VALUES\s""";
+    static final String ROW_PLACEHOLDERS = "(?, ?, CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP),"
+            + " CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(50)), CAST(? AS INTEGER), CAST(? AS TEXT))";
+    static final int COLUMNS = 9;
+
+    static final String APPLY_SQL_SUFFIX = """
+            ),
+            target AS (
+                SELECT e.id, v.message_id, v.email,
+                       e.delivered_at IS NULL AS was_undelivered,
+                       e.opened_at IS NULL AS was_unopened,
+                       e.clicked_at IS NULL AS was_unclicked,
+                       e.status NOT IN ('bounced', 'dropped') AS was_not_bounced,
+                       v.delivered_at, v.opened_at, v.clicked_at, v.event_at, v.status, v.status_rank, v.error
+                FROM email_log e
+                JOIN v ON e.sendgrid_message_id = v.message_id AND lower(e.email) = lower(v.email)
+                FOR UPDATE OF e
+            ),
+            updated AS (
+                UPDATE email_log e
+                SET delivered_at = COALESCE(e.delivered_at, t.delivered_at),
+                    opened_at = COALESCE(e.opened_at, t.opened_at),
+                    clicked_at = COALESCE(e.clicked_at, t.clicked_at),
+                    last_event_at = GREATEST(e.last_event_at, t.event_at),
+                    status = CASE WHEN t.status_rank > CASE e.status
+                                      WHEN 'sent' THEN 1 WHEN 'delivered' THEN 2 WHEN 'opened' THEN 3
+                                      WHEN 'clicked' THEN 4 WHEN 'bounced' THEN 5 WHEN 'dropped' THEN 5
+                                      WHEN 'spam_report' THEN 6 ELSE 0 END
+                                  THEN t.status ELSE e.status END,
+                    error_message = COALESCE(t.error, e.error_message)
+                FROM target t
+                WHERE e.id = t.id
+                RETURNING e.campaign_id,
+                          t.was_undelivered AND e.delivered_at IS NOT NULL AS first_delivery,
+                          t.was_unopened AND e.opened_at IS NOT NULL AS first_open,
+                          t.was_unclicked AND e.clicked_at IS NOT NULL AS first_click,
+                          t.was_not_bounced AND e.status IN ('bounced', 'dropped') AS first_bounce
+            ),
+            rollup AS (
+                INSERT INTO campaign_result (id, campaign_id, views, clicks, redemptions,
+                                             emails_delivered, emails_opened, emails_clicked, emails_bounced)
+                SELECT nextval('campaign_result_seq'), u.campaign_id, 0, 0, 0,
+                       count(*) FILTER (WHERE u.first_delivery),
+                       count(*) FILTER (WHERE u.first_open),
+                       count(*) FILTER (WHERE u.first_click),
+                       count(*) FILTER (WHERE u.first_bounce)
+                FROM updated u
+                WHERE u.campaign_id IS NOT NULL
+                  AND (u.first_delivery OR u.first_open OR u.first_click OR u.first_bounce)
+                  AND EXISTS (SELECT 1 FROM campaign c WHERE c.id = u.campaign_id)
+                GROUP BY u.campaign_id
+                ON CONFLICT (campaign_id) DO UPDATE
+                SET emails_delivered = campaign_result.emails_delivered + EXCLUDED.emails_delivered,
+                    emails_opened = campaign_result.emails_opened + EXCLUDED.emails_opened,
+                    emails_clicked = campaign_result.emails_clicked + EXCLUDED.emails_clicked,
+                    emails_bounced = campaign_result.emails_bounced + EXCLUDED.emails_bounced
+                RETURNING campaign_id
+            )
+            SELECT s.matched, s.campaigns, u.message_id, u.email
+            FROM (SELECT (SELECT count(*) FROM updated) AS matched, (SELECT count(*) FROM rollup) AS campaigns) s
+            LEFT JOIN (
+                SELECT v.message_id, v.email
+                FROM v
+                WHERE NOT EXISTS (SELECT 1 FROM target t WHERE t.message_id = v.message_id AND t.email = v.email)
+            ) u ON TRUE
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService retryScheduler;
+    private final long unmatchedRetryDelayMs;
+    private final int maxParked;
+    private final AtomicInteger parkedMessages = new AtomicInteger();
+
+    private final LongAdder batchesReceived = new LongAdder();
+    private final LongAdder eventsReceived = new LongAdder();
+    private final LongAdder eventsIgnored = new LongAdder();
+    private final LongAdder rowsUpdated = new LongAdder();
+    private final LongAdder rowsUnmatched = new LongAdder();
+    private final LongAdder campaignsUpdated = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder appliedBatches = new LongAdder();
+    private final LongAdder applyNanos = new LongAdder();
+
+    public SendGridEventServiceImpl(JdbcTemplate jdbcTemplate,
+                                    @Value("${sendgrid.events.queue-capacity:1000}") int queueCapacity,
+                                    @Value("${sendgrid.events.unmatched-retry-delay-ms:60000}") long unmatchedRetryDelayMs,
+                                    @Value("${sendgrid.events.max-parked:10000}") int maxParked) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.unmatchedRetryDelayMs = unmatchedRetryDelayMs;
+        this.maxParked = Math.max(0, maxParked);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sendgrid-events-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "sendgrid-events");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void accept(List<SendGridEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        batchesReceived.increment();
+        eventsReceived.add(events.size());
+        executor.execute(() -> {
+            try {
+                apply(events);
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                log.error("No se pudo aplicar un lote de {} evento(s) de SendGrid: {}", events.size(), e.getMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    public int apply(List<SendGridEvent> events) {
+        long start = System.nanoTime();
+        List<MessageUpdate> updates = aggregate(events);
+        List<MessageUpdate> unmatched = new ArrayList<>();
+        int matched = applyUpdates(updates, unmatched);
+        park(unmatched);
+        appliedBatches.increment();
+        applyNanos.add(System.nanoTime() - start);
+        log.debug("Webhook SendGrid: {} evento(s), {} mensaje(s), {} fila(s) de email_log actualizadas, {} sin fila",
+                events.size(), updates.size(), matched, unmatched.size());
+        return matched;
+    }
+
+    /**
+     * Aplica los mensajes por bloques y deja en unmatched los que no encontraron su fila de email_log.
+     */
+    private int applyUpdates(List<MessageUpdate> updates, List<MessageUpdate> unmatched) {
+        int matched = 0;
+        for (int from = 0; from < updates.size(); from += MAX_MESSAGES_PER_STATEMENT) {
+            List<MessageUpdate> chunk = updates.subList(from, Math.min(updates.size(), from + MAX_MESSAGES_PER_STATEMENT));
+            ChunkResult result = jdbcTemplate.query(applySql(chunk.size()), SendGridEventServiceImpl::chunkResult,
+                    args(chunk));
+            matched += (int) result.matched();
+            campaignsUpdated.add(result.campaigns());
+            for (MessageUpdate update : chunk) {
+                if (result.unmatched().contains(update.key())) {
+                    unmatched.add(update);
+                }
+            }
+        }
+        rowsUpdated.add(matched);
+        return matched;
+    }
+
+    private void park(List<MessageUpdate> unmatched) {
+        if (unmatched.isEmpty()) {
+            return;
+        }
+        int parked = parkedMessages.addAndGet(unmatched.size());
+        if (unmatchedRetryDelayMs <= 0 || parked > maxParked) {
+            parkedMessages.addAndGet(-unmatched.size());
+            rowsUnmatched.add(unmatched.size());
+            log.warn("Webhook SendGrid: {} mensaje(s) sin fila en email_log descartados ({} en espera)",
+                    unmatched.size(), parked - unmatched.size());
+            return;
+        }
+        try {
+            retryScheduler.schedule(() -> executor.execute(() -> retryParked(unmatched)),
+                    unmatchedRetryDelayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Apagando: no hay segundo intento
+            parkedMessages.addAndGet(-unmatched.size());
+            rowsUnmatched.add(unmatched.size());
+        }
+    }
+
+    /**
+     * Segundo y último intento de los mensajes apartados; los que siguen sin fila se descartan.
+     */
+    private void retryParked(List<MessageUpdate> parked) {
+        parkedMessages.addAndGet(-parked.size());
+        List<MessageUpdate> unmatched = new ArrayList<>();
+        try {
+            int matched = applyUpdates(parked, unmatched);
+            log.debug("Webhook SendGrid: reintento de {} mensaje(s), {} fila(s) de email_log actualizadas",
+                    parked.size(), matched);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            log.error("No se pudo reintentar {} mensaje(s) de SendGrid sin fila: {}", parked.size(), e.getMessage(), e);
+            return;
+        }
+        if (!unmatched.isEmpty()) {
+            rowsUnmatched.add(unmatched.size());
+            log.warn("Webhook SendGrid: {} mensaje(s) siguen sin fila en email_log tras el reintento; se descartan",
+                    unmatched.size());
+        }
+    }
+
+    private static ChunkResult chunkResult(ResultSet rs) throws SQLException {
+        long matched = 0;
+        long campaigns = 0;
+        Set<String> unmatched = new HashSet<>();
+        while (rs.next()) {
+            matched = rs.getLong(1);
+            campaigns = rs.getLong(2);
+            String messageId = rs.getString(3);
+            if (messageId != null) {
+                unmatched.add(MessageUpdate.key(messageId, rs.getString(4)));
+            }
+        }
+        return new ChunkResult(matched, campaigns, unmatched);
+    }
+
+    @Override
+    public SendGridEventStats getStats() {
+        long applied = appliedBatches.sum();
+        return new SendGridEventStats(batchesReceived.sum(), eventsReceived.sum(), eventsIgnored.sum(),
+                rowsUpdated.sum(), rowsUnmatched.sum(), campaignsUpdated.sum(), failedBatches.sum(),
+                executor.getQueue().size(), parkedMessages.get(),
+                applied == 0 ? 0.0 : Math.round(applyNanos.sum() / 10_000.0 / applied) / 100.0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        if (parkedMessages.get() > 0) {
+            log.warn("{} mensaje(s) de SendGrid sin fila descartados al apagar", parkedMessages.get());
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("{} lote(s) de eventos de SendGrid sin aplicar al apagar", executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Un MessageUpdate por mensaje (id + email): la primera marca de cada tipo de evento,
+     * el último evento y el estado de mayor precedencia.
+     */
+    List<MessageUpdate> aggregate(List<SendGridEvent> events) {
+        Map<String, MessageUpdate> byMessage = new LinkedHashMap<>();
+        for (SendGridEvent event : events) {
+            EventType type = EventType.of(event.event());
+            String messageId = messageId(event.sgMessageId());
+            if (messageId == null || event.email() == null || event.email().isBlank()) {
+                eventsIgnored.increment();
+                continue;
+            }
+            LocalDateTime at = event.timestamp() != null
+                    ? LocalDateTime.ofInstant(Instant.ofEpochSecond(event.timestamp()), ZoneId.systemDefault())
+                    : LocalDateTime.now();
+            String email = event.email().trim().toLowerCase(Locale.ROOT);
+            byMessage.computeIfAbsent(MessageUpdate.key(messageId, email), key -> new MessageUpdate(messageId, email))
+                    .add(type, at, event.reason());
+        }
+        return new ArrayList<>(byMessage.values());
+    }
+
+    /**
+     * sg_message_id = X-Message-Id + ".filter..."; email_log guarda solo el X-Message-Id.
+     */
+    static String messageId(String sgMessageId) {
+        if (sgMessageId == null || sgMessageId.isBlank()) {
+            return null;
+        }
+        int dot = sgMessageId.indexOf('.');
+        return (dot > 0 ? sgMessageId.substring(0, dot) : sgMessageId).trim();
+    }
+
+    static String applySql(int rows) {
+        StringBuilder sql = new StringBuilder(APPLY_SQL_PREFIX.length() + APPLY_SQL_SUFFIX.length()
+                + rows * (ROW_PLACEHOLDERS.length() + 2)).append(APPLY_SQL_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append(ROW_PLACEHOLDERS);
+        }
+        return sql.append('\n').append(APPLY_SQL_SUFFIX).toString();
+    }
+
+    private static Object[] args(List<MessageUpdate> updates) {
+        Object[] args = new Object[updates.size() * COLUMNS];
+        int arg = 0;
+        for (MessageUpdate update : updates) {
+            args[arg++] = update.messageId;
+            args[arg++] = update.email;
+            args[arg++] = timestamp(update.deliveredAt);
+            args[arg++] = timestamp(update.openedAt);
+            args[arg++] = timestamp(update.clickedAt);
+            args[arg++] = timestamp(update.eventAt);
+            args[arg++] = update.status != null ? update.status.status : null;
+            args[arg++] = update.status != null ? update.status.rank : 0;
+            args[arg++] = update.error;
+        }
+        return args;
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    /**
+     * Eventos que cambian email_log. El rango ordena el estado: un rebote o un reporte de spam
+     * prevalecen sobre la apertura y un clic sobre la entrega; processed/deferred/unsubscribe solo
+     * actualizan last_event_at.
+     */
+    enum EventType {
+        DELIVERED("delivered", 2),
+        OPEN("opened", 3),
+        CLICK("clicked", 4),
+        BOUNCE("bounced", 5),
+        DROPPED("dropped", 5),
+        SPAM_REPORT("spam_report", 6),
+        OTHER(null, 0);
+
+        final String status;
+        final int rank;
+
+        EventType(String status, int rank) {
+            this.status = status;
+            this.rank = rank;
+        }
+
+        static EventType of(String event) {
+            if (event == null) {
+                return OTHER;
+            }
+            return switch (event) {
+                case "delivered" -> DELIVERED;
+                case "open" -> OPEN;
+                case "click" -> CLICK;
+                case "bounce" -> BOUNCE;
+                case "dropped" -> DROPPED;
+                case "spamreport" -> SPAM_REPORT;
+                default -> OTHER;
+            };
+        }
+    }
+
+    /**
+     * Resultado de una sentencia: filas de email_log actualizadas, campañas sumadas y
+     * llaves (mensaje + email) que no encontraron fila.
+     */
+    record ChunkResult(long matched, long campaigns, Set<String> unmatched) {
+    }
+
+    static final class MessageUpdate {
+        final String messageId;
+        final String email;
+        LocalDateTime deliveredAt;
+        LocalDateTime openedAt;
+        LocalDateTime clickedAt;
+        LocalDateTime eventAt;
+        EventType status;
+        String error;
+
+        MessageUpdate(String messageId, String email) {
+            this.messageId = messageId;
+            this.email = email;
+        }
+
+        static String key(String messageId, String email) {
+            return messageId + '\n' + email;
+        }
+
+        String key() {
+            return key(messageId, email);
+        }
+
+        void add(EventType type, LocalDateTime at, String reason) {
+            switch (type) {
+                case DELIVERED -> deliveredAt = earliest(deliveredAt, at);
+                case OPEN -> openedAt = earliest(openedAt, at);
+                // Un clic implica que el email se abrió aunque el pixel de apertura no haya cargado
+                case CLICK -> {
+                    clickedAt = earliest(clickedAt, at);
+                    openedAt = earliest(openedAt, at);
+                }
+                default -> { }
+            }
+            if (eventAt == null || at.isAfter(eventAt)) {
+                eventAt = at;
+            }
+            if (type.rank > 0 && (status == null || type.rank > status.rank)) {
+                status = type;
+                if (type == EventType.BOUNCE || type == EventType.DROPPED) {
+                    error = reason;
+                }
+            }
+        }
+
+        private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+            return current == null || candidate.isBefore(current) ? candidate : current;
+        }
+    }
+}
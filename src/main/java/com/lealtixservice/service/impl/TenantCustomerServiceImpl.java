@@ -1,30 +1,18 @@
 package com.lealtixservice.service.impl;
 
-import com.lealtixservice.dto.EmailAttachmentDTO;
-import com.lealtixservice.dto.EmailDTO;
-import com.lealtixservice.entity.Campaign;
-import com.lealtixservice.entity.Coupon;
-import com.lealtixservice.entity.Tenant;
 import com.lealtixservice.entity.TenantCustomer;
+import com.lealtixservice.event.CustomerRegisteredEvent;
 import com.lealtixservice.exception.EmailAlreadyRegisteredException;
 import com.lealtixservice.repository.TenantCustomerRepository;
-import com.lealtixservice.repository.TenantRepository;
-import com.lealtixservice.service.CampaignService;
-import com.lealtixservice.service.CouponService;
-import com.lealtixservice.service.Emailservice;
-import com.lealtixservice.service.QrCodeService;
 import com.lealtixservice.service.TenantCustomerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import lombok.extern.slf4j.Slf4j;
@@ -37,31 +25,10 @@ public class TenantCustomerServiceImpl implements TenantCustomerService {
     private TenantCustomerRepository tenantCustomerRepository;
 
     @Autowired
-    private TenantRepository tenantRepository;
+    private ApplicationEventPublisher eventPublisher;
 
-    @Autowired
-    private Emailservice emailService;
-
-    @Autowired
-    private CampaignService campaignService;
-
-    @Autowired
-    private CouponService couponService;
-
-    @Autowired
-    private QrCodeService qrCodeService;
-
-    @Value("${sendgrid.templates.welcome-customer}")
-    private String welcomeTemplateId;
-
-    @Value("${sendgrid.templates.welcome-customer-no-coupon}")
-    private String welcomeNoCouponTemplateId;
-
-    @Value("${lealtix.dashboard.url}")
-    private String dashboardUrl;
-
-    @Value("${invitation.base-url}")
-    private String invitationBaseUrl;
+    @Value("${welcome.pipeline.deferred-lease-seconds:300}")
+    private long welcomeLeaseSeconds = 300;
 
     @Override
     @Transactional
@@ -81,154 +48,22 @@ public class TenantCustomerServiceImpl implements TenantCustomerService {
             }
         }
 
+        boolean isNew = customer.getId() == null;
+        boolean sendsWelcome = isNew && customer.getTenant() != null && customer.getTenant().getId() != null;
         customer.setCreatedAt(LocalDateTime.now());
         customer.setUpdatedAt(LocalDateTime.now());
-        TenantCustomer saved = tenantCustomerRepository.save(customer);
-
-        // FASE 5: Validar si existe campaña de bienvenida activa y generar cupón
-        Coupon welcomeCoupon = null;
-        if (saved.getTenant() != null && saved.getTenant().getId() != null) {
-            try {
-                log.info("Verificando campaña de bienvenida para tenant {}", saved.getTenant().getId());
-                boolean hasActiveWelcomeCampaign = campaignService.hasActiveWelcomeCampaign(
-                        saved.getTenant().getId());
-
-                if (hasActiveWelcomeCampaign) {
-                    log.info("El tenant {} tiene campaña de bienvenida activa, generando cupón para customer {}",
-                            saved.getTenant().getId(), saved.getId());
-
-                    // Obtener la campaña activa completa (con template y reward precargados)
-                    log.debug("Llamando a getActiveWelcomeCampaignEntity para tenant {}", saved.getTenant().getId());
-                    Campaign campaign = campaignService.getActiveWelcomeCampaignEntity(saved.getTenant().getId());
-
-                    if (campaign != null) {
-                        // Forzar la inicialización de las relaciones lazy antes de debuggear
-                        if (campaign.getTemplate() != null) {
-                            campaign.getTemplate().getName(); // Fuerza la carga
-                        }
-                        if (campaign.getPromotionReward() != null) {
-                            campaign.getPromotionReward().getRewardType(); // Fuerza la carga
-                        }
-
-                        log.debug("Campaña obtenida: id={}, title={}, template={}, promotionReward={}",
-                            campaign.getId(),
-                            campaign.getTitle(),
-                            campaign.getTemplate() != null ? campaign.getTemplate().getId() : "null",
-                            campaign.getPromotionReward() != null ? campaign.getPromotionReward().getId() : "null");
-
-                        welcomeCoupon = couponService.generateWelcomeCoupon(campaign, saved);
-                        log.info("Cupón de bienvenida {} generado exitosamente para customer {}",
-                                welcomeCoupon.getCode(), saved.getId());
-                    } else {
-                        log.warn("No se pudo obtener la entidad de campaña de bienvenida para tenant {}",
-                                saved.getTenant().getId());
-                    }
-                } else {
-                    log.info("El tenant {} no tiene campaña de bienvenida activa, se omite generación de cupón",
-                            saved.getTenant().getId());
-                }
-            } catch (Exception ex) {
-                log.error("Error al generar cupón de bienvenida para customer {}: {}",
-                        saved.getId(), ex.getMessage(), ex);
-                // No fallar el guardado del cliente si falla la generación del cupón
-            }
-        } else {
-            log.debug("saved.getTenant() es null o no tiene ID, se omite validación de campaña de bienvenida");
+        if (sendsWelcome) {
+            // Bienvenida pendiente en la misma transacción del alta: si el nodo cae antes de procesarla,
+            // DeferredWelcomePoller la retoma al vencer el lease
+            customer.setWelcomePendingAt(LocalDateTime.now().plusSeconds(welcomeLeaseSeconds));
         }
+        TenantCustomer saved = tenantCustomerRepository.save(customer);
 
-        // Enviar correo de bienvenida usando SendGrid si el guardado fue exitoso
-        try {
-            Tenant tenant = null;
-            if (customer.getTenant() != null && customer.getTenant().getId() != null) {
-                tenant = tenantRepository.findById(customer.getTenant().getId()).orElse(null);
-            } else if (saved.getTenant() != null && saved.getTenant().getId() != null) {
-                tenant = tenantRepository.findById(saved.getTenant().getId()).orElse(null);
-            }
-
-            Map<String, Object> dynamicData = new HashMap<>();
-            if (tenant != null) {
-                dynamicData.put("tenantName", tenant.getNombreNegocio());
-                dynamicData.put("logoUrl", tenant.getLogoUrl());
-            } else {
-                dynamicData.put("tenantName", "");
-                dynamicData.put("logoUrl", "");
-            }
-
-            dynamicData.put("customerName", saved.getName());
-
-            // Si se generó cupón, usar datos reales y generar QR
-            List<EmailAttachmentDTO> attachments = new ArrayList<>();
-            String templateToUse;
-
-            if (welcomeCoupon != null) {
-                // Usar template con cupón
-                templateToUse = welcomeTemplateId;
-                dynamicData.put("discount", welcomeCoupon.getCampaign().getPromotionReward().getDescription());
-                dynamicData.put("couponCode", welcomeCoupon.getCode());
-                dynamicData.put("promoImageUrl",  welcomeCoupon.getCampaign().getImageUrl());
-
-                // Generar QR code para el cupón
-                try {
-                    String redeemUrl = dashboardUrl + "/redeem?code=" + welcomeCoupon.getQrToken();
-                    String qrBase64 = qrCodeService.generateQrCodeBase64(redeemUrl);
-
-                    // Crear attachment inline para el QR
-                    EmailAttachmentDTO qrAttachment = EmailAttachmentDTO.builder()
-                            .content(qrBase64)
-                            .type("image/png")
-                            .filename("coupon-qr.png")
-                            .disposition("inline")
-                            .contentId("couponQr")
-                            .build();
-
-                    attachments.add(qrAttachment);
-                    dynamicData.put("hasQr", true);
-                    log.info("QR code generado y adjuntado para cupón {}", welcomeCoupon.getCode());
-
-                } catch (IOException qrEx) {
-                    log.error("Error generando QR code para cupón {}: {}",
-                        welcomeCoupon.getCode(), qrEx.getMessage());
-                    dynamicData.put("hasQr", false);
-                }
-            } else {
-                // Usar template sin cupón (solo bienvenida simple)
-                templateToUse = welcomeNoCouponTemplateId;
-                log.info("No hay cupón de bienvenida, usando template sin cupón para customer {}", saved.getId());
-            }
-
-            // Construir landing URL basada en la propiedad invitation.base-url del environment
-            String slug = tenant.getSlug();
-            String baseUrl;
-            if (invitationBaseUrl != null && !invitationBaseUrl.trim().isEmpty()) {
-                baseUrl = invitationBaseUrl.replaceAll("/+$", "");
-            } else {
-                // Si no hay base URL definida (por ejemplo en dev local), usar el comportamiento anterior
-                baseUrl = "https://lealtix.com.mx";
-            }
-            String landingUrl = baseUrl + "/landing-page/" + slug;
-            dynamicData.put("landingUrl", landingUrl);
-
-            EmailDTO emailDTO = EmailDTO.builder()
-                    .to(saved.getEmail())
-                    .subject("Bienvenido a " + (tenant != null ? tenant.getNombreNegocio() : "nuestro servicio"))
-                    .templateId(templateToUse)
-                    .dynamicData(dynamicData)
-                    .attachments(attachments.isEmpty() ? null : attachments)
-                    .build();
-
-            log.info("Intentando enviar email de bienvenida a: {}, template: {}, tenant: {}",
-                    saved.getEmail(), templateToUse, tenant != null ? tenant.getNombreNegocio() : "null");
-            log.debug("EmailDTO construido - to: {}, subject: {}, templateId: {}, hasAttachments: {}",
-                    emailDTO.getTo(), emailDTO.getSubject(), emailDTO.getTemplateId(),
-                    emailDTO.getAttachments() != null && !emailDTO.getAttachments().isEmpty());
-            log.debug("DynamicData keys: {}", dynamicData != null ? dynamicData.keySet() : "null");
-
-            emailService.sendEmailWithTemplate(emailDTO);
-            log.info("✅ Email de bienvenida enviado exitosamente a: {}", saved.getEmail());
-        } catch (IOException ex) {
-            log.error("Error sending welcome email to customer: {}", saved.getEmail(), ex);
-        } catch (Exception ex) {
-            log.error("Unexpected error sending welcome email", ex);
+        // Cupón de bienvenida y email se procesan después del commit (CustomerRegisteredListener)
+        if (sendsWelcome) {
+            eventPublisher.publishEvent(new CustomerRegisteredEvent(saved.getId(), saved.getTenant().getId()));
+        } else if (isNew) {
+            log.debug("saved.getTenant() es null o no tiene ID, se omite el flujo de bienvenida");
         }
 
         return saved;
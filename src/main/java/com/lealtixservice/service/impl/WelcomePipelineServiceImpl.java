@@ -0,0 +1,202 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.cache.WelcomeCampaignSnapshot;
+import com.lealtixservice.dto.EmailAttachmentDTO;
+import com.lealtixservice.dto.EmailDTO;
+import com.lealtixservice.entity.Coupon;
+import com.lealtixservice.entity.Tenant;
+import com.lealtixservice.entity.TenantCustomer;
+import com.lealtixservice.event.CustomerRegisteredEvent;
+import com.lealtixservice.exception.ResourceNotFoundException;
+import com.lealtixservice.repository.TenantCustomerRepository;
+import com.lealtixservice.repository.TenantRepository;
+import com.lealtixservice.service.CampaignService;
+import com.lealtixservice.service.CouponService;
+import com.lealtixservice.service.EmailOutboxService;
+import com.lealtixservice.service.QrCodeService;
+import com.lealtixservice.service.WelcomePipelineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación del flujo de bienvenida.
+ * Corre fuera del hilo de la petición de alta; el envío real a SendGrid lo hace la bandeja de salida
+ * (EmailOutboxDispatcher), con sus reintentos y backoff. El alta deja la bienvenida pendiente
+ * (welcome_pending_at, V18) y aquí se limpia en la misma transacción que encola el email; si ya está
+ * limpia, otra ejecución la procesó (p. ej. el poller tras vencer el lease) y no se repite.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WelcomePipelineServiceImpl implements WelcomePipelineService {
+
+    static final String DEFER_SQL = "UPDATE tenant_customer SET welcome_pending_at = ? WHERE id = ?";
+
+    static final String CLAIM_DEFERRED_SQL = """
+            UPDATE tenant_customer t SET welcome_pending_at = ?
+            FROM (
+                SELECT id FROM tenant_customer
+                WHERE welcome_pending_at <= ?
+                ORDER BY welcome_pending_at, id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ) pending
+            WHERE t.id = pending.id
+            RETURNING t.id, t.tenant_id
+            """;
+
+    private final TenantCustomerRepository tenantCustomerRepository;
+    private final TenantRepository tenantRepository;
+    private final CampaignService campaignService;
+    private final CouponService couponService;
+    private final QrCodeService qrCodeService;
+    private final EmailOutboxService emailOutboxService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${welcome.pipeline.deferred-lease-seconds:300}")
+    private long deferredLeaseSeconds = 300;
+
+    @Value("${sendgrid.templates.welcome-customer}")
+    private String welcomeTemplateId;
+
+    @Value("${sendgrid.templates.welcome-customer-no-coupon}")
+    private String welcomeNoCouponTemplateId;
+
+    @Value("${invitation.base-url}")
+    private String invitationBaseUrl;
+
+    @Override
+    @Transactional
+    public void processCustomerRegistered(CustomerRegisteredEvent event) {
+        TenantCustomer customer = findCustomer(event);
+        if (!claimPendingWelcome(customer)) {
+            return;
+        }
+        Tenant tenant = tenantRepository.findById(event.tenantId()).orElse(null);
+
+        // Campaña desde WelcomeCampaignCache: sin consulta por cada alta
+        WelcomeCampaignSnapshot campaign = campaignService.findActiveWelcomeCampaign(event.tenantId()).orElse(null);
+        Coupon welcomeCoupon = null;
+        if (campaign != null) {
+            welcomeCoupon = couponService.generateWelcomeCoupon(campaign, customer);
+            log.info("Cupón de bienvenida {} generado para customer {}", welcomeCoupon.getCode(), customer.getId());
+        } else {
+            log.info("El tenant {} no tiene campaña de bienvenida activa, se omite generación de cupón",
+                    event.tenantId());
+        }
+
+        enqueueWelcomeEmail(customer, tenant, welcomeCoupon, campaign);
+    }
+
+    @Override
+    @Transactional
+    public void sendWelcomeWithoutCoupon(CustomerRegisteredEvent event) {
+        TenantCustomer customer = findCustomer(event);
+        if (!claimPendingWelcome(customer)) {
+            return;
+        }
+        Tenant tenant = tenantRepository.findById(event.tenantId()).orElse(null);
+        enqueueWelcomeEmail(customer, tenant, null, null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void deferWelcome(Collection<Long> customerIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(DEFER_SQL, customerIds.stream()
+                .map(id -> new Object[]{now, id})
+                .toList());
+    }
+
+    @Override
+    @Transactional
+    public List<CustomerRegisteredEvent> claimDeferredWelcomes(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.query(CLAIM_DEFERRED_SQL,
+                (rs, rowNum) -> new CustomerRegisteredEvent(rs.getLong(1), rs.getLong(2)),
+                Timestamp.valueOf(now.plusSeconds(deferredLeaseSeconds)), Timestamp.valueOf(now), limit);
+    }
+
+    private TenantCustomer findCustomer(CustomerRegisteredEvent event) {
+        return tenantCustomerRepository.findForWelcomeById(event.customerId())
+                .orElseThrow(() -> new ResourceNotFoundException("Cliente no encontrado: " + event.customerId()));
+    }
+
+    /**
+     * Limpia la marca de bienvenida pendiente; false si ya se había enviado.
+     */
+    private static boolean claimPendingWelcome(TenantCustomer customer) {
+        if (customer.getWelcomePendingAt() == null) {
+            log.info("La bienvenida del customer {} ya fue procesada, se omite", customer.getId());
+            return false;
+        }
+        customer.setWelcomePendingAt(null);
+        return true;
+    }
+
+    private void enqueueWelcomeEmail(TenantCustomer customer, Tenant tenant, Coupon welcomeCoupon,
+                                     WelcomeCampaignSnapshot campaign) {
+        Map<String, Object> dynamicData = new HashMap<>();
+        dynamicData.put("tenantName", tenant != null ? tenant.getNombreNegocio() : "");
+        dynamicData.put("logoUrl", tenant != null ? tenant.getLogoUrl() : "");
+        dynamicData.put("customerName", customer.getName());
+
+        List<EmailAttachmentDTO> attachments = null;
+        String templateToUse;
+        if (welcomeCoupon != null) {
+            templateToUse = welcomeTemplateId;
+            dynamicData.put("discount", campaign.getRewardDescription());
+            dynamicData.put("couponCode", welcomeCoupon.getCode());
+            dynamicData.put("promoImageUrl", campaign.getImageUrl());
+            try {
+                // Normalmente ya está en cache: se pre-renderiza al crear el cupón
+                String redeemUrl = qrCodeService.couponQrContent(welcomeCoupon.getQrToken());
+                attachments = List.of(EmailAttachmentDTO.builder()
+                        .content(qrCodeService.generateQrCodeBase64(redeemUrl))
+                        .type("image/png")
+                        .filename("coupon-qr.png")
+                        .disposition("inline")
+                        .contentId("couponQr")
+                        .build());
+                dynamicData.put("hasQr", true);
+            } catch (IOException qrEx) {
+                log.error("Error generando QR code para cupón {}: {}", welcomeCoupon.getCode(), qrEx.getMessage());
+                dynamicData.put("hasQr", false);
+            }
+        } else {
+            templateToUse = welcomeNoCouponTemplateId;
+        }
+
+        String baseUrl = invitationBaseUrl != null && !invitationBaseUrl.trim().isEmpty()
+                ? invitationBaseUrl.replaceAll("/+$", "")
+                : "https://lealtix.com.mx";
+        dynamicData.put("landingUrl", baseUrl + "/landing-page/" + (tenant != null ? tenant.getSlug() : ""));
+
+        EmailDTO emailDTO = EmailDTO.builder()
+                .to(customer.getEmail())
+                .subject("Bienvenido a " + (tenant != null ? tenant.getNombreNegocio() : "nuestro servicio"))
+                .templateId(templateToUse)
+                .dynamicData(dynamicData)
+                .attachments(attachments)
+                .entityType("TENANT_CUSTOMER")
+                .entityId(customer.getId())
+                .campaignId(welcomeCoupon != null ? campaign.getCampaignId() : null)
+                .build();
+
+        emailOutboxService.enqueue(emailDTO);
+        log.info("Email de bienvenida encolado para {} (template: {})", customer.getEmail(), templateToUse);
+    }
+}
@@ -0,0 +1,197 @@
+package com.lealtixservice.util;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Entrega códigos de cupón únicos sin consultar la BD por cupón.
+ *
+ * - Cada bloque reserva BLOCK_SIZE contadores con un solo nextval('coupon_code_seq') y los cifra con
+ *   CouponCodeCipher; los contadores no se repiten entre nodos, así que los códigos tampoco.
+ * - Un hilo en segundo plano deja listo el siguiente bloque mientras se consume el actual;
+ *   tomar un código es un getAndIncrement sobre el bloque vigente.
+ * - Mientras no está listo (arranque, BD sin migrar, deshabilitado) se usa el código aleatorio
+ *   derivado de UUID; la restricción UNIQUE de coupon.code sigue siendo la última defensa.
+ */
+@Slf4j
+@Component
+public class CouponCodeAllocator {
+
+    // Debe coincidir con el INCREMENT BY de coupon_code_seq (V10)
+    public static final int BLOCK_SIZE = 1000;
+
+    static final String NEXT_BLOCK_SQL = "SELECT nextval('coupon_code_seq')";
+    static final String SECRET_SQL = "SELECT secret FROM coupon_code_allocator WHERE id = 1";
+
+    private static volatile CouponCodeAllocator shared;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final ExecutorService refiller;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final AtomicReference<Block> standby = new AtomicReference<>();
+
+    private volatile CouponCodeCipher cipher;
+    private volatile Block current = Block.EMPTY;
+
+    public CouponCodeAllocator(JdbcTemplate jdbcTemplate,
+                               @Value("${coupon.code-pool.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.refiller = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "coupon-code-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Código generado por el asignador de la aplicación, o uno aleatorio si aún no está listo.
+     * Lo usa Coupon.onCreate, que no tiene acceso a beans.
+     */
+    public static String nextSharedCode() {
+        CouponCodeAllocator allocator = shared;
+        return allocator != null ? allocator.nextCode() : randomCode();
+    }
+
+    /**
+     * Código aleatorio de 12 caracteres hexadecimales en mayúsculas (formato histórico).
+     */
+    public static String randomCode() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Pool de códigos de cupón deshabilitado; se usan códigos aleatorios");
+            return;
+        }
+        try {
+            String secret = jdbcTemplate.queryForObject(SECRET_SQL, String.class);
+            this.cipher = new CouponCodeCipher(secret.getBytes(StandardCharsets.UTF_8));
+            this.current = reserveBlock();
+            shared = this;
+            refillAsync();
+            log.info("Pool de códigos de cupón listo (bloques de {})", BLOCK_SIZE);
+        } catch (Exception e) {
+            this.cipher = null;
+            log.warn("No se pudo iniciar el pool de códigos de cupón; se usan códigos aleatorios: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (shared == this) {
+            shared = null;
+        }
+        refiller.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return cipher != null;
+    }
+
+    /**
+     * Siguiente código único. No hace I/O salvo cuando el bloque de reserva no alcanzó a prepararse.
+     */
+    public String nextCode() {
+        if (cipher == null) {
+            return randomCode();
+        }
+        String code = current.take();
+        if (code == null) {
+            code = advance();
+        }
+        if (standby.get() == null) {
+            refillAsync();
+        }
+        return code;
+    }
+
+    private synchronized String advance() {
+        String code;
+        while ((code = current.take()) == null) {
+            Block next = standby.getAndSet(null);
+            if (next == null) {
+                try {
+                    log.debug("Bloque de códigos en reserva no disponible; se reserva en línea");
+                    next = reserveBlock();
+                } catch (Exception e) {
+                    log.warn("No se pudo reservar un bloque de códigos; se usa un código aleatorio: {}", e.getMessage());
+                    return randomCode();
+                }
+            }
+            current = next;
+        }
+        return code;
+    }
+
+    private void refillAsync() {
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refiller.execute(() -> {
+                try {
+                    if (standby.get() == null) {
+                        standby.compareAndSet(null, reserveBlock());
+                    }
+                } catch (Exception e) {
+                    log.warn("Error reservando bloque de códigos de cupón: {}", e.getMessage());
+                } finally {
+                    refilling.set(false);
+                }
+            });
+        } catch (Exception e) {
+            // Ejecutor detenido (apagado de la aplicación)
+            refilling.set(false);
+        }
+    }
+
+    private Block reserveBlock() {
+        Long start = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL, Long.class);
+        if (start == null || start < 0 || start + BLOCK_SIZE - 1 > CouponCodeCipher.MAX_VALUE) {
+            throw new IllegalStateException("Secuencia coupon_code_seq fuera de rango: " + start);
+        }
+        CouponCodeCipher c = cipher;
+        String[] codes = new String[BLOCK_SIZE];
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            codes[i] = c.codeFor(start + i);
+        }
+        return new Block(codes);
+    }
+
+    private static final class Block {
+
+        static final Block EMPTY = new Block(new String[0]);
+
+        private final String[] codes;
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        Block(String[] codes) {
+            this.codes = codes;
+        }
+
+        String take() {
+            if (cursor.get() >= codes.length) {
+                return null;
+            }
+            int index = cursor.getAndIncrement();
+            return index < codes.length ? codes[index] : null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.lealtixservice.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+
+/**
+ * Permutación Feistel con llave sobre 48 bits (4 rondas, función de ronda HMAC-SHA256).
+ * Convierte un contador secuencial en un código de 12 caracteres hexadecimales en mayúsculas,
+ * el mismo formato de los códigos derivados de UUID. Al ser biyectiva, contadores distintos
+ * producen códigos distintos; sin la llave, el código del contador siguiente no es predecible.
+ */
+public final class CouponCodeCipher {
+
+    public static final int CODE_LENGTH = 12;
+    public static final long MAX_VALUE = (1L << 48) - 1;
+
+    private static final int HALF_BITS = 24;
+    private static final int HALF_MASK = (1 << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+
+    public CouponCodeCipher(byte[] secret) {
+        if (secret == null || secret.length < 32) {
+            throw new IllegalArgumentException("La llave del cifrado de códigos debe tener al menos 32 bytes");
+        }
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Código de 12 caracteres para el contador dado.
+     */
+    public String codeFor(long counter) {
+        return format(encrypt(counter));
+    }
+
+    public long encrypt(long value) {
+        checkRange(value);
+        int left = (int) (value >>> HALF_BITS);
+        int right = (int) (value & HALF_MASK);
+        for (int round = 0; round < ROUNDS; round++) {
+            int next = left ^ roundFunction(round, right);
+            left = right;
+            right = next;
+        }
+        return ((long) left << HALF_BITS) | right;
+    }
+
+    public long decrypt(long value) {
+        checkRange(value);
+        int left = (int) (value >>> HALF_BITS);
+        int right = (int) (value & HALF_MASK);
+        for (int round = ROUNDS - 1; round >= 0; round--) {
+            int previous = right ^ roundFunction(round, left);
+            right = left;
+            left = previous;
+        }
+        return ((long) left << HALF_BITS) | right;
+    }
+
+    public static String format(long value) {
+        char[] chars = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            chars[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    private int roundFunction(int round, int half) {
+        Mac m = mac.get();
+        m.update((byte) round);
+        m.update((byte) (half >>> 16));
+        m.update((byte) (half >>> 8));
+        m.update((byte) half);
+        byte[] digest = m.doFinal();
+        return ((digest[0] & 0xFF) << 16) | ((digest[1] & 0xFF) << 8) | (digest[2] & 0xFF);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac m = Mac.getInstance("HmacSHA256");
+            m.init(key);
+            return m;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no disponible", e);
+        }
+    }
+
+    private static void checkRange(long value) {
+        if (value < 0 || value > MAX_VALUE) {
+            throw new IllegalArgumentException("Valor fuera del dominio de 48 bits: " + value);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.lealtixservice.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV incremental (RFC 4180): lee un registro a la vez, sin cargar el archivo en memoria.
+ *
+ * - Campos entre comillas con comillas escapadas ("") y saltos de línea dentro del campo.
+ * - Separador ',' o ';' (Excel en español exporta con ';'), detectado en el encabezado.
+ * - Se ignora el BOM de UTF-8 y los '\r' fuera de comillas.
+ */
+public final class CsvReader implements Closeable {
+
+    static final int MAX_RECORD_CHARS = 10_000;
+    private static final int DETECT_LIMIT = 8192;
+
+    private final BufferedReader in;
+    private final char delimiter;
+    private long line = 1;
+    private long recordLine;
+
+    public CsvReader(Reader reader, char delimiter) {
+        this.in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Abre el lector detectando el separador en la primera línea (el que más aparece fuera de comillas).
+     */
+    public static CsvReader open(Reader reader) throws IOException {
+        BufferedReader buffered = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+        buffered.mark(1);
+        if (buffered.read() != '\uFEFF') {
+            buffered.reset();
+        }
+        buffered.mark(DETECT_LIMIT + 1);
+
+        int commas = 0;
+        int semicolons = 0;
+        boolean quoted = false;
+        for (int i = 0, c; i < DETECT_LIMIT && (c = buffered.read()) != -1; i++) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && c == '\n') {
+                break;
+            } else if (!quoted && c == ',') {
+                commas++;
+            } else if (!quoted && c == ';') {
+                semicolons++;
+            }
+        }
+        buffered.reset();
+        return new CsvReader(buffered, semicolons > commas ? ';' : ',');
+    }
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @return campos del registro (una línea vacía regresa un solo campo vacío) o null al final del archivo
+     * @throws IllegalArgumentException si hay comillas sin cerrar o el registro excede MAX_RECORD_CHARS
+     */
+    public List<String> readRecord() throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+
+        while (true) {
+            if (c == -1) {
+                if (quoted) {
+                    throw new IllegalArgumentException("Comillas sin cerrar en el registro de la línea " + recordLine);
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (++length > MAX_RECORD_CHARS) {
+                throw new IllegalArgumentException("El registro de la línea " + recordLine
+                        + " excede " + MAX_RECORD_CHARS + " caracteres");
+            }
+
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    int next = in.read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                    field.append('"');
+                } else {
+                    if (ch == '\n') {
+                        line++;
+                    }
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (ch == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+            c = in.read();
+        }
+    }
+
+    /**
+     * Línea del archivo donde empieza el último registro leído (1 = encabezado).
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
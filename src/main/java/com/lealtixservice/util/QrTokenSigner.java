@@ -0,0 +1,159 @@
+package com.lealtixservice.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * QR tokens firmados con HMAC-SHA256 que se verifican sin consultar la BD.
+ *
+ * Formato: "S" + Base64 URL-safe (56 caracteres) de
+ *   [versión 1][keyId 1][couponId 8][tenantId 8][expira epoch UTC 8 (0 = sin expiración)][HMAC truncado 16]
+ * Son 57 caracteres, caben en la columna qr_token (64) y nunca se confunden con los tokens
+ * anteriores (64 caracteres hexadecimales en minúsculas), que siguen funcionando.
+ *
+ * Rotación de llaves: coupon.qr-token.signing.keys acepta varias llaves "id:secreto"; se firma con
+ * active-key-id y se verifica con cualquiera, así los QR ya impresos siguen siendo válidos.
+ */
+@Component
+public class QrTokenSigner {
+
+    public static final String PREFIX = "S";
+    public static final int TOKEN_LENGTH = 57;
+
+    private static final byte VERSION = 1;
+    private static final int PAYLOAD_LENGTH = 1 + 1 + 8 + 8 + 8;
+    private static final int MAC_LENGTH = 16;
+
+    private final boolean issueSigned;
+    private final int activeKeyId;
+    private final Map<Integer, SecretKeySpec> keys = new HashMap<>();
+    private final ThreadLocal<Map<Integer, Mac>> macs = ThreadLocal.withInitial(HashMap::new);
+
+    public QrTokenSigner(@Value("${coupon.qr-token.signing.enabled:false}") boolean issueSigned,
+                         @Value("${coupon.qr-token.signing.active-key-id:1}") int activeKeyId,
+                         @Value("${coupon.qr-token.signing.keys:}") String keySpec) {
+        for (String entry : keySpec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("coupon.qr-token.signing.keys debe tener el formato id:secreto[,id:secreto]");
+            }
+            int keyId = Integer.parseInt(entry.substring(0, separator).trim());
+            byte[] secret = entry.substring(separator + 1).trim().getBytes(StandardCharsets.UTF_8);
+            if (keyId < 0 || keyId > 255 || secret.length < 32) {
+                throw new IllegalStateException("Llave de firma de QR inválida (id 0-255, mínimo 32 bytes): " + keyId);
+            }
+            keys.put(keyId, new SecretKeySpec(secret, "HmacSHA256"));
+        }
+        if (issueSigned && !keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Firma de QR habilitada sin llave activa " + activeKeyId);
+        }
+        this.issueSigned = issueSigned;
+        this.activeKeyId = activeKeyId;
+    }
+
+    /**
+     * true si los cupones nuevos deben recibir un token firmado.
+     */
+    public boolean isIssuingSigned() {
+        return issueSigned;
+    }
+
+    /**
+     * true si el token tiene el formato firmado (no verifica la firma).
+     */
+    public static boolean isSignedFormat(String qrToken) {
+        return qrToken != null && qrToken.length() == TOKEN_LENGTH && qrToken.startsWith(PREFIX);
+    }
+
+    public String sign(Long couponId, Long tenantId, LocalDateTime expiresAt) {
+        ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_LENGTH + MAC_LENGTH);
+        buffer.put(VERSION)
+                .put((byte) activeKeyId)
+                .putLong(couponId)
+                .putLong(tenantId)
+                .putLong(expiresAt != null ? expiresAt.toEpochSecond(ZoneOffset.UTC) : 0L);
+        byte[] bytes = buffer.array();
+        System.arraycopy(mac(activeKeyId, bytes), 0, bytes, PAYLOAD_LENGTH, MAC_LENGTH);
+        return PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Verifica formato, llave y firma. Vacío si el token fue alterado o su llave ya no existe.
+     */
+    public Optional<SignedQrToken> verify(String qrToken) {
+        if (!isSignedFormat(qrToken)) {
+            return Optional.empty();
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(qrToken.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (bytes.length != PAYLOAD_LENGTH + MAC_LENGTH || bytes[0] != VERSION) {
+            return Optional.empty();
+        }
+        int keyId = bytes[1] & 0xFF;
+        if (!keys.containsKey(keyId)) {
+            return Optional.empty();
+        }
+        byte[] expected = mac(keyId, bytes);
+        byte[] actual = new byte[MAC_LENGTH];
+        System.arraycopy(bytes, PAYLOAD_LENGTH, actual, 0, MAC_LENGTH);
+        byte[] expectedTruncated = new byte[MAC_LENGTH];
+        System.arraycopy(expected, 0, expectedTruncated, 0, MAC_LENGTH);
+        if (!MessageDigest.isEqual(expectedTruncated, actual)) {
+            return Optional.empty();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, PAYLOAD_LENGTH - 2);
+        long couponId = buffer.getLong();
+        long tenantId = buffer.getLong();
+        long expiresEpoch = buffer.getLong();
+        LocalDateTime expiresAt = expiresEpoch == 0 ? null : LocalDateTime.ofEpochSecond(expiresEpoch, 0, ZoneOffset.UTC);
+        return Optional.of(new SignedQrToken(couponId, tenantId, expiresAt));
+    }
+
+    /**
+     * HMAC del payload (sin la parte de la firma).
+     */
+    private byte[] mac(int keyId, byte[] tokenBytes) {
+        Mac mac = macs.get().computeIfAbsent(keyId, id -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(keys.get(id));
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("No se pudo inicializar HmacSHA256", e);
+            }
+        });
+        mac.update(tokenBytes, 0, PAYLOAD_LENGTH);
+        return mac.doFinal();
+    }
+
+    /**
+     * Datos autenticados de un QR token firmado. expiresAt es la expiración al emitir el token.
+     */
+    public record SignedQrToken(long couponId, long tenantId, LocalDateTime expiresAt) {
+
+        public boolean isExpired(LocalDateTime now) {
+            return expiresAt != null && !now.isBefore(expiresAt);
+        }
+    }
+}
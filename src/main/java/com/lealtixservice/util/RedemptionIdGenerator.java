@@ -0,0 +1,165 @@
+package com.lealtixservice.util;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generador de IDs de redención ordenados por tiempo y sin colisiones dentro de un nodo.
+ *
+ * El ID es un número de 49 bits codificado en 10 caracteres del alfabeto sin vocales
+ * (base 31, ancho fijo, por lo que el orden alfabético coincide con el numérico):
+ *
+ *   [ segundos desde 2024-01-01 : 31 ][ nodo : 4 ][ secuencia : 14 ]
+ *
+ * - 31 bits de segundos alcanzan hasta 2092.
+ * - Hasta 16 nodos (redemption.id.node-id) y 16384 IDs por segundo por nodo.
+ * - Si la secuencia se agota dentro de un segundo se toma prestado el siguiente segundo,
+ *   y si el reloj retrocede se sigue usando el último segundo emitido; así los IDs de un nodo
+ *   son siempre crecientes.
+ * - Un generador nuevo empieza en el segundo siguiente a max(ahora, último segundo emitido antes
+ *   por el nodo): un reinicio no repite los IDs que el proceso anterior emitió en el segundo en curso
+ *   ni los de segundos que tomó prestados.
+ *
+ * El estado (segundo + secuencia) vive en un único AtomicLong que se avanza con CAS, sin locks.
+ */
+public final class RedemptionIdGenerator {
+
+    public static final String ALPHABET = "0123456789BCDFGHJKLMNPQRSTVWXYZ";
+    public static final int ID_LENGTH = 10;
+
+    static final int NODE_BITS = 4;
+    static final int SEQUENCE_BITS = 14;
+    static final int TIMESTAMP_BITS = 31;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    static final long MAX_TIMESTAMP = (1L << TIMESTAMP_BITS) - 1;
+    static final long EPOCH_SECONDS = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+
+    private static final int BASE = ALPHABET.length();
+
+    private static volatile RedemptionIdGenerator shared = new RedemptionIdGenerator(0, System::currentTimeMillis);
+
+    private final long nodeId;
+    private final LongSupplier clockMillis;
+    /** segundo << SEQUENCE_BITS | secuencia del último ID emitido */
+    private final AtomicLong state = new AtomicLong();
+
+    public RedemptionIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    public RedemptionIdGenerator(long nodeId, LongSupplier clockMillis) {
+        this(nodeId, clockMillis, 0);
+    }
+
+    /**
+     * @param lastIssuedSecond último segundo (desde EPOCH_SECONDS) que el nodo emitió en un proceso anterior
+     */
+    public RedemptionIdGenerator(long nodeId, LongSupplier clockMillis, long lastIssuedSecond) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId debe estar entre 0 y " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clockMillis = clockMillis;
+        long startSecond = Math.max(currentSecond(), lastIssuedSecond) + 1;
+        // Como si ya se hubiera agotado la secuencia del segundo anterior: el primer ID es startSecond / 0
+        this.state.set((startSecond << SEQUENCE_BITS) - 1);
+    }
+
+    /**
+     * Instancia usada por las entidades; se configura al arrancar con el nodeId de la aplicación.
+     */
+    public static RedemptionIdGenerator shared() {
+        return shared;
+    }
+
+    public static void configureShared(long nodeId) {
+        configureShared(nodeId, 0);
+    }
+
+    public static void configureShared(long nodeId, long lastIssuedSecond) {
+        shared = new RedemptionIdGenerator(nodeId, System::currentTimeMillis, lastIssuedSecond);
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Último segundo (desde EPOCH_SECONDS) reservado por este generador; puede ir adelantado al reloj.
+     */
+    public long lastIssuedSecond() {
+        return state.get() >>> SEQUENCE_BITS;
+    }
+
+    /**
+     * Siguiente ID codificado (10 caracteres).
+     */
+    public String nextId() {
+        return encode(nextValue());
+    }
+
+    /**
+     * Siguiente ID numérico de 49 bits.
+     */
+    public long nextValue() {
+        long nowSeconds = currentSecond();
+        long prev;
+        long next;
+        do {
+            prev = state.get();
+            long prevSeconds = prev >>> SEQUENCE_BITS;
+            long prevSequence = prev & MAX_SEQUENCE;
+            if (nowSeconds > prevSeconds) {
+                next = nowSeconds << SEQUENCE_BITS;
+            } else if (prevSequence < MAX_SEQUENCE) {
+                next = prev + 1;
+            } else {
+                next = (prevSeconds + 1) << SEQUENCE_BITS;
+            }
+        } while (!state.compareAndSet(prev, next));
+
+        long seconds = next >>> SEQUENCE_BITS;
+        if (seconds > MAX_TIMESTAMP) {
+            throw new IllegalStateException("Rango de timestamp de RedemptionIdGenerator agotado");
+        }
+        return (seconds << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & MAX_SEQUENCE);
+    }
+
+    private long currentSecond() {
+        return Math.max(clockMillis.getAsLong() / 1000L - EPOCH_SECONDS, 0L);
+    }
+
+    /**
+     * Codifica en base 31 con ancho fijo de 10 caracteres.
+     */
+    public static String encode(long value) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        return new String(chars);
+    }
+
+    public static long decode(String id) {
+        long value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            int digit = ALPHABET.indexOf(id.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Carácter inválido en ID de redención: " + id);
+            }
+            value = value * BASE + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Instante (segundo) en que se emitió el ID.
+     */
+    public static Instant timestampOf(String id) {
+        long seconds = decode(id) >>> (NODE_BITS + SEQUENCE_BITS);
+        return Instant.ofEpochSecond(EPOCH_SECONDS + seconds);
+    }
+}
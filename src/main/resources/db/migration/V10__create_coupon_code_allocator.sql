@@ -0,0 +1,19 @@
+-- V10: Asignador de códigos de cupón
+-- Fecha: 2026-10-18
+-- Descripción: Los códigos se obtienen cifrando un contador con una permutación Feistel con llave.
+-- Cada nodo reserva bloques de 1000 contadores con un solo nextval, por lo que los códigos son
+-- únicos sin consultar existsByCode. La llave se genera una sola vez y NO debe cambiar: con otra
+-- llave la permutación deja de garantizar unicidad frente a los códigos ya emitidos.
+
+-- El INCREMENT BY es el tamaño de bloque (CouponCodeAllocator.BLOCK_SIZE)
+CREATE SEQUENCE IF NOT EXISTS coupon_code_seq START WITH 1 INCREMENT BY 1000;
+
+CREATE TABLE IF NOT EXISTS coupon_code_allocator (
+    id SMALLINT PRIMARY KEY,
+    secret VARCHAR(128) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+INSERT INTO coupon_code_allocator (id, secret)
+VALUES (1, replace(gen_random_uuid()::text, '-', '') || replace(gen_random_uuid()::text, '-', ''))
+ON CONFLICT (id) DO NOTHING;
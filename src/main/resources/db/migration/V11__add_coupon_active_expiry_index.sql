@@ -0,0 +1,8 @@
+-- V11: Índice parcial para el barrido de expiración de cupones
+-- Fecha: 2026-10-18
+-- Descripción: El barrido solo recorre cupones ACTIVE con expires_at vencido; el índice parcial
+-- excluye los cupones ya canjeados/expirados y se mantiene pequeño aunque la tabla crezca.
+
+CREATE INDEX IF NOT EXISTS idx_coupon_active_expires_at
+ON coupon(expires_at)
+WHERE status = 'ACTIVE';
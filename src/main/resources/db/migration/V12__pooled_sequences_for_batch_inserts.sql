@@ -0,0 +1,30 @@
+-- V12: Secuencias pooled-lo para las entidades de alto volumen
+-- Fecha: 2026-10-18
+-- Descripción: Con GenerationType.IDENTITY Hibernate desactiva el batching de INSERT (necesita el id
+-- de cada fila). Con una secuencia INCREMENT BY 50 y el optimizador pooled-lo, un nextval reserva
+-- 50 ids [v, v+49] en memoria y los INSERT se envían en lotes (hibernate.jdbc.batch_size).
+--
+-- El DEFAULT de la columna pasa a la nueva secuencia para los INSERT nativos: cada uno consume un
+-- bloque completo, nunca se cruza con los ids que Hibernate asigna. Si la columna era IDENTITY,
+-- se quita la identidad; las secuencias SERIAL anteriores se conservan sin uso.
+
+DO $$
+DECLARE
+    t TEXT;
+    seq TEXT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['coupon', 'tenant_customer', 'tenant_menu_product', 'email_log', 'campaign_result']
+    LOOP
+        seq := t || '_seq';
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', seq);
+        EXECUTE format('SELECT setval(%L, COALESCE((SELECT MAX(id) FROM %I), 0) + 1, false)', seq, t);
+
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = t
+                     AND column_name = 'id' AND is_identity = 'YES') THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+        END IF;
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', t, seq);
+        EXECUTE format('ALTER SEQUENCE %I OWNED BY %I.id', seq, t);
+    END LOOP;
+END $$;
@@ -0,0 +1,14 @@
+-- V13: Bus de invalidación de caches en memoria entre nodos
+-- Fecha: 2026-10-18
+-- Descripción: Cada cambio que invalida un cache local (p. ej. campaña de bienvenida por tenant)
+-- inserta una fila; los demás nodos la leen por polling y descartan su copia.
+-- Las filas se depuran pasada la retención (cache.invalidation.retention-minutes).
+
+CREATE TABLE IF NOT EXISTS cache_invalidation (
+    id BIGSERIAL PRIMARY KEY,
+    cache_name VARCHAR(100) NOT NULL,
+    cache_key VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_cache_invalidation_created_at ON cache_invalidation(created_at);
@@ -0,0 +1,7 @@
+-- V14: Índice por tenant y email para la deduplicación de la importación de clientes
+-- Fecha: 2026-10-18
+-- Descripción: La importación CSV compara cada lote contra los clientes existentes del tenant
+-- con un anti-join por lower(email); sin este índice cada lote recorre todos los clientes del tenant.
+
+CREATE INDEX IF NOT EXISTS idx_tenant_customer_tenant_email
+ON tenant_customer(tenant_id, lower(email));
@@ -0,0 +1,28 @@
+-- V15: Eventos del webhook de SendGrid en email_log y métricas de email por campaña
+-- Fecha: 2026-10-18
+-- Descripción: El webhook de eventos actualiza email_log por sendgrid_message_id (UPDATE ... FROM VALUES
+-- por lote) y acumula entregas, aperturas, clics y rebotes en campaign_result. campaign_id identifica
+-- la campaña del envío; las marcas de tiempo solo se fijan la primera vez, así un evento repetido
+-- (SendGrid reintenta el POST) no cuenta dos veces.
+
+ALTER TABLE email_log ADD COLUMN IF NOT EXISTS campaign_id BIGINT;
+ALTER TABLE email_log ADD COLUMN IF NOT EXISTS delivered_at TIMESTAMP;
+ALTER TABLE email_log ADD COLUMN IF NOT EXISTS opened_at TIMESTAMP;
+ALTER TABLE email_log ADD COLUMN IF NOT EXISTS clicked_at TIMESTAMP;
+ALTER TABLE email_log ADD COLUMN IF NOT EXISTS last_event_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_email_log_sendgrid_message_id
+ON email_log(sendgrid_message_id);
+
+CREATE INDEX IF NOT EXISTS idx_email_log_campaign
+ON email_log(campaign_id)
+WHERE campaign_id IS NOT NULL;
+
+ALTER TABLE campaign_result ADD COLUMN IF NOT EXISTS emails_delivered INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE campaign_result ADD COLUMN IF NOT EXISTS emails_opened INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE campaign_result ADD COLUMN IF NOT EXISTS emails_clicked INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE campaign_result ADD COLUMN IF NOT EXISTS emails_bounced INTEGER NOT NULL DEFAULT 0;
+
+-- INSERT ... ON CONFLICT (campaign_id) necesita el índice único
+CREATE UNIQUE INDEX IF NOT EXISTS uq_campaign_result_campaign
+ON campaign_result(campaign_id);
@@ -0,0 +1,47 @@
+-- V16: Acumulados diarios por tenant y campaña para el dashboard
+-- Fecha: 2026-10-18
+-- Descripción: Una fila por (tenant, día, campaña) con cupones emitidos, redenciones y sumas de
+-- ventas, descuentos y montos originales. La emisión y la redención suman su delta en la misma
+-- transacción (INSERT ... ON CONFLICT DO UPDATE) y el dashboard responde cualquier rango sumando
+-- filas de este acumulado en lugar de recorrer coupon y coupon_redemption. ticket_count cuenta las
+-- redenciones con final_amount, el divisor del ticket promedio (AVG ignora los NULL).
+
+CREATE TABLE IF NOT EXISTS campaign_daily_rollup (
+    tenant_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    campaign_id BIGINT NOT NULL,
+    coupons_issued BIGINT NOT NULL DEFAULT 0,
+    redemptions BIGINT NOT NULL DEFAULT 0,
+    ticket_count BIGINT NOT NULL DEFAULT 0,
+    sales_total NUMERIC(16, 2) NOT NULL DEFAULT 0,
+    discount_total NUMERIC(16, 2) NOT NULL DEFAULT 0,
+    original_total NUMERIC(16, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (tenant_id, day, campaign_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_campaign_daily_rollup_campaign
+ON campaign_daily_rollup(campaign_id, day);
+
+-- La reconciliación recalcula por día: rango sobre created_at sin recorrer toda la tabla
+CREATE INDEX IF NOT EXISTS idx_coupon_created_at
+ON coupon(created_at);
+
+-- Carga inicial con el histórico; después la mantienen la emisión, la redención y la reconciliación nocturna
+INSERT INTO campaign_daily_rollup (tenant_id, day, campaign_id, coupons_issued, redemptions, ticket_count,
+                                   sales_total, discount_total, original_total)
+SELECT tenant_id, day, campaign_id, SUM(issued), SUM(redeemed), SUM(tickets), SUM(sales), SUM(discount), SUM(original)
+FROM (
+    SELECT ca.business_id AS tenant_id, CAST(c.created_at AS DATE) AS day, c.campaign_id,
+           COUNT(*) AS issued, 0 AS redeemed, 0 AS tickets, 0 AS sales, 0 AS discount, 0 AS original
+    FROM coupon c
+    JOIN campaign ca ON ca.id = c.campaign_id
+    GROUP BY ca.business_id, CAST(c.created_at AS DATE), c.campaign_id
+    UNION ALL
+    SELECT cr.tenant_id, CAST(cr.redeemed_at AS DATE), cr.campaign_id,
+           0, COUNT(*), COUNT(cr.final_amount), COALESCE(SUM(cr.final_amount), 0),
+           COALESCE(SUM(cr.discount_amount), 0), COALESCE(SUM(cr.original_amount), 0)
+    FROM coupon_redemption cr
+    GROUP BY cr.tenant_id, CAST(cr.redeemed_at AS DATE), cr.campaign_id
+) daily
+GROUP BY tenant_id, day, campaign_id
+ON CONFLICT (tenant_id, day, campaign_id) DO NOTHING;
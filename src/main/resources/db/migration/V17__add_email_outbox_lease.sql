@@ -0,0 +1,15 @@
+-- V17: Lease de envío en la bandeja de salida de emails
+-- Fecha: 2026-10-18
+-- Descripción: El dispatcher ya no mantiene la transacción (ni el FOR UPDATE) abierta mientras llama a
+-- SendGrid. Toma el lote en una transacción corta que lo marca IN_FLIGHT con un lease (lease_id y
+-- next_attempt_at como vencimiento), envía sin transacción y registra los resultados en otra transacción
+-- corta, solo sobre las filas cuyo lease sigue siendo suyo. Un lease vencido (nodo caído a mitad del
+-- envío) vuelve a tomarse como pendiente.
+
+ALTER TABLE email_outbox ADD COLUMN IF NOT EXISTS lease_id VARCHAR(36);
+
+-- Índice parcial del polling: pendientes y leases en curso, por vencimiento
+DROP INDEX IF EXISTS idx_email_outbox_pending;
+CREATE INDEX IF NOT EXISTS idx_email_outbox_dispatchable
+ON email_outbox(next_attempt_at, id)
+WHERE status IN ('PENDING', 'IN_FLIGHT');
@@ -0,0 +1,12 @@
+-- V18: Bienvenidas diferidas cuando el flujo de bienvenida está saturado
+-- Fecha: 2026-10-18
+-- Descripción: Si la cola del flujo de bienvenida está llena, el alta no procesa la bienvenida en su
+-- propio hilo: marca al cliente con welcome_pending_at y un poller la retoma cuando hay capacidad.
+-- Al tomarla se usa como vencimiento del lease (si el nodo cae, otro la vuelve a tomar) y se limpia
+-- en la misma transacción que genera el cupón y encola el email.
+
+ALTER TABLE tenant_customer ADD COLUMN IF NOT EXISTS welcome_pending_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_tenant_customer_welcome_pending
+ON tenant_customer(welcome_pending_at, id)
+WHERE welcome_pending_at IS NOT NULL;
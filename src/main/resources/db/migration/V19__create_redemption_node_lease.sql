@@ -0,0 +1,18 @@
+-- V19: Lease de nodos del generador de IDs de redención
+-- Fecha: 2026-10-18
+-- Descripción: Los 16 nodos (0-15) del RedemptionIdGenerator se reparten desde la BD en lugar de
+-- depender de REDEMPTION_NODE_ID. Cada instancia toma un nodo libre al arrancar, renueva el lease
+-- periódicamente y guarda el último segundo emitido; quien retome el nodo arranca después de ese
+-- segundo y no repite IDs aunque el reloj haya retrocedido.
+
+CREATE TABLE IF NOT EXISTS redemption_node_lease (
+    node_id SMALLINT PRIMARY KEY,
+    instance_id VARCHAR(100),
+    leased_until TIMESTAMP NOT NULL,
+    last_issued_second BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO redemption_node_lease (node_id, leased_until)
+SELECT n, TIMESTAMP '1970-01-01 00:00:00'
+FROM generate_series(0, 15) AS n
+ON CONFLICT (node_id) DO NOTHING;
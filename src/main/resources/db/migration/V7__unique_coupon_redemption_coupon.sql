@@ -0,0 +1,29 @@
+-- V7: Una sola redención por cupón
+-- Fecha: 2026-10-18
+-- Descripción: La redención ahora es un UPDATE condicional sobre coupon (status = 'ACTIVE').
+-- El índice único en coupon_redemption.coupon_id es la garantía final a nivel BD
+-- de que un cupón no genera dos registros de auditoría. Los duplicados previos no se borran: se
+-- archivan en coupon_redemption_duplicate para su revisión.
+
+-- 1. Las redenciones duplicadas históricas son la evidencia de dobles canjes: se mueven a
+--    coupon_redemption_duplicate con sus montos (se conserva la primera redención de cada cupón)
+CREATE TABLE IF NOT EXISTS coupon_redemption_duplicate (LIKE coupon_redemption INCLUDING DEFAULTS);
+ALTER TABLE coupon_redemption_duplicate ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP NOT NULL DEFAULT now();
+
+INSERT INTO coupon_redemption_duplicate
+SELECT cr.*, now()
+FROM coupon_redemption cr
+WHERE EXISTS (
+    SELECT 1 FROM coupon_redemption dup
+    WHERE dup.coupon_id = cr.coupon_id
+      AND (cr.redeemed_at > dup.redeemed_at
+           OR (cr.redeemed_at = dup.redeemed_at AND cr.id > dup.id))
+);
+
+DELETE FROM coupon_redemption cr
+USING coupon_redemption_duplicate archived
+WHERE cr.id = archived.id;
+
+-- 2. Índice único (reemplaza al índice no único idx_redemption_coupon)
+CREATE UNIQUE INDEX IF NOT EXISTS uk_redemption_coupon ON coupon_redemption(coupon_id);
+DROP INDEX IF EXISTS idx_redemption_coupon;
@@ -0,0 +1,26 @@
+-- V8: Bandeja de salida transaccional de emails
+-- Fecha: 2026-10-18
+-- Descripción: Los emails de confirmación de redención se insertan en email_outbox dentro
+-- de la transacción de redención y un proceso en segundo plano los envía a SendGrid.
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    template_id VARCHAR(100),
+    entity_type VARCHAR(50),
+    entity_id BIGINT,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_status_next ON email_outbox(status, next_attempt_at);
+
+-- Índice parcial para el polling del dispatcher (solo filas pendientes)
+CREATE INDEX IF NOT EXISTS idx_email_outbox_pending
+ON email_outbox(next_attempt_at, id)
+WHERE status = 'PENDING';
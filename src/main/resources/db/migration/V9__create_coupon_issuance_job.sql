@@ -0,0 +1,38 @@
+-- V9: Emisión masiva de cupones por campaña
+-- Fecha: 2026-10-18
+-- Descripción: Trabajos reanudables de emisión de cupones para todo el segmento de clientes
+-- de un tenant. last_customer_id es el checkpoint: cada lote se inserta y avanza el checkpoint
+-- en la misma transacción.
+
+CREATE TABLE IF NOT EXISTS coupon_issuance_job (
+    id BIGSERIAL PRIMARY KEY,
+    campaign_id BIGINT NOT NULL,
+    tenant_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    last_customer_id BIGINT NOT NULL DEFAULT 0,
+    total_customers INT NOT NULL DEFAULT 0,
+    already_holding INT NOT NULL DEFAULT 0,
+    issued_count INT NOT NULL DEFAULT 0,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL,
+    started_at TIMESTAMP NULL,
+    heartbeat_at TIMESTAMP NULL,
+    finished_at TIMESTAMP NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_coupon_issuance_job_campaign ON coupon_issuance_job(campaign_id);
+
+-- Un solo trabajo en curso por campaña
+CREATE UNIQUE INDEX IF NOT EXISTS uk_coupon_issuance_job_active
+ON coupon_issuance_job(campaign_id)
+WHERE status IN ('PENDING', 'RUNNING');
+
+-- Recorrido por keyset de los clientes que aceptan promociones
+CREATE INDEX IF NOT EXISTS idx_tenant_customer_promotions
+ON tenant_customer(tenant_id, id)
+WHERE accepted_promotions = TRUE;
+
+-- Anti-join "ya tiene cupón activo de la campaña"
+CREATE INDEX IF NOT EXISTS idx_coupon_customer_campaign_active
+ON coupon(customer_id, campaign_id)
+WHERE status = 'ACTIVE';
@@ -0,0 +1,204 @@
+package com.lealtixservice.benchmark;
+
+import com.lealtixservice.dto.dashboard.CampaignPerformanceDTO;
+import com.lealtixservice.repository.DashboardRedemptionRepository;
+import com.lealtixservice.service.impl.DashboardRollupServiceImpl;
+import com.lealtixservice.service.impl.DashboardServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KPI 7 (rendimiento por campaña) de un tenant sobre un histórico sintético de 10M redenciones
+ * (-Dbench.dashboard.redemptions) y 1.5 cupones emitidos por redención, 50 tenants con 20 campañas
+ * cada uno repartidos en 365 días:
+ * - JOIN: la consulta anterior (DashboardRedemptionRepository.findCampaignPerformance), que une
+ *   campaign, coupon y coupon_redemption del rango.
+ * - ROLLUP: DashboardServiceImpl sumando campaign_daily_rollup (una fila por día y campaña).
+ * El resultado es el tiempo por consulta. Requiere PostgreSQL (la consulta JOIN usa COUNT(fila));
+ * los datos se generan una sola vez en el schema dashboard_bench y se reutilizan entre corridas:
+ * -Dbench.jdbc.url=... -Dbench.jdbc.user=... -Dbench.jdbc.password=...
+ *
+ * Ejecutar con: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.lealtixservice.benchmark.DashboardRollupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class DashboardRollupBenchmark {
+
+    private static final String SCHEMA = "dashboard_bench";
+    private static final int TENANTS = 50;
+    private static final int CAMPAIGNS_PER_TENANT = 20;
+    private static final int DAYS = 365;
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"JOIN", "ROLLUP"})
+    private String source;
+
+    @Param({"30", "365"})
+    private int rangeDays;
+
+    private SingleConnectionDataSource dataSource;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    private DashboardServiceImpl dashboardService;
+    private String joinQuery;
+    private long tenantCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/lealtix_bench"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "postgres"),
+                true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+        jdbcTemplate.execute("SET search_path TO " + SCHEMA);
+        loadDataset(jdbcTemplate, Long.getLong("bench.dashboard.redemptions", 10_000_000L));
+
+        namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        joinQuery = DashboardRedemptionRepository.class
+                .getMethod("findCampaignPerformance", Long.class, LocalDateTime.class, LocalDateTime.class)
+                .getAnnotation(Query.class)
+                .value();
+        dashboardService = new DashboardServiceImpl(null, new DashboardRollupServiceImpl(jdbcTemplate));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public int campaignPerformance() {
+        long tenantId = 1 + (tenantCursor++ % TENANTS);
+        LocalDateTime to = HISTORY_START.plusDays(DAYS).minusSeconds(1);
+        LocalDateTime from = to.minusDays(rangeDays).plusSeconds(1);
+        if ("JOIN".equals(source)) {
+            List<Map<String, Object>> rows = namedJdbcTemplate.queryForList(joinQuery,
+                    Map.of("tenantId", tenantId, "from", from, "to", to));
+            return rows.size();
+        }
+        List<CampaignPerformanceDTO> rows = dashboardService.getCampaignPerformance(tenantId, from, to);
+        return rows.size();
+    }
+
+    /**
+     * Genera el histórico en el servidor (generate_series) si el schema no tiene ya las redenciones pedidas,
+     * y construye el acumulado diario con la misma agregación que la migración V16.
+     */
+    private static void loadDataset(JdbcTemplate jdbcTemplate, long redemptions) {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS campaign (
+                    id BIGINT PRIMARY KEY, business_id BIGINT NOT NULL, title VARCHAR(200) NOT NULL,
+                    created_at TIMESTAMP NOT NULL)
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS coupon (
+                    id BIGINT PRIMARY KEY, campaign_id BIGINT NOT NULL, created_at TIMESTAMP NOT NULL)
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS coupon_redemption (
+                    id BIGINT PRIMARY KEY, coupon_id BIGINT NOT NULL, tenant_id BIGINT NOT NULL,
+                    campaign_id BIGINT NOT NULL, original_amount NUMERIC(10, 2), discount_amount NUMERIC(10, 2),
+                    final_amount NUMERIC(10, 2), redeemed_at TIMESTAMP NOT NULL)
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS campaign_daily_rollup (
+                    tenant_id BIGINT NOT NULL, day DATE NOT NULL, campaign_id BIGINT NOT NULL,
+                    coupons_issued BIGINT NOT NULL DEFAULT 0, redemptions BIGINT NOT NULL DEFAULT 0,
+                    ticket_count BIGINT NOT NULL DEFAULT 0, sales_total NUMERIC(16, 2) NOT NULL DEFAULT 0,
+                    discount_total NUMERIC(16, 2) NOT NULL DEFAULT 0, original_total NUMERIC(16, 2) NOT NULL DEFAULT 0,
+                    PRIMARY KEY (tenant_id, day, campaign_id))
+                """);
+
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM coupon_redemption", Long.class);
+        if (existing != null && existing == redemptions) {
+            return;
+        }
+        System.out.printf("%nGenerando %d redenciones en %s (una sola vez)...%n", redemptions, SCHEMA);
+        jdbcTemplate.execute("TRUNCATE campaign, coupon, coupon_redemption, campaign_daily_rollup");
+
+        int campaigns = TENANTS * CAMPAIGNS_PER_TENANT;
+        jdbcTemplate.update("""
+                INSERT INTO campaign (id, business_id, title, created_at)
+                SELECT g, (g - 1) / ? + 1, 'Campaña ' || g, TIMESTAMP '2024-12-01'
+                FROM generate_series(1, ?) g
+                """, CAMPAIGNS_PER_TENANT, campaigns);
+        jdbcTemplate.update("""
+                INSERT INTO coupon (id, campaign_id, created_at)
+                SELECT g, 1 + g % ?, TIMESTAMP '2025-01-01' + (g % ?) * INTERVAL '1 day' + (g % 86400) * INTERVAL '1 second'
+                FROM generate_series(1, ?) g
+                """, campaigns, DAYS, redemptions * 3 / 2);
+        // Se redimen los primeros cupones, hasta 6 días después de emitidos (sin salir del año)
+        jdbcTemplate.update("""
+                INSERT INTO coupon_redemption (id, coupon_id, tenant_id, campaign_id, original_amount, discount_amount,
+                                               final_amount, redeemed_at)
+                SELECT c.id, c.id, ca.business_id, c.campaign_id, 100 + c.id % 400, 10 + c.id % 40,
+                       CASE WHEN c.id % 10 = 0 THEN NULL ELSE 90 + c.id % 360 END,
+                       LEAST(c.created_at + (c.id % 7) * INTERVAL '1 day', TIMESTAMP '2025-12-31 23:59:59')
+                FROM coupon c
+                JOIN campaign ca ON ca.id = c.campaign_id
+                WHERE c.id <= ?
+                """, redemptions);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_coupon_campaign_created ON coupon(campaign_id, created_at)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_redemption_coupon ON coupon_redemption(coupon_id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_redemption_tenant_date ON coupon_redemption(tenant_id, redeemed_at)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_campaign_business ON campaign(business_id)");
+
+        jdbcTemplate.update("""
+                INSERT INTO campaign_daily_rollup (tenant_id, day, campaign_id, coupons_issued, redemptions, ticket_count,
+                                                   sales_total, discount_total, original_total)
+                SELECT tenant_id, day, campaign_id, SUM(issued), SUM(redeemed), SUM(tickets), SUM(sales),
+                       SUM(discount), SUM(original)
+                FROM (
+                    SELECT ca.business_id AS tenant_id, CAST(c.created_at AS DATE) AS day, c.campaign_id,
+                           COUNT(*) AS issued, 0 AS redeemed, 0 AS tickets, 0 AS sales, 0 AS discount, 0 AS original
+                    FROM coupon c
+                    JOIN campaign ca ON ca.id = c.campaign_id
+                    GROUP BY ca.business_id, CAST(c.created_at AS DATE), c.campaign_id
+                    UNION ALL
+                    SELECT cr.tenant_id, CAST(cr.redeemed_at AS DATE), cr.campaign_id,
+                           0, COUNT(*), COUNT(cr.final_amount), COALESCE(SUM(cr.final_amount), 0),
+                           COALESCE(SUM(cr.discount_amount), 0), COALESCE(SUM(cr.original_amount), 0)
+                    FROM coupon_redemption cr
+                    GROUP BY cr.tenant_id, CAST(cr.redeemed_at AS DATE), cr.campaign_id
+                ) daily
+                GROUP BY tenant_id, day, campaign_id
+                """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DashboardRollupBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
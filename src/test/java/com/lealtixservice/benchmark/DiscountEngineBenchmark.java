@@ -0,0 +1,92 @@
+package com.lealtixservice.benchmark;
+
+import com.lealtixservice.cache.LocalCacheInvalidationBus;
+import com.lealtixservice.discount.DiscountCalculator;
+import com.lealtixservice.discount.DiscountEngine;
+import com.lealtixservice.discount.DiscountQuote;
+import com.lealtixservice.entity.PromotionReward;
+import com.lealtixservice.enums.RewardType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la calculadora precompilada del DiscountEngine contra el cálculo BigDecimal
+ * que hacía antes CouponRedemptionServiceImpl en cada canje.
+ *
+ * Ejecutar con: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.lealtixservice.benchmark.DiscountEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscountEngineBenchmark {
+
+    @Param({"PERCENT_DISCOUNT", "FIXED_AMOUNT"})
+    private RewardType rewardType;
+
+    private BigDecimal numericValue;
+    private BigDecimal originalAmount;
+    private DiscountCalculator calculator;
+
+    @Setup
+    public void setUp() {
+        numericValue = rewardType == RewardType.PERCENT_DISCOUNT ? new BigDecimal("12.5") : new BigDecimal("50");
+        originalAmount = new BigDecimal("349.90");
+        calculator = new DiscountEngine(null, null, null, new LocalCacheInvalidationBus(), 0).compile(PromotionReward.builder()
+                .rewardType(rewardType)
+                .numericValue(numericValue)
+                .build());
+    }
+
+    @Benchmark
+    public DiscountQuote precompiled() {
+        return calculator.apply(originalAmount);
+    }
+
+    @Benchmark
+    public BigDecimal[] legacyInline() {
+        // Copia del cálculo anterior en buildRedemption
+        BigDecimal discountAmount = BigDecimal.ZERO;
+        BigDecimal finalAmount = originalAmount;
+        if (rewardType == RewardType.PERCENT_DISCOUNT) {
+            discountAmount = originalAmount
+                    .multiply(numericValue)
+                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+            finalAmount = originalAmount.subtract(discountAmount);
+        } else if (rewardType == RewardType.FIXED_AMOUNT) {
+            discountAmount = numericValue;
+            finalAmount = originalAmount.subtract(discountAmount);
+            if (finalAmount.compareTo(BigDecimal.ZERO) < 0) {
+                finalAmount = BigDecimal.ZERO;
+                discountAmount = originalAmount;
+            }
+        }
+        return new BigDecimal[]{discountAmount, finalAmount};
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DiscountEngineBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,161 @@
+package com.lealtixservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserta 50k cupones reproduciendo lo que Hibernate envía a la BD con cada estrategia de id:
+ * - IDENTITY: un INSERT por fila con getGeneratedKeys (Hibernate desactiva el batching).
+ * - POOLED_LO: un nextval cada 50 filas e INSERT en lotes de hibernate.jdbc.batch_size (50).
+ * El resultado (ops/s) son filas por segundo. En H2 en memoria la diferencia es menor que en
+ * PostgreSQL, donde cada fila IDENTITY es un round trip de red; para medir contra PostgreSQL pasar
+ * -Dbench.jdbc.url=... -Dbench.jdbc.user=... -Dbench.jdbc.password=...
+ *
+ * Ejecutar con: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.lealtixservice.benchmark.PooledSequenceInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class PooledSequenceInsertBenchmark {
+
+    private static final int ROWS = 50_000;
+    private static final int ALLOCATION_SIZE = 50;
+    private static final int BATCH_SIZE = 50;
+
+    private static final String INSERT_IDENTITY =
+            "INSERT INTO coupon_seq_bench (code, campaign_id, customer_id, status, created_at) VALUES (?, ?, ?, 'ACTIVE', ?)";
+    private static final String INSERT_WITH_ID =
+            "INSERT INTO coupon_seq_bench (id, code, campaign_id, customer_id, status, created_at) VALUES (?, ?, ?, ?, 'ACTIVE', ?)";
+
+    @Param({"IDENTITY", "POOLED_LO"})
+    private String strategy;
+
+    private Connection connection;
+    private long run;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:h2:mem:sequence_bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"),
+                System.getProperty("bench.jdbc.user", "sa"),
+                System.getProperty("bench.jdbc.password", ""));
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS coupon_seq_bench");
+            statement.execute("DROP SEQUENCE IF EXISTS coupon_seq_bench_seq");
+            statement.execute("CREATE TABLE coupon_seq_bench (" +
+                    "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, code VARCHAR(100) NOT NULL UNIQUE, " +
+                    "campaign_id BIGINT NOT NULL, customer_id BIGINT NOT NULL, status VARCHAR(50) NOT NULL, " +
+                    "created_at TIMESTAMP NOT NULL)");
+            statement.execute("CREATE SEQUENCE coupon_seq_bench_seq START WITH 1000000000 INCREMENT BY " + ALLOCATION_SIZE);
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS coupon_seq_bench");
+            statement.execute("DROP SEQUENCE IF EXISTS coupon_seq_bench_seq");
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long insertCoupons() throws SQLException {
+        long prefix = run++;
+        long inserted = "IDENTITY".equals(strategy) ? insertIdentity(prefix) : insertPooledLo(prefix);
+        connection.commit();
+        return inserted;
+    }
+
+    private long insertIdentity(long prefix) throws SQLException {
+        long lastId = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_IDENTITY, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setString(1, code(prefix, i));
+                insert.setLong(2, 1L);
+                insert.setLong(3, i);
+                insert.setTimestamp(4, now);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+            }
+        }
+        return lastId;
+    }
+
+    private long insertPooledLo(long prefix) throws SQLException {
+        long hi = 0;
+        long next = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement sequence = connection.prepareStatement("SELECT nextval('coupon_seq_bench_seq')");
+             PreparedStatement insert = connection.prepareStatement(INSERT_WITH_ID)) {
+            for (int i = 0; i < ROWS; i++) {
+                if (next == hi) {
+                    try (ResultSet rs = sequence.executeQuery()) {
+                        rs.next();
+                        next = rs.getLong(1);
+                        hi = next + ALLOCATION_SIZE;
+                    }
+                }
+                insert.setLong(1, next++);
+                insert.setString(2, code(prefix, i));
+                insert.setLong(3, 1L);
+                insert.setLong(4, i);
+                insert.setTimestamp(5, now);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        return next;
+    }
+
+    private static String code(long prefix, int i) {
+        return prefix + "-" + i;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PooledSequenceInsertBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.lealtixservice.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.lealtixservice.cache.QrImageCache;
+import com.lealtixservice.qr.QrPngWriter;
+import com.lealtixservice.qr.QrSvgWriter;
+import com.lealtixservice.service.impl.QrCodeServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara los caminos de renderizado del QR de un cupón (300x300, corrección H):
+ * - legacyImageIo: QRCodeWriter + BufferedImage + ImageIO (implementación anterior).
+ * - fastPng: Encoder + QrPngWriter (PNG de 1 bit sin ImageIO).
+ * - svg: Encoder + QrSvgWriter.
+ * - cachedPng: QrCodeServiceImpl con el QR ya en QrImageCache.
+ * - pngWriterOnly: solo QrPngWriter sobre una matriz ya codificada (costo del escritor).
+ *
+ * Ejecutar con: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.lealtixservice.benchmark.QrRenderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QrRenderBenchmark {
+
+    private static final int SIZE = 300;
+    private static final String CONTENT = "https://dashboard.lealtix.com.mx/redeem?code="
+            + "3f6c2a9e1b7d4c0a8e5f2b9c7d1a4e6f3b8c0d2e5a7f9b1c4d6e8a0b2c5d7e9f";
+    private static final Map<EncodeHintType, Object> ENCODER_HINTS = Map.of(EncodeHintType.CHARACTER_SET, "UTF-8");
+
+    private Map<EncodeHintType, Object> legacyHints;
+    private ByteMatrix modules;
+    private QrCodeServiceImpl cachedService;
+
+    @Setup
+    public void setUp() throws Exception {
+        legacyHints = new HashMap<>();
+        legacyHints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+        legacyHints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        legacyHints.put(EncodeHintType.MARGIN, 1);
+
+        modules = Encoder.encode(CONTENT, ErrorCorrectionLevel.H, ENCODER_HINTS).getMatrix();
+
+        cachedService = new QrCodeServiceImpl(new QrImageCache(8 * 1024 * 1024));
+        cachedService.generateQrCode(CONTENT);
+    }
+
+    @Benchmark
+    public byte[] legacyImageIo() throws WriterException, IOException {
+        BitMatrix bitMatrix = new QRCodeWriter().encode(CONTENT, BarcodeFormat.QR_CODE, SIZE, SIZE, legacyHints);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(MatrixToImageWriter.toBufferedImage(bitMatrix), "PNG", out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] fastPng() throws WriterException {
+        return QrPngWriter.write(Encoder.encode(CONTENT, ErrorCorrectionLevel.H, ENCODER_HINTS).getMatrix(),
+                SIZE, SIZE, 1);
+    }
+
+    @Benchmark
+    public byte[] svg() throws WriterException {
+        return QrSvgWriter.write(Encoder.encode(CONTENT, ErrorCorrectionLevel.H, ENCODER_HINTS).getMatrix(), SIZE, 1);
+    }
+
+    @Benchmark
+    public byte[] cachedPng() throws IOException {
+        return cachedService.generateQrCode(CONTENT);
+    }
+
+    @Benchmark
+    public byte[] pngWriterOnly() {
+        return QrPngWriter.write(modules, SIZE, SIZE, 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QrRenderBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,152 @@
+package com.lealtixservice.benchmark;
+
+import com.lealtixservice.util.QrTokenSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de la validación de QR tokens: verificación HMAC de tokens firmados (válidos y alterados)
+ * contra la búsqueda por token en la BD (índice único sobre qr_token) y la búsqueda por PK.
+ * La BD es H2 en memoria por defecto; -Dbench.jdbc.url=... para medir contra PostgreSQL.
+ *
+ * Ejecutar con: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.lealtixservice.benchmark.QrTokenVerificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class QrTokenVerificationBenchmark {
+
+    private static final int COUPONS = 100_000;
+
+    private QrTokenSigner signer;
+    private String[] signedTokens;
+    private String[] legacyTokens;
+    private String forgedToken;
+    private Connection setupConnection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        signer = new QrTokenSigner(true, 1, "1:" + "s".repeat(32));
+        signedTokens = new String[COUPONS];
+        legacyTokens = new String[COUPONS];
+        setupConnection = connect();
+        try (Statement statement = setupConnection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS qr_bench");
+            statement.execute("CREATE TABLE qr_bench (id BIGINT PRIMARY KEY, qr_token VARCHAR(64) UNIQUE, status VARCHAR(20))");
+        }
+        try (PreparedStatement insert = setupConnection.prepareStatement("INSERT INTO qr_bench VALUES (?, ?, 'ACTIVE')")) {
+            for (int i = 0; i < COUPONS; i++) {
+                legacyTokens[i] = UUID.randomUUID().toString().replace("-", "") + UUID.randomUUID().toString().replace("-", "");
+                signedTokens[i] = signer.sign((long) i, 1L, null);
+                insert.setLong(1, i);
+                insert.setString(2, legacyTokens[i]);
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        String token = signedTokens[0];
+        forgedToken = token.substring(0, 30) + (token.charAt(30) == 'A' ? 'B' : 'A') + token.substring(31);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = setupConnection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS qr_bench");
+        }
+        setupConnection.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadConnection {
+        Connection connection;
+        PreparedStatement byToken;
+        PreparedStatement byId;
+
+        @Setup(Level.Trial)
+        public void open() throws SQLException {
+            connection = connect();
+            byToken = connection.prepareStatement("SELECT id, status FROM qr_bench WHERE qr_token = ?");
+            byId = connection.prepareStatement("SELECT id, status FROM qr_bench WHERE id = ?");
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public Optional<QrTokenSigner.SignedQrToken> verifySigned() {
+        return signer.verify(signedTokens[ThreadLocalRandom.current().nextInt(COUPONS)]);
+    }
+
+    @Benchmark
+    public Optional<QrTokenSigner.SignedQrToken> rejectForged() {
+        return signer.verify(forgedToken);
+    }
+
+    @Benchmark
+    public boolean legacyLookupByToken(ThreadConnection db) throws SQLException {
+        db.byToken.setString(1, legacyTokens[ThreadLocalRandom.current().nextInt(COUPONS)]);
+        try (ResultSet rs = db.byToken.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    @Benchmark
+    public boolean signedVerifyAndLookupById(ThreadConnection db) throws SQLException {
+        QrTokenSigner.SignedQrToken token = signer.verify(signedTokens[ThreadLocalRandom.current().nextInt(COUPONS)])
+                .orElseThrow();
+        db.byId.setLong(1, token.couponId());
+        try (ResultSet rs = db.byId.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:h2:mem:qr_bench;DB_CLOSE_DELAY=-1"),
+                System.getProperty("bench.jdbc.user", "sa"),
+                System.getProperty("bench.jdbc.password", ""));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QrTokenVerificationBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.lealtixservice.benchmark;
+
+import com.lealtixservice.util.RedemptionIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserta lotes en una tabla con PK VARCHAR(10) (H2 en memoria) comparando el UID aleatorio
+ * anterior de CouponRedemption contra RedemptionIdGenerator.
+ * Para medir contra PostgreSQL pasar -Dbench.jdbc.url=... -Dbench.jdbc.user=... -Dbench.jdbc.password=...
+ *
+ * Ejecutar con: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.lealtixservice.benchmark.RedemptionIdInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedemptionIdInsertBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"LEGACY_RANDOM", "TIME_ORDERED"})
+    private String scheme;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private RedemptionIdGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:h2:mem:redemption_bench;DB_CLOSE_DELAY=-1"),
+                System.getProperty("bench.jdbc.user", "sa"),
+                System.getProperty("bench.jdbc.password", ""));
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS redemption_id_bench");
+            statement.execute("CREATE TABLE redemption_id_bench (id VARCHAR(10) PRIMARY KEY, coupon_id BIGINT NOT NULL)");
+        }
+        connection.commit();
+        insert = connection.prepareStatement("INSERT INTO redemption_id_bench (id, coupon_id) VALUES (?, ?)");
+        generator = new RedemptionIdGenerator(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS redemption_id_bench");
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int insertBatch() throws SQLException {
+        boolean legacy = "LEGACY_RANDOM".equals(scheme);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insert.setString(1, legacy ? legacyUid() : generator.nextId());
+            insert.setLong(2, i);
+            insert.addBatch();
+        }
+        int inserted = insert.executeBatch().length;
+        connection.commit();
+        return inserted;
+    }
+
+    /**
+     * Copia del CouponRedemption.generateUid anterior.
+     */
+    private static String legacyUid() {
+        String chars = "0123456789BCDFGHJKLMNPQRSTVWXYZ";
+        Random random = new Random();
+        StringBuilder uid = new StringBuilder(10);
+        for (int i = 0; i < 10; i++) {
+            uid.append(chars.charAt(random.nextInt(chars.length())));
+        }
+        return uid.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RedemptionIdInsertBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,149 @@
+package com.lealtixservice.benchmark;
+
+import com.lealtixservice.dto.EmailDTO;
+import com.lealtixservice.dto.EmailDeliveryResult;
+import com.lealtixservice.service.impl.EmailServiceImpl;
+import com.sendgrid.Client;
+import com.sendgrid.SendGrid;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envío de una campaña a 2000 destinatarios contra un SendGrid local (HttpServer en localhost) que
+ * responde 202 tras una latencia fija por petición (-Dbench.sendgrid.latency-ms, 30 por defecto):
+ * - SEQUENTIAL: una petición a mail/send por destinatario (deliverEmailWithTemplate).
+ * - BULK: peticiones de hasta 1000 personalizations por template, grupos en paralelo (deliverBulkWithTemplate).
+ * El resultado es el tiempo por campaña completa. Referencia local (1 CPU, 30 ms): BULK ~55 ms
+ * en 3 peticiones; SEQUENTIAL ~34 ms por destinatario (~70 s la campaña).
+ *
+ * Ejecutar con: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.lealtixservice.benchmark.SendGridBulkBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class SendGridBulkBenchmark {
+
+    private static final int RECIPIENTS = 2_000;
+
+    @Param({"SEQUENTIAL", "BULK"})
+    private String mode;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CloseableHttpClient httpClient;
+    private EmailServiceImpl emailService;
+    private List<EmailDTO> emails;
+    private final AtomicLong requests = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        long latencyMs = Long.getLong("bench.sendgrid.latency-ms", 30);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.createContext("/v3/mail/send", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            requests.incrementAndGet();
+            sleep(latencyMs);
+            exchange.getResponseHeaders().add("X-Message-Id", "bench-" + requests.get());
+            exchange.sendResponseHeaders(202, -1);
+            exchange.close();
+        });
+        server.start();
+
+        httpClient = HttpClients.custom().setMaxConnTotal(16).setMaxConnPerRoute(16).build();
+        SendGrid sendGrid = new SendGrid("bench-api-key", new Client(httpClient, true));
+        sendGrid.setHost("localhost:" + server.getAddress().getPort());
+
+        emailService = new EmailServiceImpl();
+        ReflectionTestUtils.setField(emailService, "sendGrid", sendGrid);
+        ReflectionTestUtils.setField(emailService, "emailFrom", "contacto@lealtix.com.mx");
+        ReflectionTestUtils.setField(emailService, "bulkConcurrency", 4);
+
+        emails = new ArrayList<>(RECIPIENTS);
+        for (int i = 0; i < RECIPIENTS; i++) {
+            emails.add(EmailDTO.builder()
+                    .to("cliente" + i + "@example.com")
+                    .subject("Promoción de temporada")
+                    .templateId(i % 10 == 0 ? "d-aviso" : "d-promo")
+                    .dynamicData(Map.of("customerName", "Cliente " + i, "couponCode", "CODE" + i))
+                    .entityType("CAMPAIGN")
+                    .entityId((long) i)
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%n%s: %d petición(es) a SendGrid%n", mode, requests.get());
+        emailService.shutdownBulkExecutor();
+        httpClient.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int sendCampaign() throws IOException {
+        int sent = 0;
+        if ("BULK".equals(mode)) {
+            for (EmailDeliveryResult result : emailService.deliverBulkWithTemplate(emails)) {
+                sent += result.isSuccess() ? 1 : 0;
+            }
+        } else {
+            for (EmailDTO email : emails) {
+                sent += emailService.deliverEmailWithTemplate(email).isSuccess() ? 1 : 0;
+            }
+        }
+        return sent;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SendGridBulkBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
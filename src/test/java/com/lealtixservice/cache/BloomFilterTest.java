@@ -0,0 +1,45 @@
+package com.lealtixservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void noFalseNegatives_andFalsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(50_000, 0.01);
+        String[] inserted = new String[50_000];
+        for (int i = 0; i < inserted.length; i++) {
+            inserted[i] = UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+            filter.put(inserted[i]);
+        }
+
+        for (String code : inserted) {
+            assertTrue(filter.mightContain(code), "Falso negativo: " + code);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("X" + UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.02, "Tasa de falsos positivos demasiado alta: " + rate);
+        assertEquals(0.01, filter.estimatedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void sizing_followsExpectedInsertionsAndRate() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+
+        // ~9.59 bits por elemento y 7 funciones hash para 1%
+        assertEquals(7, filter.getHashFunctions());
+        assertTrue(filter.getSizeInBytes() > 110_000 && filter.getSizeInBytes() < 130_000);
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+    }
+}
@@ -0,0 +1,167 @@
+package com.lealtixservice.cache;
+
+import com.lealtixservice.dto.CouponLookupFilterStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouponLookupFilterTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private InMemoryBus bus;
+    private CouponLookupFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:lookup_filter;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE coupon (id BIGINT PRIMARY KEY, code VARCHAR(50), qr_token VARCHAR(100))");
+        jdbcTemplate.update("INSERT INTO coupon VALUES (1, 'ABC123', 'qr-abc'), (2, 'DEF456', 'qr-def')");
+        bus = new InMemoryBus();
+        filter = newFilter(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE coupon");
+    }
+
+    @Test
+    void beforeBuild_everythingPassesToDatabase() {
+        assertTrue(filter.mightContainCode("NO-EXISTE"));
+        assertTrue(filter.mightContainQrToken("qr-no-existe"));
+        assertFalse(filter.stats().ready());
+    }
+
+    @Test
+    void afterBuild_rejectsUnknownAndKeepsExisting() {
+        CouponLookupFilterStats stats = filter.rebuild();
+
+        assertTrue(stats.ready());
+        assertEquals(2, stats.entries());
+        assertTrue(stats.memoryBytes() > 0);
+        assertTrue(filter.mightContainCode("ABC123"));
+        assertTrue(filter.mightContainQrToken("qr-def"));
+        assertFalse(filter.mightContainCode("NO-EXISTE"));
+        assertEquals(1, filter.stats().rejected());
+    }
+
+    @Test
+    void addInsideTransaction_isVisibleImmediatelyAndAfterCommit() {
+        filter.rebuild();
+
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO coupon VALUES (3, 'NEW789', 'qr-new')");
+            filter.add("NEW789", "qr-new");
+            assertTrue(filter.mightContainCode("NEW789"));
+        });
+
+        assertTrue(filter.mightContainCode("NEW789"));
+        assertTrue(filter.mightContainQrToken("qr-new"));
+    }
+
+    @Test
+    void observedFalsePositiveRate_countsDatabaseMissesAfterFilterPass() {
+        filter.rebuild();
+        filter.mightContainCode("NO-EXISTE-1");
+        filter.recordFalsePositive();
+
+        CouponLookupFilterStats stats = filter.stats();
+
+        assertEquals(1, stats.rejected());
+        assertEquals(1, stats.falsePositives());
+        assertEquals(50.0, stats.observedFalsePositivePct(), 0.001);
+    }
+
+    @Test
+    void disabled_neverRejects() {
+        CouponLookupFilter disabled = newFilter(false);
+        disabled.rebuild();
+
+        assertTrue(disabled.mightContainCode("NO-EXISTE"));
+        assertFalse(disabled.stats().ready());
+    }
+
+    @Test
+    void couponCreatedOnAnotherNode_isAddedFromPublishedIdRange() {
+        CouponLookupFilter otherNode = newFilter(true);
+        filter.rebuild();
+        otherNode.rebuild();
+
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO coupon VALUES (3, 'NEW789', 'qr-new'), (4, 'NEW790', 'qr-new-2')");
+            otherNode.add("NEW789", "qr-new");
+            otherNode.add("NEW790", "qr-new-2");
+            otherNode.publishCreated(3, 4);
+        });
+
+        assertEquals(List.of("3-4"), bus.published);
+        assertTrue(filter.mightContainCode("NEW789"));
+        assertTrue(filter.mightContainQrToken("qr-new-2"));
+    }
+
+    @Test
+    void couponsCreatedOneByOne_publishOneRangePerTransaction() {
+        CouponLookupFilter otherNode = newFilter(true);
+        filter.rebuild();
+        otherNode.rebuild();
+
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO coupon VALUES (3, 'NEW789', 'qr-new'), (4, 'NEW790', 'qr-new-2')");
+            otherNode.publishCreated(4);
+            otherNode.publishCreated(3);
+            assertTrue(bus.published.isEmpty());
+        });
+
+        assertEquals(List.of("3-4"), bus.published);
+        assertTrue(filter.mightContainCode("NEW789"));
+        assertTrue(filter.mightContainCode("NEW790"));
+    }
+
+    @Test
+    void rolledBackTransaction_publishesNothing() {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.executeWithoutResult(status -> {
+            filter.publishCreated(3);
+            status.setRollbackOnly();
+        });
+        filter.publishCreated(5);
+
+        assertEquals(List.of("5-5"), bus.published);
+    }
+
+    private CouponLookupFilter newFilter(boolean enabled) {
+        return new CouponLookupFilter(dataSource, new DataSourceTransactionManager(dataSource), bus,
+                enabled, 0.01, 1_000, 100);
+    }
+
+    /**
+     * Bus entre "nodos" del mismo proceso: entrega cada publicación a todos los suscriptores.
+     */
+    private static class InMemoryBus implements CacheInvalidationBus {
+        private final List<String> published = new ArrayList<>();
+        private final List<Consumer<String>> handlers = new ArrayList<>();
+
+        @Override
+        public void publish(String cacheName, String key) {
+            published.add(key);
+            handlers.forEach(handler -> handler.accept(key));
+        }
+
+        @Override
+        public void subscribe(String cacheName, Consumer<String> handler) {
+            handlers.add(handler);
+        }
+    }
+}
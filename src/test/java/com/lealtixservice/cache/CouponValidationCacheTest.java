@@ -0,0 +1,126 @@
+package com.lealtixservice.cache;
+
+import com.lealtixservice.dto.CouponValidationCacheStats;
+import com.lealtixservice.enums.CouponStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para CouponValidationCache.
+ */
+class CouponValidationCacheTest {
+
+    @Test
+    void get_secondReadIsHit() {
+        CouponValidationCache cache = new CouponValidationCache(100, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("qr-1", () -> load(loads, "qr-1"));
+        cache.get("qr-1", () -> load(loads, "qr-1"));
+
+        assertEquals(1, loads.get());
+        CouponValidationCacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(50.0, stats.hitRatePct());
+    }
+
+    @Test
+    void get_expiredTtl_reloads() {
+        CouponValidationCache cache = new CouponValidationCache(100, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("qr-1", () -> load(loads, "qr-1"));
+        cache.get("qr-1", () -> load(loads, "qr-1"));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_overMaxSize_evictsLeastRecentlyUsed() {
+        CouponValidationCache cache = new CouponValidationCache(2, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("qr-1", () -> load(loads, "qr-1"));
+        cache.get("qr-2", () -> load(loads, "qr-2"));
+        cache.get("qr-1", () -> load(loads, "qr-1")); // qr-1 pasa a ser el más reciente
+        cache.get("qr-3", () -> load(loads, "qr-3")); // expulsa qr-2
+
+        assertEquals(2, cache.stats().size());
+        assertEquals(1, cache.stats().evictions());
+        cache.get("qr-1", () -> load(loads, "qr-1"));
+        assertEquals(3, loads.get());
+        cache.get("qr-2", () -> load(loads, "qr-2"));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void evict_forcesReload() {
+        CouponValidationCache cache = new CouponValidationCache(100, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("qr-1", () -> load(loads, "qr-1"));
+        cache.evict("qr-1");
+        cache.get("qr-1", () -> load(loads, "qr-1"));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_invalidationDuringLoad_doesNotCacheStaleSnapshot() {
+        CouponValidationCache cache = new CouponValidationCache(100, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Una redención invalida el QR mientras otra lectura aún está cargando el estado anterior
+        cache.get("qr-1", () -> {
+            Optional<CouponValidationSnapshot> stale = load(loads, "qr-1");
+            cache.evict("qr-1");
+            return stale;
+        });
+        cache.get("qr-1", () -> load(loads, "qr-1"));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_notFound_isNotCached() {
+        CouponValidationCache cache = new CouponValidationCache(100, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("nope", () -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        cache.get("nope", () -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void snapshot_expiryIsEvaluatedAtReadTime() {
+        CouponValidationSnapshot snapshot = CouponValidationSnapshot.builder()
+                .status(CouponStatus.ACTIVE)
+                .expiresAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+
+        assertTrue(snapshot.isExpired());
+    }
+
+    private static Optional<CouponValidationSnapshot> load(AtomicInteger loads, String qrToken) {
+        loads.incrementAndGet();
+        return Optional.of(CouponValidationSnapshot.builder()
+                .qrToken(qrToken)
+                .couponCode("CUPON-" + qrToken)
+                .status(CouponStatus.ACTIVE)
+                .build());
+    }
+}
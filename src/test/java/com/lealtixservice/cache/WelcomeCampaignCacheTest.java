@@ -0,0 +1,120 @@
+package com.lealtixservice.cache;
+
+import com.lealtixservice.dto.WelcomeCampaignCacheStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para WelcomeCampaignCache con un bus de invalidación en memoria que simula dos nodos.
+ */
+class WelcomeCampaignCacheTest {
+
+    @Test
+    void get_secondReadIsHit_includingTenantsWithoutCampaign() {
+        WelcomeCampaignCache cache = new WelcomeCampaignCache(new LocalCacheInvalidationBus(), 300);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, () -> load(loads, LocalDate.now().plusDays(10)));
+        cache.get(1L, () -> load(loads, LocalDate.now().plusDays(10)));
+        cache.get(2L, () -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        assertTrue(cache.get(2L, Optional::empty).isEmpty());
+
+        assertEquals(2, loads.get());
+        WelcomeCampaignCacheStats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(50.0, stats.hitRatePct());
+    }
+
+    @Test
+    void get_campaignPastEndDate_reloads() {
+        WelcomeCampaignCache cache = new WelcomeCampaignCache(new LocalCacheInvalidationBus(), 300);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, () -> load(loads, LocalDate.now().minusDays(1)));
+        Optional<WelcomeCampaignSnapshot> reloaded = cache.get(1L, () -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertEquals(2, loads.get());
+        assertTrue(reloaded.isEmpty());
+    }
+
+    @Test
+    void evict_reloadsAndReachesOtherNodes() {
+        InMemoryBus bus = new InMemoryBus();
+        WelcomeCampaignCache nodeA = new WelcomeCampaignCache(bus, 300);
+        WelcomeCampaignCache nodeB = new WelcomeCampaignCache(bus, 300);
+        AtomicInteger loadsA = new AtomicInteger();
+        AtomicInteger loadsB = new AtomicInteger();
+
+        nodeA.get(1L, () -> load(loadsA, null));
+        nodeB.get(1L, () -> load(loadsB, null));
+        nodeA.evict(1L);
+        nodeA.get(1L, () -> load(loadsA, null));
+        nodeB.get(1L, () -> load(loadsB, null));
+
+        assertEquals(2, loadsA.get());
+        assertEquals(2, loadsB.get());
+        assertEquals(List.of("1"), bus.published);
+    }
+
+    @Test
+    void get_invalidatedDuringLoad_isNotCached() {
+        WelcomeCampaignCache cache = new WelcomeCampaignCache(new LocalCacheInvalidationBus(), 300);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, () -> {
+            cache.evict(1L); // la campaña se activó mientras se consultaba
+            return load(loads, null);
+        });
+        cache.get(1L, () -> load(loads, null));
+
+        assertEquals(2, loads.get());
+    }
+
+    private static Optional<WelcomeCampaignSnapshot> load(AtomicInteger loads, LocalDate endDate) {
+        loads.incrementAndGet();
+        return Optional.of(WelcomeCampaignSnapshot.builder()
+                .campaignId(10L)
+                .businessId(1L)
+                .title("Bienvenida")
+                .endDate(endDate)
+                .rewardDescription("10% de descuento")
+                .build());
+    }
+
+    /**
+     * Entrega cada publicación a todos los suscriptores, como si cada uno fuera otro nodo.
+     */
+    private static final class InMemoryBus implements CacheInvalidationBus {
+
+        private final Map<String, List<Consumer<String>>> handlers = new HashMap<>();
+        private final List<String> published = new ArrayList<>();
+
+        @Override
+        public void publish(String cacheName, String key) {
+            published.add(key);
+            handlers.getOrDefault(cacheName, List.of()).forEach(h -> h.accept(key));
+        }
+
+        @Override
+        public void subscribe(String cacheName, Consumer<String> handler) {
+            handlers.computeIfAbsent(cacheName, k -> new ArrayList<>()).add(handler);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.lealtixservice.controller;
 
 import com.lealtixservice.dto.CouponValidationResponse;
 import com.lealtixservice.dto.RedeemCouponRequest;
+import com.lealtixservice.dto.RedemptionHistoryItem;
+import com.lealtixservice.dto.RedemptionHistoryPage;
 import com.lealtixservice.dto.RedemptionResponse;
 import com.lealtixservice.entity.CouponRedemption;
 import com.lealtixservice.enums.CouponStatus;
@@ -305,41 +307,59 @@ class RedemptionControllerTest {
     // ========== Tests para historial ==========
 
     @Test
-    void getRedemptionHistory_returnsListOfRedemptions() {
+    void getRedemptionHistory_returnsPage() {
         // Arrange
         Long tenantId = 1L;
-        List<CouponRedemption> redemptions = Arrays.asList(
-                new CouponRedemption(),
-                new CouponRedemption()
-        );
+        RedemptionHistoryPage page = RedemptionHistoryPage.builder()
+                .items(Arrays.asList(new RedemptionHistoryItem(), new RedemptionHistoryItem()))
+                .nextCursor("abc")
+                .hasMore(true)
+                .limit(2)
+                .build();
 
-        when(redemptionService.getRedemptionsByTenant(tenantId)).thenReturn(redemptions);
+        when(redemptionService.getRedemptionHistory(tenantId, null, 2)).thenReturn(page);
 
         // Act
-        ResponseEntity<List<CouponRedemption>> response = controller.getRedemptionHistory(tenantId);
+        ResponseEntity<RedemptionHistoryPage> response = controller.getRedemptionHistory(tenantId, null, 2);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(2, response.getBody().size());
+        assertEquals(2, response.getBody().getItems().size());
+        assertEquals("abc", response.getBody().getNextCursor());
+    }
+
+    @Test
+    void getRedemptionHistory_invalidCursor_returnsBadRequest() {
+        Long tenantId = 1L;
+        when(redemptionService.getRedemptionHistory(tenantId, "???", 50))
+                .thenThrow(new IllegalArgumentException("Cursor de historial inválido"));
+
+        ResponseEntity<RedemptionHistoryPage> response = controller.getRedemptionHistory(tenantId, "???", 50);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
     @Test
-    void getRedemptionsByCampaign_returnsListOfRedemptions() {
+    void getRedemptionsByCampaign_returnsPage() {
         // Arrange
         Long campaignId = 100L;
         Long tenantId = 1L;
-        List<CouponRedemption> redemptions = java.util.Collections.singletonList(new CouponRedemption());
+        RedemptionHistoryPage page = RedemptionHistoryPage.builder()
+                .items(java.util.Collections.singletonList(new RedemptionHistoryItem()))
+                .limit(50)
+                .build();
 
-        when(redemptionService.getRedemptionsByCampaign(campaignId, tenantId)).thenReturn(redemptions);
+        when(redemptionService.getRedemptionsByCampaign(campaignId, tenantId, null, 50)).thenReturn(page);
 
         // Act
-        ResponseEntity<List<CouponRedemption>> response = controller.getRedemptionsByCampaign(campaignId, tenantId);
+        ResponseEntity<RedemptionHistoryPage> response = controller.getRedemptionsByCampaign(campaignId, tenantId, null, 50);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
+        assertEquals(1, response.getBody().getItems().size());
+        assertFalse(response.getBody().isHasMore());
     }
 
     @Test
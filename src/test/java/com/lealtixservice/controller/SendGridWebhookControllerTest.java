@@ -0,0 +1,116 @@
+package com.lealtixservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lealtixservice.dto.SendGridEvent;
+import com.lealtixservice.service.SendGridEventService;
+import com.lealtixservice.util.SendGridWebhookVerifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SendGridWebhookControllerTest {
+
+    private static final String PAYLOAD = """
+            [{"email":"ana@example.com","timestamp":1760000000,"event":"open",
+              "sg_message_id":"msg-1.filter001.1","sg_event_id":"evt-1","useragent":"Mozilla"},
+             {"email":"beto@example.com","timestamp":1760000001,"event":"bounce",
+              "sg_message_id":"msg-1.filter001.2","reason":"550","type":"bounce"}]
+            """;
+    private static final String TIMESTAMP = String.valueOf(Instant.now().getEpochSecond());
+
+    @Mock
+    private SendGridEventService sendGridEventService;
+
+    private KeyPair keyPair;
+    private SendGridWebhookController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        keyPair = generator.generateKeyPair();
+        SendGridWebhookVerifier verifier = new SendGridWebhookVerifier(
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()), 300);
+        controller = new SendGridWebhookController(sendGridEventService, verifier, new ObjectMapper());
+    }
+
+    @Test
+    void receiveEvents_validSignature_queuesBatchAndAcknowledges() throws Exception {
+        byte[] payload = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+        ResponseEntity<String> response = controller.receiveEvents(payload, sign(payload), TIMESTAMP);
+
+        assertEquals(200, response.getStatusCode().value());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SendGridEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(sendGridEventService).accept(events.capture());
+        assertEquals(2, events.getValue().size());
+        assertEquals("msg-1.filter001.1", events.getValue().get(0).sgMessageId());
+        assertEquals("550", events.getValue().get(1).reason());
+        verify(sendGridEventService, never()).apply(any());
+    }
+
+    @Test
+    void receiveEvents_tamperedPayload_isRejected() throws Exception {
+        byte[] payload = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        String signature = sign(payload);
+        byte[] tampered = PAYLOAD.replace("open", "click").getBytes(StandardCharsets.UTF_8);
+
+        ResponseEntity<String> response = controller.receiveEvents(tampered, signature, TIMESTAMP);
+
+        assertEquals(400, response.getStatusCode().value());
+        verifyNoInteractions(sendGridEventService);
+    }
+
+    @Test
+    void receiveEvents_staleTimestamp_isRejectedEvenWithValidSignature() throws Exception {
+        byte[] payload = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        String stale = String.valueOf(Instant.now().minusSeconds(3600).getEpochSecond());
+
+        ResponseEntity<String> response = controller.receiveEvents(payload, sign(payload, stale), stale);
+
+        assertEquals(400, response.getStatusCode().value());
+        verifyNoInteractions(sendGridEventService);
+    }
+
+    @Test
+    void receiveEvents_withoutConfiguredKey_returns500() {
+        controller = new SendGridWebhookController(sendGridEventService, new SendGridWebhookVerifier("", 300),
+                new ObjectMapper());
+
+        ResponseEntity<String> response = controller.receiveEvents(PAYLOAD.getBytes(StandardCharsets.UTF_8),
+                "firma", TIMESTAMP);
+
+        assertEquals(500, response.getStatusCode().value());
+        verifyNoInteractions(sendGridEventService);
+    }
+
+    private String sign(byte[] payload) throws Exception {
+        return sign(payload, TIMESTAMP);
+    }
+
+    private String sign(byte[] payload, String timestamp) throws Exception {
+        Signature signer = Signature.getInstance("SHA256withECDSA");
+        signer.initSign(keyPair.getPrivate());
+        signer.update(timestamp.getBytes(StandardCharsets.UTF_8));
+        signer.update(payload);
+        return Base64.getEncoder().encodeToString(signer.sign());
+    }
+}
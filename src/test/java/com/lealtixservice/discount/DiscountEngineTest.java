@@ -0,0 +1,257 @@
+package com.lealtixservice.discount;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lealtixservice.cache.CacheInvalidationBus;
+import com.lealtixservice.entity.PromotionReward;
+import com.lealtixservice.enums.RewardType;
+import com.lealtixservice.repository.ProductPriceView;
+import com.lealtixservice.repository.PromotionRewardRepository;
+import com.lealtixservice.repository.TenantMenuProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class DiscountEngineTest {
+
+    private PromotionRewardRepository promotionRewardRepository;
+    private TenantMenuProductRepository tenantMenuProductRepository;
+    private InMemoryBus bus;
+    private DiscountEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        promotionRewardRepository = mock(PromotionRewardRepository.class);
+        tenantMenuProductRepository = mock(TenantMenuProductRepository.class);
+        bus = new InMemoryBus();
+        engine = new DiscountEngine(promotionRewardRepository, tenantMenuProductRepository, new ObjectMapper(),
+                bus, 300);
+    }
+
+    @Test
+    void percent_roundsHalfUpToCents() {
+        DiscountCalculator calculator = engine.compile(reward(RewardType.PERCENT_DISCOUNT, "20"));
+
+        DiscountQuote quote = calculator.apply(new BigDecimal("150.00"));
+        assertTrue(quote.applied());
+        assertEquals(new BigDecimal("30.00"), quote.discountAmount());
+        assertEquals(new BigDecimal("120.00"), quote.finalAmount());
+
+        // 12.5% de 0.99 = 0.12375 -> 0.12
+        DiscountQuote fractional = engine.compile(reward(RewardType.PERCENT_DISCOUNT, "12.5"))
+                .apply(new BigDecimal("0.99"));
+        assertEquals(new BigDecimal("0.12"), fractional.discountAmount());
+        assertEquals(new BigDecimal("0.87"), fractional.finalAmount());
+    }
+
+    @Test
+    void fixed_isCappedAtAmount() {
+        DiscountCalculator calculator = engine.compile(reward(RewardType.FIXED_AMOUNT, "50"));
+
+        assertEquals(new BigDecimal("50.00"), calculator.apply(new BigDecimal("80")).discountAmount());
+        DiscountQuote capped = calculator.apply(new BigDecimal("30.00"));
+        assertEquals(new BigDecimal("30.00"), capped.discountAmount());
+        assertEquals(new BigDecimal("0.00"), capped.finalAmount());
+    }
+
+    @Test
+    void minPurchase_notReached_returnsNotApplied() {
+        PromotionReward reward = reward(RewardType.FIXED_AMOUNT, "50");
+        reward.setMinPurchaseAmount(new BigDecimal("200"));
+
+        DiscountQuote quote = engine.compile(reward).apply(new BigDecimal("150.00"));
+
+        assertFalse(quote.applied());
+        assertEquals(new BigDecimal("0.00"), quote.discountAmount());
+        assertEquals(new BigDecimal("150.00"), quote.finalAmount());
+        assertNotNull(quote.message());
+    }
+
+    @Test
+    void freeProduct_usesCatalogPriceOrBasketLine() {
+        ProductPriceView price = price("45.00");
+        when(tenantMenuProductRepository.findPricesByIds(anyList())).thenReturn(List.of(price));
+        PromotionReward reward = reward(RewardType.FREE_PRODUCT, null);
+        reward.setProductId(7L);
+
+        DiscountCalculator calculator = engine.compile(reward);
+
+        DiscountQuote quote = calculator.apply(new BigDecimal("100"));
+        assertEquals(new BigDecimal("45.00"), quote.discountAmount());
+        assertEquals(new BigDecimal("45.00"), quote.couponValue());
+        DiscountQuote basket = calculator.applyToBasket(List.of(
+                new BasketLine(3L, new BigDecimal("60.00"), 1),
+                new BasketLine(7L, new BigDecimal("40.00"), 2)));
+        assertEquals(new BigDecimal("140.00"), basket.originalAmount());
+        assertEquals(new BigDecimal("40.00"), basket.discountAmount());
+        assertFalse(calculator.applyToBasket(List.of(new BasketLine(3L, new BigDecimal("60.00"), 1))).applied());
+    }
+
+    @Test
+    void freeProduct_readsCurrentPriceOnEachQuote() {
+        PromotionReward reward = reward(RewardType.FREE_PRODUCT, null);
+        reward.setId(9L);
+        reward.setProductId(7L);
+        ProductPriceView before = price("45.00");
+        ProductPriceView after = price("52.00");
+        when(promotionRewardRepository.findById(9L)).thenReturn(Optional.of(reward));
+        when(tenantMenuProductRepository.findPricesByIds(anyList()))
+                .thenReturn(List.of(before))
+                .thenReturn(List.of(after));
+
+        assertEquals(new BigDecimal("45.00"), engine.quote(9L, new BigDecimal("100")).discountAmount());
+        // El precio cambió en el menú sin tocar el reward: la calculadora cacheada no lo congela
+        assertEquals(new BigDecimal("52.00"), engine.quote(9L, new BigDecimal("100")).discountAmount());
+        verify(promotionRewardRepository, times(1)).findById(9L);
+    }
+
+    @Test
+    void buyXGetY_discountsFreeUnitsPerGroup() {
+        PromotionReward reward = reward(RewardType.BUY_X_GET_Y, null);
+        reward.setProductId(7L);
+        reward.setBuyQuantity(2);
+        reward.setFreeQuantity(1);
+        DiscountCalculator calculator = engine.compile(reward);
+
+        // 7 unidades en un 2x3 -> 2 gratis
+        DiscountQuote quote = calculator.applyToBasket(List.of(
+                new BasketLine(7L, new BigDecimal("10.00"), 7),
+                new BasketLine(8L, new BigDecimal("25.00"), 3)));
+
+        assertTrue(quote.applied());
+        assertEquals(new BigDecimal("145.00"), quote.originalAmount());
+        assertEquals(new BigDecimal("20.00"), quote.discountAmount());
+        assertFalse(calculator.apply(new BigDecimal("145.00")).applied());
+    }
+
+    @Test
+    void custom_percentWithCap() {
+        PromotionReward reward = reward(RewardType.CUSTOM, null);
+        reward.setCustomConfig("{\"type\":\"PERCENT\",\"value\":15,\"maxDiscount\":100}");
+        DiscountCalculator calculator = engine.compile(reward);
+
+        assertEquals(new BigDecimal("30.00"), calculator.apply(new BigDecimal("200")).discountAmount());
+        assertEquals(new BigDecimal("100.00"), calculator.apply(new BigDecimal("1000")).discountAmount());
+    }
+
+    @Test
+    void custom_invalidConfig_isNotApplicable() {
+        PromotionReward reward = reward(RewardType.CUSTOM, null);
+        reward.setCustomConfig("no es json");
+
+        DiscountQuote quote = engine.compile(reward).apply(new BigDecimal("200"));
+
+        assertFalse(quote.applied());
+        assertEquals(new BigDecimal("200.00"), quote.finalAmount());
+    }
+
+    @Test
+    void calculatorFor_cachesUntilInvalidated() {
+        PromotionReward reward = reward(RewardType.PERCENT_DISCOUNT, "10");
+        reward.setId(5L);
+        when(promotionRewardRepository.findById(5L)).thenReturn(Optional.of(reward));
+
+        engine.quote(5L, new BigDecimal("100"));
+        engine.quote(5L, new BigDecimal("200"));
+        verify(promotionRewardRepository, times(1)).findById(5L);
+
+        engine.invalidate(5L);
+        engine.quote(5L, new BigDecimal("100"));
+        verify(promotionRewardRepository, times(2)).findById(5L);
+    }
+
+    @Test
+    void calculatorFor_invalidatedWhileCompiling_isNotCached() {
+        PromotionReward reward = reward(RewardType.PERCENT_DISCOUNT, "10");
+        reward.setId(5L);
+        when(promotionRewardRepository.findById(5L)).thenAnswer(inv -> {
+            // Otra transacción cambia el reward mientras se compila el estado anterior
+            engine.invalidate(5L);
+            return Optional.of(reward);
+        }).thenReturn(Optional.of(reward));
+
+        engine.quote(5L, new BigDecimal("100"));
+        engine.quote(5L, new BigDecimal("100"));
+        engine.quote(5L, new BigDecimal("100"));
+
+        verify(promotionRewardRepository, times(2)).findById(5L);
+    }
+
+    @Test
+    void calculatorFor_missingReward_isNotCached() {
+        PromotionReward reward = reward(RewardType.FIXED_AMOUNT, "20");
+        reward.setId(6L);
+        when(promotionRewardRepository.findById(6L)).thenReturn(Optional.empty()).thenReturn(Optional.of(reward));
+
+        assertFalse(engine.quote(6L, new BigDecimal("100")).applied());
+        assertTrue(engine.quote(6L, new BigDecimal("100")).applied());
+    }
+
+    @Test
+    void invalidate_isPublishedAndRemoteInvalidationEvicts() {
+        PromotionReward reward = reward(RewardType.PERCENT_DISCOUNT, "10");
+        reward.setId(5L);
+        when(promotionRewardRepository.findById(5L)).thenReturn(Optional.of(reward));
+        engine.quote(5L, new BigDecimal("100"));
+
+        engine.invalidate(5L);
+        assertEquals(List.of("5"), bus.published);
+
+        engine.quote(5L, new BigDecimal("100"));
+        bus.deliver("5");
+        engine.quote(5L, new BigDecimal("100"));
+        verify(promotionRewardRepository, times(3)).findById(5L);
+    }
+
+    @Test
+    void calculatorFor_withoutReward_isNotApplied() {
+        DiscountQuote quote = engine.quote(null, new BigDecimal("100"));
+
+        assertFalse(quote.applied());
+        assertEquals(new BigDecimal("100.00"), quote.finalAmount());
+        verifyNoInteractions(promotionRewardRepository);
+    }
+
+    private static ProductPriceView price(String value) {
+        ProductPriceView price = mock(ProductPriceView.class);
+        when(price.getProductId()).thenReturn(7L);
+        when(price.getPrice()).thenReturn(new BigDecimal(value));
+        return price;
+    }
+
+    private static PromotionReward reward(RewardType type, String numericValue) {
+        return PromotionReward.builder()
+                .rewardType(type)
+                .numericValue(numericValue != null ? new BigDecimal(numericValue) : null)
+                .build();
+    }
+
+    private static final class InMemoryBus implements CacheInvalidationBus {
+        private final List<String> published = new ArrayList<>();
+        private final Map<String, Consumer<String>> handlers = new HashMap<>();
+
+        @Override
+        public void publish(String cacheName, String key) {
+            published.add(key);
+        }
+
+        @Override
+        public void subscribe(String cacheName, Consumer<String> handler) {
+            handlers.put(cacheName, handler);
+        }
+
+        void deliver(String key) {
+            handlers.get(DiscountEngine.CACHE_NAME).accept(key);
+        }
+    }
+}
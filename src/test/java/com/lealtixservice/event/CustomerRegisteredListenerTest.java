@@ -0,0 +1,189 @@
+package com.lealtixservice.event;
+
+import com.lealtixservice.entity.Tenant;
+import com.lealtixservice.entity.TenantCustomer;
+import com.lealtixservice.repository.TenantCustomerRepository;
+import com.lealtixservice.service.WelcomePipelineService;
+import com.lealtixservice.service.impl.TenantCustomerServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * El alta de un cliente no espera al flujo de bienvenida: aunque el envío de email esté lento
+ * o caído, save() responde de inmediato y el evento se procesa (y reintenta) en segundo plano.
+ */
+class CustomerRegisteredListenerTest {
+
+    private static final CustomerRegisteredEvent EVENT = new CustomerRegisteredEvent(5L, 10L);
+
+    @Mock
+    private WelcomePipelineService welcomePipelineService;
+
+    @Mock
+    private TenantCustomerRepository tenantCustomerRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CustomerRegisteredListener listener;
+    private TenantCustomerServiceImpl tenantCustomerService;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        listener = new CustomerRegisteredListener(welcomePipelineService, 1, 10, 3, 10);
+
+        tenantCustomerService = new TenantCustomerServiceImpl();
+        ReflectionTestUtils.setField(tenantCustomerService, "tenantCustomerRepository", tenantCustomerRepository);
+        ReflectionTestUtils.setField(tenantCustomerService, "eventPublisher", eventPublisher);
+        when(tenantCustomerRepository.save(any(TenantCustomer.class))).thenAnswer(inv -> {
+            TenantCustomer customer = inv.getArgument(0);
+            customer.setId(5L);
+            return customer;
+        });
+        // Simula la entrega AFTER_COMMIT del evento al listener
+        doAnswer(inv -> {
+            listener.onCustomerRegistered(inv.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        listener.shutdown();
+        closeable.close();
+    }
+
+    @Test
+    void signupReturnsImmediatelyWhenMailIsSlow() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch processed = new CountDownLatch(1);
+        doAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            processed.countDown();
+            return null;
+        }).when(welcomePipelineService).processCustomerRegistered(EVENT);
+
+        long start = System.nanoTime();
+        TenantCustomer saved = tenantCustomerService.save(newCustomer());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(5L, saved.getId());
+        assertTrue(elapsedMs < 1000, "save() esperó al flujo de bienvenida: " + elapsedMs + " ms");
+        assertEquals(1, processed.getCount());
+
+        release.countDown();
+        assertTrue(processed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void signupSucceedsWhenMailIsDownAndFallsBackAfterRetries() throws Exception {
+        CountDownLatch fallback = new CountDownLatch(1);
+        doThrow(new IllegalStateException("SendGrid caído"))
+                .when(welcomePipelineService).processCustomerRegistered(EVENT);
+        doAnswer(inv -> {
+            fallback.countDown();
+            return null;
+        }).when(welcomePipelineService).sendWelcomeWithoutCoupon(EVENT);
+
+        TenantCustomer saved = assertDoesNotThrow(() -> tenantCustomerService.save(newCustomer()));
+
+        assertEquals(5L, saved.getId());
+        assertTrue(fallback.await(5, TimeUnit.SECONDS));
+        verify(welcomePipelineService, times(3)).processCustomerRegistered(EVENT);
+    }
+
+    @Test
+    void retriesUntilPipelineSucceeds() {
+        doThrow(new IllegalStateException("timeout"))
+                .doNothing()
+                .when(welcomePipelineService).processCustomerRegistered(EVENT);
+
+        listener.process(EVENT);
+
+        verify(welcomePipelineService, times(2)).processCustomerRegistered(EVENT);
+        verify(welcomePipelineService, never()).sendWelcomeWithoutCoupon(any());
+    }
+
+    @Test
+    void importedBatchIsProcessedCustomerByCustomer() throws Exception {
+        CountDownLatch processed = new CountDownLatch(3);
+        doAnswer(inv -> {
+            processed.countDown();
+            return null;
+        }).when(welcomePipelineService).processCustomerRegistered(any());
+
+        listener.onCustomersImported(new CustomersImportedEvent(10L, List.of(1L, 2L, 3L)));
+
+        assertTrue(processed.await(5, TimeUnit.SECONDS));
+        verify(welcomePipelineService).processCustomerRegistered(new CustomerRegisteredEvent(2L, 10L));
+    }
+
+    @Test
+    void saturatedPipelineDefersToDatabaseInsteadOfRunningOnCallerThread() throws Exception {
+        CustomerRegisteredListener saturated = new CustomerRegisteredListener(welcomePipelineService, 1, 1, 3, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        doAnswer(inv -> {
+            assertNotSame(caller, Thread.currentThread(), "La bienvenida corrió en el hilo del alta");
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(welcomePipelineService).processCustomerRegistered(any());
+        try {
+            saturated.onCustomerRegistered(new CustomerRegisteredEvent(1L, 10L));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            saturated.onCustomerRegistered(new CustomerRegisteredEvent(2L, 10L));
+
+            saturated.onCustomerRegistered(new CustomerRegisteredEvent(3L, 10L));
+            saturated.onCustomersImported(new CustomersImportedEvent(10L, List.of(4L, 5L)));
+
+            verify(welcomePipelineService).deferWelcome(List.of(3L));
+            verify(welcomePipelineService).deferWelcome(List.of(4L, 5L));
+        } finally {
+            release.countDown();
+            saturated.shutdown();
+        }
+    }
+
+    @Test
+    void resumeDeferredClaimsOnlyWhatTheQueueCanTake() throws Exception {
+        CountDownLatch processed = new CountDownLatch(2);
+        doAnswer(inv -> {
+            processed.countDown();
+            return null;
+        }).when(welcomePipelineService).processCustomerRegistered(any());
+        when(welcomePipelineService.claimDeferredWelcomes(10)).thenReturn(List.of(
+                new CustomerRegisteredEvent(7L, 10L), new CustomerRegisteredEvent(8L, 10L)));
+
+        assertEquals(2, listener.resumeDeferred(50));
+
+        assertTrue(processed.await(5, TimeUnit.SECONDS));
+        verify(welcomePipelineService).processCustomerRegistered(new CustomerRegisteredEvent(8L, 10L));
+        verify(welcomePipelineService, never()).deferWelcome(any());
+    }
+
+    private static TenantCustomer newCustomer() {
+        Tenant tenant = new Tenant();
+        tenant.setId(10L);
+        TenantCustomer customer = new TenantCustomer();
+        customer.setTenant(tenant);
+        customer.setEmail("ana@example.com");
+        return customer;
+    }
+}
@@ -0,0 +1,131 @@
+package com.lealtixservice.outbound;
+
+import com.sendgrid.Method;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import com.sendgrid.SendGrid;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SendGrid contra un servidor local (stub) lento o caído: el timeout de lectura corta la espera
+ * y el circuito abierto rechaza sin abrir conexión.
+ */
+class GuardedSendGridClientTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CloseableHttpClient httpClient;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 202;
+    private volatile long delayMs;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.createContext("/v3/mail/send", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        httpClient = HttpClients.custom()
+                .setMaxConnTotal(4)
+                .setMaxConnPerRoute(4)
+                .setDefaultRequestConfig(RequestConfig.custom().setConnectTimeout(500).setSocketTimeout(200).build())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void slowProvider_readTimeoutFailsFast() {
+        delayMs = 2_000;
+        SendGrid sendGrid = sendGrid(new OutboundCallGuard(OutboundProvider.SENDGRID, settings(5, 10_000)));
+
+        long start = System.nanoTime();
+        assertThrows(IOException.class, () -> sendGrid.api(mailSend()));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_500);
+    }
+
+    @Test
+    void serverErrors_openCircuitAndRejectWithoutCallingProvider() throws IOException {
+        status = 503;
+        OutboundCallGuard guard = new OutboundCallGuard(OutboundProvider.SENDGRID, settings(3, 10_000));
+        SendGrid sendGrid = sendGrid(guard);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(503, sendGrid.api(mailSend()).getStatusCode());
+        }
+        assertEquals(OutboundCallGuard.CircuitState.OPEN, guard.getCircuitState());
+
+        IOException rejected = assertThrows(IOException.class, () -> sendGrid.api(mailSend()));
+        assertInstanceOf(OutboundRejectedException.class, rejected.getCause());
+        assertEquals(3, requests.get());
+        assertEquals(3, guard.stats().failures());
+        assertEquals(1, guard.stats().rejected());
+    }
+
+    @Test
+    void healthyProvider_recordsLatency() throws IOException {
+        OutboundCallGuard guard = new OutboundCallGuard(OutboundProvider.SENDGRID, settings(3, 10_000));
+        SendGrid sendGrid = sendGrid(guard);
+
+        for (int i = 0; i < 5; i++) {
+            Response response = sendGrid.api(mailSend());
+            assertEquals(202, response.getStatusCode());
+        }
+
+        assertEquals(5, guard.stats().calls());
+        assertEquals(0, guard.stats().failures());
+        assertEquals(5L, guard.stats().latencyHistogram().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    private SendGrid sendGrid(OutboundCallGuard guard) {
+        SendGrid sendGrid = new SendGrid("stub-api-key", new GuardedSendGridClient(httpClient, true, guard));
+        sendGrid.setHost("localhost:" + server.getAddress().getPort());
+        return sendGrid;
+    }
+
+    private static Request mailSend() {
+        Request request = new Request();
+        request.setMethod(Method.POST);
+        request.setEndpoint("mail/send");
+        request.setBody("{}");
+        return request;
+    }
+
+    private static OutboundSettings settings(int failureThreshold, long openMs) {
+        return new OutboundSettings(4, 500, 200, 4, 100, failureThreshold, openMs);
+    }
+}
@@ -0,0 +1,108 @@
+package com.lealtixservice.outbound;
+
+import com.lealtixservice.dto.OutboundProviderStats;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del bulkhead, el circuito y el histograma de OutboundCallGuard.
+ */
+class OutboundCallGuardTest {
+
+    @Test
+    void bulkheadFull_rejectsAfterMaxWaitWithoutCallingProvider() throws Exception {
+        OutboundCallGuard guard = new OutboundCallGuard(OutboundProvider.SENDGRID, settings(1, 50, 5, 1000));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = executor.submit(() -> guard.execute(() -> {
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "ok";
+            }, null));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            assertThrows(OutboundRejectedException.class, () -> guard.execute(() -> fail("no debió llamarse"), null));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+
+            release.countDown();
+            assertEquals("ok", slow.get(5, TimeUnit.SECONDS));
+            OutboundProviderStats stats = guard.stats();
+            assertEquals(1, stats.calls());
+            assertEquals(1, stats.rejected());
+            assertEquals(0, stats.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void consecutiveFailuresOpenCircuit_trialCallClosesIt() throws Exception {
+        OutboundCallGuard guard = new OutboundCallGuard(OutboundProvider.STRIPE, settings(5, 0, 2, 100));
+
+        assertThrows(IOException.class, () -> guard.execute(() -> { throw new IOException("timeout"); }, null));
+        assertEquals(503, guard.execute(() -> 503, status -> status >= 500));
+        assertEquals(OutboundCallGuard.CircuitState.OPEN, guard.getCircuitState());
+        assertThrows(OutboundRejectedException.class, () -> guard.execute(() -> 200, null));
+
+        Thread.sleep(150);
+        assertEquals(200, guard.execute(() -> 200, status -> status >= 500));
+        assertEquals(OutboundCallGuard.CircuitState.CLOSED, guard.getCircuitState());
+        assertEquals(2, guard.stats().failures());
+        assertEquals(1, guard.stats().rejected());
+    }
+
+    @Test
+    void failedTrialCallReopensCircuit() throws Exception {
+        OutboundCallGuard guard = new OutboundCallGuard(OutboundProvider.CLOUDINARY, settings(5, 0, 1, 100));
+        guard.execute(() -> 500, status -> status >= 500);
+        Thread.sleep(150);
+
+        guard.execute(() -> 502, status -> status >= 500);
+
+        assertEquals(OutboundCallGuard.CircuitState.OPEN, guard.getCircuitState());
+        assertThrows(OutboundRejectedException.class, () -> guard.execute(() -> 200, null));
+    }
+
+    @Test
+    void successResetsConsecutiveFailures() throws Exception {
+        OutboundCallGuard guard = new OutboundCallGuard(OutboundProvider.SENDGRID, settings(5, 0, 2, 10_000));
+
+        guard.execute(() -> 500, status -> status >= 500);
+        guard.execute(() -> 202, status -> status >= 500);
+        guard.execute(() -> 500, status -> status >= 500);
+
+        assertEquals(OutboundCallGuard.CircuitState.CLOSED, guard.getCircuitState());
+    }
+
+    @Test
+    void latencyHistogram_reportsPercentilesByBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(700));
+        }
+
+        assertEquals(100, histogram.count());
+        assertEquals(5L, histogram.percentileMs(0.50));
+        assertEquals(1000L, histogram.percentileMs(0.95));
+        assertEquals(90L, histogram.buckets().get("<=5ms"));
+        assertEquals(10L, histogram.buckets().get("<=1000ms"));
+    }
+
+    private static OutboundSettings settings(int maxConcurrent, long maxWaitMs, int failureThreshold, long openMs) {
+        return new OutboundSettings(10, 1000, 1000, maxConcurrent, maxWaitMs, failureThreshold, openMs);
+    }
+}
@@ -0,0 +1,181 @@
+package com.lealtixservice.repository;
+
+import com.lealtixservice.cache.CouponLookupFilter;
+import com.lealtixservice.cache.LocalCacheInvalidationBus;
+import com.lealtixservice.cache.CouponValidationCache;
+import com.lealtixservice.discount.DiscountEngine;
+import com.lealtixservice.dto.CouponValidationResponse;
+import com.lealtixservice.dto.RedeemCouponRequest;
+import com.lealtixservice.dto.RedemptionResponse;
+import com.lealtixservice.entity.Campaign;
+import com.lealtixservice.entity.Coupon;
+import com.lealtixservice.entity.PromotionReward;
+import com.lealtixservice.entity.Tenant;
+import com.lealtixservice.entity.TenantCustomer;
+import com.lealtixservice.enums.RedemptionChannel;
+import com.lealtixservice.enums.RewardType;
+import com.lealtixservice.service.DashboardRollupService;
+import com.lealtixservice.service.EmailOutboxService;
+import com.lealtixservice.service.impl.CouponRedemptionServiceImpl;
+import com.lealtixservice.service.impl.CouponValidationServiceImpl;
+import com.lealtixservice.util.QrTokenSigner;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cuenta las sentencias JDBC (Hibernate statistics) del camino caliente de validación y redención.
+ * Corre contra Postgres (PostgresContainerTest): la redención usa UPDATE ... FROM ... RETURNING.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "sendgrid.templates.coupon-redemption=d-test"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({CouponValidationCache.class, CouponLookupFilter.class, LocalCacheInvalidationBus.class, DiscountEngine.class,
+        QrTokenSigner.class, CouponValidationServiceImpl.class, CouponRedemptionServiceImpl.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class CouponHotPathQueryCountTest extends PostgresContainerTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CouponValidationServiceImpl validationService;
+
+    @Autowired
+    private CouponRedemptionServiceImpl redemptionService;
+
+    @Autowired
+    private DiscountEngine discountEngine;
+
+    @MockBean
+    private EmailOutboxService emailOutboxService;
+
+    @MockBean
+    private DashboardRollupService dashboardRollupService;
+
+    private Statistics statistics;
+    private Tenant tenant;
+    private Coupon coupon;
+    private PromotionReward reward;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        tenant = em.persist(Tenant.builder().nombreNegocio("Mi Negocio").slug("mi-negocio").build());
+        TenantCustomer customer = em.persist(TenantCustomer.builder()
+                .tenant(tenant)
+                .name("Juan Pérez")
+                .email("juan@example.com")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .acceptedPromotions(true)
+                .build());
+        Campaign campaign = em.persist(Campaign.builder()
+                .businessId(tenant.getId())
+                .title("Campaña")
+                .description("Descripción")
+                .build());
+        reward = em.persist(PromotionReward.builder()
+                .campaign(campaign)
+                .rewardType(RewardType.PERCENT_DISCOUNT)
+                .numericValue(new BigDecimal("10"))
+                .description("10% de descuento")
+                .build());
+        coupon = em.persist(Coupon.builder()
+                .campaign(campaign)
+                .customer(customer)
+                .expiresAt(LocalDateTime.now().plusDays(7))
+                .build());
+        em.flush();
+        em.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void validateByQrToken_issuesSingleSelect() {
+        CouponValidationResponse response = validationService.validateCouponByQrToken(coupon.getQrToken(), tenant.getId());
+
+        assertTrue(response.isValid());
+        assertEquals("10% de descuento", response.getRewardDescription());
+        assertEquals("Mi Negocio", response.getTenantName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void validateByQrToken_cachedSnapshot_issuesNoQueries() {
+        validationService.validateCouponByQrToken(coupon.getQrToken(), tenant.getId());
+        statistics.clear();
+
+        CouponValidationResponse response = validationService.validateCouponByQrToken(coupon.getQrToken(), tenant.getId());
+
+        assertTrue(response.isValid());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void validateByCode_issuesSingleSelect() {
+        CouponValidationResponse response = validationService.validateCouponByCode(coupon.getCode(), tenant.getId());
+
+        assertTrue(response.isValid());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void redeemByQrToken_issuesClaimAndInsertOnly() {
+        // La calculadora de descuento ya está compilada en el camino caliente
+        discountEngine.calculatorFor(reward.getId());
+        statistics.clear();
+
+        RedemptionResponse response = redemptionService.redeemCouponByQrToken(coupon.getQrToken(),
+                RedeemCouponRequest.builder()
+                        .redeemedBy("cajero@negocio.com")
+                        .channel(RedemptionChannel.QR_ADMIN)
+                        .originalAmount(new BigDecimal("100.00"))
+                        .build(),
+                tenant.getId());
+        em.flush();
+
+        assertTrue(response.isSuccess());
+        // UPDATE ... RETURNING + INSERT coupon_redemption
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void redeemByQrToken_rejection_issuesClaimAndSingleSelect() {
+        RedemptionResponse response = redemptionService.redeemCouponByQrToken(coupon.getQrToken(),
+                RedeemCouponRequest.builder()
+                        .redeemedBy("cajero@negocio.com")
+                        .channel(RedemptionChannel.QR_ADMIN)
+                        .build(),
+                tenant.getId() + 1);
+
+        assertFalse(response.isSuccess());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,172 @@
+package com.lealtixservice.repository;
+
+import com.lealtixservice.cache.CouponLookupFilter;
+import com.lealtixservice.cache.CouponValidationCache;
+import com.lealtixservice.cache.LocalCacheInvalidationBus;
+import com.lealtixservice.discount.DiscountEngine;
+import com.lealtixservice.dto.RedeemCouponRequest;
+import com.lealtixservice.dto.RedemptionResponse;
+import com.lealtixservice.entity.Campaign;
+import com.lealtixservice.entity.Coupon;
+import com.lealtixservice.entity.PromotionReward;
+import com.lealtixservice.entity.Tenant;
+import com.lealtixservice.entity.TenantCustomer;
+import com.lealtixservice.enums.RedemptionChannel;
+import com.lealtixservice.enums.RewardType;
+import com.lealtixservice.service.DashboardRollupService;
+import com.lealtixservice.service.EmailOutboxService;
+import com.lealtixservice.service.impl.CouponRedemptionServiceImpl;
+import com.lealtixservice.util.QrTokenSigner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redención concurrente contra una fila real: N hilos, cada uno en su propia transacción, intentan
+ * redimir el mismo cupón y solo uno puede ganar la transición ACTIVE -> REDEEMED.
+ * Corre contra Postgres (PostgresContainerTest): la redención usa UPDATE ... FROM ... RETURNING.
+ */
+@DataJpaTest(properties = "sendgrid.templates.coupon-redemption=d-test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({CouponValidationCache.class, CouponLookupFilter.class, LocalCacheInvalidationBus.class, DiscountEngine.class,
+        QrTokenSigner.class, CouponRedemptionServiceImpl.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+// Sin la transacción de cada prueba: los datos se confirman para que los hilos los vean
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CouponRedemptionConcurrencyTest extends PostgresContainerTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CouponRedemptionServiceImpl redemptionService;
+
+    @MockBean
+    private EmailOutboxService emailOutboxService;
+
+    @MockBean
+    private DashboardRollupService dashboardRollupService;
+
+    private Tenant tenant;
+    private Campaign campaign;
+    private Coupon coupon;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            tenant = em.persist(Tenant.builder().nombreNegocio("Mi Negocio").slug("mi-negocio-concurrencia").build());
+            TenantCustomer customer = em.persist(TenantCustomer.builder()
+                    .tenant(tenant)
+                    .name("Juan Pérez")
+                    .email("juan@example.com")
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .acceptedPromotions(true)
+                    .build());
+            campaign = em.persist(Campaign.builder()
+                    .businessId(tenant.getId())
+                    .title("Campaña")
+                    .description("Descripción")
+                    .build());
+            em.persist(PromotionReward.builder()
+                    .campaign(campaign)
+                    .rewardType(RewardType.PERCENT_DISCOUNT)
+                    .numericValue(new BigDecimal("10"))
+                    .description("10% de descuento")
+                    .build());
+            coupon = em.persist(Coupon.builder()
+                    .campaign(campaign)
+                    .customer(customer)
+                    .expiresAt(LocalDateTime.now().plusDays(7))
+                    .build());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM coupon_redemption WHERE campaign_id = ?", campaign.getId());
+        jdbcTemplate.update("DELETE FROM coupon WHERE campaign_id = ?", campaign.getId());
+        jdbcTemplate.update("DELETE FROM promotion_reward WHERE campaign_id = ?", campaign.getId());
+        jdbcTemplate.update("DELETE FROM campaign WHERE id = ?", campaign.getId());
+        jdbcTemplate.update("DELETE FROM tenant_customer WHERE tenant_id = ?", tenant.getId());
+        jdbcTemplate.update("DELETE FROM tenant WHERE id = ?", tenant.getId());
+    }
+
+    @Test
+    void redeemByQrToken_concurrentRequests_exactlyOneClaimsTheRow() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RedemptionResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            String cashier = "cajero" + i + "@negocio.com";
+            futures.add(pool.submit(() -> {
+                start.await();
+                return redemptionService.redeemCouponByQrToken(coupon.getQrToken(), RedeemCouponRequest.builder()
+                        .redeemedBy(cashier)
+                        .channel(RedemptionChannel.QR_ADMIN)
+                        .originalAmount(new BigDecimal("100.00"))
+                        .build(), tenant.getId());
+            }));
+        }
+        start.countDown();
+
+        int successes = 0;
+        try {
+            for (Future<RedemptionResponse> future : futures) {
+                RedemptionResponse response = future.get(30, TimeUnit.SECONDS);
+                if (response.isSuccess()) {
+                    successes++;
+                } else {
+                    assertEquals("Este cupón ya fue redimido", response.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, successes);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM coupon_redemption WHERE coupon_id = ?", Integer.class, coupon.getId()));
+        assertEquals("REDEEMED", jdbcTemplate.queryForObject(
+                "SELECT status FROM coupon WHERE id = ?", String.class, coupon.getId()));
+        String redeemedBy = jdbcTemplate.queryForObject(
+                "SELECT redeemed_by FROM coupon WHERE id = ?", String.class, coupon.getId());
+        assertEquals(redeemedBy, jdbcTemplate.queryForObject(
+                "SELECT redeemed_by FROM coupon_redemption WHERE coupon_id = ?", String.class, coupon.getId()));
+    }
+}
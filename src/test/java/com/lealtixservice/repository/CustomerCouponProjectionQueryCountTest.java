@@ -0,0 +1,147 @@
+package com.lealtixservice.repository;
+
+import com.lealtixservice.cache.CouponLookupFilter;
+import com.lealtixservice.cache.LocalCacheInvalidationBus;
+import com.lealtixservice.cache.CouponValidationCache;
+import com.lealtixservice.dto.CouponResponseDTO;
+import com.lealtixservice.entity.Campaign;
+import com.lealtixservice.entity.Coupon;
+import com.lealtixservice.entity.PromotionReward;
+import com.lealtixservice.entity.Tenant;
+import com.lealtixservice.entity.TenantCustomer;
+import com.lealtixservice.enums.CouponStatus;
+import com.lealtixservice.enums.RewardType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que el listado de cupones de un cliente sea una sola consulta, sin cargar entidades
+ * (antes: 1 + 3 lazy loads por cupón en toDTO).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({CouponValidationCache.class, CouponLookupFilter.class, LocalCacheInvalidationBus.class})
+class CustomerCouponProjectionQueryCountTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    private Statistics statistics;
+    private TenantCustomer customer;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Tenant tenant = em.persist(Tenant.builder().nombreNegocio("Mi Negocio").slug("mi-negocio").build());
+        customer = em.persist(TenantCustomer.builder()
+                .tenant(tenant)
+                .name("Juan Pérez")
+                .email("juan@example.com")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .acceptedPromotions(true)
+                .build());
+
+        for (int i = 0; i < 3; i++) {
+            Campaign campaign = em.persist(Campaign.builder()
+                    .businessId(tenant.getId())
+                    .title("Campaña " + i)
+                    .description("Descripción")
+                    .build());
+            // La última campaña no tiene reward: el LEFT JOIN debe devolver el cupón igual
+            if (i < 2) {
+                em.persist(PromotionReward.builder()
+                        .campaign(campaign)
+                        .rewardType(RewardType.PERCENT_DISCOUNT)
+                        .numericValue(new BigDecimal("10"))
+                        .description("10% de descuento")
+                        .build());
+            }
+            em.persist(Coupon.builder()
+                    .campaign(campaign)
+                    .customer(customer)
+                    .status(i == 0 ? CouponStatus.REDEEMED : CouponStatus.ACTIVE)
+                    .expiresAt(LocalDateTime.now().plusDays(7))
+                    .build());
+        }
+        em.flush();
+        em.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void findCustomerCouponRows_issuesSingleSelectWithoutEntityLoads() {
+        List<CouponResponseDTO> rows = couponRepository.findCustomerCouponRows(
+                customer.getId(), null, PageRequest.of(0, 100)).getContent();
+
+        assertEquals(3, rows.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        CouponResponseDTO withReward = rows.stream()
+                .filter(r -> r.getRewardType() != null)
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Juan Pérez", withReward.getCustomerName());
+        assertEquals("10% de descuento", withReward.getRewardDescription());
+        assertTrue(withReward.getCampaignTitle().startsWith("Campaña"));
+        assertFalse(withReward.isExpired());
+        assertEquals(1, rows.stream().filter(r -> r.getRewardType() == null).count());
+    }
+
+    @Test
+    void findCustomerCouponRows_filtersByStatusAndPaginates() {
+        List<CouponResponseDTO> active = couponRepository.findCustomerCouponRows(
+                customer.getId(), CouponStatus.ACTIVE, PageRequest.of(0, 100)).getContent();
+        Slice<CouponResponseDTO> firstPage = couponRepository.findCustomerCouponRows(
+                customer.getId(), null, PageRequest.of(0, 2));
+        Slice<CouponResponseDTO> secondPage = couponRepository.findCustomerCouponRows(
+                customer.getId(), null, PageRequest.of(1, 2));
+
+        assertEquals(2, active.size());
+        assertTrue(active.stream().allMatch(r -> r.getStatus() == CouponStatus.ACTIVE));
+        assertEquals(2, firstPage.getNumberOfElements());
+        assertTrue(firstPage.hasNext());
+        assertEquals(1, secondPage.getNumberOfElements());
+        assertFalse(secondPage.hasNext());
+        Long secondPageId = secondPage.getContent().get(0).getId();
+        assertTrue(firstPage.stream().noneMatch(r -> r.getId().equals(secondPageId)));
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findCustomerCouponRows_unpagedReturnsEveryCoupon() {
+        Slice<CouponResponseDTO> all = couponRepository.findCustomerCouponRows(
+                customer.getId(), null, Pageable.unpaged());
+
+        assertEquals(3, all.getNumberOfElements());
+        assertFalse(all.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
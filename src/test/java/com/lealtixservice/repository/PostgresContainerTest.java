@@ -0,0 +1,29 @@
+package com.lealtixservice.repository;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Base de las pruebas que dependen del SQL de Postgres (UPDATE ... FROM ... RETURNING, FOR UPDATE,
+ * bloqueo de filas entre transacciones) y que H2 no reproduce. Levanta un Postgres real con
+ * Testcontainers, uno solo por JVM y compartido por todas las clases; el schema lo crea Hibernate
+ * igual que en el perfil test.
+ */
+abstract class PostgresContainerTest {
+
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+}
@@ -1,5 +1,7 @@
 package com.lealtixservice.service;
 
+import com.lealtixservice.cache.WelcomeCampaignCache;
+import com.lealtixservice.discount.DiscountEngine;
 import com.lealtixservice.dto.PromotionRewardDTO;
 import com.lealtixservice.entity.Campaign;
 import com.lealtixservice.entity.PromotionReward;
@@ -24,6 +26,12 @@ public class PromotionRewardServiceImplTest {
     @Mock
     private PromotionRewardRepository promotionRewardRepository;
 
+    @Mock
+    private DiscountEngine discountEngine;
+
+    @Mock
+    private WelcomeCampaignCache welcomeCampaignCache;
+
     private PromotionRewardServiceImpl service;
 
     private AutoCloseable mocks;
@@ -31,7 +39,7 @@ public class PromotionRewardServiceImplTest {
     @BeforeEach
     void setUp() {
         mocks = MockitoAnnotations.openMocks(this);
-        service = new PromotionRewardServiceImpl(promotionRewardRepository);
+        service = new PromotionRewardServiceImpl(promotionRewardRepository, discountEngine, welcomeCampaignCache);
     }
 
     @AfterEach
@@ -44,7 +52,7 @@ public class PromotionRewardServiceImplTest {
     @Test
     void update_ShouldPersistDescription_WhenValid() {
         // prepare existing reward with campaign to avoid NPE in mapToResponse
-        Campaign camp = Campaign.builder().id(10L).build();
+        Campaign camp = Campaign.builder().id(10L).businessId(3L).build();
         PromotionReward existing = PromotionReward.builder().id(1L).campaign(camp).build();
         when(promotionRewardRepository.findById(1L)).thenReturn(Optional.of(existing));
         when(promotionRewardRepository.save(any(PromotionReward.class))).thenAnswer(i -> i.getArgument(0));
@@ -60,6 +68,8 @@ public class PromotionRewardServiceImplTest {
         verify(promotionRewardRepository).save(captor.capture());
         PromotionReward saved = captor.getValue();
         assertThat(saved.getDescription()).isEqualTo("Texto de prueba");
+        verify(discountEngine).invalidate(1L);
+        verify(welcomeCampaignCache).evict(3L);
     }
 
     @Test
@@ -0,0 +1,171 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.cache.CouponValidationCache;
+import com.lealtixservice.dto.CouponExpirySweepResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para CouponExpiryServiceImpl con una conexión JDBC simulada.
+ */
+class CouponExpiryServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CouponValidationCache couponValidationCache;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement lockStatement;
+
+    @Mock
+    private PreparedStatement expireStatement;
+
+    private CouponExpiryServiceImpl service;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        closeable = MockitoAnnotations.openMocks(this);
+        service = new CouponExpiryServiceImpl(jdbcTemplate, couponValidationCache);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "maxChunksPerRun", 10);
+
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(inv -> ((ConnectionCallback<?>) inv.getArgument(0)).doInConnection(connection));
+        when(connection.getAutoCommit()).thenReturn(false);
+        when(connection.prepareStatement(CouponExpiryServiceImpl.TRY_LOCK_SQL)).thenReturn(lockStatement);
+        when(connection.prepareStatement(CouponExpiryServiceImpl.EXPIRE_CHUNK_SQL)).thenReturn(expireStatement);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void sweepExpired_expiresInChunksCountsPerCampaignAndEvictsCache() throws Exception {
+        ResultSet firstLock = resultSet(row(true));
+        ResultSet secondLock = resultSet(row(true));
+        when(lockStatement.executeQuery()).thenReturn(firstLock, secondLock);
+        ResultSet full = resultSet(row(10L, "qr-a"), row(20L, "qr-b"));
+        ResultSet partial = resultSet(row(10L, "qr-c"));
+        when(expireStatement.executeQuery()).thenReturn(full, partial);
+
+        CouponExpirySweepResult result = service.sweepExpired();
+
+        assertTrue(result.executed());
+        assertEquals(3, result.expiredTotal());
+        assertEquals(2, result.chunks());
+        assertEquals(2, result.expiredByCampaign().get(10L));
+        assertEquals(1, result.expiredByCampaign().get(20L));
+        verify(couponValidationCache).evict("qr-a");
+        verify(couponValidationCache).evict("qr-b");
+        verify(couponValidationCache).evict("qr-c");
+        verify(expireStatement, times(2)).setInt(2, 2);
+        // Un lock de transacción por lote, liberado con su commit
+        verify(lockStatement, times(2)).executeQuery();
+        verify(connection, times(2)).commit();
+        verify(connection, never()).setAutoCommit(true);
+    }
+
+    @Test
+    void sweepExpired_evictsOnlyAfterTheChunkCommits() throws Exception {
+        ResultSet lockResult = resultSet(row(true));
+        when(lockStatement.executeQuery()).thenReturn(lockResult);
+        ResultSet partial = resultSet(row(10L, "qr-a"));
+        when(expireStatement.executeQuery()).thenReturn(partial);
+
+        service.sweepExpired();
+
+        InOrder inOrder = inOrder(connection, couponValidationCache);
+        inOrder.verify(connection).commit();
+        inOrder.verify(couponValidationCache).evict("qr-a");
+    }
+
+    @Test
+    void sweepExpired_stopsWhenAnotherNodeTakesTheLockBetweenChunks() throws Exception {
+        ResultSet firstLock = resultSet(row(true));
+        ResultSet secondLock = resultSet(row(false));
+        when(lockStatement.executeQuery()).thenReturn(firstLock, secondLock);
+        ResultSet full = resultSet(row(10L, "qr-a"), row(20L, "qr-b"));
+        when(expireStatement.executeQuery()).thenReturn(full);
+
+        CouponExpirySweepResult result = service.sweepExpired();
+
+        assertTrue(result.executed());
+        assertEquals(2, result.expiredTotal());
+        assertEquals(1, result.chunks());
+        verify(expireStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    void sweepExpired_skipsWhenAnotherNodeHoldsTheLock() throws Exception {
+        ResultSet lockResult = resultSet(row(false));
+        when(lockStatement.executeQuery()).thenReturn(lockResult);
+
+        CouponExpirySweepResult result = service.sweepExpired();
+
+        assertFalse(result.executed());
+        assertEquals(0, result.expiredTotal());
+        verify(connection, never()).prepareStatement(CouponExpiryServiceImpl.EXPIRE_CHUNK_SQL);
+        verify(connection, never()).commit();
+        verifyNoInteractions(couponValidationCache);
+    }
+
+    @Test
+    void sweepExpired_rollsBackChunkAndLockWhenChunkFails() throws Exception {
+        ResultSet lockResult = resultSet(row(true));
+        when(lockStatement.executeQuery()).thenReturn(lockResult);
+        when(expireStatement.executeQuery()).thenThrow(new SQLException("deadlock detected"));
+
+        assertThrows(Exception.class, () -> service.sweepExpired());
+        verify(connection, never()).commit();
+        verify(connection).rollback();
+        verifyNoInteractions(couponValidationCache);
+    }
+
+    private static Object[] row(Object... values) {
+        return values;
+    }
+
+    private static ResultSet resultSet(Object[]... rows) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        Iterator<Object[]> iterator = Arrays.asList(rows).iterator();
+        Object[][] current = new Object[1][];
+        when(rs.next()).thenAnswer(inv -> {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current[0] = iterator.next();
+            return true;
+        });
+        when(rs.getBoolean(1)).thenAnswer(inv -> current[0][0]);
+        when(rs.getLong(1)).thenAnswer(inv -> current[0][0]);
+        when(rs.getString(2)).thenAnswer(inv -> current[0][1]);
+        return rs;
+    }
+}
@@ -0,0 +1,216 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.cache.CouponLookupFilter;
+import com.lealtixservice.dto.CouponIssuanceJobResponse;
+import com.lealtixservice.entity.Campaign;
+import com.lealtixservice.entity.CouponIssuanceJob;
+import com.lealtixservice.enums.CampaignStatus;
+import com.lealtixservice.enums.CouponIssuanceJobStatus;
+import com.lealtixservice.exception.BusinessRuleException;
+import com.lealtixservice.exception.ResourceNotFoundException;
+import com.lealtixservice.repository.CampaignRepository;
+import com.lealtixservice.repository.CouponIssuanceJobRepository;
+import com.lealtixservice.service.DashboardRollupService;
+import com.lealtixservice.util.QrTokenSigner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para CouponIssuanceServiceImpl.
+ */
+class CouponIssuanceServiceImplTest {
+
+    private static final Long TENANT_ID = 7L;
+    private static final Long CAMPAIGN_ID = 3L;
+    private static final Long JOB_ID = 11L;
+
+    @Mock
+    private CouponIssuanceJobRepository jobRepository;
+
+    @Mock
+    private CampaignRepository campaignRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CouponLookupFilter couponLookupFilter;
+
+    @Mock
+    private DashboardRollupService dashboardRollupService;
+
+    private CouponIssuanceServiceImpl service;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        QrTokenSigner signer = new QrTokenSigner(false, 1, "");
+        service = new CouponIssuanceServiceImpl(jobRepository, campaignRepository, jdbcTemplate,
+                couponLookupFilter, signer, dashboardRollupService);
+        when(jobRepository.save(any(CouponIssuanceJob.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void startIssuance_countsSegmentAndCreatesPendingJob() {
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign(CampaignStatus.ACTIVE)));
+        when(jdbcTemplate.queryForMap(CouponIssuanceServiceImpl.SEGMENT_COUNT_SQL, CAMPAIGN_ID, TENANT_ID))
+                .thenReturn(Map.of("total", 1200L, "holding", 200L));
+
+        CouponIssuanceJobResponse response = service.startIssuance(CAMPAIGN_ID, TENANT_ID);
+
+        assertEquals(CouponIssuanceJobStatus.PENDING, response.getStatus());
+        assertEquals(1200, response.getTotalCustomers());
+        assertEquals(200, response.getAlreadyHolding());
+        assertEquals(0, response.getIssuedCount());
+    }
+
+    @Test
+    void startIssuance_rejectsOtherTenantsCampaign() {
+        Campaign campaign = campaign(CampaignStatus.ACTIVE);
+        campaign.setBusinessId(99L);
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign));
+
+        assertThrows(ResourceNotFoundException.class, () -> service.startIssuance(CAMPAIGN_ID, TENANT_ID));
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void startIssuance_rejectsDraftCampaignAndJobAlreadyRunning() {
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign(CampaignStatus.DRAFT)));
+        assertThrows(BusinessRuleException.class, () -> service.startIssuance(CAMPAIGN_ID, TENANT_ID));
+
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign(CampaignStatus.ACTIVE)));
+        when(jobRepository.existsByCampaignIdAndStatusIn(eq(CAMPAIGN_ID), anyCollection())).thenReturn(true);
+        assertThrows(BusinessRuleException.class, () -> service.startIssuance(CAMPAIGN_ID, TENANT_ID));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void issueNextChunk_insertsBatchAndAdvancesCheckpoint() {
+        CouponIssuanceJob job = job(CouponIssuanceJobStatus.RUNNING, 100L, 5);
+        when(jobRepository.lockById(JOB_ID)).thenReturn(Optional.of(job));
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign(CampaignStatus.ACTIVE)));
+        when(jdbcTemplate.queryForList(eq(CouponIssuanceServiceImpl.NEXT_CUSTOMERS_SQL), eq(Long.class),
+                eq(TENANT_ID), eq(100L), eq(CAMPAIGN_ID), anyInt())).thenReturn(List.of(101L, 105L, 130L));
+        when(jdbcTemplate.queryForList(CouponIssuanceServiceImpl.NEXT_COUPON_ID_BLOCKS_SQL, Long.class, 1))
+                .thenReturn(List.of(501L));
+        when(jdbcTemplate.batchUpdate(eq(CouponIssuanceServiceImpl.INSERT_COUPON_SQL), anyList()))
+                .thenReturn(new int[]{1, 1, 1});
+
+        int issued = service.issueNextChunk(JOB_ID);
+
+        assertEquals(3, issued);
+        assertEquals(130L, job.getLastCustomerId());
+        assertEquals(8, job.getIssuedCount());
+        assertNotNull(job.getHeartbeatAt());
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(CouponIssuanceServiceImpl.INSERT_COUPON_SQL), rows.capture());
+        Object[] first = rows.getValue().get(0);
+        assertEquals(501L, first[0]);
+        assertEquals(CAMPAIGN_ID, first[2]);
+        assertEquals(101L, first[3]);
+        assertTrue(((String) first[7]).endsWith("/api/coupons/redeem/" + first[1]));
+        verify(couponLookupFilter, times(3)).add(anyString(), anyString());
+        verify(dashboardRollupService).recordIssued(eq(TENANT_ID), eq(CAMPAIGN_ID), any(LocalDateTime.class), eq(3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void issueNextChunk_regeneratesCodesRejectedByConflict() {
+        CouponIssuanceJob job = job(CouponIssuanceJobStatus.RUNNING, 0L, 0);
+        when(jobRepository.lockById(JOB_ID)).thenReturn(Optional.of(job));
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign(CampaignStatus.ACTIVE)));
+        when(jdbcTemplate.queryForList(eq(CouponIssuanceServiceImpl.NEXT_CUSTOMERS_SQL), eq(Long.class),
+                any(), any(), any(), any())).thenReturn(List.of(1L, 2L));
+        when(jdbcTemplate.queryForList(CouponIssuanceServiceImpl.NEXT_COUPON_ID_BLOCKS_SQL, Long.class, 1))
+                .thenReturn(List.of(10L));
+        when(jdbcTemplate.batchUpdate(eq(CouponIssuanceServiceImpl.INSERT_COUPON_SQL), anyList()))
+                .thenReturn(new int[]{1, 0})
+                .thenReturn(new int[]{1});
+
+        int issued = service.issueNextChunk(JOB_ID);
+
+        assertEquals(2, issued);
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(CouponIssuanceServiceImpl.INSERT_COUPON_SQL), rows.capture());
+        List<Object[]> retry = rows.getAllValues().get(1);
+        assertEquals(1, retry.size());
+        assertEquals(11L, retry.get(0)[0]);
+        assertEquals(2L, retry.get(0)[3]);
+    }
+
+    @Test
+    void issueNextChunk_stopsWhenJobIsNoLongerRunning() {
+        when(jobRepository.lockById(JOB_ID)).thenReturn(Optional.of(job(CouponIssuanceJobStatus.CANCELLED, 0L, 0)));
+
+        assertEquals(0, service.issueNextChunk(JOB_ID));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void claimNextJob_marksJobRunning() {
+        CouponIssuanceJob job = job(CouponIssuanceJobStatus.PENDING, 0L, 0);
+        when(jobRepository.lockNextRunnable(any(LocalDateTime.class))).thenReturn(Optional.of(job));
+
+        assertEquals(Optional.of(JOB_ID), service.claimNextJob());
+        assertEquals(CouponIssuanceJobStatus.RUNNING, job.getStatus());
+        assertNotNull(job.getStartedAt());
+        assertNotNull(job.getHeartbeatAt());
+    }
+
+    @Test
+    void resumeJob_requeuesFailedJobKeepingCheckpoint() {
+        CouponIssuanceJob job = job(CouponIssuanceJobStatus.FAILED, 450L, 450);
+        job.setLastError("timeout");
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+
+        CouponIssuanceJobResponse response = service.resumeJob(JOB_ID, TENANT_ID);
+
+        assertEquals(CouponIssuanceJobStatus.PENDING, response.getStatus());
+        assertEquals(450L, response.getLastCustomerId());
+        assertNull(response.getLastError());
+    }
+
+    private Campaign campaign(CampaignStatus status) {
+        Campaign campaign = new Campaign();
+        campaign.setId(CAMPAIGN_ID);
+        campaign.setBusinessId(TENANT_ID);
+        campaign.setStatus(status);
+        campaign.setEndDate(LocalDate.now().plusDays(30));
+        return campaign;
+    }
+
+    private CouponIssuanceJob job(CouponIssuanceJobStatus status, Long lastCustomerId, int issued) {
+        return CouponIssuanceJob.builder()
+                .id(JOB_ID)
+                .campaignId(CAMPAIGN_ID)
+                .tenantId(TENANT_ID)
+                .status(status)
+                .lastCustomerId(lastCustomerId)
+                .totalCustomers(1000)
+                .issuedCount(issued)
+                .build();
+    }
+}
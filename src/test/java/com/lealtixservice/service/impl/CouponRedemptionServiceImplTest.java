@@ -0,0 +1,377 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.cache.CouponValidationCache;
+import com.lealtixservice.cache.LocalCacheInvalidationBus;
+import com.lealtixservice.discount.DiscountEngine;
+import com.lealtixservice.dto.BulkRedemptionItem;
+import com.lealtixservice.dto.BulkRedemptionRequest;
+import com.lealtixservice.dto.BulkRedemptionResponse;
+import com.lealtixservice.dto.RedeemCouponRequest;
+import com.lealtixservice.dto.RedemptionHistoryPage;
+import com.lealtixservice.dto.RedemptionResponse;
+import com.lealtixservice.entity.CouponRedemption;
+import com.lealtixservice.entity.PromotionReward;
+import com.lealtixservice.enums.CouponStatus;
+import com.lealtixservice.enums.RedemptionChannel;
+import com.lealtixservice.enums.RewardType;
+import com.lealtixservice.repository.CouponRedemptionCandidate;
+import com.lealtixservice.repository.CouponRedemptionClaim;
+import com.lealtixservice.repository.CouponRedemptionView;
+import com.lealtixservice.repository.CouponRedemptionRepository;
+import com.lealtixservice.repository.CouponRepository;
+import com.lealtixservice.repository.RedemptionHistoryView;
+import com.lealtixservice.service.DashboardRollupService;
+import com.lealtixservice.service.EmailOutboxService;
+import com.lealtixservice.util.QrTokenSigner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para CouponRedemptionServiceImpl.
+ * El repositorio simula la semántica del UPDATE condicional: solo la primera llamada afecta la fila.
+ */
+class CouponRedemptionServiceImplTest {
+
+    private static final String QR_TOKEN = "qr-token-123";
+    private static final Long TENANT_ID = 1L;
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private CouponRedemptionRepository redemptionRepository;
+
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CouponValidationCache couponValidationCache;
+
+    @Mock
+    private DiscountEngine discountEngine;
+
+    @Mock
+    private DashboardRollupService dashboardRollupService;
+
+    @Spy
+    private QrTokenSigner qrTokenSigner = new QrTokenSigner(true, 1, "1:" + "k".repeat(32));
+
+    @InjectMocks
+    private CouponRedemptionServiceImpl service;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        // Delegar a calculadoras reales compiladas a partir del reward del claim
+        DiscountEngine compiler = new DiscountEngine(null, null, null, new LocalCacheInvalidationBus(), 0);
+        when(discountEngine.quote(anyLong(), any(BigDecimal.class))).thenAnswer(inv -> {
+            Long rewardId = inv.getArgument(0);
+            PromotionReward reward = PromotionReward.builder()
+                    .id(rewardId)
+                    .rewardType(RewardType.PERCENT_DISCOUNT)
+                    .numericValue(BigDecimal.valueOf(rewardId))
+                    .build();
+            return compiler.compile(reward).apply(inv.getArgument(1));
+        });
+        when(redemptionRepository.save(any(CouponRedemption.class))).thenAnswer(inv -> {
+            CouponRedemption r = inv.getArgument(0);
+            r.setId("RDM" + System.nanoTime() % 10_000_000);
+            return r;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void redeemByQrToken_success_calculatesPercentDiscount() {
+        when(couponRepository.claimByQrToken(eq(QR_TOKEN), eq(TENANT_ID), anyString(), any(), any()))
+                .thenReturn(Optional.of(claim("PERCENT_DISCOUNT", "20")));
+
+        RedemptionResponse response = service.redeemCouponByQrToken(QR_TOKEN, request(new BigDecimal("150.00")), TENANT_ID);
+
+        assertTrue(response.isSuccess());
+        assertEquals(new BigDecimal("30.00"), response.getDiscountAmount());
+        assertEquals(new BigDecimal("120.00"), response.getFinalAmount());
+        assertEquals("CUPON123", response.getCouponCode());
+        verify(couponRepository, never()).findRedemptionViewByQrToken(anyString());
+        verify(couponValidationCache).evict(QR_TOKEN);
+        verify(emailOutboxService).enqueue(argThat(email ->
+                "juan@example.com".equals(email.getTo()) && "COUPON_REDEMPTION".equals(email.getEntityType())));
+        verify(dashboardRollupService).recordRedemptions(argThat(redemptions -> redemptions.size() == 1
+                && new BigDecimal("120.00").equals(redemptions.iterator().next().getFinalAmount())));
+    }
+
+    @Test
+    void redeemByQrToken_otherTenant_returnsFailure() {
+        when(couponRepository.claimByQrToken(anyString(), anyLong(), anyString(), any(), any()))
+                .thenReturn(Optional.empty());
+        CouponRedemptionView otherTenant = view(CouponStatus.ACTIVE, 99L, null);
+        when(couponRepository.findRedemptionViewByQrToken(QR_TOKEN)).thenReturn(Optional.of(otherTenant));
+
+        RedemptionResponse response = service.redeemCouponByQrToken(QR_TOKEN, request(null), TENANT_ID);
+
+        assertFalse(response.isSuccess());
+        assertEquals("Cupón no válido para este negocio", response.getMessage());
+        verify(redemptionRepository, never()).save(any());
+    }
+
+    @Test
+    void redeemByQrToken_expired_returnsFailure() {
+        CouponRedemptionView expired = view(CouponStatus.ACTIVE, TENANT_ID, LocalDateTime.now().minusDays(1));
+        when(couponRepository.claimByQrToken(anyString(), anyLong(), anyString(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(couponRepository.findRedemptionViewByQrToken(QR_TOKEN)).thenReturn(Optional.of(expired));
+
+        RedemptionResponse response = service.redeemCouponByQrToken(QR_TOKEN, request(null), TENANT_ID);
+
+        assertFalse(response.isSuccess());
+        assertEquals("El cupón está expirado", response.getMessage());
+    }
+
+    @Test
+    void redeemByCode_notFound_throwsIllegalArgument() {
+        when(couponRepository.claimByCode(anyString(), anyLong(), anyString(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(couponRepository.findRedemptionViewByCode("NOPE")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.redeemCouponByCode("NOPE", request(null), TENANT_ID));
+    }
+
+    @Test
+    void redeemBatch_duplicateCoupon_earliestScanWinsAndResultsKeepRequestOrder() {
+        LocalDateTime scan = LocalDateTime.now().minusHours(2);
+        when(couponRepository.lockRedemptionCandidates(anyCollection(), anyCollection(), eq(TENANT_ID)))
+                .thenReturn(List.of(new TestCandidate("ACTIVE", null)));
+        when(redemptionRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        BulkRedemptionRequest bulk = BulkRedemptionRequest.builder()
+                .items(List.of(
+                        item(QR_TOKEN, scan.plusMinutes(10)),
+                        item(QR_TOKEN, scan),
+                        item("desconocido", scan)))
+                .build();
+
+        BulkRedemptionResponse response = service.redeemBatch(bulk, TENANT_ID);
+
+        assertEquals(3, response.getTotalProcessed());
+        assertEquals(1, response.getSuccessCount());
+        assertEquals(2, response.getFailureCount());
+        assertEquals("Este cupón ya fue redimido", response.getResults().get(0).getResult().getMessage());
+        assertTrue(response.getResults().get(1).getResult().isSuccess());
+        assertEquals(scan, response.getResults().get(1).getResult().getRedeemedAt());
+        assertEquals("Cupón no encontrado", response.getResults().get(2).getResult().getMessage());
+
+        verify(couponRepository, times(1)).lockRedemptionCandidates(anyCollection(), anyCollection(), eq(TENANT_ID));
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), argThat((List<Object[]> args) -> args.size() == 1));
+        verify(redemptionRepository, never()).save(any());
+        verify(dashboardRollupService).recordRedemptions(argThat(redemptions -> redemptions.size() == 1));
+        verify(couponRepository, never()).claimByQrToken(anyString(), anyLong(), anyString(), any(), any());
+    }
+
+    @Test
+    void redeemBatch_expiryIsEvaluatedAgainstClientTimestamp() {
+        LocalDateTime expiresAt = LocalDateTime.now().minusHours(1);
+        when(couponRepository.lockRedemptionCandidates(anyCollection(), anyCollection(), eq(TENANT_ID)))
+                .thenReturn(List.of(new TestCandidate("ACTIVE", expiresAt)));
+        when(redemptionRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        BulkRedemptionResponse beforeExpiry = service.redeemBatch(BulkRedemptionRequest.builder()
+                .items(List.of(item(QR_TOKEN, expiresAt.minusMinutes(5)))).build(), TENANT_ID);
+        BulkRedemptionResponse afterExpiry = service.redeemBatch(BulkRedemptionRequest.builder()
+                .items(List.of(item(QR_TOKEN, expiresAt.plusMinutes(5)))).build(), TENANT_ID);
+
+        assertEquals(1, beforeExpiry.getSuccessCount());
+        assertEquals("El cupón está expirado", afterExpiry.getResults().get(0).getResult().getMessage());
+    }
+
+    @Test
+    void redeemBatch_futureTimestamp_isRejected() {
+        when(couponRepository.lockRedemptionCandidates(anyCollection(), anyCollection(), eq(TENANT_ID)))
+                .thenReturn(List.of(new TestCandidate("ACTIVE", null)));
+
+        BulkRedemptionResponse response = service.redeemBatch(BulkRedemptionRequest.builder()
+                .items(List.of(item(QR_TOKEN, LocalDateTime.now().plusHours(1)))).build(), TENANT_ID);
+
+        assertEquals(0, response.getSuccessCount());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void redeemBySignedQrToken_claimsByPrimaryKey() {
+        String signed = qrTokenSigner.sign(10L, TENANT_ID, LocalDateTime.now().plusDays(1));
+        when(couponRepository.claimByIdAndQrToken(eq(10L), eq(signed), eq(TENANT_ID), anyString(), any(), any()))
+                .thenReturn(Optional.of(claim("PERCENT_DISCOUNT", "20")));
+
+        RedemptionResponse response = service.redeemCouponByQrToken(signed, request(new BigDecimal("100.00")), TENANT_ID);
+
+        assertTrue(response.isSuccess());
+        verify(couponRepository, never()).claimByQrToken(anyString(), anyLong(), anyString(), any(), any());
+    }
+
+    @Test
+    void redeemBySignedQrToken_wrongTenantOrExpired_rejectedWithoutDatabase() {
+        String otherTenant = qrTokenSigner.sign(10L, 99L, null);
+        String expired = qrTokenSigner.sign(10L, TENANT_ID, LocalDateTime.now().minusMinutes(1));
+
+        RedemptionResponse wrongTenant = service.redeemCouponByQrToken(otherTenant, request(null), TENANT_ID);
+        RedemptionResponse expiredResponse = service.redeemCouponByQrToken(expired, request(null), TENANT_ID);
+
+        assertFalse(wrongTenant.isSuccess());
+        assertEquals("Cupón no válido para este negocio", wrongTenant.getMessage());
+        assertFalse(expiredResponse.isSuccess());
+        assertEquals("El cupón está expirado", expiredResponse.getMessage());
+        verifyNoInteractions(couponRepository);
+    }
+
+    @Test
+    void redeemBySignedQrToken_forged_throwsNotFound() {
+        String signed = qrTokenSigner.sign(10L, TENANT_ID, null);
+        String forged = signed.substring(0, 20) + (signed.charAt(20) == 'A' ? 'B' : 'A') + signed.substring(21);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.redeemCouponByQrToken(forged, request(null), TENANT_ID));
+        verifyNoInteractions(couponRepository);
+    }
+
+    @Test
+    void getRedemptionHistory_returnsCursorOfLastRowWhenMorePagesExist() {
+        LocalDateTime at = LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123_456_000);
+        List<RedemptionHistoryView> rows = List.of(
+                historyRow("0W3NRFQHS1", at.plusMinutes(1)),
+                historyRow("0W3NRFQHS0", at),
+                historyRow("0W3NRFQHRZ", at));
+        when(redemptionRepository.findHistoryPage(eq(TENANT_ID), any(), anyString(), eq(3))).thenReturn(rows);
+
+        RedemptionHistoryPage page = service.getRedemptionHistory(TENANT_ID, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertNotNull(page.getNextCursor());
+
+        when(redemptionRepository.findHistoryPage(eq(TENANT_ID), eq(at), eq("0W3NRFQHS0"), eq(3))).thenReturn(List.of(rows.get(2)));
+
+        RedemptionHistoryPage next = service.getRedemptionHistory(TENANT_ID, page.getNextCursor(), 2);
+
+        assertEquals(1, next.getItems().size());
+        assertEquals("0W3NRFQHRZ", next.getItems().get(0).getRedemptionId());
+        assertFalse(next.isHasMore());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void getRedemptionsByCampaign_filtersByTenantInQueryAndClampsLimit() {
+        when(redemptionRepository.findCampaignHistoryPage(eq(TENANT_ID), eq(100L), any(), anyString(), anyInt()))
+                .thenReturn(List.of());
+
+        RedemptionHistoryPage page = service.getRedemptionsByCampaign(100L, TENANT_ID, null, 10_000);
+
+        assertEquals(200, page.getLimit());
+        verify(redemptionRepository).findCampaignHistoryPage(eq(TENANT_ID), eq(100L), any(), anyString(), eq(201));
+        verify(redemptionRepository, never()).findByCampaignId(anyLong());
+    }
+
+    @Test
+    void getRedemptionHistory_invalidCursor_throws() {
+        assertThrows(IllegalArgumentException.class, () -> service.getRedemptionHistory(TENANT_ID, "no-es-un-cursor", 10));
+    }
+
+    private static RedemptionHistoryView historyRow(String id, LocalDateTime redeemedAt) {
+        RedemptionHistoryView row = mock(RedemptionHistoryView.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getRedeemedAt()).thenReturn(redeemedAt);
+        return row;
+    }
+
+    private static BulkRedemptionItem item(String qrToken, LocalDateTime clientRedeemedAt) {
+        return BulkRedemptionItem.builder()
+                .qrToken(qrToken)
+                .clientRedeemedAt(clientRedeemedAt)
+                .redemption(request(null))
+                .build();
+    }
+
+    private static RedeemCouponRequest request(BigDecimal originalAmount) {
+        return RedeemCouponRequest.builder()
+                .redeemedBy("cajero@negocio.com")
+                .channel(RedemptionChannel.QR_ADMIN)
+                .originalAmount(originalAmount)
+                .build();
+    }
+
+    private static CouponRedemptionView view(CouponStatus status, Long businessId, LocalDateTime expiresAt) {
+        CouponRedemptionView view = mock(CouponRedemptionView.class);
+        when(view.getCouponCode()).thenReturn("CUPON123");
+        when(view.getStatus()).thenReturn(status);
+        when(view.getBusinessId()).thenReturn(businessId);
+        when(view.getExpiresAt()).thenReturn(expiresAt);
+        return view;
+    }
+
+    private static CouponRedemptionClaim claim(String rewardType, String numericValue) {
+        return new TestClaim(rewardType, new BigDecimal(numericValue));
+    }
+
+    private record TestClaim(String rewardType, BigDecimal numericValue) implements CouponRedemptionClaim {
+        public Long getCouponId() { return 10L; }
+        public String getCouponCode() { return "CUPON123"; }
+        public String getQrToken() { return QR_TOKEN; }
+        public Long getCampaignId() { return 100L; }
+        public String getCampaignTitle() { return "Campaña"; }
+        public String getCampaignDescription() { return "Descripción"; }
+        // El rewardId codifica el porcentaje para que el DiscountEngine simulado lo compile
+        public Long getRewardId() { return numericValue.longValue(); }
+        public String getRewardType() { return rewardType; }
+        public BigDecimal getRewardNumericValue() { return numericValue; }
+        public String getRewardDescription() { return "Descuento"; }
+        public String getCustomerName() { return "Juan Pérez"; }
+        public String getCustomerEmail() { return "juan@example.com"; }
+        public Long getTenantId() { return TENANT_ID; }
+        public String getTenantName() { return "Mi Negocio"; }
+        public String getTenantLogoUrl() { return null; }
+    }
+
+    private record TestCandidate(String status, LocalDateTime expiresAt) implements CouponRedemptionCandidate {
+        public String getQrToken() { return QR_TOKEN; }
+        public String getStatus() { return status; }
+        public LocalDateTime getExpiresAt() { return expiresAt; }
+        public Long getBusinessId() { return TENANT_ID; }
+        public Long getCouponId() { return 10L; }
+        public String getCouponCode() { return "CUPON123"; }
+        public Long getCampaignId() { return 100L; }
+        public String getCampaignTitle() { return "Campaña"; }
+        public String getCampaignDescription() { return "Descripción"; }
+        public Long getRewardId() { return null; }
+        public String getRewardType() { return null; }
+        public BigDecimal getRewardNumericValue() { return null; }
+        public String getRewardDescription() { return "Descuento"; }
+        public String getCustomerName() { return "Juan Pérez"; }
+        public String getCustomerEmail() { return "juan@example.com"; }
+        public Long getTenantId() { return TENANT_ID; }
+        public String getTenantName() { return "Mi Negocio"; }
+        public String getTenantLogoUrl() { return null; }
+    }
+}
@@ -0,0 +1,142 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.entity.Campaign;
+import com.lealtixservice.enums.CouponExportFormat;
+import com.lealtixservice.enums.CouponStatus;
+import com.lealtixservice.exception.ResourceNotFoundException;
+import com.lealtixservice.repository.CampaignRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para CouponSheetExportServiceImpl con un cursor JDBC simulado y render real de QR.
+ */
+class CouponSheetExportServiceImplTest {
+
+    private static final int COUPONS = 30;
+
+    @Mock
+    private CampaignRepository campaignRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private CouponSheetExportServiceImpl service;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        closeable = MockitoAnnotations.openMocks(this);
+        // Ventana menor que el número de cupones para ejercitar la escritura mientras se lee
+        service = new CouponSheetExportServiceImpl(campaignRepository, new QrCodeServiceImpl(),
+                jdbcTemplate, transactionTemplate, 2, 4);
+
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        int[] row = {0};
+        when(resultSet.getString(1)).thenAnswer(inv -> String.format("CODE%04d", row[0]));
+        when(resultSet.getString(2)).thenAnswer(inv -> "token-" + row[0]);
+        when(resultSet.getTimestamp(3)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2026, 12, 31, 23, 59)));
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (row[0] = 0; row[0] < COUPONS; row[0]++) {
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.shutdown();
+        closeable.close();
+    }
+
+    @Test
+    void zipContainsOnePngPerCouponInCursorOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = service.export(7L, CouponExportFormat.ZIP, null, 200, out);
+
+        assertEquals(COUPONS, exported);
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                byte[] png = zip.readAllBytes();
+                assertEquals(ZipEntry.STORED, entry.getMethod());
+                assertEquals('P', png[1]);
+                assertEquals('N', png[2]);
+                names.add(entry.getName());
+            }
+        }
+        assertEquals(COUPONS, names.size());
+        for (int i = 0; i < COUPONS; i++) {
+            assertEquals(String.format("CODE%04d.png", i), names.get(i));
+        }
+        verify(jdbcTemplate).query(eq(CouponSheetExportServiceImpl.COUPONS_SQL), any(RowCallbackHandler.class), eq(7L));
+    }
+
+    @Test
+    void sheetPaginatesSvgCards() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = service.export(7L, CouponExportFormat.SHEET, CouponStatus.ACTIVE, 300, out);
+
+        String html = out.toString(StandardCharsets.UTF_8);
+        assertEquals(COUPONS, exported);
+        assertEquals(COUPONS, html.split("<svg", -1).length - 1);
+        assertEquals(3, html.split("<section class=\"page\">", -1).length - 1);
+        assertTrue(html.contains("CODE0029"));
+        assertTrue(html.contains("Vence: 31/12/2026"));
+        assertTrue(html.trim().endsWith("</html>"));
+        verify(jdbcTemplate).query(eq(CouponSheetExportServiceImpl.COUPONS_BY_STATUS_SQL),
+                any(RowCallbackHandler.class), eq(7L), eq("ACTIVE"));
+    }
+
+    @Test
+    void validateRejectsCampaignOfAnotherTenant() {
+        Campaign campaign = new Campaign();
+        campaign.setId(7L);
+        campaign.setBusinessId(1L);
+        when(campaignRepository.findById(7L)).thenReturn(Optional.of(campaign));
+
+        assertDoesNotThrow(() -> service.validateExport(7L, 1L, 300));
+        assertThrows(ResourceNotFoundException.class, () -> service.validateExport(7L, 2L, 300));
+        assertThrows(IllegalArgumentException.class, () -> service.validateExport(7L, 1L, 5000));
+    }
+}
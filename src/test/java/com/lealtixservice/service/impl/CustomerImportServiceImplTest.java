@@ -0,0 +1,204 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.dto.CustomerImportResult;
+import com.lealtixservice.dto.CustomerImportRowError;
+import com.lealtixservice.event.CustomersImportedEvent;
+import com.lealtixservice.exception.ResourceNotFoundException;
+import com.lealtixservice.repository.TenantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para CustomerImportServiceImpl con la tabla temporal y el anti-join simulados en memoria.
+ */
+class CustomerImportServiceImplTest {
+
+    private static final Long TENANT_ID = 10L;
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Set<String> existingEmails = new HashSet<>();
+    private final List<Object[]> stage = new ArrayList<>();
+    private final List<Object> welcomePendingAt = new ArrayList<>();
+    private long nextBlock = 100;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        existingEmails.add("carla@example.com");
+        when(tenantRepository.existsById(TENANT_ID)).thenReturn(true);
+
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> {
+            stage.clear(); // ON COMMIT DROP
+            return ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(mock(TransactionStatus.class));
+        });
+        when(jdbcTemplate.queryForList(eq(CustomerImportServiceImpl.NEXT_CUSTOMER_ID_BLOCKS_SQL), eq(Long.class),
+                any(Object[].class))).thenAnswer(inv -> {
+            int blocks = inv.getArgument(2);
+            List<Long> starts = new ArrayList<>();
+            for (int i = 0; i < blocks; i++) {
+                starts.add(nextBlock);
+                nextBlock += CustomerImportServiceImpl.CUSTOMER_ID_BLOCK_SIZE;
+            }
+            return starts;
+        });
+        when(jdbcTemplate.batchUpdate(eq(CustomerImportServiceImpl.INSERT_STAGE_SQL), anyList())).thenAnswer(inv -> {
+            List<Object[]> rows = inv.getArgument(1);
+            stage.addAll(rows);
+            return new int[rows.size()];
+        });
+        // Anti-join: primera aparición de cada email que no exista en el tenant
+        when(jdbcTemplate.queryForList(eq(CustomerImportServiceImpl.MERGE_SQL), eq(Long.class),
+                any(Object[].class))).thenAnswer(inv -> {
+            Object[] args = inv.getArguments();
+            welcomePendingAt.add(args[args.length - 1]);
+            List<Long> inserted = new ArrayList<>();
+            for (Object[] row : stage) {
+                if (existingEmails.add(((String) row[3]).toLowerCase())) {
+                    inserted.add((Long) row[0]);
+                }
+            }
+            return inserted;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void importCsv_insertsInChunksAndReportsDuplicatesAndInvalidRows() throws Exception {
+        String csv = """
+                name,email,phone,birth_date
+                Ana,ana@example.com,5512345678,1990-05-01
+                Beto,BETO@example.com,,
+                Ana Repetida,ana@example.com,,
+
+                Carla,carla@example.com,,
+                Sin Email,no-es-email,,
+                Dani,dani@example.com,,31/02/1990
+                """;
+
+        CustomerImportResult result = service(2, 100).importCsv(TENANT_ID, stream(csv), false);
+
+        assertEquals(6, result.rows());
+        assertEquals(2, result.imported());
+        assertEquals(2, result.duplicates());
+        assertEquals(2, result.rejected());
+        assertEquals(0, result.welcomeQueued());
+        assertNull(welcomePendingAt.get(0)); // sin bienvenida no queda nada pendiente
+        assertFalse(result.errorsTruncated());
+        assertEquals(List.of(4L, 6L, 7L, 8L), result.errors().stream().map(CustomerImportRowError::line).sorted().toList());
+        // 4 filas válidas en lotes de 2
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(jdbcTemplate, times(2)).execute(CustomerImportServiceImpl.CREATE_STAGE_SQL);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void importCsv_sendWelcome_publishesOneEventPerChunk() throws Exception {
+        String csv = """
+                nombre;correo;acepta_promociones
+                Ana;ana@example.com;si
+                Beto;beto@example.com;no
+                Carla;carla@example.com;
+                """;
+
+        CustomerImportResult result = service(10, 100).importCsv(TENANT_ID, stream(csv), true);
+
+        ArgumentCaptor<CustomersImportedEvent> event = ArgumentCaptor.forClass(CustomersImportedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(TENANT_ID, event.getValue().tenantId());
+        assertEquals(List.of(100L, 101L), event.getValue().customerIds());
+        assertEquals(2, result.welcomeQueued());
+        assertEquals(false, stage.get(1)[7]); // acepta_promociones = no
+        // La bienvenida queda pendiente (lease) en la misma transacción que inserta los clientes
+        assertTrue(welcomePendingAt.get(0) instanceof Timestamp);
+    }
+
+    @Test
+    void importCsv_limitsReportedErrors() throws Exception {
+        String csv = """
+                name,email
+                ,a@example.com
+                ,b@example.com
+                ,c@example.com
+                """;
+
+        CustomerImportResult result = service(10, 1).importCsv(TENANT_ID, stream(csv), false);
+
+        assertEquals(3, result.rejected());
+        assertEquals(1, result.errors().size());
+        assertTrue(result.errorsTruncated());
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void importCsv_malformedFile_keepsPreviousChunksAndStops() throws Exception {
+        String csv = "name,email\nAna,ana@example.com\n\"Beto,beto@example.com\n";
+
+        CustomerImportResult result = service(1, 100).importCsv(TENANT_ID, stream(csv), false);
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.rejected());
+        assertEquals(3, result.errors().get(0).line());
+    }
+
+    @Test
+    void importCsv_missingRequiredColumn_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service(10, 100).importCsv(TENANT_ID, stream("name,phone\nAna,55\n"), false));
+    }
+
+    @Test
+    void importCsv_unknownTenant_throws() {
+        when(tenantRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> service(10, 100).importCsv(99L, stream("name,email\n"), false));
+    }
+
+    private CustomerImportServiceImpl service(int chunkSize, int maxReportedErrors) {
+        return new CustomerImportServiceImpl(tenantRepository, jdbcTemplate, transactionTemplate, eventPublisher,
+                chunkSize, maxReportedErrors, 300);
+    }
+
+    private static InputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,144 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.entity.CouponRedemption;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del mantenimiento de campaign_daily_rollup con un JdbcTemplate que registra cada sentencia.
+ */
+class DashboardRollupServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 17);
+
+    private final StubJdbcTemplate jdbcTemplate = new StubJdbcTemplate();
+    private final DashboardRollupServiceImpl service = new DashboardRollupServiceImpl(jdbcTemplate);
+
+    @Test
+    void recordRedemptions_sumsOneDeltaPerTenantDayAndCampaignInKeyOrder() {
+        service.recordRedemptions(List.of(
+                redemption(1L, 5L, DAY.atTime(9, 0), "100.00", "10.00", "90.00"),
+                redemption(1L, 2L, DAY.plusDays(1).atTime(0, 5), "50.00", "5.00", "45.00"),
+                redemption(1L, 5L, DAY.atTime(23, 59), "80.00", null, null),
+                redemption(1L, 2L, DAY.atTime(12, 0), "40.00", "4.00", "36.00")));
+
+        // Un lock compartido por (tenant, día) antes de las sumas, en orden de llave
+        assertEquals(List.of("lock", "lock", "batch"), jdbcTemplate.kinds);
+        assertEquals(DashboardRollupServiceImpl.DELTA_LOCK_SQL, jdbcTemplate.statements.get(0));
+        assertArrayEquals(new Object[]{1, (int) DAY.toEpochDay()}, jdbcTemplate.arguments.get(0));
+        assertArrayEquals(new Object[]{1, (int) DAY.plusDays(1).toEpochDay()}, jdbcTemplate.arguments.get(1));
+        assertEquals(DashboardRollupServiceImpl.UPSERT_SQL, jdbcTemplate.statements.get(2));
+        List<Object[]> rows = jdbcTemplate.batches.get(0);
+        assertEquals(3, rows.size());
+
+        // Orden de llave (tenant, día, campaña): los lotes concurrentes toman las filas en el mismo orden
+        assertArrayEquals(new Object[]{1L, Date.valueOf(DAY), 2L, 0, 1L, 1L,
+                new BigDecimal("36.00"), new BigDecimal("4.00"), new BigDecimal("40.00")}, rows.get(0));
+        assertArrayEquals(new Object[]{1L, Date.valueOf(DAY), 5L, 0, 2L, 1L,
+                new BigDecimal("90.00"), new BigDecimal("10.00"), new BigDecimal("180.00")}, rows.get(1));
+        assertArrayEquals(new Object[]{1L, Date.valueOf(DAY.plusDays(1)), 2L, 0, 1L, 1L,
+                new BigDecimal("45.00"), new BigDecimal("5.00"), new BigDecimal("50.00")}, rows.get(2));
+    }
+
+    @Test
+    void recordRedemptions_singleRedemptionIsOnePlainUpsert() {
+        service.recordRedemptions(List.of(redemption(3L, 9L, DAY.atTime(10, 0), "20.00", "2.00", "18.00")));
+
+        assertEquals(List.of("lock", "update"), jdbcTemplate.kinds);
+        assertArrayEquals(new Object[]{3L, Date.valueOf(DAY), 9L, 0, 1L, 1L,
+                new BigDecimal("18.00"), new BigDecimal("2.00"), new BigDecimal("20.00")}, jdbcTemplate.arguments.get(1));
+
+        service.recordRedemptions(List.of());
+        assertEquals(2, jdbcTemplate.statements.size());
+    }
+
+    @Test
+    void recordIssued_addsCountToTheIssueDay() {
+        service.recordIssued(7L, 3L, DAY.atTime(18, 30), 250);
+        service.recordIssued(7L, 3L, DAY.atTime(18, 31), 0);
+
+        assertEquals(List.of(DashboardRollupServiceImpl.DELTA_LOCK_SQL, DashboardRollupServiceImpl.UPSERT_SQL),
+                jdbcTemplate.statements);
+        assertArrayEquals(new Object[]{7L, Date.valueOf(DAY), 3L, 250, 0, 0,
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO}, jdbcTemplate.arguments.get(1));
+    }
+
+    @Test
+    void rebuildDay_locksTenantDayThenReplacesItFromSourceTables() {
+        jdbcTemplate.updateResult = 4;
+
+        int written = service.rebuildDay(7L, DAY);
+
+        assertEquals(4, written);
+        assertEquals(List.of(DashboardRollupServiceImpl.REBUILD_LOCK_SQL, DashboardRollupServiceImpl.DELETE_DAY_SQL,
+                DashboardRollupServiceImpl.REBUILD_DAY_SQL), jdbcTemplate.statements);
+        // Mismo lock que las sumas de ese tenant y día; los demás no esperan
+        assertArrayEquals(new Object[]{7, (int) DAY.toEpochDay()}, jdbcTemplate.arguments.get(0));
+        assertArrayEquals(new Object[]{7L, Date.valueOf(DAY)}, jdbcTemplate.arguments.get(1));
+
+        Timestamp start = Timestamp.valueOf(DAY.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(DAY.plusDays(1).atStartOfDay());
+        assertArrayEquals(new Object[]{7L, Date.valueOf(DAY), 7L, start, end, 7L, start, end},
+                jdbcTemplate.arguments.get(2));
+    }
+
+    @Test
+    void rebuildDay_withoutTenant_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.rebuildDay(null, DAY));
+        assertTrue(jdbcTemplate.statements.isEmpty());
+    }
+
+    private static CouponRedemption redemption(Long tenantId, Long campaignId, LocalDateTime redeemedAt,
+                                               String original, String discount, String finalAmount) {
+        return CouponRedemption.builder()
+                .tenantId(tenantId)
+                .campaignId(campaignId)
+                .redeemedAt(redeemedAt)
+                .originalAmount(new BigDecimal(original))
+                .discountAmount(discount != null ? new BigDecimal(discount) : null)
+                .finalAmount(finalAmount != null ? new BigDecimal(finalAmount) : null)
+                .build();
+    }
+
+    private static class StubJdbcTemplate extends JdbcTemplate {
+        private final List<String> kinds = new ArrayList<>();
+        private final List<String> statements = new ArrayList<>();
+        private final List<Object[]> arguments = new ArrayList<>();
+        private final List<List<Object[]>> batches = new ArrayList<>();
+        private int updateResult = 1;
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch, Object... args) {
+            kinds.add("lock");
+            statements.add(sql);
+            arguments.add(args);
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            kinds.add("update");
+            statements.add(sql);
+            arguments.add(args);
+            return updateResult;
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            kinds.add("batch");
+            statements.add(sql);
+            batches.add(batchArgs);
+            return new int[batchArgs.size()];
+        }
+    }
+}
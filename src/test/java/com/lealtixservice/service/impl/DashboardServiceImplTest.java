@@ -0,0 +1,123 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.dto.dashboard.CampaignPerformanceDTO;
+import com.lealtixservice.dto.dashboard.CampaignRollupTotals;
+import com.lealtixservice.dto.dashboard.CouponStatsDTO;
+import com.lealtixservice.dto.dashboard.SalesSummaryDTO;
+import com.lealtixservice.entity.CouponRedemption;
+import com.lealtixservice.service.DashboardRollupService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Los KPIs de cupones y ventas se calculan sumando el acumulado diario por campaña.
+ */
+class DashboardServiceImplTest {
+
+    private static final Long TENANT_ID = 4L;
+
+    private final FakeRollupService rollupService = new FakeRollupService();
+    private final DashboardServiceImpl service = new DashboardServiceImpl(null, rollupService);
+
+    @Test
+    void campaignPerformance_sumsRollupRowsOfTheWholeDays() {
+        rollupService.totals = List.of(
+                totals(1L, "Bienvenida", 200, 50, 45, "4500.00"),
+                totals(2L, "Verano", 40, 30, 30, "9000.00"),
+                totals(3L, "Sin canjes", 10, 0, 0, "0"));
+
+        List<CampaignPerformanceDTO> performance = service.getCampaignPerformance(TENANT_ID,
+                LocalDateTime.of(2026, 9, 1, 8, 30), LocalDateTime.of(2026, 9, 30, 23, 59, 59));
+
+        assertEquals(LocalDate.of(2026, 9, 1), rollupService.fromDay);
+        assertEquals(LocalDate.of(2026, 9, 30), rollupService.toDay);
+        assertEquals(List.of(2L, 1L, 3L), performance.stream().map(CampaignPerformanceDTO::campaignId).toList());
+
+        CampaignPerformanceDTO welcome = performance.get(1);
+        assertEquals(200L, welcome.couponsIssued());
+        assertEquals(50L, welcome.redemptions());
+        // Ticket promedio solo sobre redenciones con monto final
+        assertEquals(new BigDecimal("100.00"), welcome.avgTicket());
+        assertEquals(25.0, welcome.redemptionRatePct());
+        assertEquals(BigDecimal.ZERO, performance.get(2).avgTicket());
+    }
+
+    @Test
+    void couponStats_orderedByRedemptions() {
+        rollupService.totals = List.of(
+                totals(1L, "Bienvenida", 300, 100, 90, "100.00"),
+                totals(2L, "Verano", 0, 120, 120, "100.00"));
+
+        List<CouponStatsDTO> stats = service.getCouponStats(TENANT_ID,
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 12, 31, 23, 59));
+
+        assertEquals(2L, stats.get(0).campaignId());
+        assertEquals(0.0, stats.get(0).redemptionRatePct());
+        assertEquals(33.33, stats.get(1).redemptionRatePct());
+    }
+
+    @Test
+    void salesSummary_addsAllCampaigns() {
+        rollupService.totals = List.of(
+                totals(1L, "Bienvenida", 200, 50, 45, "4500.00"),
+                totals(2L, "Verano", 40, 30, 30, "3000.00"));
+
+        SalesSummaryDTO summary = service.getSalesSummary(TENANT_ID,
+                LocalDateTime.of(2026, 9, 1, 0, 0), LocalDateTime.of(2026, 9, 30, 0, 0));
+
+        assertEquals(new BigDecimal("7500.00"), summary.totalSales());
+        assertEquals(new BigDecimal("100.00"), summary.avgTicket());
+        assertEquals(80L, summary.transactionCount());
+
+        rollupService.totals = List.of();
+        SalesSummaryDTO empty = service.getSalesSummary(TENANT_ID,
+                LocalDateTime.of(2026, 9, 1, 0, 0), LocalDateTime.of(2026, 9, 30, 0, 0));
+        assertEquals(BigDecimal.ZERO, empty.totalSales());
+        assertEquals(0L, empty.transactionCount());
+    }
+
+    private static CampaignRollupTotals totals(Long campaignId, String name, long issued, long redemptions,
+                                               long tickets, String sales) {
+        return new CampaignRollupTotals(campaignId, name, issued, redemptions, tickets, new BigDecimal(sales),
+                BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    private static class FakeRollupService implements DashboardRollupService {
+        private List<CampaignRollupTotals> totals = new ArrayList<>();
+        private LocalDate fromDay;
+        private LocalDate toDay;
+
+        @Override
+        public void recordIssued(Long tenantId, Long campaignId, LocalDateTime issuedAt, int count) {
+        }
+
+        @Override
+        public void recordRedemptions(Collection<CouponRedemption> redemptions) {
+        }
+
+        @Override
+        public List<CampaignRollupTotals> sumByCampaign(Long tenantId, LocalDate fromDay, LocalDate toDay) {
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            return totals;
+        }
+
+        @Override
+        public List<Long> tenantsForDay(LocalDate day) {
+            return List.of();
+        }
+
+        @Override
+        public int rebuildDay(Long tenantId, LocalDate day) {
+            return 0;
+        }
+    }
+}
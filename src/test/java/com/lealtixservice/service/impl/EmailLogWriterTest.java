@@ -0,0 +1,215 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.dto.EmailLogWriterStats;
+import com.lealtixservice.entity.EmailLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del escritor asíncrono de EmailLog con un JdbcTemplate en memoria que registra cada INSERT.
+ */
+class EmailLogWriterTest {
+
+    private final StubJdbcTemplate jdbcTemplate = new StubJdbcTemplate();
+    private EmailLogWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void write_doesNotHitDatabaseOnCallerAndFlushesOnBatchSize() throws Exception {
+        jdbcTemplate.expectedRows = new CountDownLatch(10);
+        writer = new EmailLogWriter(jdbcTemplate, 100, 5, 60_000);
+
+        for (int i = 0; i < 10; i++) {
+            writer.write(emailLog(i));
+        }
+
+        assertTrue(jdbcTemplate.expectedRows.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(5, 5), jdbcTemplate.insertSizes());
+        await(() -> writer.getStats().written() == 10);
+        EmailLogWriterStats stats = writer.getStats();
+        assertEquals(10, stats.enqueued());
+        assertEquals(0, stats.syncFallbacks());
+        assertEquals(0, stats.queueDepth());
+    }
+
+    @Test
+    void write_flushesPartialBatchAfterInterval() throws Exception {
+        jdbcTemplate.expectedRows = new CountDownLatch(3);
+        writer = new EmailLogWriter(jdbcTemplate, 100, 500, 50);
+
+        for (int i = 0; i < 3; i++) {
+            writer.write(emailLog(i));
+        }
+
+        assertTrue(jdbcTemplate.expectedRows.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(3), jdbcTemplate.insertSizes());
+        await(() -> writer.getStats().flushes() == 1);
+    }
+
+    @Test
+    void write_queueFull_insertsOnCallerThread() {
+        CountDownLatch release = new CountDownLatch(1);
+        jdbcTemplate.blockInserts = release;
+        writer = new EmailLogWriter(jdbcTemplate, 2, 1, 60_000);
+
+        // El escritor queda bloqueado en el primer INSERT; la cola admite 2 más
+        writer.write(emailLog(0));
+        await(() -> jdbcTemplate.writerBlocked);
+        writer.write(emailLog(1));
+        writer.write(emailLog(2));
+        assertEquals(2, writer.getStats().queueDepth());
+
+        EmailLog overflow = emailLog(99);
+        writer.write(overflow);
+
+        assertEquals(1, writer.getStats().syncFallbacks());
+        assertNotNull(overflow.getId());
+        assertEquals(List.of(1), jdbcTemplate.insertSizes());
+        release.countDown();
+    }
+
+    @Test
+    void flushFailure_retriesRowByRowAndDropsOnlyBadRows() throws Exception {
+        jdbcTemplate.expectedRows = new CountDownLatch(2);
+        jdbcTemplate.rejectEmail = "cliente1@example.com";
+        writer = new EmailLogWriter(jdbcTemplate, 100, 3, 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            writer.write(emailLog(i));
+        }
+
+        assertTrue(jdbcTemplate.expectedRows.await(5, TimeUnit.SECONDS));
+        await(() -> writer.getStats().failed() == 1 && writer.getStats().written() == 2);
+    }
+
+    @Test
+    void shutdown_drainsPendingLogs() {
+        writer = new EmailLogWriter(jdbcTemplate, 100, 500, 60_000);
+        for (int i = 0; i < 7; i++) {
+            writer.write(emailLog(i));
+        }
+
+        writer.shutdown();
+
+        assertEquals(7, jdbcTemplate.insertSizes().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void writesRacingShutdown_areNeverLost() throws Exception {
+        writer = new EmailLogWriter(jdbcTemplate, 100_000, 50, 1);
+        int threads = 4;
+        int perThread = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < perThread; i++) {
+                    writer.write(emailLog(i));
+                }
+            });
+            thread.start();
+            writers.add(thread);
+        }
+
+        start.countDown();
+        writer.shutdown();
+        for (Thread thread : writers) {
+            thread.join();
+        }
+
+        assertEquals(threads * perThread, jdbcTemplate.insertSizes().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, writer.getStats().queueDepth());
+    }
+
+    private static EmailLog emailLog(int n) {
+        return EmailLog.builder()
+                .entityType("CAMPAIGN")
+                .entityId((long) n)
+                .email("cliente" + n + "@example.com")
+                .templateName("d-promo")
+                .sendgridMessageId("msg-" + n)
+                .status("sent")
+                .build();
+    }
+
+    private static void await(java.util.function.BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condición no alcanzada");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static class StubJdbcTemplate extends JdbcTemplate {
+        private final List<Integer> insertSizes = new ArrayList<>();
+        private long nextBlock = 1;
+        private volatile CountDownLatch expectedRows;
+        private volatile CountDownLatch blockInserts;
+        private volatile String rejectEmail;
+        private volatile boolean writerBlocked;
+
+        synchronized List<Integer> insertSizes() {
+            return List.copyOf(insertSizes);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            assertEquals(EmailLogWriter.NEXT_EMAIL_LOG_ID_BLOCKS_SQL, sql);
+            List<T> starts = new ArrayList<>();
+            for (int i = 0; i < (Integer) args[0]; i++) {
+                starts.add((T) Long.valueOf(nextBlock));
+                nextBlock += EmailLogWriter.EMAIL_LOG_ID_BLOCK_SIZE;
+            }
+            return starts;
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            assertTrue(sql.startsWith(EmailLogWriter.INSERT_PREFIX));
+            CountDownLatch block = blockInserts;
+            if (block != null && Thread.currentThread().getName().equals("email-log-writer")) {
+                writerBlocked = true;
+                try {
+                    block.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            int rows = args.length / EmailLogWriter.COLUMNS;
+            for (Object arg : args) {
+                if (arg != null && arg.equals(rejectEmail)) {
+                    throw new DataIntegrityViolationException("valor inválido: " + arg);
+                }
+            }
+            synchronized (this) {
+                insertSizes.add(rows);
+            }
+            CountDownLatch latch = expectedRows;
+            for (int i = 0; i < rows && latch != null; i++) {
+                latch.countDown();
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.lealtixservice.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lealtixservice.dto.EmailDTO;
+import com.lealtixservice.entity.EmailLog;
+import com.lealtixservice.entity.EmailOutbox;
+import com.lealtixservice.enums.EmailOutboxStatus;
+import com.lealtixservice.repository.EmailOutboxRepository;
+import com.lealtixservice.service.EmailLogService;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import com.sendgrid.SendGrid;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests para EmailOutboxServiceImpl.
+ * Usa el EmailServiceImpl real con un SendGrid local (stub) que responde códigos programados.
+ */
+class EmailOutboxServiceImplTest {
+
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+
+    @Mock
+    private EmailLogService emailLogService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private boolean inTransaction;
+    private final List<EmailOutbox> leased = new ArrayList<>();
+    private StubSendGrid sendGrid;
+    private EmailOutboxServiceImpl service;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        sendGrid = new StubSendGrid();
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> {
+            inTransaction = true;
+            try {
+                return ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(mock(TransactionStatus.class));
+            } finally {
+                inTransaction = false;
+            }
+        });
+        // Por defecto el lote conserva su lease hasta registrar los resultados
+        when(outboxRepository.lockLeased(anyCollection(), anyString())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return leased.stream().filter(e -> ids.contains(e.getId())).toList();
+        });
+
+        EmailServiceImpl emailService = new EmailServiceImpl();
+        ReflectionTestUtils.setField(emailService, "sendGrid", sendGrid);
+        ReflectionTestUtils.setField(emailService, "emailLogService", emailLogService);
+        ReflectionTestUtils.setField(emailService, "emailFrom", "contacto@lealtix.com.mx");
+
+        service = new EmailOutboxServiceImpl(outboxRepository, emailService, emailLogService, objectMapper,
+                transactionTemplate);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "backoffBaseSeconds", 30L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void enqueue_serializesEmailAsPending() {
+        when(outboxRepository.save(any(EmailOutbox.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        EmailOutbox saved = service.enqueue(email("juan@example.com"));
+
+        assertEquals(EmailOutboxStatus.PENDING, saved.getStatus());
+        assertEquals("juan@example.com", saved.getRecipient());
+        assertTrue(saved.getPayload().contains("\"templateId\":\"d-template\""));
+        assertEquals(0, sendGrid.calls);
+    }
+
+    @Test
+    void dispatch_success_marksSentAndSavesLogsInBulk() throws Exception {
+        List<EmailOutbox> batch = List.of(entry(1L, "a@example.com"), entry(2L, "b@example.com"));
+        when(outboxRepository.lockPendingBatch(any(LocalDateTime.class), eq(10))).thenReturn(batch);
+        sendGrid.enqueue(202, 202);
+
+        int processed = service.dispatchPendingBatch(10);
+
+        assertEquals(2, processed);
+        batch.forEach(e -> {
+            assertEquals(EmailOutboxStatus.SENT, e.getStatus());
+            assertNotNull(e.getSentAt());
+            assertNull(e.getLeaseId());
+        });
+        ArgumentCaptor<List<EmailLog>> logs = ArgumentCaptor.forClass(List.class);
+        verify(emailLogService, times(1)).saveAll(logs.capture());
+        verify(emailLogService, never()).save(any());
+        assertEquals(2, logs.getValue().size());
+        assertEquals("msg-1", logs.getValue().get(0).getSendgridMessageId());
+        // Una vez al tomar el lote (IN_FLIGHT) y otra al registrar los resultados
+        verify(outboxRepository, times(2)).saveAll(batch);
+    }
+
+    @Test
+    void dispatch_claimsWithLeaseAndSendsOutsideTransaction() throws Exception {
+        EmailOutbox entry = entry(1L, "a@example.com");
+        when(outboxRepository.lockPendingBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(entry));
+        sendGrid.enqueue(202);
+
+        LocalDateTime before = LocalDateTime.now();
+        service.dispatchPendingBatch(10);
+
+        assertEquals(1, sendGrid.calls);
+        assertFalse(sendGrid.sentInTransaction);
+        assertEquals(EmailOutboxStatus.IN_FLIGHT, sendGrid.statusWhenSent);
+        assertFalse(sendGrid.leaseExpiryWhenSent.isBefore(before.plusSeconds(300)));
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void dispatch_leaseLostDuringSend_doesNotRecordResult() {
+        EmailOutbox entry = entry(1L, "a@example.com");
+        when(outboxRepository.lockPendingBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(entry));
+        when(outboxRepository.lockLeased(anyCollection(), anyString())).thenReturn(List.of());
+        sendGrid.enqueue(202);
+
+        assertEquals(1, service.dispatchPendingBatch(10));
+
+        // Otro dispatcher retomó el mensaje tras vencer el lease: su resultado es el que cuenta
+        verify(outboxRepository, times(1)).saveAll(any());
+        verify(emailLogService, never()).saveAll(any());
+    }
+
+    @Test
+    void dispatch_rateLimited_schedulesRetryWithBackoff() throws Exception {
+        EmailOutbox entry = entry(1L, "a@example.com");
+        entry.setAttempts(1);
+        when(outboxRepository.lockPendingBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(entry));
+        sendGrid.enqueue(429);
+
+        LocalDateTime before = LocalDateTime.now();
+        service.dispatchPendingBatch(10);
+
+        assertEquals(EmailOutboxStatus.PENDING, entry.getStatus());
+        assertEquals(2, entry.getAttempts());
+        // Segundo intento: 30s * 2^1
+        assertFalse(entry.getNextAttemptAt().isBefore(before.plusSeconds(60)));
+        assertTrue(entry.getLastError().startsWith("SendGrid 429"));
+        verify(emailLogService, never()).saveAll(any());
+    }
+
+    @Test
+    void dispatch_networkErrorOnLastAttempt_marksFailed() {
+        EmailOutbox entry = entry(1L, "a@example.com");
+        entry.setAttempts(2);
+        when(outboxRepository.lockPendingBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(entry));
+        sendGrid.failWithIo = true;
+
+        service.dispatchPendingBatch(10);
+
+        assertEquals(EmailOutboxStatus.FAILED, entry.getStatus());
+        assertEquals(3, entry.getAttempts());
+        ArgumentCaptor<List<EmailLog>> logs = ArgumentCaptor.forClass(List.class);
+        verify(emailLogService).saveAll(logs.capture());
+        assertEquals("failed", logs.getValue().get(0).getStatus());
+        assertEquals("a@example.com", logs.getValue().get(0).getEmail());
+    }
+
+    @Test
+    void dispatch_networkErrorBeforeLastAttempt_doesNotLogYet() {
+        EmailOutbox entry = entry(1L, "a@example.com");
+        when(outboxRepository.lockPendingBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(entry));
+        sendGrid.failWithIo = true;
+
+        service.dispatchPendingBatch(10);
+
+        assertEquals(EmailOutboxStatus.PENDING, entry.getStatus());
+        verify(emailLogService, never()).saveAll(any());
+    }
+
+    @Test
+    void dispatch_invalidPayload_marksFailedWithLog() {
+        EmailOutbox entry = entry(1L, "a@example.com");
+        entry.setPayload("{no es json");
+        when(outboxRepository.lockPendingBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(entry));
+
+        service.dispatchPendingBatch(10);
+
+        assertEquals(EmailOutboxStatus.FAILED, entry.getStatus());
+        assertEquals(0, sendGrid.calls);
+        ArgumentCaptor<List<EmailLog>> logs = ArgumentCaptor.forClass(List.class);
+        verify(emailLogService).saveAll(logs.capture());
+        assertEquals("failed", logs.getValue().get(0).getStatus());
+    }
+
+    @Test
+    void dispatch_badRequest_isNotRetried() throws Exception {
+        EmailOutbox entry = entry(1L, "a@example.com");
+        when(outboxRepository.lockPendingBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(entry));
+        sendGrid.enqueue(400);
+
+        service.dispatchPendingBatch(10);
+
+        assertEquals(EmailOutboxStatus.FAILED, entry.getStatus());
+        ArgumentCaptor<List<EmailLog>> logs = ArgumentCaptor.forClass(List.class);
+        verify(emailLogService).saveAll(logs.capture());
+        assertEquals("failed", logs.getValue().get(0).getStatus());
+    }
+
+    @Test
+    void dispatch_emptyBatch_doesNothing() {
+        when(outboxRepository.lockPendingBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, service.dispatchPendingBatch(10));
+        verify(outboxRepository, never()).saveAll(any());
+        assertEquals(0, sendGrid.calls);
+    }
+
+    private EmailOutbox entry(Long id, String to) {
+        try {
+            EmailOutbox entry = EmailOutbox.builder()
+                    .id(id)
+                    .recipient(to)
+                    .payload(objectMapper.writeValueAsString(email(to)))
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build();
+            sendGrid.outbox.add(entry);
+            leased.add(entry);
+            return entry;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static EmailDTO email(String to) {
+        return EmailDTO.builder()
+                .to(to)
+                .subject("¡Cupón redimido exitosamente!")
+                .templateId("d-template")
+                .dynamicData(Map.of("couponCode", "CUPON123"))
+                .entityType("COUPON_REDEMPTION")
+                .entityId(10L)
+                .build();
+    }
+
+    /**
+     * SendGrid local: no abre conexiones, responde los códigos programados en orden
+     * y registra el estado del mensaje al momento del envío.
+     */
+    private class StubSendGrid extends SendGrid {
+        private final List<EmailOutbox> outbox = new ArrayList<>();
+        private boolean sentInTransaction;
+        private EmailOutboxStatus statusWhenSent;
+        private LocalDateTime leaseExpiryWhenSent;
+        private final Deque<Integer> statusCodes = new ArrayDeque<>();
+        private final List<Request> requests = new ArrayList<>();
+        private boolean failWithIo;
+        private int calls;
+
+        StubSendGrid() {
+            super("stub-api-key");
+        }
+
+        void enqueue(Integer... codes) {
+            statusCodes.addAll(List.of(codes));
+        }
+
+        @Override
+        public Response api(Request request) throws IOException {
+            calls++;
+            requests.add(request);
+            sentInTransaction |= inTransaction;
+            EmailOutbox sending = outbox.get(calls - 1);
+            statusWhenSent = sending.getStatus();
+            leaseExpiryWhenSent = sending.getNextAttemptAt();
+            if (failWithIo) {
+                throw new IOException("connection reset");
+            }
+            int code = statusCodes.isEmpty() ? 202 : statusCodes.poll();
+            return new Response(code, code < 300 ? "" : "{\"errors\":[]}", Map.of("X-Message-Id", "msg-" + calls));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.lealtixservice.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lealtixservice.dto.EmailAttachmentDTO;
+import com.lealtixservice.dto.EmailDTO;
+import com.lealtixservice.dto.EmailDeliveryResult;
+import com.lealtixservice.entity.EmailLog;
+import com.lealtixservice.service.EmailLogService;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import com.sendgrid.SendGrid;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests del envío masivo de EmailServiceImpl con un SendGrid local (stub) que registra cada petición.
+ */
+class EmailServiceImplTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Mock
+    private EmailLogService emailLogService;
+
+    private StubSendGrid sendGrid;
+    private EmailServiceImpl emailService;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        sendGrid = new StubSendGrid();
+        emailService = new EmailServiceImpl();
+        ReflectionTestUtils.setField(emailService, "sendGrid", sendGrid);
+        ReflectionTestUtils.setField(emailService, "emailLogService", emailLogService);
+        ReflectionTestUtils.setField(emailService, "emailFrom", "contacto@lealtix.com.mx");
+        ReflectionTestUtils.setField(emailService, "bulkConcurrency", 2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        emailService.shutdownBulkExecutor();
+        closeable.close();
+    }
+
+    @Test
+    void sendBulk_groupsByTemplateUpTo1000PersonalizationsAndLogsPerRecipient() {
+        List<EmailDTO> emails = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            emails.add(email("d-promo", i));
+        }
+        for (int i = 0; i < 10; i++) {
+            emails.add(email("d-aviso", 5000 + i));
+        }
+        emails.add(email("d-promo", 9000).toBuilder()
+                .attachments(List.of(EmailAttachmentDTO.builder().content("cXI=").filename("qr.png").build()))
+                .build());
+
+        List<EmailDeliveryResult> results = emailService.sendBulkWithTemplate(emails);
+
+        // d-promo: 1000 + 1000 + 500, d-aviso: 10, el de adjunto va solo
+        assertEquals(List.of(1, 10, 500, 1000, 1000), sendGrid.personalizationCounts().stream().sorted().toList());
+        assertEquals(emails.size(), results.size());
+        assertTrue(results.stream().allMatch(EmailDeliveryResult::isSuccess));
+        for (int i = 0; i < emails.size(); i++) {
+            assertEquals(emails.get(i).getTo(), results.get(i).getEmailLog().getEmail());
+        }
+        assertEquals(results.get(0).getEmailLog().getSendgridMessageId(),
+                results.get(999).getEmailLog().getSendgridMessageId());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EmailLog>> logs = ArgumentCaptor.forClass(List.class);
+        verify(emailLogService, times(5)).saveAllAsync(logs.capture());
+        assertEquals(emails.size(), logs.getAllValues().stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void sendBulk_badRequestNamingRecipients_failsThemAndResendsTheRest() {
+        sendGrid.responder = body -> body.path("personalizations").size() == 3
+                ? new Response(400, "{\"errors\":[{\"message\":\"Does not contain a valid address.\","
+                        + "\"field\":\"personalizations.1.to.0.email\"}]}", Map.of())
+                : new Response(202, "", Map.of("X-Message-Id", "msg-ok"));
+
+        List<EmailDeliveryResult> results = emailService.sendBulkWithTemplate(
+                List.of(email("d-promo", 1), email("d-promo", 2), email("d-promo", 3)));
+
+        assertEquals(List.of(3, 2), sendGrid.personalizationCounts());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertFalse(results.get(1).isRetryable());
+        assertEquals("failed", results.get(1).getEmailLog().getStatus());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals("msg-ok", results.get(2).getEmailLog().getSendgridMessageId());
+    }
+
+    @Test
+    void deliverBulk_networkError_isRetryableAndNotPersisted() {
+        sendGrid.failWithIo = true;
+
+        List<EmailDeliveryResult> results = emailService.deliverBulkWithTemplate(
+                List.of(email("d-promo", 1), email("d-promo", 2)));
+
+        assertTrue(results.stream().allMatch(EmailDeliveryResult::isRetryable));
+        verify(emailLogService, never()).saveAllAsync(anyList());
+    }
+
+    private static EmailDTO email(String templateId, int n) {
+        return EmailDTO.builder()
+                .to("cliente" + n + "@example.com")
+                .subject("Promoción")
+                .templateId(templateId)
+                .dynamicData(Map.of("customerName", "Cliente " + n))
+                .entityType("CAMPAIGN")
+                .entityId((long) n)
+                .build();
+    }
+
+    private static class StubSendGrid extends SendGrid {
+        private final List<Integer> personalizationCounts = new ArrayList<>();
+        private Function<JsonNode, Response> responder =
+                body -> new Response(202, "", Map.of("X-Message-Id", "msg-" + body.path("personalizations").size()));
+        private boolean failWithIo;
+
+        StubSendGrid() {
+            super("stub-api-key");
+        }
+
+        synchronized List<Integer> personalizationCounts() {
+            return List.copyOf(personalizationCounts);
+        }
+
+        @Override
+        public synchronized Response api(Request request) throws IOException {
+            if (failWithIo) {
+                throw new IOException("connection reset");
+            }
+            JsonNode body = MAPPER.readTree(request.getBody());
+            personalizationCounts.add(body.path("personalizations").size());
+            return responder.apply(body);
+        }
+    }
+}
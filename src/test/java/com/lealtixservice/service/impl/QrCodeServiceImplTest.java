@@ -1,11 +1,24 @@
 package com.lealtixservice.service.impl;
 
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.lealtixservice.cache.QrImageCache;
+import com.lealtixservice.dto.QrImageCacheStats;
+import com.lealtixservice.qr.QrImageFormat;
 import com.lealtixservice.service.QrCodeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -125,5 +138,75 @@ class QrCodeServiceImplTest {
         // Then
         assertEquals(qr1, qr2, "El mismo contenido debe generar el mismo QR");
     }
-}
 
+    @Test
+    void testGenerateQrCode_FastPngMatchesLegacyRenderingPixelByPixel() throws Exception {
+        String testUrl = "https://example.com/redeem?code=PIXELS";
+        int[][] sizes = {{300, 300}, {250, 250}, {400, 300}, {10, 10}};
+
+        for (int[] size : sizes) {
+            byte[] png = qrCodeService.generateQrCode(testUrl, size[0], size[1]);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            BitMatrix legacy = new QRCodeWriter().encode(testUrl, BarcodeFormat.QR_CODE, size[0], size[1], Map.of(
+                    EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H,
+                    EncodeHintType.CHARACTER_SET, "UTF-8",
+                    EncodeHintType.MARGIN, 1));
+
+            assertEquals(legacy.getWidth(), image.getWidth());
+            assertEquals(legacy.getHeight(), image.getHeight());
+            for (int y = 0; y < legacy.getHeight(); y++) {
+                for (int x = 0; x < legacy.getWidth(); x++) {
+                    boolean black = (image.getRGB(x, y) & 0xFFFFFF) == 0;
+                    assertEquals(legacy.get(x, y), black, "Píxel distinto en " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testGenerateQrCode_SecondCallIsServedFromCache() throws IOException {
+        QrImageCache cache = new QrImageCache(1024 * 1024);
+        QrCodeService service = new QrCodeServiceImpl(cache);
+        String testUrl = "https://example.com/redeem?code=CACHED";
+
+        byte[] first = service.generateQrCode(testUrl);
+        byte[] second = service.generateQrCode(testUrl);
+        service.generateQrCode(testUrl, 300, 300, ErrorCorrectionLevel.M, QrImageFormat.PNG);
+
+        assertSame(first, second);
+        QrImageCacheStats stats = service.cacheStats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.size());
+    }
+
+    @Test
+    void testQrImageCache_EvictsLeastRecentlyUsedWhenOverBudget() throws IOException {
+        QrImageCache cache = new QrImageCache(4_000);
+        QrCodeService service = new QrCodeServiceImpl(cache);
+
+        for (int i = 0; i < 10; i++) {
+            service.generateQrCode("https://example.com/redeem?code=EVICT" + i);
+        }
+
+        QrImageCacheStats stats = service.cacheStats();
+        assertTrue(stats.usedBytes() <= 4_000);
+        assertTrue(stats.evictions() > 0);
+    }
+
+    @Test
+    void testGenerateQrSvg_ReturnsScalableSvg() throws IOException {
+        String svg = new String(qrCodeService.generateQrSvg("https://example.com/redeem?code=SVG", 200),
+                StandardCharsets.UTF_8);
+
+        assertTrue(svg.startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"200\" height=\"200\""));
+        assertTrue(svg.contains("viewBox=\"0 0 "));
+        assertTrue(svg.contains("<path fill=\"#000\" d=\"M1 1h7v1h-7z"), "Debe iniciar con el patrón de posición");
+        assertTrue(svg.endsWith("</svg>"));
+    }
+
+    @Test
+    void testGenerateQrCode_EmptyContentIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> qrCodeService.generateQrCode(""));
+    }
+}
@@ -0,0 +1,210 @@
+package com.lealtixservice.service.impl;
+
+import com.lealtixservice.dto.SendGridEvent;
+import com.lealtixservice.dto.SendGridEventStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la ingesta del webhook de SendGrid con un JdbcTemplate que registra cada sentencia.
+ */
+class SendGridEventServiceImplTest {
+
+    private static final long T0 = 1_760_000_000L;
+
+    private final StubJdbcTemplate jdbcTemplate = new StubJdbcTemplate();
+    private final SendGridEventServiceImpl service = new SendGridEventServiceImpl(jdbcTemplate, 10, 50, 10_000);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void apply_aggregatesEventsPerMessageIntoOneSetBasedStatement() {
+        List<SendGridEvent> events = List.of(
+                event("ana@example.com", "processed", T0, "msg-1.filter001.1"),
+                event("ana@example.com", "delivered", T0 + 5, "msg-1.filter001.1"),
+                event("ana@example.com", "open", T0 + 60, "msg-1.filter001.1"),
+                event("ana@example.com", "open", T0 + 90, "msg-1.filter001.1"),
+                event("BETO@example.com", "delivered", T0 + 6, "msg-1.filter001.2"),
+                event("BETO@example.com", "click", T0 + 120, "msg-1.filter001.2"),
+                bounce("carla@example.com", T0 + 3, "msg-2.filter002.1", "550 mailbox unavailable"),
+                event("dani@example.com", "delivered", T0, null));
+
+        int matched = service.apply(events);
+
+        assertEquals(3, matched);
+        assertEquals(1, jdbcTemplate.statements.size());
+        assertTrue(jdbcTemplate.statements.get(0).startsWith(SendGridEventServiceImpl.APPLY_SQL_PREFIX));
+        List<Object[]> rows = jdbcTemplate.rows(0);
+        assertEquals(3, rows.size());
+
+        Object[] ana = rows.get(0);
+        assertEquals("msg-1", ana[0]);
+        assertEquals("ana@example.com", ana[1]);
+        assertEquals(at(T0 + 5), ana[2]);
+        assertEquals(at(T0 + 60), ana[3]);
+        assertNull(ana[4]);
+        assertEquals(at(T0 + 90), ana[5]);
+        assertEquals("opened", ana[6]);
+
+        Object[] beto = rows.get(1);
+        assertEquals("beto@example.com", beto[1]);
+        assertEquals(at(T0 + 120), beto[3]); // el clic cuenta como apertura
+        assertEquals(at(T0 + 120), beto[4]);
+        assertEquals("clicked", beto[6]);
+
+        Object[] carla = rows.get(2);
+        assertEquals("msg-2", carla[0]);
+        assertEquals("bounced", carla[6]);
+        assertEquals("550 mailbox unavailable", carla[8]);
+
+        SendGridEventStats stats = service.getStats();
+        assertEquals(1, stats.eventsIgnored());
+        assertEquals(3, stats.rowsUpdated());
+        assertEquals(0, stats.rowsUnmatched());
+    }
+
+    @Test
+    void apply_bounceAfterOpenKeepsHigherPrecedenceStatus() {
+        service.apply(List.of(
+                event("ana@example.com", "open", T0 + 10, "msg-1.f.1"),
+                bounce("ana@example.com", T0 + 20, "msg-1.f.1", "blocked"),
+                event("ana@example.com", "delivered", T0 + 30, "msg-1.f.1")));
+
+        Object[] row = jdbcTemplate.rows(0).get(0);
+        assertEquals("bounced", row[6]);
+        assertEquals(5, row[7]);
+    }
+
+    @Test
+    void apply_splitsLargeBatchesAndRetriesUnmatchedMessagesOnce() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            jdbcTemplate.missing.add("msg-" + i);
+            jdbcTemplate.missing.add("msg-" + (1000 + i));
+        }
+        List<SendGridEvent> events = new ArrayList<>();
+        for (int i = 0; i < SendGridEventServiceImpl.MAX_MESSAGES_PER_STATEMENT + 500; i++) {
+            events.add(event("cliente" + i + "@example.com", "delivered", T0, "msg-" + i + ".f.1"));
+        }
+
+        int matched = service.apply(events);
+
+        assertEquals(List.of(1000, 500), jdbcTemplate.statementRows.subList(0, 2));
+        assertEquals(1300, matched);
+        assertEquals(200, service.getStats().parkedMessages());
+        assertEquals(0, service.getStats().rowsUnmatched());
+
+        // Las filas msg-0..msg-99 de email_log aparecen antes del reintento; msg-1000..msg-1099 nunca
+        for (int i = 0; i < 100; i++) {
+            jdbcTemplate.missing.remove("msg-" + i);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.getStats().rowsUnmatched() == 0) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+
+        SendGridEventStats stats = service.getStats();
+        assertEquals(List.of(1000, 500, 200), jdbcTemplate.statementRows);
+        assertEquals(1400, stats.rowsUpdated());
+        assertEquals(100, stats.rowsUnmatched());
+        assertEquals(0, stats.parkedMessages());
+    }
+
+    @Test
+    void accept_appliesInBackground() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        jdbcTemplate.blockUntil = release;
+
+        long start = System.nanoTime();
+        service.accept(List.of(event("ana@example.com", "open", T0, "msg-1.f.1")));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertEquals(0, service.getStats().rowsUpdated());
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.getStats().rowsUpdated() == 0) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+        assertEquals(1, service.getStats().batchesReceived());
+    }
+
+    private static SendGridEvent event(String email, String type, long timestamp, String sgMessageId) {
+        return new SendGridEvent(email, type, timestamp, sgMessageId, "evt-" + timestamp, null, null);
+    }
+
+    private static SendGridEvent bounce(String email, long timestamp, String sgMessageId, String reason) {
+        return new SendGridEvent(email, "bounce", timestamp, sgMessageId, "evt-" + timestamp, reason, "bounce");
+    }
+
+    private static Timestamp at(long epochSecond) {
+        return Timestamp.valueOf(LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault()));
+    }
+
+    private static class StubJdbcTemplate extends JdbcTemplate {
+        private final List<String> statements = new ArrayList<>();
+        private final List<Object[]> arguments = new ArrayList<>();
+        private final List<Integer> statementRows = new ArrayList<>();
+        private final Set<String> missing = ConcurrentHashMap.newKeySet();
+        private volatile CountDownLatch blockUntil;
+
+        List<Object[]> rows(int statement) {
+            return rows(arguments.get(statement));
+        }
+
+        private static List<Object[]> rows(Object[] args) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < args.length; i += SendGridEventServiceImpl.COLUMNS) {
+                rows.add(Arrays.copyOfRange(args, i, i + SendGridEventServiceImpl.COLUMNS));
+            }
+            return rows;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T query(String sql, ResultSetExtractor<T> extractor, Object... args) {
+            CountDownLatch block = blockUntil;
+            if (block != null) {
+                try {
+                    block.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            int rows = args.length / SendGridEventServiceImpl.COLUMNS;
+            synchronized (this) {
+                statements.add(sql);
+                arguments.add(args);
+                statementRows.add(rows);
+            }
+            // Mensajes sin fila: los de missing
+            Set<String> unmatched = new HashSet<>();
+            for (Object[] row : rows(args)) {
+                if (missing.contains((String) row[0])) {
+                    unmatched.add(SendGridEventServiceImpl.MessageUpdate.key((String) row[0], (String) row[1]));
+                }
+            }
+            return (T) new SendGridEventServiceImpl.ChunkResult(rows - unmatched.size(), 1, unmatched);
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.lealtixservice.service.impl;
 
+import com.lealtixservice.entity.Tenant;
 import com.lealtixservice.entity.TenantCustomer;
+import com.lealtixservice.event.CustomerRegisteredEvent;
 import com.lealtixservice.repository.TenantCustomerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +24,9 @@ class TenantCustomerServiceImplTest {
     @Mock
     private TenantCustomerRepository repository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TenantCustomerServiceImpl service;
 
@@ -33,6 +40,44 @@ class TenantCustomerServiceImplTest {
         TenantCustomer customer = new TenantCustomer();
         when(repository.save(customer)).thenReturn(customer);
         assertEquals(customer, service.save(customer));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void save_newCustomerPublishesCustomerRegistered() {
+        Tenant tenant = new Tenant();
+        tenant.setId(10L);
+        TenantCustomer customer = new TenantCustomer();
+        customer.setTenant(tenant);
+        customer.setEmail("ana@example.com");
+        when(repository.existsByEmailAndTenantId("ana@example.com", 10L)).thenReturn(false);
+        when(repository.save(customer)).thenAnswer(inv -> {
+            customer.setId(5L);
+            return customer;
+        });
+
+        LocalDateTime before = LocalDateTime.now();
+        service.save(customer);
+
+        verify(eventPublisher).publishEvent(new CustomerRegisteredEvent(5L, 10L));
+        // Bienvenida pendiente desde la transacción del alta, con el lease por defecto
+        assertNotNull(customer.getWelcomePendingAt());
+        assertFalse(customer.getWelcomePendingAt().isBefore(before.plusSeconds(300)));
+    }
+
+    @Test
+    void save_existingCustomerDoesNotPublish() {
+        Tenant tenant = new Tenant();
+        tenant.setId(10L);
+        TenantCustomer customer = new TenantCustomer();
+        customer.setId(5L);
+        customer.setTenant(tenant);
+        when(repository.save(customer)).thenReturn(customer);
+
+        service.save(customer);
+
+        verifyNoInteractions(eventPublisher);
+        assertNull(customer.getWelcomePendingAt());
     }
 
     @Test
@@ -0,0 +1,123 @@
+package com.lealtixservice.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CouponCodeAllocatorTest {
+
+    private static final String SECRET = "f".repeat(64);
+    private static final Pattern CODE_FORMAT = Pattern.compile("[0-9A-F]{12}");
+
+    private CouponCodeAllocator allocator;
+
+    @AfterEach
+    void tearDown() {
+        if (allocator != null) {
+            allocator.stop();
+        }
+    }
+
+    @Test
+    void cipher_isBijectiveAndKeepsCodeFormat() {
+        CouponCodeCipher cipher = new CouponCodeCipher(SECRET.getBytes(StandardCharsets.UTF_8));
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+
+        for (long counter = 0; counter < 50_000; counter++) {
+            String code = cipher.codeFor(counter);
+            assertTrue(CODE_FORMAT.matcher(code).matches(), code);
+            assertTrue(codes.add(code), "Código repetido para el contador " + counter);
+            assertEquals(counter, cipher.decrypt(cipher.encrypt(counter)));
+        }
+        assertEquals(CouponCodeCipher.MAX_VALUE, cipher.decrypt(cipher.encrypt(CouponCodeCipher.MAX_VALUE)));
+    }
+
+    @Test
+    void cipher_consecutiveCountersAreNotPredictable() {
+        CouponCodeCipher cipher = new CouponCodeCipher(SECRET.getBytes(StandardCharsets.UTF_8));
+        CouponCodeCipher otherKey = new CouponCodeCipher("e".repeat(64).getBytes(StandardCharsets.UTF_8));
+
+        long first = cipher.encrypt(1000);
+        long second = cipher.encrypt(1001);
+
+        assertTrue(Math.abs(second - first) > 1_000_000, "Contadores consecutivos no deben dar códigos cercanos");
+        assertNotEquals(cipher.codeFor(1000), otherKey.codeFor(1000));
+        assertThrows(IllegalArgumentException.class, () -> new CouponCodeCipher(new byte[8]));
+    }
+
+    @Test
+    void nextCode_isUniqueAcrossBlocksAndThreads() throws Exception {
+        JdbcTemplate jdbcTemplate = sequenceBackedJdbcTemplate();
+        allocator = new CouponCodeAllocator(jdbcTemplate, true);
+        allocator.start();
+        assertTrue(allocator.isReady());
+
+        int threads = 8;
+        int perThread = 1_500;
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    String code = allocator.nextCode();
+                    assertTrue(CODE_FORMAT.matcher(code).matches(), code);
+                    assertTrue(codes.add(code), "Código repetido: " + code);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(threads * perThread, codes.size());
+        // Una consulta por bloque, nunca una por código
+        verify(jdbcTemplate, atMost(threads * perThread / CouponCodeAllocator.BLOCK_SIZE + 3))
+                .queryForObject(CouponCodeAllocator.NEXT_BLOCK_SQL, Long.class);
+    }
+
+    @Test
+    void nextCode_fallsBackToRandomCodesWhenDisabledOrNotMigrated() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        allocator = new CouponCodeAllocator(jdbcTemplate, false);
+        allocator.start();
+
+        assertFalse(allocator.isReady());
+        assertTrue(CODE_FORMAT.matcher(allocator.nextCode()).matches());
+        verifyNoInteractions(jdbcTemplate);
+
+        when(jdbcTemplate.queryForObject(CouponCodeAllocator.SECRET_SQL, String.class))
+                .thenThrow(new IllegalStateException("relation \"coupon_code_allocator\" does not exist"));
+        CouponCodeAllocator notMigrated = new CouponCodeAllocator(jdbcTemplate, true);
+        notMigrated.start();
+
+        assertFalse(notMigrated.isReady());
+        assertTrue(CODE_FORMAT.matcher(notMigrated.nextCode()).matches());
+        notMigrated.stop();
+    }
+
+    private JdbcTemplate sequenceBackedJdbcTemplate() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        AtomicLong sequence = new AtomicLong(1 - CouponCodeAllocator.BLOCK_SIZE);
+        when(jdbcTemplate.queryForObject(CouponCodeAllocator.SECRET_SQL, String.class)).thenReturn(SECRET);
+        when(jdbcTemplate.queryForObject(CouponCodeAllocator.NEXT_BLOCK_SQL, Long.class))
+                .thenAnswer(inv -> sequence.addAndGet(CouponCodeAllocator.BLOCK_SIZE));
+        return jdbcTemplate;
+    }
+}
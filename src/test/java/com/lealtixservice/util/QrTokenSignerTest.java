@@ -0,0 +1,84 @@
+package com.lealtixservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrTokenSignerTest {
+
+    private static final String KEY_1 = "1:" + "a".repeat(32);
+    private static final String KEY_2 = "2:" + "b".repeat(32);
+
+    @Test
+    void signAndVerify_roundTrip() {
+        QrTokenSigner signer = new QrTokenSigner(true, 1, KEY_1);
+        LocalDateTime expiresAt = LocalDateTime.of(2026, 12, 31, 23, 59, 59);
+
+        String token = signer.sign(123456789L, 42L, expiresAt);
+
+        assertEquals(QrTokenSigner.TOKEN_LENGTH, token.length());
+        assertTrue(token.length() <= 64, "Debe caber en la columna qr_token");
+        assertTrue(QrTokenSigner.isSignedFormat(token));
+        QrTokenSigner.SignedQrToken verified = signer.verify(token).orElseThrow();
+        assertEquals(123456789L, verified.couponId());
+        assertEquals(42L, verified.tenantId());
+        assertEquals(expiresAt, verified.expiresAt());
+        assertFalse(verified.isExpired(expiresAt.minusSeconds(1)));
+        assertTrue(verified.isExpired(expiresAt));
+    }
+
+    @Test
+    void withoutExpiry_neverExpires() {
+        QrTokenSigner signer = new QrTokenSigner(true, 1, KEY_1);
+
+        QrTokenSigner.SignedQrToken verified = signer.verify(signer.sign(1L, 2L, null)).orElseThrow();
+
+        assertNull(verified.expiresAt());
+        assertFalse(verified.isExpired(LocalDateTime.of(2100, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void tamperedOrForeignKeyTokens_areRejected() {
+        QrTokenSigner signer = new QrTokenSigner(true, 1, KEY_1);
+        QrTokenSigner otherKey = new QrTokenSigner(true, 1, "1:" + "z".repeat(32));
+        String token = signer.sign(10L, 1L, null);
+
+        for (int i = 1; i < token.length() - 1; i++) {
+            char replacement = token.charAt(i) == 'A' ? 'B' : 'A';
+            String tampered = token.substring(0, i) + replacement + token.substring(i + 1);
+            assertEquals(Optional.empty(), signer.verify(tampered), "Token alterado aceptado en posición " + i);
+        }
+        assertTrue(otherKey.verify(token).isEmpty());
+    }
+
+    @Test
+    void legacyTokens_areNotSignedFormat() {
+        QrTokenSigner signer = new QrTokenSigner(false, 1, KEY_1);
+        String legacy = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+        assertFalse(QrTokenSigner.isSignedFormat(legacy));
+        assertTrue(signer.verify(legacy).isEmpty());
+        assertFalse(signer.isIssuingSigned());
+    }
+
+    @Test
+    void keyRotation_verifiesTokensSignedWithPreviousKey() {
+        QrTokenSigner before = new QrTokenSigner(true, 1, KEY_1);
+        QrTokenSigner after = new QrTokenSigner(true, 2, KEY_1 + "," + KEY_2);
+        String oldToken = before.sign(7L, 3L, null);
+
+        assertTrue(after.verify(oldToken).isPresent());
+        assertTrue(after.verify(after.sign(8L, 3L, null)).isPresent());
+        assertTrue(before.verify(after.sign(8L, 3L, null)).isEmpty());
+    }
+
+    @Test
+    void misconfiguration_failsFast() {
+        assertThrows(IllegalStateException.class, () -> new QrTokenSigner(true, 1, ""));
+        assertThrows(IllegalStateException.class, () -> new QrTokenSigner(false, 1, "1:corta"));
+        assertThrows(IllegalStateException.class, () -> new QrTokenSigner(false, 1, "sin-separador"));
+    }
+}
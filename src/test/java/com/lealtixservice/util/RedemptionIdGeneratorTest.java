@@ -0,0 +1,141 @@
+package com.lealtixservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedemptionIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 250_000;
+
+    @Test
+    void concurrentGeneration_producesNoDuplicates() throws Exception {
+        RedemptionIdGenerator generator = new RedemptionIdGenerator(3);
+        Set<Long> ids = ConcurrentHashMap.newKeySet(THREADS * IDS_PER_THREAD);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    long previous = -1;
+                    boolean monotonic = true;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        long id = generator.nextValue();
+                        monotonic &= id > previous;
+                        previous = id;
+                        ids.add(id);
+                    }
+                    return monotonic;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(60, TimeUnit.SECONDS), "Los IDs de un hilo deben ser crecientes");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+    }
+
+    @Test
+    void encodedIds_keepNumericOrderAndAlphabet() {
+        RedemptionIdGenerator generator = new RedemptionIdGenerator(1);
+        String previous = "";
+        for (int i = 0; i < 50_000; i++) {
+            String id = generator.nextId();
+            assertEquals(RedemptionIdGenerator.ID_LENGTH, id.length());
+            assertTrue(id.chars().allMatch(c -> RedemptionIdGenerator.ALPHABET.indexOf(c) >= 0), id);
+            assertTrue(id.compareTo(previous) > 0, "IDs fuera de orden: " + previous + " -> " + id);
+            previous = id;
+        }
+    }
+
+    @Test
+    void sequenceOverflow_borrowsNextSecond() {
+        long now = Instant.parse("2026-03-01T12:00:00Z").toEpochMilli();
+        RedemptionIdGenerator generator = new RedemptionIdGenerator(0, () -> now);
+
+        String first = generator.nextId();
+        String last = null;
+        for (long i = 0; i <= RedemptionIdGenerator.MAX_SEQUENCE; i++) {
+            last = generator.nextId();
+        }
+
+        // Un generador nuevo arranca en el segundo siguiente al actual
+        assertEquals(Instant.ofEpochMilli(now).plusSeconds(1), RedemptionIdGenerator.timestampOf(first));
+        assertEquals(Instant.ofEpochMilli(now).plusSeconds(2), RedemptionIdGenerator.timestampOf(last));
+        assertTrue(last.compareTo(first) > 0);
+    }
+
+    @Test
+    void restart_neverReissuesIdsOfThePreviousProcess() {
+        long now = Instant.parse("2026-03-01T12:00:00Z").toEpochMilli();
+        RedemptionIdGenerator previous = new RedemptionIdGenerator(0, () -> now);
+        Set<String> ids = new HashSet<>();
+        // Ráfaga que toma prestados varios segundos por delante del reloj
+        for (long i = 0; i < 3 * (RedemptionIdGenerator.MAX_SEQUENCE + 1); i++) {
+            ids.add(previous.nextId());
+        }
+
+        RedemptionIdGenerator sameSecond = new RedemptionIdGenerator(0, () -> now);
+        RedemptionIdGenerator resumed = new RedemptionIdGenerator(0, () -> now, previous.lastIssuedSecond());
+
+        assertTrue(ids.contains(sameSecond.nextId()), "Sin el último segundo emitido el reinicio puede repetir IDs");
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(ids.add(resumed.nextId()));
+        }
+    }
+
+    @Test
+    void clockGoingBackwards_staysMonotonic() {
+        AtomicLong clock = new AtomicLong(Instant.parse("2026-03-01T12:00:10Z").toEpochMilli());
+        RedemptionIdGenerator generator = new RedemptionIdGenerator(0, clock::get);
+
+        String before = generator.nextId();
+        clock.addAndGet(-5_000);
+        String after = generator.nextId();
+
+        assertTrue(after.compareTo(before) > 0);
+    }
+
+    @Test
+    void differentNodes_neverCollideInSameSecond() {
+        long now = Instant.parse("2026-03-01T12:00:00Z").toEpochMilli();
+        RedemptionIdGenerator nodeA = new RedemptionIdGenerator(1, () -> now);
+        RedemptionIdGenerator nodeB = new RedemptionIdGenerator(2, () -> now);
+
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(nodeA.nextId());
+            ids.add(nodeB.nextId());
+        }
+
+        assertEquals(20_000, ids.size());
+    }
+
+    @Test
+    void encodeDecode_roundTrip() {
+        long max = (1L << 49) - 1;
+        assertEquals(max, RedemptionIdGenerator.decode(RedemptionIdGenerator.encode(max)));
+        assertEquals("0000000000", RedemptionIdGenerator.encode(0));
+        assertThrows(IllegalArgumentException.class, () -> new RedemptionIdGenerator(16));
+    }
+}